@@ -2,19 +2,27 @@ package com.ospreydcs.dp.gui;
 
 import com.ospreydcs.dp.client.IngestionClient;
 import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventResponse;
+import com.ospreydcs.dp.gui.chart.TimeSeriesCanvasChart;
+import com.ospreydcs.dp.gui.event.DataEventTriggerFile;
+import com.ospreydcs.dp.gui.event.EventWindowCapture;
+import com.ospreydcs.dp.gui.event.MergedEventTimeline;
 import com.ospreydcs.dp.gui.model.DataEventSubscription;
+import javafx.beans.property.ReadOnlyStringProperty;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.net.URL;
+import java.util.List;
 import java.util.ResourceBundle;
 
 public class DataEventExploreController implements Initializable {
@@ -29,12 +37,37 @@ public class DataEventExploreController implements Initializable {
     @FXML private ComboBox<DpApplication.TriggerCondition> triggerConditionCombo;
     @FXML private TextField triggerValueField;
     @FXML private ComboBox<IngestionClient.IngestionDataType> pvDataTypeCombo;
+    @FXML private CheckBox captureEnabledCheckBox;
+    @FXML private TextField captureWindowField;
+    @FXML private TextField capturePvNamesField;
+    @FXML private CheckBox triageEnabledCheckBox;
     @FXML private Button addButton;
+    @FXML private Button importButton;
 
     // Data Events section (bottom right)
     @FXML private TableView<SubscribeDataEventResponse.Event> eventsTable;
     @FXML private TableColumn<SubscribeDataEventResponse.Event, String> eventTimeColumn;
     @FXML private TableColumn<SubscribeDataEventResponse.Event, String> triggerValueColumn;
+    @FXML private Label eventRateLabel;
+    @FXML private Label subscriptionHealthLabel;
+    @FXML private Label eventLatencyLabel;
+    @FXML private Label eventTriageLabel;
+    @FXML private Label eventPageLabel;
+    @FXML private Button olderEventsButton;
+    @FXML private Button newerEventsButton;
+    @FXML private Button latestEventsButton;
+    @FXML private Label eventWindowLabel;
+    @FXML private TimeSeriesCanvasChart eventWindowChart;
+
+    // Event Timeline section (bottom right)
+    @FXML private TableView<MergedEventTimeline.Row> timelineTable;
+    @FXML private TableColumn<MergedEventTimeline.Row, String> timelineTimeColumn;
+    @FXML private TableColumn<MergedEventTimeline.Row, String> timelinePvColumn;
+    @FXML private TableColumn<MergedEventTimeline.Row, String> timelineConditionColumn;
+    @FXML private TableColumn<MergedEventTimeline.Row, String> timelineValueColumn;
+    @FXML private ComboBox<String> timelinePvFilterCombo;
+    @FXML private ComboBox<String> timelineConditionFilterCombo;
+    @FXML private Label timelineLabel;
 
     // Dependencies
     private DataEventExploreViewModel viewModel;
@@ -73,15 +106,48 @@ public class DataEventExploreController implements Initializable {
         triggerConditionCombo.valueProperty().bindBidirectional(viewModel.triggerConditionProperty());
         triggerValueField.textProperty().bindBidirectional(viewModel.triggerValueProperty());
         pvDataTypeCombo.valueProperty().bindBidirectional(viewModel.pvDataTypeProperty());
+        captureEnabledCheckBox.selectedProperty().bindBidirectional(viewModel.captureEnabledProperty());
+        captureWindowField.textProperty().bindBidirectional(viewModel.captureWindowSecondsProperty());
+        capturePvNamesField.textProperty().bindBidirectional(viewModel.capturePvNamesProperty());
+        captureWindowField.disableProperty().bind(viewModel.captureEnabledProperty().not());
+        capturePvNamesField.disableProperty().bind(viewModel.captureEnabledProperty().not());
+        triageEnabledCheckBox.selectedProperty().bindBidirectional(viewModel.triageEnabledProperty());
+        triageEnabledCheckBox.disableProperty().bind(viewModel.captureEnabledProperty().not());
         
         // Data Events table binding
-        eventsTable.setItems(viewModel.getEvents());
+        eventsTable.itemsProperty().bind(viewModel.selectedEventsProperty());
+        eventRateLabel.textProperty().bind(viewModel.eventRateTextProperty());
+        subscriptionHealthLabel.textProperty().bind(viewModel.subscriptionHealthTextProperty());
+        eventLatencyLabel.textProperty().bind(viewModel.eventLatencyTextProperty());
+        eventTriageLabel.textProperty().bind(viewModel.eventTriageTextProperty());
+        eventPageLabel.textProperty().bind(viewModel.eventPageTextProperty());
+        olderEventsButton.disableProperty().bind(
+            viewModel.olderEventsAvailableProperty().not().or(viewModel.isLoadingPageProperty()));
+        newerEventsButton.disableProperty().bind(
+            viewModel.showingLatestEventsProperty().or(viewModel.isLoadingPageProperty()));
+        latestEventsButton.disableProperty().bind(viewModel.showingLatestEventsProperty());
+        
+        // Captured event window chart
+        eventWindowLabel.textProperty().bind(viewModel.eventWindowTextProperty());
+        eventWindowChart.setTitle("Captured Event Data");
+        eventWindowChart.setAxisLabels("Time (seconds from window start)", "Value");
+        viewModel.selectedEventWindowProperty().addListener((obs, oldWindow, newWindow) -> showEventWindow(newWindow));
+        
+        // Event timeline of all subscriptions, shown directly so the table only creates the visible rows
+        timelineTable.setItems(viewModel.getEventTimeline());
+        timelinePvFilterCombo.setItems(viewModel.getTimelinePvNames());
+        timelineConditionFilterCombo.setItems(viewModel.getTimelineConditions());
+        timelinePvFilterCombo.setValue(DataEventExploreViewModel.TIMELINE_FILTER_ALL);
+        timelineConditionFilterCombo.setValue(DataEventExploreViewModel.TIMELINE_FILTER_ALL);
+        timelineLabel.textProperty().bind(viewModel.timelineTextProperty());
         
         // Set up table columns
         setupEventsTableColumns();
+        setupTimelineTableColumns();
         
         // Button state bindings
         addButton.disableProperty().bind(viewModel.isAddingProperty().or(viewModel.isFormValidProperty().not()));
+        importButton.disableProperty().bind(viewModel.isAddingProperty());
     }
 
     private void setupEventHandlers() {
@@ -89,11 +155,27 @@ public class DataEventExploreController implements Initializable {
         subscriptionsList.getSelectionModel().selectedItemProperty().addListener(
             (obs, oldSelection, newSelection) -> {
                 if (newSelection != null) {
-                    viewModel.loadEventsForSubscription(newSelection);
+                    viewModel.selectSubscription(newSelection);
                 }
             }
         );
         
+        // Show the captured data for the selected event
+        eventsTable.getSelectionModel().selectedItemProperty().addListener(
+            (obs, oldSelection, newSelection) -> viewModel.selectEvent(newSelection)
+        );
+        
+        // Filter the event timeline by PV and condition
+        timelinePvFilterCombo.valueProperty().addListener((obs, oldValue, newValue) -> applyTimelineFilter());
+        timelineConditionFilterCombo.valueProperty().addListener((obs, oldValue, newValue) -> applyTimelineFilter());
+        
+        // Stop receiving pushed events once the view has been replaced
+        subscriptionsList.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                viewModel.dispose();
+            }
+        });
+        
         // Set up status listener for MainController communication
         setupStatusListener();
     }
@@ -174,10 +256,52 @@ public class DataEventExploreController implements Initializable {
         });
     }
 
+    private void setupTimelineTableColumns() {
+        final java.time.format.DateTimeFormatter formatter =
+            java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(java.time.ZoneId.systemDefault());
+        timelineTimeColumn.setCellValueFactory(cellData -> {
+            long eventNanos = cellData.getValue().getEventNanos();
+            java.time.Instant instant = java.time.Instant.ofEpochSecond(
+                Math.floorDiv(eventNanos, 1_000_000_000L), Math.floorMod(eventNanos, 1_000_000_000L));
+            return new javafx.beans.property.SimpleStringProperty(formatter.format(instant));
+        });
+        timelinePvColumn.setCellValueFactory(cellData ->
+            new javafx.beans.property.SimpleStringProperty(cellData.getValue().getPvName()));
+        timelineConditionColumn.setCellValueFactory(cellData ->
+            new javafx.beans.property.SimpleStringProperty(cellData.getValue().getCondition()));
+        timelineValueColumn.setCellValueFactory(cellData -> {
+            SubscribeDataEventResponse.Event event = cellData.getValue().getEvent();
+            String value = event.hasDataValue() ? event.getDataValue().toString() : "N/A";
+            return new javafx.beans.property.SimpleStringProperty(value);
+        });
+    }
+
+    private void applyTimelineFilter() {
+        viewModel.setTimelineFilter(timelinePvFilterCombo.getValue(), timelineConditionFilterCombo.getValue());
+    }
+
+    /**
+     * Draws the captured event window from the local capture buffer, without querying the archive.
+     */
+    private void showEventWindow(EventWindowCapture.Window window) {
+        eventWindowChart.clearPoints();
+        if (window == null) {
+            eventWindowChart.setSeries(List.of(), 0, 1);
+        } else {
+            eventWindowChart.setSeries(
+                window.getPvNames(), window.getBeginNanos(), window.getEndNanos() - window.getBeginNanos());
+            if (window.getChunk() != null) {
+                eventWindowChart.appendRows(window.getChunk(), 0, window.getChunk().getRowCount());
+            }
+        }
+        eventWindowChart.requestRedraw();
+    }
+
     // Custom ListCell for subscriptions with hyperlink and trash button
     private class SubscriptionListCell extends ListCell<DataEventSubscription> {
         private HBox content;
         private Hyperlink nameLink;
+        private Label healthLabel;
         private Button removeButton;
 
         public SubscriptionListCell() {
@@ -190,25 +314,37 @@ public class DataEventExploreController implements Initializable {
             nameLink.setMaxWidth(Double.MAX_VALUE);
             HBox.setHgrow(nameLink, Priority.ALWAYS);
 
+            healthLabel = new Label();
+            healthLabel.getStyleClass().add("info-text");
+
             removeButton = new Button("🗑️");
             removeButton.getStyleClass().addAll("btn", "btn-danger", "btn-xs");
 
-            content.getChildren().addAll(nameLink, removeButton);
+            content.getChildren().addAll(nameLink, healthLabel, removeButton);
         }
 
         @Override
         protected void updateItem(DataEventSubscription item, boolean empty) {
             super.updateItem(item, empty);
+            healthLabel.textProperty().unbind();
 
             if (empty || item == null) {
                 setGraphic(null);
                 setText(null);
             } else {
                 nameLink.setText(item.getDisplayString());
+                
+                // Connection health and reconnect count, kept up to date by the view model
+                ReadOnlyStringProperty healthText = viewModel.healthTextProperty(item);
+                if (healthText != null) {
+                    healthLabel.textProperty().bind(healthText);
+                } else {
+                    healthLabel.setText("");
+                }
                 nameLink.setOnAction(e -> {
-                    // Select this item and load events
+                    // Select this item and show its events
                     subscriptionsList.getSelectionModel().select(item);
-                    viewModel.loadEventsForSubscription(item);
+                    viewModel.selectSubscription(item);
                 });
 
                 removeButton.setOnAction(e -> {
@@ -286,4 +422,77 @@ public class DataEventExploreController implements Initializable {
         logger.info("Add button clicked");
         viewModel.addSubscription();
     }
+
+    @FXML
+    private void onImport() {
+        logger.info("Import button clicked");
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select Trigger Definition File");
+        fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+            new FileChooser.ExtensionFilter("All Files", "*.*")
+        );
+
+        File selectedFile = fileChooser.showOpenDialog(primaryStage);
+        if (selectedFile != null) {
+            viewModel.importSubscriptions(selectedFile, this::showImportSummary);
+        }
+    }
+
+    private void showImportSummary(DataEventTriggerFile.ImportResult result) {
+        Alert alert = new Alert(result.getRejectedCount() == 0 && !result.getSubscribeStatus().isError
+            ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING);
+        alert.initOwner(primaryStage);
+        alert.setTitle("Import Subscriptions");
+        alert.setHeaderText(String.format("Subscribed %,d of %,d trigger rows",
+            result.getSubscribedCount(), result.getRows().size()));
+
+        StringBuilder content = new StringBuilder();
+        content.append(String.format("Rejected rows: %,d", result.getRejectedCount()));
+        if (result.getSubscribeStatus().isError) {
+            content.append("\nSubscription error: ").append(result.getSubscribeStatus().msg);
+        }
+        alert.setContentText(content.toString());
+
+        // List rejected rows with their reasons in the expandable details
+        if (result.getRejectedCount() > 0) {
+            TextArea rejectedRows = new TextArea(result.formatRejectedRows());
+            rejectedRows.setEditable(false);
+            rejectedRows.setWrapText(false);
+            rejectedRows.setPrefRowCount(15);
+            alert.getDialogPane().setExpandableContent(rejectedRows);
+        }
+        alert.showAndWait();
+    }
+
+    @FXML
+    private void onExportLatency() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Event Latency");
+        fileChooser.setInitialFileName("data-event-latency.csv");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("CSV Files", "*.csv")
+        );
+
+        File selectedFile = fileChooser.showSaveDialog(primaryStage);
+        if (selectedFile != null) {
+            viewModel.exportLatency(selectedFile);
+        }
+    }
+
+    @FXML
+    private void onOlderEvents() {
+        viewModel.showOlderEvents();
+    }
+
+    @FXML
+    private void onNewerEvents() {
+        viewModel.showNewerEvents();
+    }
+
+    @FXML
+    private void onLatestEvents() {
+        viewModel.showLatestEvents();
+    }
 }
\ No newline at end of file
@@ -2,32 +2,59 @@ package com.ospreydcs.dp.gui;
 
 import com.ospreydcs.dp.client.IngestionClient;
 import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventResponse;
+import com.ospreydcs.dp.gui.event.DataEventFeed;
+import com.ospreydcs.dp.gui.event.DataEventLatency;
+import com.ospreydcs.dp.gui.event.DataEventStore;
+import com.ospreydcs.dp.gui.event.DataEventTriggerFile;
+import com.ospreydcs.dp.gui.event.EventTriagePipeline;
+import com.ospreydcs.dp.gui.event.EventWindowCapture;
+import com.ospreydcs.dp.gui.event.MergedEventTimeline;
 import com.ospreydcs.dp.gui.model.DataEventSubscription;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
 import com.ospreydcs.dp.gui.model.SubscribeDataEventDetail;
+import com.ospreydcs.dp.gui.util.CoalescingFxDispatcher;
 import com.ospreydcs.dp.service.common.model.ResultStatus;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.beans.binding.BooleanBinding;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
+import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class DataEventExploreViewModel {
 
     private static final Logger logger = LogManager.getLogger();
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final long EVENT_PUBLISH_INTERVAL_MILLIS = 100;
+    private static final int EVENT_PAGE_SIZE = 1000;
+    public static final String TIMELINE_FILTER_ALL = "All";
 
     // Subscription Builder form properties
     private final StringProperty pvName = new SimpleStringProperty("");
     private final ObjectProperty<DpApplication.TriggerCondition> triggerCondition = new SimpleObjectProperty<>();
     private final StringProperty triggerValue = new SimpleStringProperty("");
     private final ObjectProperty<IngestionClient.IngestionDataType> pvDataType = new SimpleObjectProperty<>();
+    private final BooleanProperty captureEnabled = new SimpleBooleanProperty(false);
+    private final StringProperty captureWindowSeconds = new SimpleStringProperty("30");
+    private final StringProperty capturePvNames = new SimpleStringProperty("");
+    private final BooleanProperty triageEnabled = new SimpleBooleanProperty(false);
 
     // Status properties
     private final StringProperty statusMessage = new SimpleStringProperty("");
@@ -35,19 +62,48 @@ public class DataEventExploreViewModel {
 
     // Data collections
     private final ObservableList<DataEventSubscription> subscriptions = FXCollections.observableArrayList();
-    private final ObservableList<SubscribeDataEventResponse.Event> events = FXCollections.observableArrayList();
+    private final ObjectProperty<ObservableList<SubscribeDataEventResponse.Event>> selectedEvents =
+            new SimpleObjectProperty<>(FXCollections.observableArrayList());
+    private final StringProperty eventRateText = new SimpleStringProperty("");
+    private final StringProperty subscriptionHealthText = new SimpleStringProperty("");
+    private final StringProperty eventLatencyText = new SimpleStringProperty("");
+    private final StringProperty eventTriageText = new SimpleStringProperty("");
+
+    // Paging through older events: a page first index of -1 shows the latest events as they arrive
+    private final StringProperty eventPageText = new SimpleStringProperty("");
+    private final BooleanProperty showingLatestEvents = new SimpleBooleanProperty(true);
+    private final BooleanProperty olderEventsAvailable = new SimpleBooleanProperty(false);
+    private final BooleanProperty isLoadingPage = new SimpleBooleanProperty(false);
+    private long pageFirstIndex = -1;
+
+    // Data captured around the selected event, set only once its window has been captured
+    private final ObjectProperty<EventWindowCapture.Window> selectedEventWindow = new SimpleObjectProperty<>();
+    private final StringProperty eventWindowText = new SimpleStringProperty("");
+    private SubscribeDataEventResponse.Event selectedEvent = null;
+
+    // Events of all subscriptions merged by event time, filtered by PV and condition
+    private final MergedEventTimeline eventTimeline = new MergedEventTimeline();
+    private final ObservableList<String> timelinePvNames = FXCollections.observableArrayList(TIMELINE_FILTER_ALL);
+    private final ObservableList<String> timelineConditions = FXCollections.observableArrayList(TIMELINE_FILTER_ALL);
+    private final StringProperty timelineText = new SimpleStringProperty("");
+
+    // Events pushed from each subscription's stream, appended on the FX thread in coalesced batches
+    private final Map<DataEventSubscription, SubscriptionEvents> subscriptionEvents = new HashMap<>();
+    private final Timeline eventRateTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> updateEventRate()));
 
     // Form validation
     private final BooleanBinding isFormValid = pvName.isNotEmpty()
             .and(triggerCondition.isNotNull())
             .and(triggerValue.isNotEmpty())
-            .and(pvDataType.isNotNull());
+            .and(pvDataType.isNotNull())
+            .and(captureEnabled.not().or(captureWindowSeconds.isNotEmpty()));
 
     // Dependencies
     private DpApplication dpApplication;
     private MainController mainController;
 
     public DataEventExploreViewModel() {
+        eventRateTimeline.setCycleCount(Animation.INDEFINITE);
         logger.debug("DataEventExploreViewModel created");
     }
 
@@ -56,13 +112,31 @@ public class DataEventExploreViewModel {
     public ObjectProperty<DpApplication.TriggerCondition> triggerConditionProperty() { return triggerCondition; }
     public StringProperty triggerValueProperty() { return triggerValue; }
     public ObjectProperty<IngestionClient.IngestionDataType> pvDataTypeProperty() { return pvDataType; }
+    public BooleanProperty captureEnabledProperty() { return captureEnabled; }
+    public StringProperty captureWindowSecondsProperty() { return captureWindowSeconds; }
+    public StringProperty capturePvNamesProperty() { return capturePvNames; }
+    public BooleanProperty triageEnabledProperty() { return triageEnabled; }
     public StringProperty statusMessageProperty() { return statusMessage; }
     public BooleanProperty isAddingProperty() { return isAdding; }
     public BooleanBinding isFormValidProperty() { return isFormValid; }
 
     // Data collection accessors
     public ObservableList<DataEventSubscription> getSubscriptions() { return subscriptions; }
-    public ObservableList<SubscribeDataEventResponse.Event> getEvents() { return events; }
+    public ObjectProperty<ObservableList<SubscribeDataEventResponse.Event>> selectedEventsProperty() { return selectedEvents; }
+    public StringProperty eventRateTextProperty() { return eventRateText; }
+    public StringProperty subscriptionHealthTextProperty() { return subscriptionHealthText; }
+    public StringProperty eventLatencyTextProperty() { return eventLatencyText; }
+    public StringProperty eventTriageTextProperty() { return eventTriageText; }
+    public StringProperty eventPageTextProperty() { return eventPageText; }
+    public BooleanProperty showingLatestEventsProperty() { return showingLatestEvents; }
+    public BooleanProperty olderEventsAvailableProperty() { return olderEventsAvailable; }
+    public BooleanProperty isLoadingPageProperty() { return isLoadingPage; }
+    public ObjectProperty<EventWindowCapture.Window> selectedEventWindowProperty() { return selectedEventWindow; }
+    public StringProperty eventWindowTextProperty() { return eventWindowText; }
+    public MergedEventTimeline getEventTimeline() { return eventTimeline; }
+    public ObservableList<String> getTimelinePvNames() { return timelinePvNames; }
+    public ObservableList<String> getTimelineConditions() { return timelineConditions; }
+    public StringProperty timelineTextProperty() { return timelineText; }
 
     // Dependency injection methods
     public void setDpApplication(DpApplication dpApplication) {
@@ -84,6 +158,20 @@ public class DataEventExploreViewModel {
         if (dpApplication != null) {
             subscriptions.clear();
             subscriptions.addAll(dpApplication.getDataEventSubscriptions());
+
+            // attach to the streams of new subscriptions and detach from those no longer managed
+            for (DataEventSubscription subscription : subscriptions) {
+                subscriptionEvents.computeIfAbsent(subscription, added -> new SubscriptionEvents(added, eventTimeline));
+            }
+            for (DataEventSubscription subscription : new HashSet<>(subscriptionEvents.keySet())) {
+                if (!subscriptions.contains(subscription)) {
+                    subscriptionEvents.remove(subscription).detach();
+                }
+            }
+            if (!subscriptionEvents.isEmpty()) {
+                eventRateTimeline.play();
+            }
+            updateTimelineFilterChoices();
             logger.debug("Synced {} subscriptions from DpApplication", subscriptions.size());
         }
     }
@@ -94,6 +182,25 @@ public class DataEventExploreViewModel {
             return;
         }
 
+        int windowSeconds = 0;
+        if (captureEnabled.get()) {
+            try {
+                windowSeconds = Integer.parseInt(captureWindowSeconds.get().trim());
+            } catch (NumberFormatException e) {
+                windowSeconds = 0;
+            }
+            if (windowSeconds <= 0) {
+                updateStatus("Cannot add subscription: capture window must be a positive number of seconds");
+                return;
+            }
+        }
+        final int captureSeconds = windowSeconds;
+        final boolean triage = captureEnabled.get() && triageEnabled.get();
+        final List<String> capturePvNameList = Arrays.stream(capturePvNames.get().split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+
         isAdding.set(true);
         updateStatus("Adding data event subscription...");
 
@@ -104,7 +211,10 @@ public class DataEventExploreViewModel {
                 SubscribeDataEventDetail subscriptionDetail = new SubscribeDataEventDetail(
                     pvName.get().trim(),
                     triggerCondition.get(),
-                    triggerValue.get().trim()
+                    triggerValue.get().trim(),
+                    captureSeconds,
+                    capturePvNameList,
+                    triage
                 );
 
                 return dpApplication.subscribeDataEvent(subscriptionDetail, pvDataType.get());
@@ -117,7 +227,8 @@ public class DataEventExploreViewModel {
                 if (result.isError) {
                     updateStatus("Failed to add subscription: " + result.msg);
                 } else {
-                    updateStatus("Subscription added successfully");
+                    updateStatus("Subscription added successfully, "
+                            + dpApplication.getDataEventStreamCount() + " subscription stream(s) open");
                     
                     // Clear form
                     clearForm();
@@ -141,6 +252,47 @@ public class DataEventExploreViewModel {
         addThread.start();
     }
 
+    /**
+     * Imports trigger definitions from the specified CSV file in the background, subscribing to the valid triggers,
+     * and passes the outcome to onComplete on the JavaFX Application Thread.
+     */
+    public void importSubscriptions(File csvFile, Consumer<DataEventTriggerFile.ImportResult> onComplete) {
+        if (dpApplication == null) {
+            updateStatus("Cannot import subscriptions: application not initialized");
+            return;
+        }
+
+        isAdding.set(true);
+        updateStatus("Importing data event subscriptions from " + csvFile.getName() + "...");
+
+        // Create background task for reading, validating and subscribing
+        Task<DataEventTriggerFile.ImportResult> importTask = new Task<DataEventTriggerFile.ImportResult>() {
+            @Override
+            protected DataEventTriggerFile.ImportResult call() throws Exception {
+                return dpApplication.importDataEventTriggers(csvFile.toPath());
+            }
+        };
+
+        importTask.setOnSucceeded(e -> {
+            DataEventTriggerFile.ImportResult result = importTask.getValue();
+            updateStatus("Imported " + result.getSubscribedCount() + " of " + result.getRows().size()
+                    + " data event subscriptions, " + dpApplication.getDataEventStreamCount()
+                    + " subscription stream(s) open");
+            syncSubscriptionsFromApplication();
+            isAdding.set(false);
+            onComplete.accept(result);
+        });
+
+        importTask.setOnFailed(e -> {
+            updateStatus("Error importing subscriptions: " + importTask.getException().getMessage());
+            isAdding.set(false);
+        });
+
+        Thread importThread = new Thread(importTask);
+        importThread.setDaemon(true);
+        importThread.start();
+    }
+
     public void cancelSubscription(DataEventSubscription subscription) {
         if (dpApplication == null) {
             updateStatus("Cannot cancel subscription: application not initialized");
@@ -169,7 +321,9 @@ public class DataEventExploreViewModel {
                     syncSubscriptionsFromApplication();
                     
                     // Clear events if this was the selected subscription
-                    events.clear();
+                    if (subscription == currentlySelectedSubscription) {
+                        setCurrentlySelectedSubscription(null);
+                    }
                 }
             });
         });
@@ -185,52 +339,264 @@ public class DataEventExploreViewModel {
         cancelThread.start();
     }
 
-    public void loadEventsForSubscription(DataEventSubscription subscription) {
-        if (dpApplication == null) {
-            updateStatus("Cannot load events: application not initialized");
+    /**
+     * Shows the latest events of the specified subscription.  Each subscription's latest events are kept up to date
+     * as events are pushed from its stream, so selecting one swaps the list shown rather than copying its events.
+     */
+    public void selectSubscription(DataEventSubscription subscription) {
+        final SubscriptionEvents subscriptionEventList = subscriptionEvents.get(subscription);
+        if (subscriptionEventList == null) {
+            updateStatus("Cannot show events: subscription is no longer active");
             return;
         }
 
         // Track the selected subscription for navigation
         setCurrentlySelectedSubscription(subscription);
-        
-        updateStatus("Loading events for subscription...");
 
-        // Create background task for loading events
-        Task<List<SubscribeDataEventResponse.Event>> loadTask = new Task<List<SubscribeDataEventResponse.Event>>() {
+        updateStatus("Showing latest " + subscriptionEventList.events.size() + " events for subscription: "
+                + subscription.getDisplayString());
+    }
+
+    // Track the currently selected subscription for navigation
+    private DataEventSubscription currentlySelectedSubscription = null;
+    
+    public void setCurrentlySelectedSubscription(DataEventSubscription subscription) {
+        this.currentlySelectedSubscription = subscription;
+        selectEvent(null);
+        showLatestEvents();
+    }
+
+    /**
+     * Shows the data captured around the specified event of the selected subscription, if its subscription captures
+     * event windows.  A window still being captured is shown once its capture completes.
+     */
+    public void selectEvent(SubscribeDataEventResponse.Event event) {
+        selectedEvent = event;
+        refreshSelectedEventWindow();
+    }
+
+    private void refreshSelectedEventWindow() {
+        if (selectedEvent == null || currentlySelectedSubscription == null || dpApplication == null) {
+            selectedEventWindow.set(null);
+            eventWindowText.set("");
+            return;
+        }
+        if (!currentlySelectedSubscription.subscriptionDetail.isCaptureEnabled()) {
+            selectedEventWindow.set(null);
+            eventWindowText.set("Event data is not captured for this subscription");
+            return;
+        }
+
+        final EventWindowCapture.Window window = dpApplication.capturedEventWindow(
+                currentlySelectedSubscription,
+                QueryResultChunk.toEpochNanos(
+                        selectedEvent.getEventTime().getEpochSeconds(), selectedEvent.getEventTime().getNanoseconds()));
+        if (window == null) {
+            selectedEventWindow.set(null);
+            eventWindowText.set("No captured data for this event");
+            return;
+        }
+        switch (window.getState()) {
+            case PENDING -> {
+                selectedEventWindow.set(null);
+                eventWindowText.set("Capturing event data...");
+            }
+            case DROPPED -> {
+                selectedEventWindow.set(null);
+                eventWindowText.set("Event data was not captured, too many captures were pending");
+            }
+            case FAILED -> {
+                selectedEventWindow.set(null);
+                eventWindowText.set("Event data capture failed: " + window.getErrorMessage());
+            }
+            case CAPTURED -> {
+                final int rowCount = (window.getChunk() == null) ? 0 : window.getChunk().getRowCount();
+                selectedEventWindow.set(window);
+                eventWindowText.set(String.format("Captured %,d rows for %s, %s to %s",
+                        rowCount, String.join(", ", window.getPvNames()),
+                        TIME_FORMATTER.format(QueryResultChunk.toInstant(window.getBeginNanos())),
+                        TIME_FORMATTER.format(QueryResultChunk.toInstant(window.getEndNanos()))));
+            }
+        }
+    }
+
+    /**
+     * Shows the selected subscription's latest events, appended to as they arrive.
+     */
+    public void showLatestEvents() {
+        final SubscriptionEvents selected = getSelectedSubscriptionEvents();
+        pageFirstIndex = -1;
+        showingLatestEvents.set(true);
+        selectedEvents.set(selected == null ? FXCollections.observableArrayList() : selected.events);
+        refreshEventText();
+    }
+
+    /**
+     * Shows the page of events preceding those currently shown.  Events evicted from memory are read from the
+     * subscription's spill file in the background.
+     */
+    public void showOlderEvents() {
+        final SubscriptionEvents selected = getSelectedSubscriptionEvents();
+        if (selected == null || isLoadingPage.get()) {
+            return;
+        }
+        final long endIndex = (pageFirstIndex < 0) ? selected.firstIndex : pageFirstIndex;
+        final long firstIndex = Math.max(0, endIndex - EVENT_PAGE_SIZE);
+        if (firstIndex < endIndex) {
+            loadEventPage(selected, firstIndex, (int) (endIndex - firstIndex));
+        }
+    }
+
+    /**
+     * Shows the page of events following those currently shown, or the latest events once the page would reach
+     * them.
+     */
+    public void showNewerEvents() {
+        final SubscriptionEvents selected = getSelectedSubscriptionEvents();
+        if (selected == null || pageFirstIndex < 0 || isLoadingPage.get()) {
+            return;
+        }
+        final long firstIndex = pageFirstIndex + selectedEvents.get().size();
+        if (firstIndex >= selected.firstIndex) {
+            showLatestEvents();
+        } else {
+            loadEventPage(selected, firstIndex, (int) Math.min(EVENT_PAGE_SIZE, selected.firstIndex - firstIndex));
+        }
+    }
+
+    private void loadEventPage(SubscriptionEvents selected, long firstIndex, int count) {
+        isLoadingPage.set(true);
+
+        // Create background task for reading the page, which may come from the spill file
+        Task<DataEventStore.Page> pageTask = new Task<DataEventStore.Page>() {
             @Override
-            protected List<SubscribeDataEventResponse.Event> call() throws Exception {
-                return dpApplication.dataEventsForSubscription(subscription);
+            protected DataEventStore.Page call() throws Exception {
+                return dpApplication.dataEventsForSubscription(selected.subscription, firstIndex, count);
             }
         };
 
-        loadTask.setOnSucceeded(e -> {
-            javafx.application.Platform.runLater(() -> {
-                List<SubscribeDataEventResponse.Event> eventList = loadTask.getValue();
-                events.clear();
-                events.addAll(eventList);
-                
-                updateStatus("Loaded " + eventList.size() + " events for subscription: " + subscription.getDisplayString());
-            });
+        pageTask.setOnSucceeded(e -> {
+            isLoadingPage.set(false);
+            if (selected != getSelectedSubscriptionEvents()) {
+                return; // selection changed while loading
+            }
+            final DataEventStore.Page page = pageTask.getValue();
+            pageFirstIndex = page.getFirstIndex();
+            showingLatestEvents.set(false);
+            selectedEvents.set(FXCollections.observableArrayList(page.getEvents()));
+            refreshEventText();
         });
 
-        loadTask.setOnFailed(e -> {
-            javafx.application.Platform.runLater(() -> {
-                updateStatus("Error loading events: " + loadTask.getException().getMessage());
-                events.clear();
-            });
+        pageTask.setOnFailed(e -> {
+            isLoadingPage.set(false);
+            updateStatus("Error loading events: " + pageTask.getException().getMessage());
         });
 
-        Thread loadThread = new Thread(loadTask);
-        loadThread.setDaemon(true);
-        loadThread.start();
+        Thread pageThread = new Thread(pageTask);
+        pageThread.setDaemon(true);
+        pageThread.start();
     }
 
-    // Track the currently selected subscription for navigation
-    private DataEventSubscription currentlySelectedSubscription = null;
-    
-    public void setCurrentlySelectedSubscription(DataEventSubscription subscription) {
-        this.currentlySelectedSubscription = subscription;
+    /**
+     * Returns the health summary shown for the specified subscription, such as "connected, 2 reconnects", which is
+     * updated every second, or null if the view is not attached to the subscription.
+     */
+    public ReadOnlyStringProperty healthTextProperty(DataEventSubscription subscription) {
+        final SubscriptionEvents subscriptionEventList = subscriptionEvents.get(subscription);
+        return (subscriptionEventList == null) ? null : subscriptionEventList.healthText;
+    }
+
+    /**
+     * Shows only the timeline events of subscriptions with the specified PV and condition, where null or
+     * TIMELINE_FILTER_ALL matches any value.
+     */
+    public void setTimelineFilter(String pvName, String condition) {
+        eventTimeline.setFilter(
+                TIMELINE_FILTER_ALL.equals(pvName) ? null : pvName,
+                TIMELINE_FILTER_ALL.equals(condition) ? null : condition);
+        updateTimelineText();
+    }
+
+    private void updateTimelineFilterChoices() {
+        final List<String> pvNames = new ArrayList<>(List.of(TIMELINE_FILTER_ALL));
+        pvNames.addAll(eventTimeline.getPvNames());
+        if (!pvNames.equals(timelinePvNames)) {
+            timelinePvNames.setAll(pvNames);
+        }
+        final List<String> conditions = new ArrayList<>(List.of(TIMELINE_FILTER_ALL));
+        conditions.addAll(eventTimeline.getConditions());
+        if (!conditions.equals(timelineConditions)) {
+            timelineConditions.setAll(conditions);
+        }
+    }
+
+    private void updateTimelineText() {
+        timelineText.set(String.format("%,d of %,d events", eventTimeline.size(), eventTimeline.getTotalEventCount()));
+    }
+
+    private SubscriptionEvents getSelectedSubscriptionEvents() {
+        return (currentlySelectedSubscription == null) ? null : subscriptionEvents.get(currentlySelectedSubscription);
+    }
+
+    /**
+     * Detaches from all subscription streams and stops updating event lists, for when the view is closed.  The
+     * subscriptions themselves remain active in DpApplication.
+     */
+    public void dispose() {
+        eventRateTimeline.stop();
+        for (SubscriptionEvents subscriptionEventList : subscriptionEvents.values()) {
+            subscriptionEventList.detach();
+        }
+        subscriptionEvents.clear();
+        logger.debug("DataEventExploreViewModel detached from subscription streams");
+    }
+
+    /**
+     * Samples each subscription's event rate over the interval since the previous sample and refreshes the text
+     * shown for the selected subscription.  Called only by eventRateTimeline, so the rates always cover its fixed
+     * period, while other changes just call refreshEventText().
+     */
+    private void updateEventRate() {
+        for (SubscriptionEvents subscriptionEventList : subscriptionEvents.values()) {
+            subscriptionEventList.updateRate();
+        }
+        refreshEventText();
+    }
+
+    /**
+     * Refreshes the rate, health, latency, triage, and page text shown for the selected subscription from the most
+     * recently sampled values.
+     */
+    private void refreshEventText() {
+        if (selectedEvent != null && selectedEventWindow.get() == null) {
+            refreshSelectedEventWindow(); // pick up a window whose capture has completed
+        }
+        updateTimelineText();
+        final SubscriptionEvents selected = getSelectedSubscriptionEvents();
+        if (selected == null) {
+            eventRateText.set("");
+            subscriptionHealthText.set("");
+            eventLatencyText.set("");
+            eventTriageText.set("");
+            eventPageText.set("");
+            olderEventsAvailable.set(false);
+            return;
+        }
+        final long eventCount = selected.subscription.eventFeed.getEventCount();
+        eventRateText.set(String.format("%,d events, %,.0f events/sec", eventCount, selected.eventsPerSecond));
+        subscriptionHealthText.set(formatGaps(selected.subscription.eventFeed.getGaps()));
+        eventLatencyText.set(formatLatency(selected.subscription.eventFeed.getLatency()));
+        final EventTriagePipeline.Counts triageCounts = (dpApplication == null)
+                ? null : dpApplication.eventTriageCounts(selected.subscription);
+        eventTriageText.set((triageCounts == null) ? "" : triageCounts.formatSummary());
+        if (pageFirstIndex < 0) {
+            eventPageText.set(String.format("Latest %,d", selected.events.size()));
+            olderEventsAvailable.set(selected.firstIndex > 0);
+        } else {
+            eventPageText.set(String.format("Events %,d-%,d",
+                    pageFirstIndex + 1, pageFirstIndex + selectedEvents.get().size()));
+            olderEventsAvailable.set(pageFirstIndex > 0);
+        }
     }
 
     public void navigateToQueryEditor(SubscribeDataEventResponse.Event event) {
@@ -264,11 +630,161 @@ public class DataEventExploreViewModel {
         }
     }
 
+    /**
+     * Returns the trigger and delivery latency percentiles over the latency window, omitting measures with no events.
+     */
+    private static String formatLatency(DataEventLatency latency) {
+        final StringBuilder sb = new StringBuilder();
+        for (DataEventLatency.Measure measure : DataEventLatency.Measure.values()) {
+            final String summary = latency.formatSummary(measure);
+            if (summary != null) {
+                sb.append((sb.length() == 0) ? "Latency, last " + DataEventLatency.WINDOW_MILLIS / 1_000 + " s: " : "; ");
+                sb.append(summary);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the event latency histograms of all subscriptions to the specified CSV file in the background.
+     */
+    public void exportLatency(File csvFile) {
+        if (dpApplication == null) {
+            updateStatus("Cannot export latency: application not initialized");
+            return;
+        }
+
+        // Create background task for writing the file
+        Task<Void> exportTask = new Task<Void>() {
+            @Override
+            protected Void call() throws Exception {
+                dpApplication.exportDataEventLatency(csvFile.toPath());
+                return null;
+            }
+        };
+
+        exportTask.setOnSucceeded(e -> updateStatus("Event latency exported to " + csvFile.getName()));
+
+        exportTask.setOnFailed(e -> {
+            updateStatus("Error exporting event latency: " + exportTask.getException().getMessage());
+        });
+
+        Thread exportThread = new Thread(exportTask);
+        exportThread.setDaemon(true);
+        exportThread.start();
+    }
+
+    /**
+     * Returns a summary of the outages during which events may have been missed, giving the most recent.
+     */
+    private static String formatGaps(List<DataEventFeed.Gap> gaps) {
+        if (gaps.isEmpty()) {
+            return "";
+        }
+        final DataEventFeed.Gap lastGap = gaps.get(gaps.size() - 1);
+        if (lastGap.getEnd() == null) {
+            return String.format("%d gap(s), disconnected since %s", gaps.size(), TIME_FORMATTER.format(lastGap.getBegin()));
+        }
+        return String.format("%d gap(s), last %s to %s (%.1f s)",
+                gaps.size(),
+                TIME_FORMATTER.format(lastGap.getBegin()),
+                TIME_FORMATTER.format(lastGap.getEnd()),
+                java.time.Duration.between(lastGap.getBegin(), lastGap.getEnd()).toMillis() / 1000.0);
+    }
+
+    /**
+     * Latest events for one subscription, seeded with the events in its store's ring buffer when attaching and then
+     * appended to as its stream pushes new events.  The list is trimmed to the ring buffer's capacity, so it holds
+     * the same events as the ring and older events are reached by paging.  The same events are merged into the
+     * timeline of all subscriptions, which keeps them until its own capacity is reached.
+     */
+    private static class SubscriptionEvents {
+
+        private final DataEventSubscription subscription;
+        private final MergedEventTimeline timeline;
+        private final int capacity;
+        private final ObservableList<SubscribeDataEventResponse.Event> events = FXCollections.observableArrayList();
+        private final CoalescingFxDispatcher<SubscribeDataEventResponse.Event> dispatcher =
+                new CoalescingFxDispatcher<>(this::append, EVENT_PUBLISH_INTERVAL_MILLIS);
+        private final Consumer<SubscribeDataEventResponse.Event> listener = event -> dispatcher.submit(List.of(event));
+        private long firstIndex;
+        private long lastEventCount;
+        private long lastRateNanos;
+        private double eventsPerSecond = 0;
+        private final StringProperty healthText = new SimpleStringProperty("");
+
+        private SubscriptionEvents(DataEventSubscription subscription, MergedEventTimeline timeline) {
+            this.subscription = subscription;
+            this.timeline = timeline;
+            this.capacity = subscription.eventFeed.getStore().getCapacity();
+            final DataEventStore.Page recent = subscription.eventFeed.addEventListener(listener);
+            firstIndex = recent.getFirstIndex();
+            events.addAll(recent.getEvents());
+            timeline.addSource(subscription, subscription.subscriptionDetail.pvName,
+                    subscription.subscriptionDetail.getConditionText(), recent.getEvents());
+            lastEventCount = subscription.eventFeed.getEventCount();
+            lastRateNanos = System.nanoTime();
+            updateHealth();
+            dispatcher.start();
+        }
+
+        /**
+         * Appends a batch of new events, first removing the oldest events shown so no more than capacity remain.
+         */
+        private void append(List<SubscribeDataEventResponse.Event> batch) {
+            timeline.append(subscription, batch);
+            if (batch.size() >= capacity) {
+                firstIndex += events.size() + batch.size() - capacity;
+                events.setAll(batch.subList(batch.size() - capacity, batch.size()));
+                return;
+            }
+            final int excess = events.size() + batch.size() - capacity;
+            if (excess > 0) {
+                events.remove(0, excess);
+                firstIndex += excess;
+            }
+            events.addAll(batch);
+        }
+
+        private void updateRate() {
+            final long now = System.nanoTime();
+            final long eventCount = subscription.eventFeed.getEventCount();
+            if (now > lastRateNanos) {
+                eventsPerSecond = (eventCount - lastEventCount) * 1e9 / (now - lastRateNanos);
+            }
+            lastEventCount = eventCount;
+            lastRateNanos = now;
+            updateHealth();
+        }
+
+        private void updateHealth() {
+            final DataEventFeed feed = subscription.eventFeed;
+            final String health = switch (feed.getHealth()) {
+                case CONNECTED -> "connected";
+                case RETRYING -> "retrying";
+                case FAILED -> "failed";
+            };
+            final int reconnectCount = feed.getReconnectCount();
+            healthText.set((reconnectCount == 0) ? health
+                    : String.format("%s, %d reconnect%s", health, reconnectCount, (reconnectCount == 1) ? "" : "s"));
+        }
+
+        private void detach() {
+            subscription.eventFeed.removeEventListener(listener);
+            dispatcher.discard();
+            timeline.removeSource(subscription);
+        }
+    }
+
     private void clearForm() {
         pvName.set("");
         triggerCondition.set(null);
         triggerValue.set("");
         pvDataType.set(null);
+        captureEnabled.set(false);
+        captureWindowSeconds.set("30");
+        capturePvNames.set("");
+        triageEnabled.set(false);
     }
 
     private void updateStatus(String message) {
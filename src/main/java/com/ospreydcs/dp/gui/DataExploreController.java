@@ -15,6 +15,15 @@ import javafx.scene.chart.XYChart;
 // CategoryAxis import removed - using NumberAxis for both axes
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.Node;
+import javafx.scene.input.MouseButton;
+import javafx.scene.shape.Rectangle;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
 import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -25,7 +34,6 @@ import java.net.URL;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -35,6 +43,13 @@ import java.util.ResourceBundle;
 
 import com.ospreydcs.dp.gui.model.DataSetDetail;
 import com.ospreydcs.dp.gui.model.DataFrameDetails;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import com.ospreydcs.dp.gui.model.QueryResultRow;
+import com.ospreydcs.dp.gui.chart.DecimatedSeriesModel;
+import com.ospreydcs.dp.gui.chart.LiveTailChart;
+import com.ospreydcs.dp.gui.chart.TimeSeriesCanvasChart;
+import com.ospreydcs.dp.gui.live.LiveDataSubscription;
+import com.ospreydcs.dp.gui.metrics.StageMetrics;
 import com.ospreydcs.dp.grpc.v1.common.DataColumn;
 import com.ospreydcs.dp.grpc.v1.common.DataValue;
 import com.ospreydcs.dp.grpc.v1.common.Timestamp;
@@ -68,6 +83,8 @@ public class DataExploreController implements Initializable {
     @FXML private Button submitQueryButton;
     @FXML private Button addToDatasetButton;
     @FXML private Button cancelQueryButton;
+    @FXML private Button stopQueryButton;
+    @FXML private CheckBox keepPartialResultsCheckBox;
     @FXML private Label queryStatusLabel;
     
     // Query Results FXML components
@@ -77,10 +94,19 @@ public class DataExploreController implements Initializable {
     @FXML private Label rowCountLabel;
     @FXML private Label resultsStatusLabel2;
     @FXML private TabPane resultsTabPane;
-    @FXML private TableView<ObservableList<Object>> resultsTable;
+    @FXML private TableView<QueryResultRow> resultsTable;
     @FXML private LineChart<Number, Number> resultsChart;
     @FXML private NumberAxis chartXAxis;
     @FXML private NumberAxis chartYAxis;
+    @FXML private TimeSeriesCanvasChart canvasChart;
+    @FXML private CheckBox canvasChartCheckBox;
+    @FXML private CheckBox rasterChartCheckBox;
+    @FXML private CheckBox liveTailCheckBox;
+    @FXML private LiveTailChart liveTailChart;
+    @FXML private CheckBox timingHudCheckBox;
+    @FXML private Button exportTimingsButton;
+    @FXML private Label chartTimingHud;
+    @FXML private Rectangle zoomSelectionRect;
     @FXML private Label chartPlaceholder;
     @FXML private Label resultsStatusLabel;
     @FXML private ProgressIndicator queryProgressIndicator;
@@ -183,6 +209,47 @@ public class DataExploreController implements Initializable {
         // Configure axes
         chartXAxis.setLabel("Time (seconds from start)");
         chartYAxis.setLabel("Value");
+        // Line chart points are decimated to the plot width off the FX thread; each publish replaces the series data
+        chartModel = new DecimatedSeriesModel<>(
+            viewModel.getChartDecimationMethod(),
+            (xSeconds, y, integral) -> new XYChart.Data<>(xSeconds, integral ? (long) y : y),
+            this::publishChartPoints);
+        chartXAxis.widthProperty().addListener((obs, oldVal, newVal) -> {
+            // the axis has no width while the chart is hidden, so keep the last known width
+            if (newVal.intValue() > 0 && chartModel.setPixelWidth(newVal.intValue()) && chartModel.getPointCount() > 0) {
+                chartModel.requestUpdate();
+            }
+        });
+        
+        canvasChart.setTitle("PV Time-Series Data");
+        canvasChart.setAxisLabels("Time (seconds from start)", "Value");
+        canvasChart.setRasterParallelism(viewModel.getChartRasterParallelism());
+        canvasChart.setRasterized(viewModel.rasterizeCanvasChartProperty().get());
+        liveTailChart.setWindowSeconds(viewModel.getLiveTailWindowSeconds());
+        liveTailChart.setFrameRate(viewModel.getLiveTailFrameRate());
+        liveTailChart.setStatusSupplier(viewModel::getLiveTailStatus);
+        
+        // Stage timing HUD over either chart, with a Flight Recorder recording of the timings while it is shown
+        chartTimingHud.visibleProperty().bind(viewModel.showTimingHudProperty());
+        chartTimingHudTimeline.setCycleCount(Animation.INDEFINITE);
+        viewModel.showTimingHudProperty().addListener((obs, oldVal, newVal) -> updateTimingHud(newVal));
+        updateTimingHud(viewModel.showTimingHudProperty().get());
+        resultsChart.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null) {
+                oldScene.removePreLayoutPulseListener(chartPreLayoutListener);
+                oldScene.removePostLayoutPulseListener(chartPostLayoutListener);
+            }
+            if (newScene != null) {
+                newScene.addPreLayoutPulseListener(chartPreLayoutListener);
+                newScene.addPostLayoutPulseListener(chartPostLayoutListener);
+            }
+        });
+        
+        // Zoom and pan on either renderer; windows outside the loaded rows are fetched once the view settles
+        canvasChart.setOnViewRangeChanged((beginOffset, endOffset, finished) -> setChartView(
+            viewModel.getQueryRangeBeginNanos() + beginOffset, viewModel.getQueryRangeBeginNanos() + endOffset, finished));
+        setupChartZoomHandlers();
+        chartLoadDebounce.setOnFinished(e -> ensureChartWindowLoaded());
         
         // Note: Initial visibility is set in FXML (chart hidden, placeholder visible)
         
@@ -279,6 +346,14 @@ public class DataExploreController implements Initializable {
         // Button state bindings
         submitQueryButton.disableProperty().bind(viewModel.isQueryingProperty().or(viewModel.isQueryValidProperty().not()));
         addToDatasetButton.disableProperty().bind(viewModel.isQueryingProperty().or(viewModel.isQueryValidProperty().not()));
+        stopQueryButton.disableProperty().bind(viewModel.isQueryingProperty().not());
+        keepPartialResultsCheckBox.selectedProperty().bindBidirectional(viewModel.keepPartialResultsProperty());
+        canvasChartCheckBox.selectedProperty().bindBidirectional(viewModel.useCanvasChartProperty());
+        rasterChartCheckBox.selectedProperty().bindBidirectional(viewModel.rasterizeCanvasChartProperty());
+        rasterChartCheckBox.disableProperty().bind(viewModel.useCanvasChartProperty().not());
+        liveTailCheckBox.selectedProperty().bindBidirectional(viewModel.liveTailProperty());
+        timingHudCheckBox.selectedProperty().bindBidirectional(viewModel.showTimingHudProperty());
+        exportTimingsButton.disableProperty().bind(viewModel.showTimingHudProperty().not());
         
         // Status and progress bindings
         queryStatusLabel.textProperty().bind(viewModel.statusMessageProperty());
@@ -398,10 +473,52 @@ public class DataExploreController implements Initializable {
             }
         });
         
-        // Set up chart data updates when table data changes
-        viewModel.getTableData().addListener((javafx.collections.ListChangeListener<ObservableList<Object>>) change -> {
-            updateChart();
+        // Extend the chart incrementally as rows are appended, rebuilding only when rows are removed or replaced
+        viewModel.getTableData().addListener((javafx.collections.ListChangeListener<QueryResultRow>) change -> {
+            while (change.next()) {
+                if (change.wasRemoved() || change.wasPermutated() || change.wasUpdated()) {
+                    rebuildChart();
+                    return;
+                }
+                if (change.wasAdded()) {
+                    appendChartRows(change.getAddedSubList());
+                }
+            }
+        });
+        
+        // Switching chart renderers redraws the current results with the selected renderer
+        viewModel.useCanvasChartProperty().addListener((obs, oldVal, newVal) -> {
+            logger.debug("Chart renderer changed to {}", newVal ? "canvas" : "line chart");
+            setupChart();
+            rebuildChart();
         });
+        viewModel.rasterizeCanvasChartProperty().addListener((obs, oldVal, newVal) -> canvasChart.setRasterized(newVal));
+        
+        // The live tail chart replaces the query results chart while selected
+        viewModel.liveTailProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal) {
+                startLiveTail();
+            } else {
+                stopLiveTail();
+            }
+        });
+    }
+    
+    private void startLiveTail() {
+        LiveDataSubscription subscription = viewModel.startLiveTail();
+        if (subscription == null) {
+            javafx.application.Platform.runLater(() -> viewModel.liveTailProperty().set(false));
+            return;
+        }
+        liveTailChart.setSeries(subscription.getBuffers());
+        showChartPlaceholder(false);
+        liveTailChart.start();
+    }
+    
+    private void stopLiveTail() {
+        liveTailChart.stop();
+        viewModel.stopLiveTail();
+        showChartPlaceholder(viewModel.getTableData().isEmpty());
     }
     
     private void setupTableColumns() {
@@ -412,11 +529,11 @@ public class DataExploreController implements Initializable {
             final int columnIndex = i;
             String columnName = columnNames.get(i);
             
-            TableColumn<ObservableList<Object>, Object> column = new TableColumn<>(columnName);
+            TableColumn<QueryResultRow, Object> column = new TableColumn<>(columnName);
             column.setCellValueFactory(param -> {
-                ObservableList<Object> row = param.getValue();
-                if (row != null && columnIndex < row.size()) {
-                    return new javafx.beans.property.SimpleObjectProperty<>(row.get(columnIndex));
+                QueryResultRow row = param.getValue();
+                if (row != null) {
+                    return new javafx.beans.property.SimpleObjectProperty<>(row.getColumnValue(columnIndex));
                 }
                 return new javafx.beans.property.SimpleObjectProperty<>("N/A");
             });
@@ -431,6 +548,10 @@ public class DataExploreController implements Initializable {
     private void setupChart() {
         logger.debug("setupChart() called with column names: {}", viewModel.getTableColumnNames());
         resultsChart.getData().clear();
+        chartModel.setSeries(List.of(), 0, 1);
+        canvasChart.setSeries(List.of(), 0, 1);
+        chartWindowMode = false;
+        chartWindowGeneration++;
         
         ObservableList<String> columnNames = viewModel.getTableColumnNames();
         if (columnNames.isEmpty()) {
@@ -438,254 +559,375 @@ public class DataExploreController implements Initializable {
             return;
         }
         
-        // Create a series for each PV (skip timestamp column)
-        int seriesCount = 0;
+        long originNanos = viewModel.getQueryRangeBeginNanos();
+        long rangeNanos = Math.max(1, viewModel.getQueryRangeEndNanos() - originNanos);
+        chartViewBeginNanos = originNanos;
+        chartViewEndNanos = originNanos + rangeNanos;
+        
+        List<String> pvNames = new ArrayList<>();
         for (String columnName : columnNames) {
             if (!columnName.equals("timestamp")) {
-                XYChart.Series<Number, Number> series = new XYChart.Series<>();
-                series.setName(columnName);
-                resultsChart.getData().add(series);
-                seriesCount++;
-                logger.debug("Added series for PV: {}", columnName);
+                pvNames.add(columnName);
             }
         }
         
-        logger.debug("Chart set up for {} PV series out of {} total columns", seriesCount, columnNames.size());
-    }
-    
-    private void updateChart() {
-        logger.debug("updateChart() called - chart has {} series", resultsChart.getData().size());
-        
-        if (resultsChart.getData().isEmpty()) {
-            logger.debug("Chart data is empty, skipping update");
+        if (viewModel.useCanvasChartProperty().get()) {
+            canvasChart.setSeries(pvNames, originNanos, rangeNanos);
+            logger.debug("Canvas chart set up for {} PV series", pvNames.size());
             return;
         }
         
-        ObservableList<String> columnNames = viewModel.getTableColumnNames();
-        ObservableList<ObservableList<Object>> tableData = viewModel.getTableData();
-        
-        logger.debug("updateChart() - columnNames: {}, tableData rows: {}", columnNames, tableData.size());
-        
-        if (columnNames.isEmpty() || tableData.isEmpty()) {
-            logger.debug("No column names or table data, showing placeholder");
-            showChartPlaceholder(true);
-            return;
+        // Create a series for each PV (skip timestamp column)
+        for (String pvName : pvNames) {
+            XYChart.Series<Number, Number> series = new XYChart.Series<>();
+            series.setName(pvName);
+            resultsChart.getData().add(series);
+            logger.debug("Added series for PV: {}", pvName);
         }
         
-        // Clear existing data points
-        for (XYChart.Series<Number, Number> series : resultsChart.getData()) {
-            series.getData().clear();
+        // All points are kept by the model and decimated to the plot width for display
+        chartModel.setSeries(pvNames, originNanos, rangeNanos);
+        if (chartXAxis.getWidth() > 0) {
+            chartModel.setPixelWidth((int) chartXAxis.getWidth());
         }
         
-        // Reset the NumberAxis range for proper scaling
-        chartXAxis.setAutoRanging(true);
-        chartYAxis.setAutoRanging(true);
+        configureAxisTicks(0, rangeNanos / 1_000_000_000.0);
+        resetYAxisRange();
         
-        // Find timestamp column index
-        int timestampIndex = -1;
-        for (int i = 0; i < columnNames.size(); i++) {
-            if (columnNames.get(i).equals("timestamp")) {
-                timestampIndex = i;
-                break;
-            }
+        // Set up chart area mouse tracking for tooltips (no symbols needed)
+        setupChartMouseTracking();
+        
+        logger.debug("Chart set up for {} PV series out of {} total columns", pvNames.size(), columnNames.size());
+    }
+    
+    /**
+     * Clears all chart points and adds the full table again.  Only needed when rows are removed or replaced,
+     * or when the renderer changes.
+     */
+    private void rebuildChart() {
+        logger.debug("rebuildChart() called - chart has {} series", resultsChart.getData().size());
+        chartWindowMode = false;
+        chartWindowGeneration++;
+        
+        for (XYChart.Series<Number, Number> series : resultsChart.getData()) {
+            series.getData().clear();
         }
+        resetYAxisRange();
+        chartModel.clear();
+        canvasChart.clearPoints();
         
-        if (timestampIndex == -1) {
-            logger.warn("No timestamp column found for chart");
+        ObservableList<QueryResultRow> tableData = viewModel.getTableData();
+        if (tableData.isEmpty()) {
+            logger.debug("No table data, showing placeholder");
             showChartPlaceholder(true);
             return;
         }
-        
-        // Calculate dynamic sample interval based on time range and data density
-        int totalRows = tableData.size();
-        int sampleInterval = calculateDynamicSampleInterval(tableData, timestampIndex, totalRows);
-        
-        logger.info("Processing {} rows with sample interval {}, timestamp column at index {}", totalRows, sampleInterval, timestampIndex);
-        
-        // Debug first few timestamps to understand data structure
-        if (totalRows > 0) {
-            for (int i = 0; i < Math.min(5, totalRows); i++) {
-                ObservableList<Object> row = tableData.get(i);
-                if (row.size() > timestampIndex) {
-                    Object timestampObj = row.get(timestampIndex);
-                    Double parsedSeconds = parseTimestampToSeconds(timestampObj);
-                    logger.info("Sample row {}: timestamp = {}, parsed as {} seconds", i, timestampObj, parsedSeconds);
-                }
-            }
+        appendChartRows(tableData);
+    }
+    
+    /**
+     * Adds newly appended, time-ordered rows to the active chart renderer.
+     */
+    private void appendChartRows(List<? extends QueryResultRow> rows) {
+        if (chartWindowMode) {
+            // the chart is showing a window fetched outside the loaded rows
+            return;
         }
-        
-        // Find the start time for relative time calculation
-        Double startTimeSeconds = null;
-        if (totalRows > 0) {
-            ObservableList<Object> firstRow = tableData.get(0);
-            if (firstRow.size() > timestampIndex) {
-                startTimeSeconds = parseTimestampToSeconds(firstRow.get(timestampIndex));
+        if (viewModel.useCanvasChartProperty().get()) {
+            if (canvasChart.getSeriesCount() == 0 || rows.isEmpty()) {
+                return;
             }
+            forEachChunkRun(rows, canvasChart::appendRows);
+            canvasChart.requestRedraw();
+            if (canvasChart.getPointCount() > 0) {
+                showChartPlaceholder(false);
+            }
+            logger.debug("Canvas chart appended {} rows ({} total points)", rows.size(), canvasChart.getPointCount());
+            return;
         }
         
-        if (startTimeSeconds == null) {
-            logger.warn("Could not determine start time for chart");
-            showChartPlaceholder(true);
+        if (chartModel.getSeriesCount() == 0 || rows.isEmpty()) {
             return;
         }
+        forEachChunkRun(rows, chartModel::appendRows);
+        chartModel.requestUpdate();
         
-        int dataPointsAdded = 0;
-        // Populate chart with sampled data
-        for (int rowIndex = 0; rowIndex < totalRows; rowIndex += sampleInterval) {
-            ObservableList<Object> row = tableData.get(rowIndex);
-            if (row.size() <= timestampIndex) {
-                continue;
-            }
-            
-            Double timeSeconds = parseTimestampToSeconds(row.get(timestampIndex));
-            if (timeSeconds == null) {
-                continue;
-            }
-            
-            // Calculate relative time from start
-            double relativeTimeSeconds = timeSeconds - startTimeSeconds;
-            
-            // Debug first few data points to see relative times
-            if (dataPointsAdded < 5) {
-                logger.info("Data point {}: absolute time={}, start time={}, relative time={} seconds", 
-                           dataPointsAdded, timeSeconds, startTimeSeconds, relativeTimeSeconds);
-            }
-            
-            // Add data points for each PV series
-            int seriesIndex = 0;
-            for (int colIndex = 0; colIndex < columnNames.size(); colIndex++) {
-                if (colIndex == timestampIndex) {
-                    continue; // Skip timestamp column
-                }
-                
-                if (seriesIndex < resultsChart.getData().size() && colIndex < row.size()) {
-                    Object value = row.get(colIndex);
-                    Number numericValue = parseNumericValue(value);
-                    
-                    if (numericValue != null) {
-                        XYChart.Series<Number, Number> series = resultsChart.getData().get(seriesIndex);
-                        XYChart.Data<Number, Number> dataPoint = new XYChart.Data<>(relativeTimeSeconds, numericValue);
-                        
-                        // Store original data for tooltip
-                        Object originalTimestamp = row.get(timestampIndex);
-                        dataPoint.setExtraValue(new DataPointInfo(originalTimestamp, value, columnNames.get(colIndex)));
-                        
-                        series.getData().add(dataPoint);
-                        dataPointsAdded++;
-                    }
-                }
-                seriesIndex++;
-            }
+        double minY = chartModel.getMinValue();
+        double maxY = chartModel.getMaxValue();
+        if (minY < chartMinY || maxY > chartMaxY) {
+            chartMinY = minY;
+            chartMaxY = maxY;
+            configureYAxisTicks();
         }
         
-        // Configure tick units for better alignment after data is added
-        configureAxisTicks(startTimeSeconds, totalRows);
-        
-        showChartPlaceholder(false);
-        
-        // Set up chart area mouse tracking for tooltips (no symbols needed)
-        setupChartMouseTracking();
+        logger.debug("Chart appended {} rows ({} total points)", rows.size(), chartModel.getPointCount());
+    }
+    
+    /**
+     * Replaces the line chart series data with newly decimated points.
+     */
+    private void publishChartPoints(List<List<XYChart.Data<Number, Number>>> seriesPoints) {
+        long startNanos = System.nanoTime();
+        int seriesCount = Math.min(seriesPoints.size(), resultsChart.getData().size());
+        for (int seriesIndex = 0; seriesIndex < seriesCount; seriesIndex++) {
+            resultsChart.getData().get(seriesIndex).getData().setAll(seriesPoints.get(seriesIndex));
+        }
+        StageMetrics.record(StageMetrics.Stage.RENDER, System.nanoTime() - startNanos);
+        chartLayoutPending = true;
+        if (chartModel.getPublishedPointCount() > 0) {
+            showChartPlaceholder(false);
+        }
+    }
+    
+    /**
+     * Sets the visible chart window in epoch nanoseconds and applies it to the active renderer.  When the change is
+     * finished, rows outside the loaded data are fetched once the window has stopped changing.
+     */
+    private void setChartView(long beginNanos, long endNanos, boolean finished) {
+        if (endNanos - beginNanos < MIN_CHART_VIEW_NANOS) {
+            long center = beginNanos + (endNanos - beginNanos) / 2;
+            beginNanos = center - MIN_CHART_VIEW_NANOS / 2;
+            endNanos = beginNanos + MIN_CHART_VIEW_NANOS;
+        }
+        chartViewBeginNanos = beginNanos;
+        chartViewEndNanos = endNanos;
+        
+        long originNanos = viewModel.getQueryRangeBeginNanos();
+        if (viewModel.useCanvasChartProperty().get()) {
+            canvasChart.setViewRange(beginNanos - originNanos, endNanos - originNanos);
+        } else {
+            configureAxisTicks((beginNanos - originNanos) / 1_000_000_000.0, (endNanos - originNanos) / 1_000_000_000.0);
+            chartModel.setViewRange(beginNanos - originNanos, endNanos - originNanos);
+            chartModel.requestUpdate();
+        }
         
-        logger.debug("Chart updated with {} sampled data points", totalRows / Math.max(1, sampleInterval));
+        if (finished) {
+            chartLoadDebounce.playFromStart();
+        }
     }
     
-    private String formatTimestampForChart(Object timestampValue) {
-        if (timestampValue == null) {
-            return "N/A";
+    /**
+     * Makes sure the chart has data for the visible window.  Windows inside the rows loaded by the query are drawn
+     * from them; any other window is fetched at full resolution through the query cache and shown on its own.
+     * The windows on either side of the view are then prefetched into the cache, so panning does not wait for the
+     * archive.
+     */
+    private void ensureChartWindowLoaded() {
+        boolean useCanvas = viewModel.useCanvasChartProperty().get();
+        int seriesCount = useCanvas ? canvasChart.getSeriesCount() : chartModel.getSeriesCount();
+        if (viewModel.isQueryingProperty().get() || seriesCount == 0) {
+            return;
         }
         
-        String timestamp = timestampValue.toString();
-        // Simplify timestamp format for chart display (show only time part if same date)
-        if (timestamp.contains("T")) {
-            String[] parts = timestamp.split("T");
-            if (parts.length > 1) {
-                return parts[1].substring(0, Math.min(8, parts[1].length())); // HH:mm:ss
+        final long beginNanos = chartViewBeginNanos;
+        final long endNanos = chartViewEndNanos;
+        long loadedBeginNanos = viewModel.getQueryRangeBeginNanos();
+        long loadedEndNanos = viewModel.getLoadedRangeEndNanos();
+        
+        if (beginNanos >= loadedBeginNanos && endNanos <= loadedEndNanos) {
+            if (chartWindowMode) {
+                logger.debug("Chart view is back inside the loaded rows, redrawing from table data");
+                rebuildChart();
+                setChartView(beginNanos, endNanos, false);
             }
+            prefetchAroundChartView(loadedBeginNanos, loadedEndNanos);
+            return;
+        }
+        if (chartWindowMode && beginNanos >= chartWindowBeginNanos && endNanos <= chartWindowEndNanos) {
+            prefetchAroundChartView(chartWindowBeginNanos, chartWindowEndNanos);
+            return;
         }
         
-        return timestamp;
+        final long generation = ++chartWindowGeneration;
+        viewModel.updateStatus("Loading chart window...");
+        viewModel.loadChartWindow(beginNanos, endNanos).whenComplete((chunks, ex) -> javafx.application.Platform.runLater(() -> {
+            if (generation != chartWindowGeneration) {
+                // the view moved on or a new query started while this window was loading
+                return;
+            }
+            if (ex != null) {
+                logger.error("Failed to load chart window", ex);
+                viewModel.updateStatus("Failed to load chart window: " + ex.getMessage());
+                return;
+            }
+            showChartWindow(beginNanos, endNanos, chunks);
+            prefetchAroundChartView(beginNanos, endNanos);
+        }));
     }
     
-    private Number parseNumericValue(Object value) {
-        if (value == null) {
-            return null;
+    /**
+     * Replaces the chart data with rows fetched for a window outside the loaded rows.
+     */
+    private void showChartWindow(long beginNanos, long endNanos, List<QueryResultChunk> chunks) {
+        chartWindowMode = true;
+        chartWindowBeginNanos = beginNanos;
+        chartWindowEndNanos = endNanos;
+        
+        resetYAxisRange();
+        chartModel.clear();
+        canvasChart.clearPoints();
+        int rowCount = 0;
+        for (QueryResultChunk chunk : chunks) {
+            rowCount += chunk.getRowCount();
+            if (viewModel.useCanvasChartProperty().get()) {
+                canvasChart.appendRows(chunk, 0, chunk.getRowCount());
+            } else {
+                chartModel.appendRows(chunk, 0, chunk.getRowCount());
+            }
         }
-        
-        if (value instanceof Number) {
-            return (Number) value;
+        if (viewModel.useCanvasChartProperty().get()) {
+            canvasChart.requestRedraw();
+        } else {
+            chartMinY = chartModel.getMinValue();
+            chartMaxY = chartModel.getMaxValue();
+            configureYAxisTicks();
+            chartModel.requestUpdate();
         }
         
-        try {
-            return Double.parseDouble(value.toString());
-        } catch (NumberFormatException e) {
-            return null;
-        }
+        viewModel.updateStatus("Chart showing " + rowCount + " row(s) loaded for the visible window");
+        logger.debug("Chart window {} to {} loaded with {} rows", beginNanos, endNanos, rowCount);
     }
     
-    private Double parseTimestampToSeconds(Object timestampValue) {
-        if (timestampValue == null) {
-            return null;
+    /**
+     * Prefetches the windows of the current view width on each side of the view, where they fall outside the
+     * specified range that the chart already has data for.
+     */
+    private void prefetchAroundChartView(long haveBeginNanos, long haveEndNanos) {
+        long widthNanos = chartViewEndNanos - chartViewBeginNanos;
+        long beforeBegin = chartViewBeginNanos - widthNanos;
+        if (beforeBegin < haveBeginNanos) {
+            viewModel.prefetchChartWindow(beforeBegin, Math.min(chartViewBeginNanos, haveBeginNanos));
         }
-        
-        String timestamp = timestampValue.toString();
-        try {
-            // Try to parse ISO format: 2024-01-01T10:30:45.123456
-            if (timestamp.contains("T")) {
-                LocalDateTime dateTime = LocalDateTime.parse(timestamp, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                // Include fractional seconds for sub-second precision
-                long epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
-                int nanoOfSecond = dateTime.getNano();
-                return epochSecond + (nanoOfSecond / 1_000_000_000.0);
+        long afterEnd = chartViewEndNanos + widthNanos;
+        if (afterEnd > haveEndNanos) {
+            viewModel.prefetchChartWindow(Math.max(chartViewEndNanos, haveEndNanos), afterEnd);
+        }
+    }
+    
+    /**
+     * Installs drag-to-zoom, pan, scroll zoom and double-click reset on the line chart.  Dragging with the primary
+     * button selects a window to zoom to; dragging with the secondary button or with shift held pans.
+     */
+    private void setupChartZoomHandlers() {
+        resultsChart.setOnMousePressed(event -> {
+            chartDragStartX = event.getX();
+            chartDragPanning = event.getButton() == MouseButton.SECONDARY || event.isShiftDown();
+            chartDragStartViewBegin = chartViewBeginNanos;
+            chartDragStartViewEnd = chartViewEndNanos;
+        });
+        resultsChart.setOnMouseDragged(event -> {
+            if (chartDragStartX < 0 || resultsChart.getData().isEmpty()) {
+                return;
             }
-            
-            // Fallback: try to parse as double (epoch seconds)
-            return Double.parseDouble(timestamp);
-        } catch (Exception e) {
-            logger.warn("Could not parse timestamp '{}': {}", timestamp, e.getMessage());
-            return null;
+            if (chartDragPanning) {
+                double nanosPerPixel = (chartDragStartViewEnd - chartDragStartViewBegin) / Math.max(1, chartXAxis.getWidth());
+                long deltaNanos = (long) ((chartDragStartX - event.getX()) * nanosPerPixel);
+                setChartView(chartDragStartViewBegin + deltaNanos, chartDragStartViewEnd + deltaNanos, false);
+            } else {
+                showZoomSelection(chartDragStartX, event.getX());
+            }
+        });
+        resultsChart.setOnMouseReleased(event -> {
+            if (chartDragStartX < 0 || resultsChart.getData().isEmpty()) {
+                chartDragStartX = -1;
+                return;
+            }
+            if (chartDragPanning) {
+                setChartView(chartViewBeginNanos, chartViewEndNanos, true);
+            } else if (Math.abs(event.getX() - chartDragStartX) >= MIN_ZOOM_SELECTION_PIXELS) {
+                long first = chartTimeForX(chartDragStartX);
+                long second = chartTimeForX(event.getX());
+                setChartView(Math.min(first, second), Math.max(first, second), true);
+            }
+            zoomSelectionRect.setVisible(false);
+            chartDragStartX = -1;
+        });
+        resultsChart.setOnScroll(event -> {
+            if (event.getDeltaY() == 0 || resultsChart.getData().isEmpty()) {
+                return;
+            }
+            double factor = event.getDeltaY() > 0 ? SCROLL_ZOOM_FACTOR : 1 / SCROLL_ZOOM_FACTOR;
+            long anchor = chartTimeForX(event.getX());
+            setChartView(
+                anchor - (long) ((anchor - chartViewBeginNanos) * factor),
+                anchor + (long) ((chartViewEndNanos - anchor) * factor),
+                true);
+        });
+        resultsChart.setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2 && !resultsChart.getData().isEmpty()) {
+                setChartView(viewModel.getQueryRangeBeginNanos(), viewModel.getQueryRangeEndNanos(), true);
+            }
+        });
+    }
+    
+    /**
+     * Returns the epoch nanosecond time at the specified x coordinate in the line chart's coordinate space.
+     */
+    private long chartTimeForX(double chartX) {
+        Point2D axisPoint = chartXAxis.sceneToLocal(resultsChart.localToScene(chartX, 0));
+        double seconds = chartXAxis.getValueForDisplay(axisPoint.getX()).doubleValue();
+        return viewModel.getQueryRangeBeginNanos() + (long) (seconds * 1_000_000_000L);
+    }
+    
+    /**
+     * Shows the zoom selection rectangle between two x coordinates of the line chart, spanning the plot height.
+     */
+    private void showZoomSelection(double startX, double endX) {
+        Node parent = zoomSelectionRect.getParent();
+        Point2D start = parent.sceneToLocal(resultsChart.localToScene(Math.min(startX, endX), 0));
+        Bounds plotBounds = parent.sceneToLocal(chartYAxis.localToScene(chartYAxis.getBoundsInLocal()));
+        zoomSelectionRect.setX(start.getX());
+        zoomSelectionRect.setY(plotBounds.getMinY());
+        zoomSelectionRect.setWidth(Math.abs(endX - startX));
+        zoomSelectionRect.setHeight(plotBounds.getHeight());
+        zoomSelectionRect.setVisible(true);
+    }
+    
+    /**
+     * Receives a run of consecutive rows [fromRow, toRow) of a single chunk.
+     */
+    private interface ChunkRunConsumer {
+        void accept(QueryResultChunk chunk, int fromRow, int toRow);
+    }
+    
+    /**
+     * Passes the rows to the consumer as runs of consecutive rows from the same chunk.
+     */
+    private static void forEachChunkRun(List<? extends QueryResultRow> rows, ChunkRunConsumer consumer) {
+        QueryResultChunk runChunk = null;
+        int runFrom = 0;
+        int runTo = 0;
+        for (QueryResultRow row : rows) {
+            if (row.getChunk() == runChunk && row.getRowIndex() == runTo) {
+                runTo++;
+                continue;
+            }
+            if (runChunk != null) {
+                consumer.accept(runChunk, runFrom, runTo);
+            }
+            runChunk = row.getChunk();
+            runFrom = row.getRowIndex();
+            runTo = runFrom + 1;
+        }
+        if (runChunk != null) {
+            consumer.accept(runChunk, runFrom, runTo);
         }
     }
     
-    private void configureAxisTicks(Double startTimeSeconds, int totalRows) {
-        if (startTimeSeconds == null || totalRows == 0) {
+    private void configureAxisTicks(double lowerSeconds, double upperSeconds) {
+        double timeRangeSeconds = upperSeconds - lowerSeconds;
+        if (timeRangeSeconds <= 0) {
             return;
         }
         
-        // Configure X-axis (time) tick units based on time range
-        ObservableList<ObservableList<Object>> tableData = viewModel.getTableData();
-        if (tableData.size() > 1) {
-            // Find the time range in seconds
-            ObservableList<Object> lastRow = tableData.get(tableData.size() - 1);
-            ObservableList<String> columnNames = viewModel.getTableColumnNames();
-            
-            int timestampIndex = -1;
-            for (int i = 0; i < columnNames.size(); i++) {
-                if (columnNames.get(i).equals("timestamp")) {
-                    timestampIndex = i;
-                    break;
-                }
-            }
-            
-            if (timestampIndex != -1 && lastRow.size() > timestampIndex) {
-                Double endTimeSeconds = parseTimestampToSeconds(lastRow.get(timestampIndex));
-                if (endTimeSeconds != null) {
-                    double timeRangeSeconds = endTimeSeconds - startTimeSeconds;
-                    
-                    // Set appropriate tick units based on time range
-                    double xTickUnit = calculateOptimalTickUnit(timeRangeSeconds, 8); // Target ~8 ticks
-                    chartXAxis.setTickUnit(xTickUnit);
-                    chartXAxis.setAutoRanging(false);
-                    chartXAxis.setLowerBound(0);
-                    chartXAxis.setUpperBound(timeRangeSeconds);
-                    
-                    logger.info("Configured X-axis: range={} seconds, tick unit={}, showing {} actual data points", 
-                               timeRangeSeconds, xTickUnit, totalRows);
-                }
-            }
-        }
+        // Configure X-axis (time) to span the visible window, so it stays fixed while rows stream in
+        double xTickUnit = calculateOptimalTickUnit(timeRangeSeconds, 8); // Target ~8 ticks
+        chartXAxis.setTickUnit(xTickUnit);
+        chartXAxis.setAutoRanging(false);
+        chartXAxis.setLowerBound(lowerSeconds);
+        chartXAxis.setUpperBound(upperSeconds);
         
-        // Configure Y-axis tick units based on data range
-        configureYAxisTicks();
+        logger.debug("Configured X-axis: {} to {} seconds, tick unit={}", lowerSeconds, upperSeconds, xTickUnit);
     }
     
     private double calculateOptimalTickUnit(double range, int targetTicks) {
@@ -727,21 +969,22 @@ public class DataExploreController implements Initializable {
         return niceUnit * magnitude;
     }
     
+    private void resetYAxisRange() {
+        chartMinY = Double.POSITIVE_INFINITY;
+        chartMaxY = Double.NEGATIVE_INFINITY;
+        chartYAxis.setAutoRanging(true);
+    }
+    
     private void configureYAxisTicks() {
-        // Find the Y-axis data range
-        double minY = Double.MAX_VALUE;
-        double maxY = Double.MIN_VALUE;
-        
-        for (XYChart.Series<Number, Number> series : resultsChart.getData()) {
-            for (XYChart.Data<Number, Number> dataPoint : series.getData()) {
-                double value = dataPoint.getYValue().doubleValue();
-                minY = Math.min(minY, value);
-                maxY = Math.max(maxY, value);
-            }
-        }
+        // Y-axis data range is tracked as points are appended
+        double minY = chartMinY;
+        double maxY = chartMaxY;
         
-        if (minY != Double.MAX_VALUE && maxY != Double.MIN_VALUE && maxY > minY) {
+        if (minY <= maxY) {
             double range = maxY - minY;
+            if (range == 0) {
+                range = Math.max(1.0, Math.abs(maxY));
+            }
             double yTickUnit = calculateOptimalTickUnit(range, 6); // Target ~6 ticks
             
             // Add some padding to the range
@@ -758,56 +1001,18 @@ public class DataExploreController implements Initializable {
         }
     }
     
-    private int calculateDynamicSampleInterval(ObservableList<ObservableList<Object>> tableData, int timestampIndex, int totalRows) {
-        if (totalRows <= 1000) {
-            logger.info("Dynamic sampling: {} total rows <= 1000, showing all data points (interval=1)", totalRows);
-            return 1; // Show all data points for small datasets
-        }
-        
-        // Calculate time range to determine appropriate sampling
-        ObservableList<Object> firstRow = tableData.get(0);
-        ObservableList<Object> lastRow = tableData.get(totalRows - 1);
-        
-        if (firstRow.size() <= timestampIndex || lastRow.size() <= timestampIndex) {
-            return Math.max(1, totalRows / 1000); // Fallback to row-based sampling
-        }
-        
-        Double startTime = parseTimestampToSeconds(firstRow.get(timestampIndex));
-        Double endTime = parseTimestampToSeconds(lastRow.get(timestampIndex));
-        
-        if (startTime == null || endTime == null) {
-            return Math.max(1, totalRows / 1000); // Fallback to row-based sampling
-        }
-        
-        double timeRangeSeconds = endTime - startTime;
-        
-        // Dynamic sampling based on time range:
-        // - For short ranges (< 60s): show more detail
-        // - For medium ranges (1-10 min): moderate sampling
-        // - For long ranges (> 10 min): more aggressive sampling
-        int targetPoints;
-        if (timeRangeSeconds < 60) {
-            targetPoints = 2000; // High detail for sub-minute ranges
-        } else if (timeRangeSeconds < 600) { // < 10 minutes
-            targetPoints = 1500; // Medium detail
-        } else if (timeRangeSeconds < 3600) { // < 1 hour
-            targetPoints = 1000; // Standard detail
-        } else {
-            targetPoints = 500; // Lower detail for long ranges
-        }
-        
-        int sampleInterval = Math.max(1, totalRows / targetPoints);
-        logger.info("Dynamic sampling: {} seconds range, {} total rows, {} target points, interval={} (will show ~{} points)", 
-                    timeRangeSeconds, totalRows, targetPoints, sampleInterval, totalRows / sampleInterval);
-        
-        return sampleInterval;
-    }
-    
     private void showChartPlaceholder(boolean show) {
+        boolean live = viewModel.liveTailProperty().get();
+        show = show && !live;
         chartPlaceholder.setVisible(show);
         chartPlaceholder.setManaged(show);
-        resultsChart.setVisible(!show);
-        resultsChart.setManaged(!show);
+        boolean useCanvas = viewModel.useCanvasChartProperty().get();
+        resultsChart.setVisible(!show && !live && !useCanvas);
+        resultsChart.setManaged(!show && !live && !useCanvas);
+        canvasChart.setVisible(!show && !live && useCanvas);
+        canvasChart.setManaged(!show && !live && useCanvas);
+        liveTailChart.setVisible(live);
+        liveTailChart.setManaged(live);
     }
     
     private void setupSpinnerBinding(Spinner<Integer> spinner, javafx.beans.property.IntegerProperty viewModelProperty, String name) {
@@ -949,6 +1154,12 @@ public class DataExploreController implements Initializable {
         }
     }
     
+    @FXML
+    private void onStopQuery() {
+        logger.info("Query stop requested by user");
+        viewModel.stopQuery();
+    }
+    
     @FXML
     private void onCancelQuery() {
         logger.info("Query cancelled by user");
@@ -1364,107 +1575,89 @@ public class DataExploreController implements Initializable {
         }
     }
     
-    private void setupChartTooltipsWithRetry(int attemptCount) {
-        final int MAX_ATTEMPTS = 10;
-        final int DELAY_MS = 100;
-        
-        if (attemptCount >= MAX_ATTEMPTS) {
-            logger.warn("Failed to set up tooltips after {} attempts - nodes still not available", MAX_ATTEMPTS);
-            return;
-        }
-        
-        javafx.application.Platform.runLater(() -> {
-            boolean allNodesReady = true;
-            int availableNodes = 0;
-            int totalDataPoints = 0;
-            
-            // Check if all nodes are available
-            for (XYChart.Series<Number, Number> series : resultsChart.getData()) {
-                for (XYChart.Data<Number, Number> dataPoint : series.getData()) {
-                    totalDataPoints++;
-                    if (dataPoint.getNode() != null) {
-                        availableNodes++;
-                    } else {
-                        allNodesReady = false;
-                    }
-                }
-            }
-            
-            logger.debug("Tooltip setup attempt {}: {}/{} nodes available", attemptCount + 1, availableNodes, totalDataPoints);
-            
-            if (allNodesReady && totalDataPoints > 0) {
-                // All nodes are ready, set up tooltips
-                setupChartTooltips();
-            } else {
-                // Retry after a delay
-                javafx.concurrent.Task<Void> delayTask = new javafx.concurrent.Task<Void>() {
-                    @Override
-                    protected Void call() throws Exception {
-                        Thread.sleep(DELAY_MS);
-                        return null;
-                    }
-                };
-                delayTask.setOnSucceeded(e -> setupChartTooltipsWithRetry(attemptCount + 1));
-                new Thread(delayTask).start();
-            }
-        });
-    }
-    
-    private void setupChartTooltips() {
-        logger.debug("Setting up chart tooltips for {} series", resultsChart.getData().size());
-        
-        int tooltipCount = 0;
-        // Set up tooltips for each series
-        for (XYChart.Series<Number, Number> series : resultsChart.getData()) {
-            for (XYChart.Data<Number, Number> dataPoint : series.getData()) {
-                Node node = dataPoint.getNode();
-                if (node != null && dataPoint.getExtraValue() instanceof DataPointInfo) {
-                    DataPointInfo info = (DataPointInfo) dataPoint.getExtraValue();
-                    String tooltipText = formatTooltip(info);
-                    
-                    Tooltip tooltip = new Tooltip(tooltipText);
-                    tooltip.setStyle("-fx-font-size: 12px; -fx-background-color: rgba(0,0,0,0.8); -fx-text-fill: white;");
-                    Tooltip.install(node, tooltip);
-                    tooltipCount++;
-                } else {
-                    logger.debug("Skipping tooltip - node: {}, extraValue type: {}", 
-                               node != null ? "exists" : "null", 
-                               dataPoint.getExtraValue() != null ? dataPoint.getExtraValue().getClass().getSimpleName() : "null");
-                }
-            }
-        }
-        
-        logger.info("Installed {} tooltips on chart data points", tooltipCount);
-    }
-    
-    private String formatTooltip(DataPointInfo info) {
+    private String formatTooltip(DecimatedSeriesModel.NearestPoint point) {
         StringBuilder sb = new StringBuilder();
-        sb.append("PV: ").append(info.pvName).append("\n");
-        sb.append("Value: ").append(info.value).append("\n");
-        sb.append("Time: ").append(formatTimestampForTooltip(info.timestamp));
+        sb.append("PV: ").append(point.seriesName).append("\n");
+        sb.append("Value: ").append(point.integral ? String.valueOf((long) point.value) : String.valueOf(point.value)).append("\n");
+        sb.append("Time: ").append(QueryResultChunk.formatTimestamp(point.timestampNanos));
         return sb.toString();
     }
     
-    private String formatTimestampForTooltip(Object timestampValue) {
-        if (timestampValue == null) {
-            return "N/A";
+    private Tooltip mouseTrackingTooltip;
+    
+    // Stage timing HUD refresh, and timing of the layout pass following a line chart update
+    private final Timeline chartTimingHudTimeline = new Timeline(
+        new KeyFrame(Duration.millis(500), e -> chartTimingHud.setText(StageMetrics.formatSummary())));
+    private boolean chartLayoutPending = false;
+    private long chartLayoutStartNanos = 0;
+    private final Runnable chartPreLayoutListener = () -> {
+        if (chartLayoutPending) {
+            chartLayoutStartNanos = System.nanoTime();
+        }
+    };
+    private final Runnable chartPostLayoutListener = () -> {
+        if (chartLayoutPending && chartLayoutStartNanos != 0) {
+            StageMetrics.record(StageMetrics.Stage.LAYOUT, System.nanoTime() - chartLayoutStartNanos);
+            chartLayoutPending = false;
+            chartLayoutStartNanos = 0;
+        }
+    };
+    
+    private void updateTimingHud(boolean show) {
+        if (show) {
+            StageMetrics.startRecording();
+            chartTimingHud.setText(StageMetrics.formatSummary());
+            chartTimingHudTimeline.play();
+        } else {
+            chartTimingHudTimeline.stop();
+            StageMetrics.stopRecording();
         }
+    }
+    
+    @FXML
+    private void onExportTimings() {
+        javafx.stage.FileChooser fileChooser = new javafx.stage.FileChooser();
+        fileChooser.setTitle("Export Stage Timings");
+        fileChooser.setInitialFileName("data-explorer-timings.jfr");
+        fileChooser.getExtensionFilters().add(
+            new javafx.stage.FileChooser.ExtensionFilter("Flight Recorder Files", "*.jfr")
+        );
         
-        String timestamp = timestampValue.toString();
-        // Format timestamp for tooltip display
-        if (timestamp.contains("T")) {
-            String[] parts = timestamp.split("T");
-            if (parts.length > 1) {
-                String datePart = parts[0];
-                String timePart = parts[1].substring(0, Math.min(8, parts[1].length())); // HH:mm:ss
-                return datePart + " " + timePart;
+        java.io.File selectedFile = fileChooser.showSaveDialog(primaryStage);
+        if (selectedFile != null) {
+            try {
+                StageMetrics.dumpRecording(selectedFile.toPath());
+                viewModel.updateStatus("Stage timings exported to " + selectedFile.getName());
+            } catch (Exception e) {
+                logger.error("Failed to export stage timings: {}", e.getMessage());
+                viewModel.updateStatus("Failed to export stage timings: " + e.getMessage());
             }
         }
-        
-        return timestamp;
     }
     
-    private Tooltip mouseTrackingTooltip;
+    // Line chart point model and y-axis range, reset for each query
+    private DecimatedSeriesModel<XYChart.Data<Number, Number>> chartModel;
+    
+    // Visible chart window in epoch nanoseconds, and the window fetched outside the loaded rows when in window mode
+    private static final long MIN_CHART_VIEW_NANOS = 1_000_000L;
+    private static final double MIN_ZOOM_SELECTION_PIXELS = 5;
+    private static final double SCROLL_ZOOM_FACTOR = 0.8;
+    private static final double CHART_HOVER_DISTANCE_PIXELS = 15;
+    private final PauseTransition chartLoadDebounce = new PauseTransition(Duration.millis(250));
+    private long chartViewBeginNanos = 0;
+    private long chartViewEndNanos = 0;
+    private boolean chartWindowMode = false;
+    private long chartWindowBeginNanos = 0;
+    private long chartWindowEndNanos = 0;
+    private long chartWindowGeneration = 0;
+    
+    // Line chart drag state
+    private double chartDragStartX = -1;
+    private boolean chartDragPanning = false;
+    private long chartDragStartViewBegin = 0;
+    private long chartDragStartViewEnd = 0;
+    private double chartMinY = Double.POSITIVE_INFINITY;
+    private double chartMaxY = Double.NEGATIVE_INFINITY;
     
     private void setupChartMouseTracking() {
         // Create a single tooltip that we'll reuse and reposition
@@ -1481,7 +1674,7 @@ public class DataExploreController implements Initializable {
         // Add mouse tracking to the chart
         resultsChart.setOnMouseMoved(event -> {
             try {
-                DataPointInfo nearestPoint = findNearestDataPoint(event.getX(), event.getY());
+                DecimatedSeriesModel.NearestPoint nearestPoint = findNearestDataPoint(event.getX(), event.getY());
                 if (nearestPoint != null) {
                     String tooltipText = formatTooltip(nearestPoint);
                     mouseTrackingTooltip.setText(tooltipText);
@@ -1512,104 +1705,33 @@ public class DataExploreController implements Initializable {
         logger.debug("Chart mouse tracking enabled");
     }
     
-    private DataPointInfo findNearestPointByValue(double xValue, double yValue) {
-        DataPointInfo nearest = null;
-        double minDistance = Double.MAX_VALUE;
-        
-        // Search through all series for the nearest point
-        for (XYChart.Series<Number, Number> series : resultsChart.getData()) {
-            for (XYChart.Data<Number, Number> dataPoint : series.getData()) {
-                if (dataPoint.getExtraValue() instanceof DataPointInfo) {
-                    double pointX = dataPoint.getXValue().doubleValue();
-                    double pointY = dataPoint.getYValue().doubleValue();
-                    
-                    // Calculate distance (prioritize X-axis distance for time-series)
-                    double deltaX = (pointX - xValue);
-                    double deltaY = (pointY - yValue);
-                    double distance = Math.sqrt(deltaX * deltaX * 4 + deltaY * deltaY); // Weight X more heavily
-                    
-                    if (distance < minDistance) {
-                        minDistance = distance;
-                        nearest = (DataPointInfo) dataPoint.getExtraValue();
-                    }
-                }
-            }
-        }
-        
-        logger.debug("Nearest point search: xValue={}, yValue={}, minDistance={}, found={}", 
-            xValue, yValue, minDistance, nearest != null);
-        
-        // Increase sensitivity threshold to be more forgiving
-        if (minDistance < 15.0) { // Increased from 5.0 to be more forgiving
-            return nearest;
+    /**
+     * Returns the displayed line chart point nearest to the specified chart coordinates, within
+     * CHART_HOVER_DISTANCE_PIXELS.  The lookup binary searches each series' displayed points by time and reads the
+     * point details from the chart model's buffers, so its cost does not grow with the number of points.
+     */
+    private DecimatedSeriesModel.NearestPoint findNearestDataPoint(double mouseX, double mouseY) {
+        if (resultsChart.getData().isEmpty() || chartXAxis.getWidth() <= 0 || chartYAxis.getHeight() <= 0) {
+            return null;
         }
         
-        return null;
-    }
-
-    private DataPointInfo findNearestDataPoint(double mouseX, double mouseY) {
-        if (resultsChart.getData().isEmpty()) {
+        Point2D xAxisPoint = chartXAxis.sceneToLocal(resultsChart.localToScene(mouseX, mouseY));
+        Point2D yAxisPoint = chartYAxis.sceneToLocal(resultsChart.localToScene(mouseX, mouseY));
+        if (xAxisPoint.getX() < 0 || xAxisPoint.getX() > chartXAxis.getWidth()
+                || yAxisPoint.getY() < 0 || yAxisPoint.getY() > chartYAxis.getHeight()) {
             return null;
         }
         
-        try {
-            // Try multiple selectors to find the actual plot area
-            javafx.scene.Node plotArea = null;
-            javafx.geometry.Bounds plotBounds = null;
-            
-            // Try different CSS selectors for the plot area
-            String[] selectors = {
-                ".chart-content", 
-                ".plot-content", 
-                ".chart-plot-background",
-                ".chart-series-area-fill",
-                ".chart-series-area-line"
-            };
-            
-            for (String selector : selectors) {
-                plotArea = resultsChart.lookup(selector);
-                if (plotArea != null) {
-                    plotBounds = plotArea.getBoundsInParent();
-                    logger.debug("Found plot area using selector '{}': bounds = {}", selector, plotBounds);
-                    // Use the first one that gives us a reasonable size (height > 100px)
-                    if (plotBounds.getHeight() > 100) {
-                        break;
-                    }
-                    plotArea = null; // Reset if bounds too small
-                }
-            }
-            
-            if (plotArea == null || plotBounds == null) {
-                // Fallback to original calculation if plot area not found
-                logger.debug("No suitable plot area found, using fallback coordinate calculation");
-                Number xNum = chartXAxis.getValueForDisplay(mouseX - chartXAxis.getLayoutX());
-                Number yNum = chartYAxis.getValueForDisplay(mouseY - chartYAxis.getLayoutY());
-                if (xNum == null || yNum == null) return null;
-                return findNearestPointByValue(xNum.doubleValue(), yNum.doubleValue());
-            }
-            
-            // Convert mouse coordinates relative to the plot area
-            double plotMouseX = mouseX - plotBounds.getMinX();
-            double plotMouseY = mouseY - plotBounds.getMinY();
-            
-            logger.debug("Mouse coordinates: chart({},{}) -> plot({},{}) bounds: {}", 
-                mouseX, mouseY, plotMouseX, plotMouseY, plotBounds);
-            
-            // Convert plot-relative coordinates to chart value coordinates  
-            Number xNum = chartXAxis.getValueForDisplay(plotMouseX);
-            Number yNum = chartYAxis.getValueForDisplay(plotMouseY);
-            
-            if (xNum == null || yNum == null) {
-                return null;
-            }
-            
-            return findNearestPointByValue(xNum.doubleValue(), yNum.doubleValue());
-            
-        } catch (Exception e) {
-            logger.debug("Error finding nearest data point: {}", e.getMessage());
+        double xSeconds = chartXAxis.getValueForDisplay(xAxisPoint.getX()).doubleValue();
+        double yValue = chartYAxis.getValueForDisplay(yAxisPoint.getY()).doubleValue();
+        double nanosPerPixel = (chartXAxis.getUpperBound() - chartXAxis.getLowerBound()) * 1_000_000_000.0 / chartXAxis.getWidth();
+        double valuePerPixel = (chartYAxis.getUpperBound() - chartYAxis.getLowerBound()) / chartYAxis.getHeight();
+        if (nanosPerPixel <= 0 || valuePerPixel <= 0) {
+            return null;
         }
         
-        return null;
+        return chartModel.findNearest(
+            (long) (xSeconds * 1_000_000_000L), yValue, nanosPerPixel, valuePerPixel, CHART_HOVER_DISTANCE_PIXELS);
     }
     
     // Methods for updating global state in DpApplication
@@ -2028,19 +2150,6 @@ public class DataExploreController implements Initializable {
     }
     
     
-    // Helper class to store original data point information for tooltips
-    private static class DataPointInfo {
-        final Object timestamp;
-        final Object value;
-        final String pvName;
-        
-        DataPointInfo(Object timestamp, Object value, String pvName) {
-            this.timestamp = timestamp;
-            this.value = value;
-            this.pvName = pvName;
-        }
-    }
-    
     // Custom ListCell for PV names with remove buttons
     private class PvNameListCell extends ListCell<String> {
         private HBox content;
@@ -4,6 +4,17 @@ import com.ospreydcs.dp.client.result.QueryPvMetadataApiResult;
 import com.ospreydcs.dp.client.result.QueryTableApiResult;
 import com.ospreydcs.dp.grpc.v1.query.QueryPvMetadataResponse;
 import com.ospreydcs.dp.grpc.v1.query.QueryTableResponse;
+import com.ospreydcs.dp.gui.chart.SeriesDecimator;
+import com.ospreydcs.dp.gui.live.LiveDataSubscription;
+import com.ospreydcs.dp.gui.metrics.StageMetrics;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import com.ospreydcs.dp.gui.model.QueryResultRow;
+import com.ospreydcs.dp.gui.query.CachedPvSegment;
+import com.ospreydcs.dp.gui.query.QueryExecutionContext;
+import com.ospreydcs.dp.gui.query.QueryResultCache;
+import com.ospreydcs.dp.gui.query.QueryResultStore;
+import com.ospreydcs.dp.gui.util.CoalescingFxDispatcher;
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -16,15 +27,42 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class DataExploreViewModel {
 
     private static final Logger logger = LogManager.getLogger();
-    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // configuration
+    public static final String CFG_KEY_UI_PUBLISH_INTERVAL_MILLIS = "DataExplorer.uiPublishIntervalMillis";
+    public static final int DEFAULT_UI_PUBLISH_INTERVAL_MILLIS = 0;
+    public static final String CFG_KEY_CHART_RENDERER = "DataExplorer.chartRenderer";
+    public static final String CHART_RENDERER_LINE_CHART = "lineChart";
+    public static final String CHART_RENDERER_CANVAS = "canvas";
+    public static final String CHART_RENDERER_RASTER = "raster";
+    public static final String DEFAULT_CHART_RENDERER = CHART_RENDERER_LINE_CHART;
+    public static final String CFG_KEY_CHART_DECIMATION = "DataExplorer.chartDecimation";
+    public static final String DEFAULT_CHART_DECIMATION = "m4";
+    public static final String CFG_KEY_CHART_RASTER_PARALLELISM = "DataExplorer.chartRasterParallelism";
+    public static final int DEFAULT_CHART_RASTER_PARALLELISM = 0;
+    public static final String CFG_KEY_LIVE_TAIL_CAPACITY_PER_PV = "DataExplorer.liveTailCapacityPerPv";
+    public static final int DEFAULT_LIVE_TAIL_CAPACITY_PER_PV = 100_000;
+    public static final String CFG_KEY_LIVE_TAIL_WINDOW_SECONDS = "DataExplorer.liveTailWindowSeconds";
+    public static final int DEFAULT_LIVE_TAIL_WINDOW_SECONDS = 60;
+    public static final String CFG_KEY_LIVE_TAIL_FRAME_RATE = "DataExplorer.liveTailFrameRate";
+    public static final int DEFAULT_LIVE_TAIL_FRAME_RATE = 30;
+    public static final String CFG_KEY_CHART_TIMING_HUD = "DataExplorer.chartTimingHud";
+    public static final String DEFAULT_CHART_TIMING_HUD = "false";
 
     // Query Specification properties
     private final ObservableList<String> pvNameList = FXCollections.observableArrayList();
@@ -46,9 +84,29 @@ public class DataExploreViewModel {
     
     // Query Results properties
     private final ObservableList<String> tableColumnNames = FXCollections.observableArrayList();
-    private final ObservableList<ObservableList<Object>> tableData = FXCollections.observableArrayList();
+    private final ObservableList<QueryResultRow> tableData = FXCollections.observableArrayList();
+    private final QueryResultStore resultStore = new QueryResultStore();
+
+    // Rows decoded on the query thread are appended to tableData at most once per pulse
+    private final CoalescingFxDispatcher<QueryResultRow> rowDispatcher = new CoalescingFxDispatcher<>(
+            tableData::addAll,
+            ConfigurationManager.getInstance().getConfigInteger(
+                    CFG_KEY_UI_PUBLISH_INTERVAL_MILLIS, DEFAULT_UI_PUBLISH_INTERVAL_MILLIS),
+            latencyNanos -> StageMetrics.record(StageMetrics.Stage.FX_DISPATCH, latencyNanos));
     private final IntegerProperty totalRowsLoaded = new SimpleIntegerProperty(0);
     private final BooleanProperty isQuerying = new SimpleBooleanProperty(false);
+    private final BooleanProperty keepPartialResults = new SimpleBooleanProperty(true);
+    private final BooleanProperty useCanvasChart = new SimpleBooleanProperty(
+            CHART_RENDERER_CANVAS.equals(ConfigurationManager.getInstance().getConfigString(
+                    CFG_KEY_CHART_RENDERER, DEFAULT_CHART_RENDERER))
+            || CHART_RENDERER_RASTER.equals(ConfigurationManager.getInstance().getConfigString(
+                    CFG_KEY_CHART_RENDERER, DEFAULT_CHART_RENDERER)));
+    private final BooleanProperty showTimingHud = new SimpleBooleanProperty(
+            Boolean.parseBoolean(ConfigurationManager.getInstance().getConfigString(
+                    CFG_KEY_CHART_TIMING_HUD, DEFAULT_CHART_TIMING_HUD)));
+    private final BooleanProperty rasterizeCanvasChart = new SimpleBooleanProperty(
+            CHART_RENDERER_RASTER.equals(ConfigurationManager.getInstance().getConfigString(
+                    CFG_KEY_CHART_RENDERER, DEFAULT_CHART_RENDERER)));
     
     // Status properties
     private final StringProperty statusMessage = new SimpleStringProperty("Ready to query data");
@@ -59,6 +117,32 @@ public class DataExploreViewModel {
     private DpApplication dpApplication;
     private MainController mainController;
 
+    // Execution context of the running query, used to stop it
+    private QueryExecutionContext queryContext = null;
+    private boolean keepPartialResultsOnStop = true;
+
+    // Time range and PVs of the most recently submitted query, in epoch nanoseconds, and the end of the range
+    // covered by the rows loaded so far
+    private long queryRangeBeginNanos = 0;
+    private long queryRangeEndNanos = 0;
+    private long loadedRangeEndNanos = 0;
+    private List<String> queryPvNames = List.of();
+
+    // false if the query's PVs could not be validated against the archive, in which case the client cache is
+    // bypassed for the query and its chart windows
+    private volatile boolean queryCacheValidated = false;
+
+    // Live data subscription for the current PV list while the live tail chart is shown
+    private final BooleanProperty liveTail = new SimpleBooleanProperty(false);
+    private LiveDataSubscription liveDataSubscription = null;
+
+    // Chart windows outside the loaded rows are fetched one at a time on this thread
+    private final ExecutorService chartWindowExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "chart-window-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public DataExploreViewModel() {
         logger.debug("DataExploreViewModel initialized");
         
@@ -140,9 +224,45 @@ public class DataExploreViewModel {
 
     // Query Results property getters
     public ObservableList<String> getTableColumnNames() { return tableColumnNames; }
-    public ObservableList<ObservableList<Object>> getTableData() { return tableData; }
+    public ObservableList<QueryResultRow> getTableData() { return tableData; }
+    public QueryResultStore getResultStore() { return resultStore; }
+    public long getQueryRangeBeginNanos() { return queryRangeBeginNanos; }
+    public long getQueryRangeEndNanos() { return queryRangeEndNanos; }
+    public long getLoadedRangeEndNanos() { return loadedRangeEndNanos; }
     public IntegerProperty totalRowsLoadedProperty() { return totalRowsLoaded; }
     public BooleanProperty isQueryingProperty() { return isQuerying; }
+    public BooleanProperty keepPartialResultsProperty() { return keepPartialResults; }
+    public BooleanProperty useCanvasChartProperty() { return useCanvasChart; }
+    public BooleanProperty rasterizeCanvasChartProperty() { return rasterizeCanvasChart; }
+    public BooleanProperty liveTailProperty() { return liveTail; }
+    public BooleanProperty showTimingHudProperty() { return showTimingHud; }
+    public LiveDataSubscription getLiveDataSubscription() { return liveDataSubscription; }
+
+    public int getLiveTailWindowSeconds() {
+        return ConfigurationManager.getInstance().getConfigInteger(
+                CFG_KEY_LIVE_TAIL_WINDOW_SECONDS, DEFAULT_LIVE_TAIL_WINDOW_SECONDS);
+    }
+
+    public int getLiveTailFrameRate() {
+        return ConfigurationManager.getInstance().getConfigInteger(
+                CFG_KEY_LIVE_TAIL_FRAME_RATE, DEFAULT_LIVE_TAIL_FRAME_RATE);
+    }
+
+    /**
+     * Returns the configured number of threads for rasterizing the canvas chart, 0 meaning available processors.
+     */
+    public int getChartRasterParallelism() {
+        return ConfigurationManager.getInstance().getConfigInteger(
+                CFG_KEY_CHART_RASTER_PARALLELISM, DEFAULT_CHART_RASTER_PARALLELISM);
+    }
+
+    /**
+     * Returns the configured decimation method for the line chart renderer.
+     */
+    public SeriesDecimator.Method getChartDecimationMethod() {
+        return SeriesDecimator.Method.fromName(ConfigurationManager.getInstance().getConfigString(
+                CFG_KEY_CHART_DECIMATION, DEFAULT_CHART_DECIMATION));
+    }
 
     // Status property getters
     public StringProperty statusMessageProperty() { return statusMessage; }
@@ -196,23 +316,39 @@ public class DataExploreViewModel {
             return;
         }
 
+        Instant rangeBegin = getQueryBeginDateTime().atZone(ZoneId.systemDefault()).toInstant();
+        Instant rangeEnd = getQueryEndDateTime().atZone(ZoneId.systemDefault()).toInstant();
+        queryRangeBeginNanos = QueryResultChunk.toEpochNanos(rangeBegin.getEpochSecond(), rangeBegin.getNano());
+        queryRangeEndNanos = QueryResultChunk.toEpochNanos(rangeEnd.getEpochSecond(), rangeEnd.getNano());
+        loadedRangeEndNanos = queryRangeBeginNanos;
+        queryPvNames = List.copyOf(pvNameList);
+
         isQuerying.set(true);
         hasQueryResults.set(false);
         tableData.clear();
         tableColumnNames.clear();
+        resultStore.clear();
         totalRowsLoaded.set(0);
         statusMessage.set("Querying data...");
+        rowDispatcher.start();
 
-        // Create background task for query
+        // Create background task for query, running inside a cancellable context with the configured deadline
+        final QueryExecutionContext executionContext = new QueryExecutionContext();
+        queryContext = executionContext;
+        keepPartialResultsOnStop = keepPartialResults.get();
         Task<Void> queryTask = new Task<Void>() {
             @Override
             protected Void call() throws Exception {
-                executeIncrementalQuery();
-                return null;
+                return executionContext.call(() -> {
+                    executeIncrementalQuery(executionContext);
+                    return null;
+                });
             }
         };
 
         queryTask.setOnSucceeded(e -> {
+            rowDispatcher.stop();
+            loadedRangeEndNanos = queryRangeEndNanos;
             isQuerying.set(false);
             hasQueryResults.set(true);
             
@@ -228,13 +364,21 @@ public class DataExploreViewModel {
                 String resultMessage = "Query completed: " + totalRowsLoaded.get() + 
                     " row(s) for " + pvNameList.size() + " PV(s)";
                 mainController.onQuerySuccess(resultMessage);
+                mainController.onQueryCacheStatusUpdated(dpApplication.getQueryCache().getStatusSummary());
             }
             
-            statusMessage.set("Query completed successfully");
+            statusMessage.set(queryCacheValidated
+                    ? "Query completed successfully"
+                    : "Query completed successfully (cache bypassed, archive metadata unavailable)");
             logger.info("Query completed successfully with {} rows", totalRowsLoaded.get());
         });
 
         queryTask.setOnFailed(e -> {
+            if (executionContext.isCancelledByUser() || executionContext.isDeadlineExceeded()) {
+                onQueryStopped(executionContext);
+                return;
+            }
+            rowDispatcher.stop();
             logger.error("Query failed", queryTask.getException());
             statusMessage.set("Query failed: " + queryTask.getException().getMessage());
             isQuerying.set(false);
@@ -245,7 +389,110 @@ public class DataExploreViewModel {
         queryThread.start();
     }
 
-    private void executeIncrementalQuery() throws Exception {
+    /**
+     * Handles completion of a query that was stopped by the user or by its deadline.  Runs on the JavaFX thread
+     * after all rows published by the query task have been added to the table, so the partial results are either
+     * kept as they are or discarded.
+     */
+    private void onQueryStopped(QueryExecutionContext executionContext) {
+        isQuerying.set(false);
+        final String reason = executionContext.isDeadlineExceeded()
+                ? "Query exceeded deadline of " + executionContext.getDeadlineSeconds() + " seconds"
+                : "Query stopped";
+
+        if (keepPartialResultsOnStop) {
+            rowDispatcher.stop();
+        } else {
+            rowDispatcher.discard();
+        }
+
+        if (keepPartialResultsOnStop && !tableData.isEmpty()) {
+            final QueryResultRow lastRow = tableData.get(tableData.size() - 1);
+            loadedRangeEndNanos = lastRow.getChunk().getTimestampNanos(lastRow.getRowIndex()) + 1;
+            totalRowsLoaded.set(tableData.size());
+            hasQueryResults.set(true);
+            statusMessage.set(reason + ", kept " + tableData.size() + " partial row(s)");
+        } else {
+            tableData.clear();
+            tableColumnNames.clear();
+            resultStore.clear();
+            totalRowsLoaded.set(0);
+            statusMessage.set(reason + ", partial results discarded");
+        }
+        logger.info("{} after loading {} row(s)", reason, resultStore.getRowCount());
+    }
+
+    /**
+     * Stops the running query, aborting outstanding requests to the archive.  Rows already loaded are kept or
+     * discarded according to the keepPartialResults setting.
+     */
+    public void stopQuery() {
+        stopQuery(keepPartialResults.get());
+    }
+
+    private void stopQuery(boolean keepPartial) {
+        if (queryContext == null || !isQuerying.get()) {
+            return;
+        }
+        keepPartialResultsOnStop = keepPartial;
+        statusMessage.set("Stopping query...");
+        queryContext.cancel();
+    }
+
+    /**
+     * Loads the specified time window of the most recent query's PVs at full resolution for the chart, using the
+     * client cache where possible, so windows viewed or prefetched recently are not fetched again.  Runs on a
+     * background thread with the configured query deadline, and completes with the window's chunks in time order,
+     * each in the query's PV order.
+     */
+    public CompletableFuture<List<QueryResultChunk>> loadChartWindow(long beginNanos, long endNanos) {
+        final List<String> pvNames = queryPvNames;
+        final CompletableFuture<List<QueryResultChunk>> future = CompletableFuture.supplyAsync(() -> {
+            final QueryExecutionContext executionContext = new QueryExecutionContext();
+            try {
+                return executionContext.call(() -> loadWindowChunks(executionContext, pvNames, beginNanos, endNanos));
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, chartWindowExecutor);
+        future.whenComplete((chunks, ex) -> javafx.application.Platform.runLater(() -> {
+            if (mainController != null && dpApplication != null) {
+                mainController.onQueryCacheStatusUpdated(dpApplication.getQueryCache().getStatusSummary());
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Loads the specified window into the client cache in the background, without returning it, so that panning
+     * to it later does not wait for the archive.
+     */
+    public void prefetchChartWindow(long beginNanos, long endNanos) {
+        loadChartWindow(beginNanos, endNanos).exceptionally(ex -> {
+            logger.debug("Chart window prefetch failed: {}", ex.getMessage());
+            return null;
+        });
+    }
+
+    private List<QueryResultChunk> loadWindowChunks(
+            QueryExecutionContext executionContext, List<String> pvNames, long beginNanos, long endNanos
+    ) {
+        final List<QueryResultChunk> chunks = new ArrayList<>();
+        final long intervalNanos = 60_000_000_000L; // same 1-minute intervals as the query
+        for (long intervalBegin = beginNanos; intervalBegin < endNanos; intervalBegin += intervalNanos) {
+            executionContext.checkActive();
+            final long intervalEnd = Math.min(endNanos, intervalBegin + intervalNanos);
+            final QueryResultChunk chunk = loadInterval(
+                    executionContext, pvNames, QueryResultChunk.toInstant(intervalBegin),
+                    QueryResultChunk.toInstant(intervalEnd), queryCacheValidated).join();
+            if (chunk != null) {
+                chunks.add(chunk.withPvOrder(pvNames));
+            }
+        }
+        return chunks;
+    }
+
+    private void executeIncrementalQuery(QueryExecutionContext executionContext) throws Exception {
         Instant beginInstant = getQueryBeginDateTime().atZone(ZoneId.systemDefault()).toInstant();
         Instant endInstant = getQueryEndDateTime().atZone(ZoneId.systemDefault()).toInstant();
         
@@ -266,7 +513,15 @@ public class DataExploreViewModel {
         logger.debug("Total duration: {} seconds + {} nanos = {} total seconds", 
             totalDurationSeconds, totalDuration.toNanosPart(), totalDurationInSeconds);
         
-        boolean firstResponse = true;
+        // Responses are decoded on the decoder's fork-join pool while the next interval is fetched, and the
+        // decoded chunks are published in interval order as they complete.  Intervals already in the client
+        // cache are assembled without querying the archive.
+        final List<String> pvNames = new ArrayList<>(pvNameList);
+        queryCacheValidated = dpApplication.validateQueryCache(pvNames);
+        if (!queryCacheValidated) {
+            logger.warn("query cache could not be validated against the archive, bypassing it for this query");
+        }
+        final Deque<CompletableFuture<QueryResultChunk>> pendingChunks = new ArrayDeque<>();
         int totalRows = 0;
         
         for (int intervalIndex = 0; intervalIndex < numberOfIntervals; intervalIndex++) {
@@ -280,35 +535,14 @@ public class DataExploreViewModel {
             logger.debug("Querying interval {} of {}: {} to {}", 
                 intervalIndex + 1, numberOfIntervals, intervalBegin, intervalEnd);
             
-            QueryTableApiResult apiResult = dpApplication.queryTable(
-                new ArrayList<>(pvNameList), intervalBegin, intervalEnd);
-            
-            if (apiResult == null) {
-                throw new RuntimeException("Query failed - null response from service");
-            }
-            
-            if (apiResult.resultStatus.isError) {
-                throw new RuntimeException("Query failed: " + apiResult.resultStatus.toString());
-            }
-            
-            QueryTableResponse response = apiResult.queryTableResponse;
-            if (response == null) {
-                throw new RuntimeException("Query failed - null response from service");
-            }
-            
-            if (response.hasExceptionalResult()) {
-                throw new RuntimeException("Query failed: " + response.getExceptionalResult().getMessage());
-            }
-            
-            if (response.hasTableResult()) {
-                processQueryTableResponse(response, firstResponse);
-                firstResponse = false;
-                
-                if (response.getTableResult().hasRowMapTable()) {
-                    totalRows += response.getTableResult().getRowMapTable().getRowsCount();
-                }
-            }
+            // stop scheduling new intervals once the query is cancelled or past its deadline
+            executionContext.checkActive();
+            pendingChunks.add(loadInterval(executionContext, pvNames, intervalBegin, intervalEnd, queryCacheValidated));
+            totalRows += publishDecodedChunks(executionContext, pvNames, pendingChunks, false);
         }
+
+        // Wait for the remaining responses to finish decoding
+        totalRows += publishDecodedChunks(executionContext, pvNames, pendingChunks, true);
         
         // Update total rows on JavaFX thread
         final int finalTotalRows = totalRows;
@@ -317,68 +551,161 @@ public class DataExploreViewModel {
         });
     }
 
-    private void processQueryTableResponse(QueryTableResponse response, boolean isFirstResponse) {
-        if (!response.getTableResult().hasRowMapTable()) {
-            return;
+    /**
+     * Returns the chunk for a single query interval, using the client cache where possible.  If no PV has any
+     * cached data in the interval, the whole interval is fetched and decoded asynchronously.  Otherwise only the
+     * missing sub-ranges are fetched for each PV, and the interval is assembled from the cached and fetched segments,
+     * which are held here so eviction from the cache meanwhile does not require fetching the interval again.
+     * If useCache is false, because the cached data could not be validated against the archive, the whole interval
+     * is fetched.
+     */
+    private CompletableFuture<QueryResultChunk> loadInterval(
+            QueryExecutionContext executionContext,
+            List<String> pvNames,
+            Instant intervalBegin,
+            Instant intervalEnd,
+            boolean useCache
+    ) {
+        final QueryResultCache cache = dpApplication.getQueryCache();
+        final long beginNanos = QueryResultChunk.toEpochNanos(intervalBegin.getEpochSecond(), intervalBegin.getNano());
+        final long endNanos = QueryResultChunk.toEpochNanos(intervalEnd.getEpochSecond(), intervalEnd.getNano());
+        if (!useCache) {
+            return fetchInterval(pvNames, beginNanos, endNanos);
         }
+
+        // group PVs by their missing sub-ranges, so PVs with the same gaps are fetched in the same request
+        final Map<List<QueryResultCache.TimeRange>, List<String>> pvsByMissingRanges = new LinkedHashMap<>();
+        final Map<String, List<CachedPvSegment>> segmentsByPv = new HashMap<>();
+        for (String pvName : pvNames) {
+            final List<CachedPvSegment> segments = new ArrayList<>();
+            final List<QueryResultCache.TimeRange> missingRanges =
+                    cache.findMissingRanges(pvName, beginNanos, endNanos, segments);
+            segmentsByPv.put(pvName, segments);
+            if (!missingRanges.isEmpty()) {
+                pvsByMissingRanges.computeIfAbsent(missingRanges, k -> new ArrayList<>()).add(pvName);
+            }
+        }
+
+        final List<QueryResultCache.TimeRange> wholeInterval = List.of(new QueryResultCache.TimeRange(beginNanos, endNanos));
+        final List<String> uncachedPvs = pvsByMissingRanges.get(wholeInterval);
+        if (uncachedPvs != null && uncachedPvs.size() == pvNames.size()) {
+            return fetchInterval(pvNames, beginNanos, endNanos);
+        }
+
+        for (Map.Entry<List<QueryResultCache.TimeRange>, List<String>> entry : pvsByMissingRanges.entrySet()) {
+            for (QueryResultCache.TimeRange range : entry.getKey()) {
+                executionContext.checkActive();
+                logger.debug("Fetching uncached range {} for {} PV(s)", range, entry.getValue().size());
+                final QueryTableResponse response = fetchTable(entry.getValue(), range.beginNanos, range.endNanos);
+                final QueryResultChunk chunk = response.hasTableResult()
+                        ? dpApplication.getQueryDecoder().decode(response.getTableResult())
+                        : null;
+                for (String pvName : entry.getValue()) {
+                    final CachedPvSegment segment =
+                            CachedPvSegment.fromChunk(chunk, pvName, range.beginNanos, range.endNanos);
+                    cache.put(segment);
+                    segmentsByPv.get(pvName).add(segment);
+                }
+            }
+        }
+
+        return CompletableFuture.completedFuture(
+                QueryResultCache.assemble(pvNames, beginNanos, endNanos, segmentsByPv));
+    }
+
+    /**
+     * Fetches the whole interval for the specified PVs, decoding the response asynchronously and adding the
+     * decoded chunk to the cache.
+     */
+    private CompletableFuture<QueryResultChunk> fetchInterval(List<String> pvNames, long beginNanos, long endNanos) {
+        final QueryTableResponse response = fetchTable(pvNames, beginNanos, endNanos);
+        if (!response.hasTableResult()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final QueryResultCache cache = dpApplication.getQueryCache();
+        return dpApplication.getQueryDecoder().decodeAsync(response.getTableResult()).thenApply(chunk -> {
+            cache.put(pvNames, beginNanos, endNanos, chunk);
+            return chunk;
+        });
+    }
+
+    private QueryTableResponse fetchTable(List<String> pvNames, long beginNanos, long endNanos) {
+        final long startNanos = System.nanoTime();
+        QueryTableApiResult apiResult = dpApplication.queryTable(
+            pvNames, QueryResultChunk.toInstant(beginNanos), QueryResultChunk.toInstant(endNanos));
+        StageMetrics.record(StageMetrics.Stage.RPC, System.nanoTime() - startNanos);
         
-        var rowMapTable = response.getTableResult().getRowMapTable();
+        if (apiResult == null) {
+            throw new RuntimeException("Query failed - null response from service");
+        }
         
-        // Set up column names from first response
-        if (isFirstResponse) {
-            javafx.application.Platform.runLater(() -> {
-                tableColumnNames.setAll(rowMapTable.getColumnNamesList());
-            });
+        if (apiResult.resultStatus.isError) {
+            throw new RuntimeException("Query failed: " + apiResult.resultStatus.toString());
         }
         
-        // Process rows
-        List<ObservableList<Object>> newRows = new ArrayList<>();
+        QueryTableResponse response = apiResult.queryTableResponse;
+        if (response == null) {
+            throw new RuntimeException("Query failed - null response from service");
+        }
         
-        for (var dataRow : rowMapTable.getRowsList()) {
-            ObservableList<Object> row = FXCollections.observableArrayList();
-            
-            for (String columnName : rowMapTable.getColumnNamesList()) {
-                if (dataRow.containsColumnValues(columnName)) {
-                    var value = dataRow.getColumnValuesMap().get(columnName);
-                    
-                    if (columnName.equals("timestamp")) {
-                        // Convert protobuf Timestamp to formatted string
-                        if (value.hasTimestampValue()) {
-                            var timestamp = value.getTimestampValue();
-                            Instant instant = Instant.ofEpochSecond(timestamp.getEpochSeconds(), timestamp.getNanoseconds());
-                            LocalDateTime dateTime = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
-                            row.add(dateTime.format(TIMESTAMP_FORMATTER));
-                        } else {
-                            row.add("N/A");
-                        }
-                    } else {
-                        // Handle other data types
-                        if (value.hasIntValue()) {
-                            row.add(value.getIntValue());
-                        } else if (value.hasLongValue()) {
-                            row.add(value.getLongValue());
-                        } else if (value.hasDoubleValue()) {
-                            row.add(value.getDoubleValue());
-                        } else if (value.hasStringValue()) {
-                            row.add(value.getStringValue());
-                        } else {
-                            row.add("N/A");
-                        }
-                    }
-                } else {
-                    row.add("N/A");
-                }
+        if (response.hasExceptionalResult()) {
+            throw new RuntimeException("Query failed: " + response.getExceptionalResult().getMessage());
+        }
+
+        return response;
+    }
+
+    /**
+     * Publishes decoded chunks from the head of the pending queue, in the order their responses were received.
+     * Stops at the first chunk still being decoded unless waitForAll is true.  Returns the number of rows published.
+     * Chunks not yet published when the query is stopped are dropped.  Each chunk's columns are arranged in the
+     * query's PV order, so every row of the results table has the same layout.
+     */
+    private int publishDecodedChunks(
+            QueryExecutionContext executionContext,
+            List<String> pvNames,
+            Deque<CompletableFuture<QueryResultChunk>> pendingChunks,
+            boolean waitForAll
+    ) {
+        int rowsPublished = 0;
+        while (!pendingChunks.isEmpty() && (waitForAll || pendingChunks.peekFirst().isDone())) {
+            executionContext.checkActive();
+            final QueryResultChunk chunk;
+            try {
+                chunk = pendingChunks.pollFirst().join();
+            } catch (CompletionException e) {
+                throw new RuntimeException("Query failed - error decoding response: " + e.getCause().getMessage(), e.getCause());
+            }
+            if (chunk != null) {
+                rowsPublished += processDecodedChunk(chunk.withPvOrder(pvNames));
             }
-            
-            newRows.add(row);
         }
-        
-        // Update table data on JavaFX thread
-        if (!newRows.isEmpty()) {
+        return rowsPublished;
+    }
+
+    private int processDecodedChunk(QueryResultChunk chunk) {
+        final boolean isFirstChunk = resultStore.isEmpty();
+        resultStore.append(chunk);
+
+        // Set up column names from first chunk
+        if (isFirstChunk) {
+            final List<String> columnNames = chunk.getColumnNames();
             javafx.application.Platform.runLater(() -> {
-                tableData.addAll(newRows);
+                tableColumnNames.setAll(columnNames);
             });
         }
+
+        // Create lightweight row views onto the decoded chunk
+        final int rowCount = chunk.getRowCount();
+        List<QueryResultRow> newRows = new ArrayList<>(rowCount);
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            newRows.add(new QueryResultRow(chunk, rowIndex));
+        }
+
+        // Queue rows for the next coalesced update of table data on the JavaFX thread
+        rowDispatcher.submit(newRows);
+
+        return rowCount;
     }
 
     private boolean isQueryValid() {
@@ -427,9 +754,66 @@ public class DataExploreViewModel {
 
     public void cancel() {
         logger.info("Data query cancelled by user");
+
+        // abort any running query, there is no view left to show partial results in
+        stopQuery(false);
+        stopLiveTail();
         statusMessage.set("Operation cancelled");
     }
 
+    /**
+     * Subscribes to live data for the PVs in the query editor, returning the subscription whose ring buffers feed
+     * the live tail chart, or null if the subscription could not be started.
+     */
+    public LiveDataSubscription startLiveTail() {
+        stopLiveTail();
+        if (dpApplication == null) {
+            statusMessage.set("DpApplication not initialized");
+            return null;
+        }
+        if (pvNameList.isEmpty()) {
+            statusMessage.set("Please add at least one PV name");
+            return null;
+        }
+
+        try {
+            liveDataSubscription = dpApplication.subscribeLiveData(
+                    new ArrayList<>(pvNameList),
+                    ConfigurationManager.getInstance().getConfigInteger(
+                            CFG_KEY_LIVE_TAIL_CAPACITY_PER_PV, DEFAULT_LIVE_TAIL_CAPACITY_PER_PV));
+        } catch (RuntimeException ex) {
+            logger.error("live data subscription failed", ex);
+            statusMessage.set("Live data subscription failed: " + ex.getMessage());
+            return null;
+        }
+        statusMessage.set("Live tail started for " + pvNameList.size() + " PV(s)");
+        return liveDataSubscription;
+    }
+
+    public void stopLiveTail() {
+        if (liveDataSubscription == null) {
+            return;
+        }
+        dpApplication.cancelLiveDataSubscription(liveDataSubscription);
+        statusMessage.set("Live tail stopped after " + liveDataSubscription.getSamplesReceived() + " sample(s)");
+        liveDataSubscription = null;
+    }
+
+    /**
+     * Returns a one-line summary of the live subscription for display on the live tail chart.
+     */
+    public String getLiveTailStatus() {
+        final LiveDataSubscription subscription = liveDataSubscription;
+        if (subscription == null) {
+            return "Not subscribed";
+        }
+        if (subscription.getErrorMessage() != null) {
+            return "Subscription error: " + subscription.getErrorMessage();
+        }
+        return (subscription.isActive() ? "Subscribed" : "Subscription closed") + " to "
+                + subscription.getPvNames().size() + " PV(s), " + subscription.getSamplesReceived() + " samples received";
+    }
+
     public void updateStatus(String message) {
         statusMessage.set(message);
         logger.debug("Status updated: {}", message);
@@ -7,9 +7,22 @@ import com.ospreydcs.dp.grpc.v1.annotation.ExportDataRequest;
 import com.ospreydcs.dp.grpc.v1.common.*;
 import com.ospreydcs.dp.grpc.v1.ingestion.RegisterProviderResponse;
 import com.ospreydcs.dp.grpc.v1.ingestionstream.PvConditionTrigger;
-import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventResponse;
+import com.ospreydcs.dp.grpc.v1.query.QueryPvMetadataResponse;
 import com.ospreydcs.dp.grpc.v1.query.QueryTableRequest;
+import com.ospreydcs.dp.grpc.v1.query.QueryTableResponse;
+import com.ospreydcs.dp.gui.event.DataEventFeed;
+import com.ospreydcs.dp.gui.event.DataEventLatency;
+import com.ospreydcs.dp.gui.event.DataEventStore;
+import com.ospreydcs.dp.gui.event.DataEventSubscriptionManager;
+import com.ospreydcs.dp.gui.event.DataEventTriggerFile;
+import com.ospreydcs.dp.gui.event.EventTriagePipeline;
+import com.ospreydcs.dp.gui.event.EventWindowCapture;
+import com.ospreydcs.dp.gui.event.IngestSendLog;
+import com.ospreydcs.dp.gui.live.LiveDataSubscription;
 import com.ospreydcs.dp.gui.model.*;
+import com.ospreydcs.dp.gui.query.DiskQueryCache;
+import com.ospreydcs.dp.gui.query.ParallelQueryDecoder;
+import com.ospreydcs.dp.gui.query.QueryResultCache;
 import com.ospreydcs.dp.service.common.model.ResultStatus;
 import com.ospreydcs.dp.service.common.protobuf.EventMetadataUtility;
 import com.ospreydcs.dp.service.common.protobuf.TimestampUtility;
@@ -17,6 +30,8 @@ import com.ospreydcs.dp.service.inprocess.InprocessServiceEcosystem;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -29,6 +44,13 @@ public class DpApplication {
     // instance variables
     private InprocessServiceEcosystem inprocessServiceEcosystem = null;
     private ApiClient api = null;
+    private ParallelQueryDecoder queryDecoder = null;
+    private QueryResultCache queryCache = null;
+    private DiskQueryCache queryDiskCache = null;
+    private DataEventSubscriptionManager dataEventManager = null;
+    private EventWindowCapture eventWindowCapture = null;
+    private EventTriagePipeline eventTriagePipeline = null;
+    private final IngestSendLog ingestSendLog = new IngestSendLog();
     
     // state variables for cross-view usage
     private String providerId = null;
@@ -37,6 +59,7 @@ public class DpApplication {
     private Instant dataEndTime = null;
     private List<String> pvNames = null;
     private List<DataEventSubscription> dataEventSubscriptions = new ArrayList<>();
+    private final List<LiveDataSubscription> liveDataSubscriptions = new ArrayList<>();
     
     // application state tracking for home view
     private boolean hasIngestedData = false;
@@ -65,6 +88,8 @@ public class DpApplication {
     public Instant getDataBeginTime() { return dataBeginTime; }
     public Instant getDataEndTime() { return dataEndTime; }
     public List<String> getPvNames() { return pvNames; }
+    public ParallelQueryDecoder getQueryDecoder() { return queryDecoder; }
+    public QueryResultCache getQueryCache() { return queryCache; }
 
     // Getters for application state tracking (for home view)
     public boolean hasIngestedData() { return hasIngestedData; }
@@ -167,10 +192,49 @@ public class DpApplication {
             return false;
         }
 
+        // data event subscriptions, packed into a few streams on the ingestion stream service channel
+        dataEventManager = new DataEventSubscriptionManager(inprocessServiceEcosystem.ingestionStreamService.getChannel());
+
+        // background capture of the data around data events, for subscriptions that request it
+        eventWindowCapture = new EventWindowCapture(this::queryEventWindow);
+
+        // automated triage of data events, for subscriptions that request it
+        eventTriagePipeline = new EventTriagePipeline(createTriageArchive());
+
+        // shared fork-join pool for decoding query responses
+        queryDecoder = new ParallelQueryDecoder();
+
+        // client-side cache of query results shared by all views
+        queryCache = new QueryResultCache();
+
+        // persistent disk tier for the query result cache, the application still works without it
+        queryDiskCache = new DiskQueryCache();
+        if (queryDiskCache.init()) {
+            queryCache.setDiskCache(queryDiskCache);
+        } else {
+            queryDiskCache = null;
+        }
+
         return true;
     }
 
     public boolean fini() {
+        dataEventManager.closeAll();
+        eventWindowCapture.shutdown();
+        eventTriagePipeline.shutdown();
+        for (DataEventSubscription subscription : dataEventSubscriptions) {
+            subscription.eventFeed.close();
+        }
+        dataEventSubscriptions.clear();
+        for (LiveDataSubscription subscription : new ArrayList<>(liveDataSubscriptions)) {
+            cancelLiveDataSubscription(subscription);
+        }
+        if (queryDecoder != null) {
+            queryDecoder.shutdown();
+        }
+        if (queryDiskCache != null) {
+            queryDiskCache.fini();
+        }
         api.fini();
         inprocessServiceEcosystem.fini();
         return true;
@@ -285,6 +349,7 @@ public class DpApplication {
         }
 
         // process data event subscriptions
+        final List<IngestionClient.IngestionDataType> subscriptionDataTypes = new ArrayList<>();
         for (SubscribeDataEventDetail subscriptionDetail : subscriptionDetails) {
 
             // get PV data type
@@ -294,10 +359,12 @@ public class DpApplication {
                         true,
                         "unknown PV name in subscription: " + subscriptionDetail.pvName);
             }
+            subscriptionDataTypes.add(pvDataType);
+        }
 
-            // call subscribeDataEvent for each subscription
-            final ResultStatus subscriptionStatus =
-                    subscribeDataEvent(subscriptionDetail, pvDataType);
+        // subscribe to all data events together, sharing subscription streams
+        if ( ! subscriptionDetails.isEmpty()) {
+            final ResultStatus subscriptionStatus = subscribeDataEvents(subscriptionDetails, subscriptionDataTypes);
             if (subscriptionStatus.isError) {
                 return new ResultStatus(
                         true,
@@ -323,7 +390,11 @@ public class DpApplication {
                         eventName                          // eventDescription
                 );
 
-                // Call ingestData() API method
+                // Call ingestData() API method, logging the send time for data event latency measurement
+                recordIngestSend(
+                        frame.columns.stream().map(col -> col.getName()).collect(Collectors.toList()),
+                        TimestampUtility.instantFromTimestamp(frame.timestamps.getFirst()),
+                        TimestampUtility.instantFromTimestamp(frame.timestamps.getLast()));
                 final IngestDataApiResult apiResult = api.ingestionClient.ingestData(
                         params,
                         frame.timestamps,
@@ -399,6 +470,7 @@ public class DpApplication {
                 .collect(Collectors.toMap(PvDetail::getPvName, pvDetail -> pvDetail));
 
         // process data event subscriptions
+        final List<IngestionClient.IngestionDataType> subscriptionDataTypes = new ArrayList<>();
         for (SubscribeDataEventDetail subscriptionDetail : subscriptionDetails) {
 
             // determine PV data type for subscription
@@ -419,10 +491,12 @@ public class DpApplication {
             } else {
                 pvDataType = IngestionClient.IngestionDataType.DOUBLE;
             }
+            subscriptionDataTypes.add(pvDataType);
+        }
 
-            // call subscribeDataEvent for each subscription
-            final ResultStatus subscriptionStatus =
-                    subscribeDataEvent(subscriptionDetail, pvDataType);
+        // subscribe to all data events together, sharing subscription streams
+        if ( ! subscriptionDetails.isEmpty()) {
+            final ResultStatus subscriptionStatus = subscribeDataEvents(subscriptionDetails, subscriptionDataTypes);
             if (subscriptionStatus.isError) {
                 return new ResultStatus(
                         true,
@@ -524,40 +598,16 @@ public class DpApplication {
                     continue; // Skip empty buckets
                 }
                 
-                // Create request parameters for this bucket
-                String requestId = java.util.UUID.randomUUID().toString();
-                Long samplingClockStartSeconds = bucketStartTime.getEpochSecond();
-                Long samplingClockStartNanos = (long) bucketStartTime.getNano();
-                Long samplingClockPeriodNanos = samplePeriodNanos;
-                Integer samplingClockCount = bucketDataValues.size();
-                List<List<Object>> values = java.util.Arrays.asList(bucketDataValues);
-                
-                IngestionClient.IngestionRequestParams params = new IngestionClient.IngestionRequestParams(
-                    this.providerId,                    // providerId
-                    requestId,                          // requestId
-                    null,                              // snapshotStartTimestampSeconds
-                    null,                              // snapshotStartTimestampNanos
-                    null,                              // timestampsSecondsList
-                    null,                              // timestampNanosList
-                    samplingClockStartSeconds,         // samplingClockStartSeconds
-                    samplingClockStartNanos,           // samplingClockStartNanos
-                    samplingClockPeriodNanos,          // samplingClockPeriodNanos
-                    samplingClockCount,                // samplingClockCount
-                    columnNames,                       // columnNames
-                    dataType,                          // dataType
-                    values,                            // values
-                    tags,                              // tags
-                    attributes,                        // attributes
-                    eventName,                              // eventDescription
-                    null,                              // eventStartSeconds
-                    null,                              // eventStartNanos
-                    null,                              // eventStopSeconds
-                    null,                              // eventStopNanos
-                    false                              // useSerializedDataColumns
-                );
-                
-                // Call ingestData() API method for this bucket
-                final IngestDataApiResult apiResult = api.ingestionClient.ingestData(params, null, null);
+                // Send an ingestData() request for this bucket
+                final IngestDataApiResult apiResult = ingestSamplingClockData(
+                        columnNames,
+                        dataType,
+                        bucketStartTime,
+                        samplePeriodNanos,
+                        java.util.Arrays.asList(bucketDataValues),
+                        tags,
+                        attributes,
+                        eventName);
                 requestCount++;
 
                 if (apiResult.resultStatus.isError) {
@@ -573,6 +623,50 @@ public class DpApplication {
         }
     }
     
+    /**
+     * Sends one ingestData() request for the specified PVs, with values sampled every samplePeriodNanos starting at
+     * startTime, where values holds one list of samples per PV.  The send time is logged for data event latency
+     * measurement.
+     */
+    public IngestDataApiResult ingestSamplingClockData(
+            List<String> columnNames,
+            IngestionClient.IngestionDataType dataType,
+            Instant startTime,
+            long samplePeriodNanos,
+            List<List<Object>> values,
+            List<String> tags,
+            Map<String, String> attributes,
+            String eventName
+    ) {
+        final int sampleCount = values.get(0).size();
+        final IngestionClient.IngestionRequestParams params = new IngestionClient.IngestionRequestParams(
+            this.providerId,                    // providerId
+            UUID.randomUUID().toString(),       // requestId
+            null,                              // snapshotStartTimestampSeconds
+            null,                              // snapshotStartTimestampNanos
+            null,                              // timestampsSecondsList
+            null,                              // timestampNanosList
+            startTime.getEpochSecond(),        // samplingClockStartSeconds
+            (long) startTime.getNano(),        // samplingClockStartNanos
+            samplePeriodNanos,                 // samplingClockPeriodNanos
+            sampleCount,                       // samplingClockCount
+            columnNames,                       // columnNames
+            dataType,                          // dataType
+            values,                            // values
+            tags,                              // tags
+            attributes,                        // attributes
+            eventName,                         // eventDescription
+            null,                              // eventStartSeconds
+            null,                              // eventStartNanos
+            null,                              // eventStopSeconds
+            null,                              // eventStopNanos
+            false                              // useSerializedDataColumns
+        );
+
+        recordIngestSend(columnNames, startTime, startTime.plusNanos(samplePeriodNanos * (sampleCount - 1)));
+        return api.ingestionClient.ingestData(params, null, null);
+    }
+
     private List<Object> generateRandomWalkData(PvDetail pvDetail, int sampleCount) {
         List<Object> values = new java.util.ArrayList<>();
         java.util.Random random = new java.util.Random();
@@ -611,16 +705,64 @@ public class DpApplication {
         return api.queryClient.queryPvMetadata(pvNameList);
     }
 
+    /**
+     * Validates the query result cache for the specified PVs against current archive metadata, so that cached data
+     * is discarded if the archive has changed.  Returns false if the metadata query fails, in which case the disk
+     * cache is not used for PVs that haven't been validated earlier in the session.
+     */
+    public boolean validateQueryCache(List<String> pvNameList) {
+        QueryPvMetadataApiResult apiResult = queryPvMetadata(pvNameList);
+        if (apiResult == null || apiResult.resultStatus.isError) {
+            logger.warn("unable to validate query cache, metadata query failed");
+            return false;
+        }
+
+        QueryPvMetadataResponse response = apiResult.queryPvMetadataResponse;
+        if (response == null || !response.hasMetadataResult()) {
+            logger.warn("unable to validate query cache, no metadata result");
+            return false;
+        }
+
+        for (QueryPvMetadataResponse.MetadataResult.PvInfo pvInfo : response.getMetadataResult().getPvInfosList()) {
+            long lastDataNanos = 0;
+            if (pvInfo.hasLastDataTimestamp()) {
+                lastDataNanos = QueryResultChunk.toEpochNanos(
+                        pvInfo.getLastDataTimestamp().getEpochSeconds(),
+                        pvInfo.getLastDataTimestamp().getNanoseconds());
+            }
+            queryCache.validate(
+                    pvInfo.getPvName(), new DiskQueryCache.ArchiveFingerprint(pvInfo.getNumBuckets(), lastDataNanos));
+        }
+        return true;
+    }
+
     public QueryPvMetadataApiResult queryPvMetadata(String pvNamePattern) {
         return api.queryClient.queryPvMetadata(pvNamePattern);
     }
 
+    /**
+     * Subscribes to data ingested for the specified PVs, buffering up to capacityPerPv of the most recent samples
+     * for each.  Uses the ingestion service channel that the ingestion stream service subscribes through.
+     */
+    public LiveDataSubscription subscribeLiveData(List<String> pvNameList, int capacityPerPv) {
+        final LiveDataSubscription subscription = LiveDataSubscription.start(
+                inprocessServiceEcosystem.ingestionService.getIngestionChannel(), pvNameList, capacityPerPv);
+        liveDataSubscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void cancelLiveDataSubscription(LiveDataSubscription subscription) {
+        subscription.cancel();
+        liveDataSubscriptions.remove(subscription);
+    }
+
     public QueryTableApiResult queryTable(List<String> pvNameList, Instant beginTime, Instant endTime) {
 
-        // build params for api call
+        // build params for api call, requesting the column-oriented table format so the response can be
+        // decoded column by column into primitive arrays (see QueryTableDecoder)
         final QueryClient.QueryTableRequestParams params =
                 new QueryClient.QueryTableRequestParams(
-                        QueryTableRequest.TableResultFormat.TABLE_FORMAT_ROW_MAP,
+                        QueryTableRequest.TableResultFormat.TABLE_FORMAT_COLUMN,
                         pvNameList,
                         null,
                         beginTime.getEpochSecond(),
@@ -844,6 +986,156 @@ public class DpApplication {
     public ResultStatus subscribeDataEvent(
             SubscribeDataEventDetail subscriptionDetail,
             IngestionClient.IngestionDataType dataType
+    ) {
+        return subscribeDataEvents(List.of(subscriptionDetail), List.of(dataType));
+    }
+
+    /**
+     * Subscribes to data events for the specified subscription details, where dataTypes gives the PV data type for
+     * the detail at the same position.  The triggers are packed into as few subscribeDataEvent streams as possible by
+     * the data event subscription manager.  Subscriptions that could not be made are not managed, and the returned
+     * status describes them.
+     */
+    public ResultStatus subscribeDataEvents(
+            List<SubscribeDataEventDetail> subscriptionDetails,
+            List<IngestionClient.IngestionDataType> dataTypes
+    ) {
+        // create a feed with its own event store for each valid trigger, rejecting invalid ones individually
+        final List<SubscribeDataEventDetail> feedDetails = new ArrayList<>(subscriptionDetails.size());
+        final List<DataEventFeed> feeds = new ArrayList<>(subscriptionDetails.size());
+        final List<String> rejectedMessages = new ArrayList<>();
+        for (int i = 0; i < subscriptionDetails.size(); i++) {
+            final SubscribeDataEventDetail subscriptionDetail = subscriptionDetails.get(i);
+            final PvConditionTrigger trigger;
+            try {
+                trigger = createDataEventTrigger(subscriptionDetail, dataTypes.get(i));
+            } catch (IllegalArgumentException e) {
+                logger.error("invalid data event subscription {}: {}",
+                        subscriptionDetail.getDisplayString(), e.getMessage());
+                rejectedMessages.add(
+                        "invalid data event subscription " + subscriptionDetail.getDisplayString() + ": " + e.getMessage());
+                continue;
+            }
+            feedDetails.add(subscriptionDetail);
+            feeds.add(new DataEventFeed(trigger, new DataEventStore(), new DataEventLatency(ingestSendLog)));
+        }
+
+        // pack the triggers into subscription streams
+        final ResultStatus status = feeds.isEmpty() ? new ResultStatus(false, "") : dataEventManager.add(feeds);
+
+        // manage the subscriptions that were made
+        for (int i = 0; i < feeds.size(); i++) {
+            final DataEventFeed feed = feeds.get(i);
+            if (feed.isSubscribed()) {
+                final SubscribeDataEventDetail subscriptionDetail = feedDetails.get(i);
+                if (subscriptionDetail.isCaptureEnabled()) {
+                    addEventWindowCapture(subscriptionDetail, feed);
+                }
+                dataEventSubscriptions.add(new DataEventSubscription(subscriptionDetail, feed));
+            } else {
+                feed.close();
+            }
+        }
+
+        if (rejectedMessages.isEmpty()) {
+            return status;
+        }
+        if (status.isError) {
+            rejectedMessages.add(status.msg);
+        }
+        return new ResultStatus(true, String.join("; ", rejectedMessages));
+    }
+
+    /**
+     * Reads data event trigger definitions from a CSV file (see DataEventTriggerFile) and subscribes to those that are
+     * valid.  The data types of all PVs in the file are looked up with a single batched PV metadata query, rows are
+     * validated against them in parallel, and the accepted triggers are subscribed together so they share as few
+     * streams as possible.
+     */
+    public DataEventTriggerFile.ImportResult importDataEventTriggers(Path csvFile) throws IOException {
+        final List<DataEventTriggerFile.Row> rows = DataEventTriggerFile.read(csvFile);
+
+        // look up data types for the distinct PV names in one metadata query
+        final List<String> pvNameList = rows.stream()
+                .filter(row -> !row.isRejected())
+                .map(DataEventTriggerFile.Row::getPvName)
+                .distinct()
+                .collect(Collectors.toList());
+        final Map<String, String> metadataTypes = new HashMap<>();
+        String metadataError = null;
+        if ( ! pvNameList.isEmpty()) {
+            final QueryPvMetadataApiResult apiResult = queryPvMetadata(pvNameList);
+            if (apiResult == null || apiResult.resultStatus.isError || apiResult.queryPvMetadataResponse == null) {
+                metadataError = (apiResult == null || apiResult.resultStatus.msg == null)
+                        ? "no response" : apiResult.resultStatus.msg;
+            } else if (apiResult.queryPvMetadataResponse.hasExceptionalResult()) {
+                // an exceptional result applies to the whole query, so it is reported against every row
+                metadataError = apiResult.queryPvMetadataResponse.getExceptionalResult().getMessage();
+            } else {
+                for (QueryPvMetadataResponse.MetadataResult.PvInfo pvInfo :
+                        apiResult.queryPvMetadataResponse.getMetadataResult().getPvInfosList()) {
+                    metadataTypes.put(pvInfo.getPvName(), pvInfo.getLastBucketDataType());
+                }
+            }
+        }
+
+        // validate trigger values against PV data types in parallel
+        final String metadataErrorMessage = metadataError;
+        rows.parallelStream()
+                .filter(row -> !row.isRejected())
+                .forEach(row -> {
+                    if (metadataErrorMessage != null) {
+                        row.reject("PV metadata query failed: " + metadataErrorMessage);
+                        return;
+                    }
+                    final String metadataType = metadataTypes.get(row.getPvName());
+                    if (metadataType == null) {
+                        row.reject("unknown PV " + row.getPvName());
+                        return;
+                    }
+                    final IngestionClient.IngestionDataType dataType =
+                            DataEventTriggerFile.dataTypeForMetadataType(metadataType);
+                    if (dataType == null) {
+                        row.reject("unsupported data type " + metadataType + " for PV " + row.getPvName());
+                        return;
+                    }
+                    try {
+                        createDataEventTrigger(row.getDetail(), dataType);
+                        row.accept(dataType);
+                    } catch (IllegalArgumentException e) {
+                        row.reject("invalid " + dataType.name() + " trigger value '"
+                                + row.getDetail().triggerValue + "' for PV " + row.getPvName());
+                    }
+                });
+
+        // subscribe to the accepted triggers together
+        final List<SubscribeDataEventDetail> acceptedDetails = new ArrayList<>();
+        final List<IngestionClient.IngestionDataType> acceptedDataTypes = new ArrayList<>();
+        for (DataEventTriggerFile.Row row : rows) {
+            if (row.isAccepted()) {
+                acceptedDetails.add(row.getDetail());
+                acceptedDataTypes.add(row.getDataType());
+            }
+        }
+        final int subscriptionCountBefore = dataEventSubscriptions.size();
+        ResultStatus subscribeStatus = new ResultStatus(false, "");
+        if ( ! acceptedDetails.isEmpty()) {
+            subscribeStatus = subscribeDataEvents(acceptedDetails, acceptedDataTypes);
+        }
+        logger.info("imported {} data event triggers from {}, {} rows rejected",
+                dataEventSubscriptions.size() - subscriptionCountBefore, csvFile,
+                rows.size() - acceptedDetails.size());
+        return new DataEventTriggerFile.ImportResult(
+                rows, dataEventSubscriptions.size() - subscriptionCountBefore, subscribeStatus);
+    }
+
+    public int getDataEventStreamCount() {
+        return dataEventManager.getStreamCount();
+    }
+
+    private static PvConditionTrigger createDataEventTrigger(
+            SubscribeDataEventDetail subscriptionDetail,
+            IngestionClient.IngestionDataType dataType
     ) {
         // create protobuf DataValue for specified dataType and triggerValue
         DataValue triggerValue = null;
@@ -879,9 +1171,7 @@ public class DpApplication {
                         .build();
             }
             default -> {
-                return new ResultStatus(
-                        true,
-                        "unsupported data event subscription type: " + dataType.name());
+                throw new IllegalArgumentException("unsupported data event subscription type: " + dataType.name());
             }
         }
         Objects.requireNonNull(triggerValue);
@@ -908,54 +1198,182 @@ public class DpApplication {
         Objects.requireNonNull(pvCondition);
 
         // create protobuf PvConditionTrigger
-        final PvConditionTrigger trigger = PvConditionTrigger.newBuilder()
+        return PvConditionTrigger.newBuilder()
                 .setPvName(subscriptionDetail.pvName)
                 .setCondition(pvCondition)
                 .setValue(triggerValue)
                 .build();
+    }
 
-        // create API request params
-        final IngestionStreamClient.SubscribeDataEventRequestParams params =
-                new IngestionStreamClient.SubscribeDataEventRequestParams(
-                        List.of(trigger), null, null, null);
+    public ResultStatus cancelDataEventSubscription(DataEventSubscription subscription) {
 
-        // call API method
-        SubscribeDataEventApiResult result =
-                api.ingestionStreamClient.subscribeDataEvent(params, 25);
+        // remove the trigger from its subscription stream, re-subscribing any other triggers sharing it
+        dataEventManager.remove(subscription.eventFeed);
 
-        // if successful, manage new subscription
-        if ( ! result.resultStatus.isError) {
-            dataEventSubscriptions.add(new DataEventSubscription(subscriptionDetail, result.subscribeDataEventCall));
-        }
+        // discard buffered and spilled events, and captured event windows
+        subscription.eventFeed.close();
+        eventWindowCapture.discard(subscription.eventFeed);
+        eventTriagePipeline.discard(subscription.eventFeed);
+
+        // un-manage the subscription
+        dataEventSubscriptions.remove(subscription);
 
-        return result.resultStatus;
+        return new ResultStatus(false, "");
     }
 
-    public ResultStatus cancelDataEventSubscription(DataEventSubscription subscription) {
+    /**
+     * Returns up to count events received by the subscription, starting at the specified sequence index.  Events no
+     * longer held in memory are read from the subscription's spill file.
+     */
+    public DataEventStore.Page dataEventsForSubscription(DataEventSubscription subscription, long firstIndex, int count) {
+        return subscription.eventFeed.getStore().readPage(firstIndex, count);
+    }
 
-        // cancel the subscription
-        api.ingestionStreamClient.cancelSubscribeDataEventCall(subscription.subscribeDataEventCall);
+    /**
+     * Returns the data window captured for the subscription's event with the specified time, or null if the
+     * subscription does not capture event windows or the window has been evicted.
+     */
+    public EventWindowCapture.Window capturedEventWindow(DataEventSubscription subscription, long eventNanos) {
+        return eventWindowCapture.getWindow(subscription.eventFeed, eventNanos);
+    }
 
-        // un-manage the subscription, whether unsubscribe succeeded or failed
-        dataEventSubscriptions.remove(subscription);
+    /**
+     * Returns the triage counts for the subscription, or null if it does not triage events or none have arrived.
+     */
+    public EventTriagePipeline.Counts eventTriageCounts(DataEventSubscription subscription) {
+        return eventTriagePipeline.getCounts(subscription.eventFeed);
+    }
 
-        // return error status
-        final IngestionStreamClient.SubscribeDataEventResponseObserver responseObserver =
-                subscription.subscribeDataEventCall.responseObserver();
-        Objects.requireNonNull(responseObserver);
-        if (responseObserver.isError()) {
-            return new ResultStatus(true, responseObserver.getErrorMessage());
-        } else {
-            return new ResultStatus(false, "");
+    /**
+     * Writes the event latency histograms of all data event subscriptions to the specified CSV file.
+     */
+    public void exportDataEventLatency(Path csvFile) throws IOException {
+        final List<String> subscriptionNames = new ArrayList<>();
+        final List<DataEventFeed> feeds = new ArrayList<>();
+        for (DataEventSubscription subscription : dataEventSubscriptions) {
+            subscriptionNames.add(subscription.getDisplayString());
+            feeds.add(subscription.eventFeed);
         }
+        DataEventLatency.exportCsv(csvFile, subscriptionNames, feeds);
+        logger.info("data event latency for {} subscriptions exported to {}", feeds.size(), csvFile);
     }
 
-    public List<SubscribeDataEventResponse.Event> dataEventsForSubscription(DataEventSubscription subscription) {
-        // return list of events contained in responseObserver
-        final IngestionStreamClient.SubscribeDataEventResponseObserver responseObserver =
-                subscription.subscribeDataEventCall.responseObserver();
-        Objects.requireNonNull(responseObserver);
-        return(responseObserver.getEventList());
+    private void recordIngestSend(List<String> pvNameList, Instant dataBeginTime, Instant dataEndTime) {
+        final long sendNanos = DataEventLatency.nowEpochNanos();
+        final long beginNanos = dataBeginTime.getEpochSecond() * 1_000_000_000L + dataBeginTime.getNano();
+        final long endNanos = dataEndTime.getEpochSecond() * 1_000_000_000L + dataEndTime.getNano();
+        for (String pvName : pvNameList) {
+            ingestSendLog.recordSend(pvName, beginNanos, endNanos, sendNanos);
+        }
+    }
+
+    /**
+     * Schedules capture of the data window around each event the feed receives from now on, and triage of the
+     * captured window if the subscription enables it.  Triage uses the captured window rather than querying it again.
+     */
+    private void addEventWindowCapture(SubscribeDataEventDetail subscriptionDetail, DataEventFeed feed) {
+        final List<String> capturePvNames = subscriptionDetail.getCapturePvNames();
+        final long windowNanos = subscriptionDetail.captureWindowSeconds * 1_000_000_000L;
+        final boolean triage = subscriptionDetail.triageEnabled;
+        final String subscriptionName = subscriptionDetail.pvName + " " + subscriptionDetail.getConditionText();
+        final Map<String, String> triageAttributes = Map.of(
+                "triggerPv", subscriptionDetail.pvName,
+                "triggerCondition", subscriptionDetail.getConditionText());
+        feed.addEventListener(event -> {
+            final EventWindowCapture.Window window = eventWindowCapture.capture(
+                    feed,
+                    QueryResultChunk.toEpochNanos(
+                            event.getEventTime().getEpochSeconds(), event.getEventTime().getNanoseconds()),
+                    capturePvNames,
+                    windowNanos);
+            if (triage) {
+                eventTriagePipeline.submit(feed, subscriptionName, window, triageAttributes);
+            }
+        });
+    }
+
+    /**
+     * Returns the archive operations used by the event triage pipeline.
+     */
+    private EventTriagePipeline.Archive createTriageArchive() {
+        return new EventTriagePipeline.Archive() {
+            @Override
+            public String saveDataSet(
+                    String name, String description, List<String> pvNameList, long beginNanos, long endNanos
+            ) {
+                final SaveDataSetApiResult apiResult = DpApplication.this.saveDataSet(
+                        null,
+                        name,
+                        description,
+                        List.of(new DataBlockDetail(
+                                pvNameList, QueryResultChunk.toInstant(beginNanos), QueryResultChunk.toInstant(endNanos))));
+                if (apiResult == null) {
+                    throw new RuntimeException("Save dataset failed - null response from service");
+                }
+                if (apiResult.resultStatus.isError) {
+                    throw new RuntimeException("Save dataset failed: " + apiResult.resultStatus.msg);
+                }
+                return apiResult.datasetId;
+            }
+
+            @Override
+            public String saveAnnotation(
+                    String name,
+                    String dataSetId,
+                    String comment,
+                    Map<String, String> attributes,
+                    String eventName,
+                    DataFrameDetails calculations
+            ) {
+                final SaveAnnotationApiResult apiResult = DpApplication.this.saveAnnotation(
+                        null,
+                        name,
+                        List.of(dataSetId),
+                        null,
+                        comment,
+                        List.of("event-triage"),
+                        attributes,
+                        eventName,
+                        List.of(calculations));
+                if (apiResult == null) {
+                    throw new RuntimeException("Save annotation failed - null response from service");
+                }
+                if (apiResult.resultStatus.isError) {
+                    throw new RuntimeException("Save annotation failed: " + apiResult.resultStatus.msg);
+                }
+                return apiResult.annotationId;
+            }
+        };
+    }
+
+    /**
+     * Queries and decodes an event window for EventWindowCapture, adding the decoded data to the query result cache
+     * so opening the event in the Query Editor also avoids an archive query.  The cache is validated against the
+     * archive metadata before the query, so data ingested into the window afterwards invalidates the cached window
+     * at the next validation.  The window is not cached if the validation fails.
+     */
+    private QueryResultChunk queryEventWindow(List<String> pvNameList, long beginNanos, long endNanos) {
+        final boolean cacheValidated = validateQueryCache(pvNameList);
+        final QueryTableApiResult apiResult = queryTable(
+                pvNameList, QueryResultChunk.toInstant(beginNanos), QueryResultChunk.toInstant(endNanos));
+        if (apiResult == null || apiResult.queryTableResponse == null) {
+            throw new RuntimeException("Query failed - null response from service");
+        }
+        if (apiResult.resultStatus.isError) {
+            throw new RuntimeException("Query failed: " + apiResult.resultStatus.msg);
+        }
+        final QueryTableResponse response = apiResult.queryTableResponse;
+        if (response.hasExceptionalResult()) {
+            throw new RuntimeException("Query failed: " + response.getExceptionalResult().getMessage());
+        }
+        if (!response.hasTableResult()) {
+            return null;
+        }
+        final QueryResultChunk chunk = queryDecoder.decode(response.getTableResult());
+        if (cacheValidated) {
+            queryCache.put(pvNameList, beginNanos, endNanos, chunk);
+        }
+        return chunk;
     }
 
 }
@@ -24,6 +24,7 @@ public class MainController implements Initializable {
     @FXML private StackPane contentPane;
     @FXML private Label statusLabel;
     @FXML private Label connectionStatusLabel;
+    @FXML private Label cacheStatusLabel;
 
     // Menu items
     @FXML private MenuItem connectionMenuItem;
@@ -63,6 +64,7 @@ public class MainController implements Initializable {
         // Bind status labels
         statusLabel.textProperty().bind(viewModel.statusTextProperty());
         connectionStatusLabel.textProperty().bind(viewModel.connectionStatusTextProperty());
+        cacheStatusLabel.textProperty().bind(viewModel.cacheStatusTextProperty());
         
         // Bind menu item disabled states (note: disabled is opposite of enabled)
         connectionMenuItem.disableProperty().bind(viewModel.connectionEnabledProperty().not());
@@ -399,4 +401,10 @@ public class MainController implements Initializable {
             logger.debug("Menu states refreshed after query success");
         }
     }
-}
\ No newline at end of file
+    
+    public void onQueryCacheStatusUpdated(String cacheStatus) {
+        if (viewModel != null) {
+            viewModel.updateCacheStatus(cacheStatus);
+        }
+    }
+}
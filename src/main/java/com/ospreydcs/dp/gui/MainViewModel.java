@@ -14,6 +14,7 @@ public class MainViewModel {
     // Observable properties for UI binding
     private final StringProperty statusText = new SimpleStringProperty("Ready");
     private final StringProperty connectionStatusText = new SimpleStringProperty("In-Process Mode");
+    private final StringProperty cacheStatusText = new SimpleStringProperty("");
     private final BooleanProperty isConnected = new SimpleBooleanProperty(true);
     
     // Menu item enabled states
@@ -51,6 +52,10 @@ public class MainViewModel {
         return connectionStatusText;
     }
 
+    public StringProperty cacheStatusTextProperty() {
+        return cacheStatusText;
+    }
+
     public BooleanProperty isConnectedProperty() {
         return isConnected;
     }
@@ -115,6 +120,11 @@ public class MainViewModel {
         logger.debug("Connection status updated to: {}", connectionStatus);
     }
 
+    public void updateCacheStatus(String cacheStatus) {
+        cacheStatusText.set(cacheStatus);
+        logger.debug("Cache status updated to: {}", cacheStatus);
+    }
+
     public void setConnected(boolean connected) {
         isConnected.set(connected);
         logger.debug("Connection state changed to: {}", connected);
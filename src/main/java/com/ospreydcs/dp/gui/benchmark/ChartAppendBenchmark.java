@@ -0,0 +1,171 @@
+package com.ospreydcs.dp.gui.benchmark;
+
+import com.ospreydcs.dp.gui.chart.SeriesBuffer;
+import com.ospreydcs.dp.gui.chart.SeriesDecimator;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import javafx.scene.chart.XYChart;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Standalone benchmark comparing total chart update CPU time across a streamed query, for the previous
+ * clear-and-rebuild strategy (stride sampling over all rows on every table change) and for appending rows to
+ * SeriesBuffers and decimating them to the plot width with SeriesDecimator on every table change.  Chart series are
+ * built headless, without a JavaFX scene, so the figures cover point selection and XYChart.Data creation but not
+ * layout.  Decimation normally runs off the JavaFX Application Thread, but is measured here on the calling thread.
+ *
+ * Usage: ChartAppendBenchmark [numIntervals] [rowsPerInterval] [numPvs]
+ */
+public class ChartAppendBenchmark {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int DEFAULT_NUM_INTERVALS = 500;
+    private static final int DEFAULT_ROWS_PER_INTERVAL = 600; // 10 Hz over 1 minute intervals
+    private static final int DEFAULT_NUM_PVS = 5;
+    private static final long INTERVAL_NANOS = 60_000_000_000L;
+    private static final long START_NANOS = 1_698_767_462_000_000_000L;
+    private static final int TARGET_POINTS = 500; // query ranges over an hour
+    private static final int PLOT_WIDTH_PIXELS = 1000;
+
+    public static void main(String[] args) {
+        final int numIntervals = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_INTERVALS;
+        final int rowsPerInterval = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROWS_PER_INTERVAL;
+        final int numPvs = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUM_PVS;
+
+        logger.info("building {} chunks with {} rows and {} PVs", numIntervals, rowsPerInterval, numPvs);
+        final List<QueryResultChunk> chunks = new ArrayList<>(numIntervals);
+        for (int i = 0; i < numIntervals; i++) {
+            chunks.add(buildChunk(i, rowsPerInterval, numPvs));
+        }
+
+        // warm up both strategies on a shorter run, then measure
+        final int warmupIntervals = Math.min(50, numIntervals);
+        runRebuild(chunks.subList(0, warmupIntervals), numPvs);
+        runDecimated(chunks.subList(0, warmupIntervals), numPvs, SeriesDecimator.Method.M4);
+
+        report("clear and rebuild", runRebuild(chunks, numPvs), numIntervals);
+        report("buffered M4 decimation", runDecimated(chunks, numPvs, SeriesDecimator.Method.M4), numIntervals);
+        report("buffered LTTB decimation", runDecimated(chunks, numPvs, SeriesDecimator.Method.LTTB), numIntervals);
+    }
+
+    private static long[] runRebuild(List<QueryResultChunk> chunks, int numPvs) {
+        final List<XYChart.Series<Number, Number>> seriesList = createSeries(numPvs);
+        final List<QueryResultChunk> loadedChunks = new ArrayList<>();
+        int loadedRows = 0;
+        long points = 0;
+
+        final long startCpu = cpuNanos();
+        for (QueryResultChunk chunk : chunks) {
+            loadedChunks.add(chunk);
+            loadedRows += chunk.getRowCount();
+
+            for (XYChart.Series<Number, Number> series : seriesList) {
+                series.getData().clear();
+            }
+            final int sampleInterval = (loadedRows <= 1000) ? 1 : Math.max(1, loadedRows / TARGET_POINTS);
+            int rowIndex = 0;
+            for (QueryResultChunk loadedChunk : loadedChunks) {
+                for (int row = 0; row < loadedChunk.getRowCount(); row++, rowIndex++) {
+                    if (rowIndex % sampleInterval != 0) {
+                        continue;
+                    }
+                    final double x = (loadedChunk.getTimestampNanos(row) - START_NANOS) / 1_000_000_000.0;
+                    for (int pvIndex = 0; pvIndex < numPvs; pvIndex++) {
+                        seriesList.get(pvIndex).getData().add(point(loadedChunk, pvIndex, row, x));
+                        points++;
+                    }
+                }
+            }
+
+            // previous y-axis configuration scanned every plotted point
+            double minY = Double.MAX_VALUE;
+            for (XYChart.Series<Number, Number> series : seriesList) {
+                for (XYChart.Data<Number, Number> dataPoint : series.getData()) {
+                    minY = Math.min(minY, dataPoint.getYValue().doubleValue());
+                }
+            }
+        }
+        return new long[] { cpuNanos() - startCpu, points };
+    }
+
+    private static long[] runDecimated(List<QueryResultChunk> chunks, int numPvs, SeriesDecimator.Method method) {
+        final List<XYChart.Series<Number, Number>> seriesList = createSeries(numPvs);
+        final List<SeriesBuffer> buffers = new ArrayList<>(numPvs);
+        for (int pvIndex = 0; pvIndex < numPvs; pvIndex++) {
+            buffers.add(new SeriesBuffer("benchmark-pv-" + pvIndex));
+        }
+        final long rangeNanos = chunks.size() * INTERVAL_NANOS;
+        long points = 0;
+
+        final long startCpu = cpuNanos();
+        for (QueryResultChunk chunk : chunks) {
+            for (int pvIndex = 0; pvIndex < numPvs; pvIndex++) {
+                buffers.get(pvIndex).addRows(chunk, pvIndex, 0, chunk.getRowCount(), START_NANOS);
+            }
+            for (int pvIndex = 0; pvIndex < numPvs; pvIndex++) {
+                final SeriesBuffer.View view = buffers.get(pvIndex).view();
+                final int[] indices = SeriesDecimator.decimate(method, view, 0, rangeNanos, PLOT_WIDTH_PIXELS);
+                final List<XYChart.Data<Number, Number>> seriesPoints = new ArrayList<>(indices.length);
+                for (int index : indices) {
+                    final XYChart.Data<Number, Number> dataPoint = new XYChart.Data<>(
+                            view.getOffsetNanos()[index] / 1_000_000_000.0, view.getValues()[index]);
+                    dataPoint.setExtraValue(QueryResultChunk.formatTimestamp(START_NANOS + view.getOffsetNanos()[index]));
+                    seriesPoints.add(dataPoint);
+                }
+                seriesList.get(pvIndex).getData().setAll(seriesPoints);
+                points += indices.length;
+            }
+        }
+        return new long[] { cpuNanos() - startCpu, points };
+    }
+
+    private static XYChart.Data<Number, Number> point(QueryResultChunk chunk, int pvIndex, int row, double x) {
+        final XYChart.Data<Number, Number> dataPoint = new XYChart.Data<>(x, chunk.getValue(pvIndex, row));
+        dataPoint.setExtraValue(QueryResultChunk.formatTimestamp(chunk.getTimestampNanos(row)));
+        return dataPoint;
+    }
+
+    private static List<XYChart.Series<Number, Number>> createSeries(int numPvs) {
+        final List<XYChart.Series<Number, Number>> seriesList = new ArrayList<>(numPvs);
+        for (int i = 0; i < numPvs; i++) {
+            seriesList.add(new XYChart.Series<>());
+        }
+        return seriesList;
+    }
+
+    private static QueryResultChunk buildChunk(int interval, int rowsPerInterval, int numPvs) {
+        final List<String> pvNames = new ArrayList<>(numPvs);
+        for (int pvIndex = 0; pvIndex < numPvs; pvIndex++) {
+            pvNames.add(String.format("benchmark-pv-%03d", pvIndex));
+        }
+        final QueryResultChunk chunk = new QueryResultChunk(pvNames, rowsPerInterval);
+        final long periodNanos = INTERVAL_NANOS / rowsPerInterval;
+        for (int row = 0; row < rowsPerInterval; row++) {
+            final long timestamp = START_NANOS + interval * INTERVAL_NANOS + row * periodNanos;
+            chunk.setTimestamp(row, timestamp);
+            for (int pvIndex = 0; pvIndex < numPvs; pvIndex++) {
+                chunk.setDouble(pvIndex, row, Math.sin(timestamp / 1.0e10 + pvIndex));
+            }
+        }
+        return chunk;
+    }
+
+    private static long cpuNanos() {
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        return threadBean.getCurrentThreadCpuTime();
+    }
+
+    private static void report(String label, long[] result, int numIntervals) {
+        final String summary = String.format(
+                "%s: %.1f ms total chart CPU over %d intervals, %.3f ms/interval, %d points created",
+                label, result[0] / 1_000_000.0, numIntervals, result[0] / 1_000_000.0 / numIntervals, result[1]);
+        logger.info(summary);
+        System.out.println(summary);
+    }
+}
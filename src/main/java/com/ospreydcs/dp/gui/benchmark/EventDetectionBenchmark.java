@@ -0,0 +1,364 @@
+package com.ospreydcs.dp.gui.benchmark;
+
+import com.ospreydcs.dp.client.IngestionClient;
+import com.ospreydcs.dp.client.result.IngestDataApiResult;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventResponse;
+import com.ospreydcs.dp.gui.DpApplication;
+import com.ospreydcs.dp.gui.event.DataEventLatency;
+import com.ospreydcs.dp.gui.model.DataEventSubscription;
+import com.ospreydcs.dp.gui.model.SubscribeDataEventDetail;
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import com.ospreydcs.dp.service.common.model.ResultStatus;
+import de.siegmar.fastcsv.writer.CsvWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless benchmark for data event detection by the in-process ingestion stream service.  Subscribes a "greater
+ * than" trigger on each of numTriggers PVs, then ingests one request per second carrying samplesPerSecond samples
+ * for every PV, timestamped in real time, for durationSeconds.  The values are zero except for eventsPerTrigger
+ * single-sample spikes per PV, staggered across PVs, so exactly numTriggers x eventsPerTrigger events should fire.
+ * After ingestion it waits for events to stop arriving, then compares the events received with those expected,
+ * counting missed, duplicate and unexpected events, and measures detection throughput and the latency from the
+ * triggering value's timestamp (trigger) and from its request's send time (delivery) to arrival.
+ *
+ * Each run appends one row to the CSV report, including the effective IngestionStreamHandler.EventMonitor.DataBuffer
+ * settings from application.yml.  With "sweep", the benchmark instead runs itself in a child JVM for each DataBuffer
+ * setting varied one at a time from the application.yml values, passing the settings as -Ddp.&lt;key&gt; config
+ * overrides, so all runs share a report.  The in-process services need the local MongoDB used by the application.
+ *
+ * Usage: EventDetectionBenchmark [numTriggers] [durationSeconds] [samplesPerSecond] [eventsPerTrigger] [reportFile]
+ * [sweep]
+ */
+public class EventDetectionBenchmark {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int DEFAULT_NUM_TRIGGERS = 100;
+    private static final int DEFAULT_DURATION_SECONDS = 30;
+    private static final int DEFAULT_SAMPLES_PER_SECOND = 100;
+    private static final int DEFAULT_EVENTS_PER_TRIGGER = 20;
+    private static final String DEFAULT_REPORT_FILE = "event-detection-benchmark.csv";
+    private static final String SWEEP_ARG = "sweep";
+
+    private static final double TRIGGER_THRESHOLD = 1000.0;
+    private static final double SPIKE_VALUE = 2000.0;
+    private static final long QUIET_MILLIS = 5_000;
+    private static final long MAX_DRAIN_MILLIS = 60_000;
+
+    // EventMonitor DataBuffer settings, and the prefix for overriding config settings with system properties
+    private static final String CFG_KEY_FLUSH_INTERVAL_MILLIS =
+            "IngestionStreamHandler.EventMonitor.DataBuffer.flushIntervalMillis";
+    private static final String CFG_KEY_MAX_BUFFER_ITEMS = "IngestionStreamHandler.EventMonitor.DataBuffer.maxBufferItems";
+    private static final String CFG_KEY_MAX_BUFFER_BYTES = "IngestionStreamHandler.EventMonitor.DataBuffer.maxBufferBytes";
+    private static final String CONFIG_OVERRIDE_PREFIX = "dp.";
+    private static final List<Map.Entry<String, List<Integer>>> SWEEP_VALUES = List.of(
+            Map.entry(CFG_KEY_FLUSH_INTERVAL_MILLIS, List.of(100, 1000)),
+            Map.entry(CFG_KEY_MAX_BUFFER_ITEMS, List.of(10, 200)),
+            Map.entry(CFG_KEY_MAX_BUFFER_BYTES, List.of(65536, 2097152)));
+
+    private static final String[] REPORT_COLUMNS = {
+            "run_time", "num_triggers", "duration_seconds", "samples_per_second", "events_per_trigger",
+            "flush_interval_millis", "max_buffer_items", "max_buffer_bytes", "subscription_streams",
+            "expected_events", "detected_events", "missed_events", "duplicate_events", "unexpected_events",
+            "events_per_second", "trigger_p50_ms", "trigger_p99_ms", "trigger_max_ms",
+            "delivery_p50_ms", "delivery_p99_ms", "delivery_max_ms"
+    };
+
+    /**
+     * Events received for one trigger PV, recorded by a feed listener on the gRPC response thread.
+     */
+    private static class TriggerEvents {
+
+        private final Set<Long> expectedNanos = new HashSet<>();
+        private final Set<Long> receivedNanos = ConcurrentHashMap.newKeySet();
+        private final AtomicLong duplicateCount = new AtomicLong();
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int numTriggers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_TRIGGERS;
+        final int durationSeconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DURATION_SECONDS;
+        final int samplesPerSecond = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SAMPLES_PER_SECOND;
+        final int eventsPerTrigger = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_EVENTS_PER_TRIGGER;
+        final Path reportFile = Paths.get(args.length > 4 ? args[4] : DEFAULT_REPORT_FILE);
+
+        if (args.length > 5 && SWEEP_ARG.equals(args[5])) {
+            sweep(new String[] {
+                    String.valueOf(numTriggers), String.valueOf(durationSeconds), String.valueOf(samplesPerSecond),
+                    String.valueOf(eventsPerTrigger), reportFile.toString()}, reportFile);
+            return;
+        }
+
+        final List<String> row = run(numTriggers, durationSeconds, samplesPerSecond, eventsPerTrigger);
+        appendReportRow(reportFile, row);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < REPORT_COLUMNS.length; i++) {
+            sb.append(String.format("%s=%s%s", REPORT_COLUMNS[i], row.get(i), (i < REPORT_COLUMNS.length - 1) ? ", " : ""));
+        }
+        logger.info(sb.toString());
+        System.out.println(sb);
+    }
+
+    /**
+     * Runs the benchmark in a child JVM for the application.yml DataBuffer settings, then once for each swept
+     * setting with the others at their application.yml values.
+     */
+    private static void sweep(String[] runArgs, Path reportFile) throws IOException, InterruptedException {
+        final List<Map<String, Integer>> overrideSets = new ArrayList<>();
+        overrideSets.add(Map.of());
+        for (Map.Entry<String, List<Integer>> entry : SWEEP_VALUES) {
+            for (Integer value : entry.getValue()) {
+                overrideSets.add(Map.of(entry.getKey(), value));
+            }
+        }
+
+        final String javaBin = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        for (Map<String, Integer> overrides : overrideSets) {
+            final List<String> command = new ArrayList<>();
+            command.add(javaBin);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            for (Map.Entry<String, Integer> override : overrides.entrySet()) {
+                command.add("-D" + CONFIG_OVERRIDE_PREFIX + override.getKey() + "=" + override.getValue());
+            }
+            command.add(EventDetectionBenchmark.class.getName());
+            command.addAll(Arrays.asList(runArgs));
+
+            logger.info("running event detection benchmark with overrides: {}", overrides);
+            final int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (exitCode != 0) {
+                logger.error("benchmark run with overrides {} failed with exit code {}", overrides, exitCode);
+            }
+        }
+        System.out.println("event detection benchmark report written to " + reportFile);
+    }
+
+    private static List<String> run(
+            int numTriggers, int durationSeconds, int samplesPerSecond, int eventsPerTrigger
+    ) throws InterruptedException {
+        final DpApplication dpApplication = new DpApplication();
+        if (!dpApplication.init()) {
+            throw new IllegalStateException("unable to initialize in-process services");
+        }
+        try {
+            final ResultStatus registerStatus = dpApplication.registerProvider(
+                    "event-detection-benchmark", "Event detection benchmark", List.of(), Map.of());
+            if (registerStatus.isError) {
+                throw new IllegalStateException("unable to register provider: " + registerStatus.msg);
+            }
+            return measure(dpApplication, numTriggers, durationSeconds, samplesPerSecond, eventsPerTrigger);
+        } finally {
+            dpApplication.fini();
+        }
+    }
+
+    private static List<String> measure(
+            DpApplication dpApplication,
+            int numTriggers,
+            int durationSeconds,
+            int samplesPerSecond,
+            int eventsPerTrigger
+    ) throws InterruptedException {
+        final List<String> pvNames = new ArrayList<>(numTriggers);
+        for (int i = 0; i < numTriggers; i++) {
+            pvNames.add(String.format("event-benchmark-pv-%04d", i));
+        }
+
+        // subscribe one trigger per PV, all sharing subscription streams
+        final List<SubscribeDataEventDetail> details = new ArrayList<>(numTriggers);
+        final List<IngestionClient.IngestionDataType> dataTypes = new ArrayList<>(numTriggers);
+        for (String pvName : pvNames) {
+            details.add(new SubscribeDataEventDetail(
+                    pvName, DpApplication.TriggerCondition.GREATER, String.valueOf(TRIGGER_THRESHOLD)));
+            dataTypes.add(IngestionClient.IngestionDataType.DOUBLE);
+        }
+        final ResultStatus subscribeStatus = dpApplication.subscribeDataEvents(details, dataTypes);
+        if (subscribeStatus.isError) {
+            throw new IllegalStateException("unable to subscribe triggers: " + subscribeStatus.msg);
+        }
+
+        // record arrivals and latencies as events are pushed
+        final Map<String, TriggerEvents> eventsByPv = new HashMap<>();
+        final Map<Long, Long> sendNanosBySecond = new ConcurrentHashMap<>();
+        final List<Long> triggerLatencies = Collections.synchronizedList(new ArrayList<>());
+        final List<Long> deliveryLatencies = Collections.synchronizedList(new ArrayList<>());
+        final AtomicLong lastArrivalNanos = new AtomicLong();
+        for (DataEventSubscription subscription : dpApplication.getDataEventSubscriptions()) {
+            final TriggerEvents triggerEvents = new TriggerEvents();
+            eventsByPv.put(subscription.subscriptionDetail.pvName, triggerEvents);
+            subscription.eventFeed.addEventListener(event -> {
+                final long arrivalNanos = DataEventLatency.nowEpochNanos();
+                final long eventNanos = eventNanos(event);
+                if (!triggerEvents.receivedNanos.add(eventNanos)) {
+                    triggerEvents.duplicateCount.incrementAndGet();
+                }
+                triggerLatencies.add(arrivalNanos - eventNanos);
+                final Long sendNanos = sendNanosBySecond.get(eventNanos / 1_000_000_000L);
+                if (sendNanos != null) {
+                    deliveryLatencies.add(arrivalNanos - sendNanos);
+                }
+                lastArrivalNanos.set(arrivalNanos);
+            });
+        }
+
+        // ingest one request per second for all PVs, with spikes staggered across PVs
+        final int totalSamples = durationSeconds * samplesPerSecond;
+        final int spikeSpacing = Math.max(1, totalSamples / Math.max(1, eventsPerTrigger));
+        final long samplePeriodNanos = 1_000_000_000L / samplesPerSecond;
+        final long startSecond = Instant.now().getEpochSecond() + 1;
+        final long firstSendNanos = DataEventLatency.nowEpochNanos();
+        for (int second = 0; second < durationSeconds; second++) {
+            final Instant bucketStart = Instant.ofEpochSecond(startSecond + second);
+            final List<List<Object>> values = new ArrayList<>(numTriggers);
+            for (int pvIndex = 0; pvIndex < numTriggers; pvIndex++) {
+                final List<Object> pvValues = new ArrayList<>(samplesPerSecond);
+                for (int sample = 0; sample < samplesPerSecond; sample++) {
+                    final int sampleIndex = second * samplesPerSecond + sample;
+                    final boolean spike = (sampleIndex % spikeSpacing) == (pvIndex % spikeSpacing)
+                            && sampleIndex / spikeSpacing < eventsPerTrigger;
+                    pvValues.add(spike ? SPIKE_VALUE : 0.0);
+                    if (spike) {
+                        eventsByPv.get(pvNames.get(pvIndex)).expectedNanos.add(
+                                bucketStart.getEpochSecond() * 1_000_000_000L + sample * samplePeriodNanos);
+                    }
+                }
+                values.add(pvValues);
+            }
+
+            sleepUntil(bucketStart);
+            sendNanosBySecond.put(bucketStart.getEpochSecond(), DataEventLatency.nowEpochNanos());
+            final IngestDataApiResult apiResult = dpApplication.ingestSamplingClockData(
+                    pvNames, IngestionClient.IngestionDataType.DOUBLE, bucketStart, samplePeriodNanos, values,
+                    List.of(), Map.of(), "event detection benchmark");
+            if (apiResult.resultStatus.isError) {
+                throw new IllegalStateException("ingestion failed: " + apiResult.resultStatus.msg);
+            }
+        }
+
+        // wait until events stop arriving
+        final long drainStartMillis = System.currentTimeMillis();
+        long lastCount = -1;
+        long lastChangeMillis = drainStartMillis;
+        while (System.currentTimeMillis() - drainStartMillis < MAX_DRAIN_MILLIS) {
+            Thread.sleep(250);
+            final long count = triggerLatencies.size();
+            if (count != lastCount) {
+                lastCount = count;
+                lastChangeMillis = System.currentTimeMillis();
+            } else if (System.currentTimeMillis() - lastChangeMillis >= QUIET_MILLIS) {
+                break;
+            }
+        }
+
+        // compare received events with those expected
+        long expected = 0;
+        long detected = 0;
+        long missed = 0;
+        long duplicates = 0;
+        long unexpected = 0;
+        for (TriggerEvents triggerEvents : eventsByPv.values()) {
+            expected += triggerEvents.expectedNanos.size();
+            duplicates += triggerEvents.duplicateCount.get();
+            for (Long eventNanos : triggerEvents.expectedNanos) {
+                if (triggerEvents.receivedNanos.contains(eventNanos)) {
+                    detected++;
+                } else {
+                    missed++;
+                }
+            }
+            for (Long eventNanos : triggerEvents.receivedNanos) {
+                if (!triggerEvents.expectedNanos.contains(eventNanos)) {
+                    unexpected++;
+                }
+            }
+        }
+        final long elapsedNanos = Math.max(1, lastArrivalNanos.get() - firstSendNanos);
+        final long[] trigger = sorted(triggerLatencies);
+        final long[] delivery = sorted(deliveryLatencies);
+
+        final ConfigurationManager configMgr = ConfigurationManager.getInstance();
+        return List.of(
+                Instant.now().toString(),
+                String.valueOf(numTriggers),
+                String.valueOf(durationSeconds),
+                String.valueOf(samplesPerSecond),
+                String.valueOf(eventsPerTrigger),
+                String.valueOf(configMgr.getConfigInteger(CFG_KEY_FLUSH_INTERVAL_MILLIS, -1)),
+                String.valueOf(configMgr.getConfigInteger(CFG_KEY_MAX_BUFFER_ITEMS, -1)),
+                String.valueOf(configMgr.getConfigInteger(CFG_KEY_MAX_BUFFER_BYTES, -1)),
+                String.valueOf(dpApplication.getDataEventStreamCount()),
+                String.valueOf(expected),
+                String.valueOf(detected),
+                String.valueOf(missed),
+                String.valueOf(duplicates),
+                String.valueOf(unexpected),
+                String.format("%.1f", (detected + unexpected) * 1e9 / elapsedNanos),
+                percentileMillis(trigger, 50),
+                percentileMillis(trigger, 99),
+                percentileMillis(trigger, 100),
+                percentileMillis(delivery, 50),
+                percentileMillis(delivery, 99),
+                percentileMillis(delivery, 100));
+    }
+
+    private static long eventNanos(SubscribeDataEventResponse.Event event) {
+        return event.getEventTime().getEpochSeconds() * 1_000_000_000L + event.getEventTime().getNanoseconds();
+    }
+
+    private static void sleepUntil(Instant time) throws InterruptedException {
+        final long waitMillis = time.toEpochMilli() - System.currentTimeMillis();
+        if (waitMillis > 0) {
+            Thread.sleep(waitMillis);
+        }
+    }
+
+    private static long[] sorted(List<Long> values) {
+        final long[] array;
+        synchronized (values) {
+            array = values.stream().mapToLong(Long::longValue).toArray();
+        }
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static String percentileMillis(long[] sortedValues, double percentile) {
+        if (sortedValues.length == 0) {
+            return "";
+        }
+        final int rank = (int) Math.ceil(sortedValues.length * percentile / 100.0);
+        return String.format("%.3f", sortedValues[Math.max(0, rank - 1)] / 1e6);
+    }
+
+    /**
+     * Appends a row to the CSV report, writing the header first if the report is new.
+     */
+    private static void appendReportRow(Path reportFile, List<String> row) throws IOException {
+        final boolean newReport = !Files.exists(reportFile) || Files.size(reportFile) == 0;
+        try (Writer writer = Files.newBufferedWriter(
+                reportFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+             CsvWriter csv = CsvWriter.builder().build(writer)) {
+            if (newReport) {
+                csv.writeRecord(REPORT_COLUMNS);
+            }
+            csv.writeRecord(row);
+        }
+    }
+}
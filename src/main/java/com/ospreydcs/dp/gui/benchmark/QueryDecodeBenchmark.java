@@ -0,0 +1,172 @@
+package com.ospreydcs.dp.gui.benchmark;
+
+import com.ospreydcs.dp.grpc.v1.common.DataColumn;
+import com.ospreydcs.dp.grpc.v1.common.DataTimestamps;
+import com.ospreydcs.dp.grpc.v1.common.DataValue;
+import com.ospreydcs.dp.grpc.v1.common.Timestamp;
+import com.ospreydcs.dp.grpc.v1.common.TimestampList;
+import com.ospreydcs.dp.grpc.v1.query.QueryTableResponse;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import com.ospreydcs.dp.gui.query.ParallelQueryDecoder;
+import com.ospreydcs.dp.gui.query.QueryTableDecoder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Standalone benchmark for QueryTableDecoder, decoding synthetic column and row map tables of a configurable
+ * shape and reporting decode time and bytes allocated per cell for each format.  Each format is also decoded with
+ * ParallelQueryDecoder, reporting decode time only since allocation happens on the pool's worker threads.
+ *
+ * Usage: QueryDecodeBenchmark [numRows] [numPvs] [numIterations]
+ */
+public class QueryDecodeBenchmark {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int DEFAULT_NUM_ROWS = 10_000;
+    private static final int DEFAULT_NUM_PVS = 50;
+    private static final int DEFAULT_NUM_ITERATIONS = 20;
+    private static final int WARMUP_ITERATIONS = 5;
+
+    public static void main(String[] args) {
+        final int numRows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_ROWS;
+        final int numPvs = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_PVS;
+        final int numIterations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUM_ITERATIONS;
+
+        logger.info("building synthetic tables with {} rows and {} PVs", numRows, numPvs);
+        final QueryTableResponse.TableResult columnTable = buildColumnTable(numRows, numPvs);
+        final QueryTableResponse.TableResult rowMapTable = buildRowMapTable(numRows, numPvs);
+
+        run("column table", columnTable, numRows, numPvs, numIterations);
+        run("row map table", rowMapTable, numRows, numPvs, numIterations);
+
+        final ParallelQueryDecoder decoder = new ParallelQueryDecoder(
+                0, ParallelQueryDecoder.DEFAULT_DECODE_MIN_ROWS_PER_TASK);
+        try {
+            runParallel("column table (parallel x" + decoder.getParallelism() + ")",
+                    decoder, columnTable, numRows, numPvs, numIterations);
+            runParallel("row map table (parallel x" + decoder.getParallelism() + ")",
+                    decoder, rowMapTable, numRows, numPvs, numIterations);
+        } finally {
+            decoder.shutdown();
+        }
+    }
+
+    private static void runParallel(
+            String label,
+            ParallelQueryDecoder decoder,
+            QueryTableResponse.TableResult tableResult,
+            int numRows,
+            int numPvs,
+            int numIterations
+    ) {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            checksum += decoder.decode(tableResult).getRowCount();
+        }
+
+        final long startNanos = System.nanoTime();
+        for (int i = 0; i < numIterations; i++) {
+            checksum += decoder.decode(tableResult).getRowCount();
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+
+        final double cells = (double) numRows * numPvs * numIterations;
+        final String result = String.format(
+                "%s: %.2f ms/decode, %.1f ns/cell (checksum %d)",
+                label,
+                elapsedNanos / 1_000_000.0 / numIterations,
+                elapsedNanos / cells,
+                checksum);
+        logger.info(result);
+        System.out.println(result);
+    }
+
+    private static void run(
+            String label, QueryTableResponse.TableResult tableResult, int numRows, int numPvs, int numIterations
+    ) {
+        final com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().threadId();
+
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            checksum += QueryTableDecoder.decode(tableResult).getRowCount();
+        }
+
+        final long startAllocatedBytes = threadBean.getThreadAllocatedBytes(threadId);
+        final long startNanos = System.nanoTime();
+        for (int i = 0; i < numIterations; i++) {
+            final QueryResultChunk chunk = QueryTableDecoder.decode(tableResult);
+            checksum += chunk.getRowCount();
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+
+        final double cells = (double) numRows * numPvs * numIterations;
+        final String result = String.format(
+                "%s: %.2f ms/decode, %.1f ns/cell, %.1f bytes allocated/cell (checksum %d)",
+                label,
+                elapsedNanos / 1_000_000.0 / numIterations,
+                elapsedNanos / cells,
+                allocatedBytes / cells,
+                checksum);
+        logger.info(result);
+        System.out.println(result);
+    }
+
+    private static QueryTableResponse.TableResult buildColumnTable(int numRows, int numPvs) {
+        final TimestampList.Builder timestampListBuilder = TimestampList.newBuilder();
+        for (int row = 0; row < numRows; row++) {
+            timestampListBuilder.addTimestamps(timestamp(row));
+        }
+
+        final QueryTableResponse.ColumnTable.Builder columnTableBuilder = QueryTableResponse.ColumnTable.newBuilder()
+                .setDataTimestamps(DataTimestamps.newBuilder().setTimestampList(timestampListBuilder).build());
+        for (int pvIndex = 0; pvIndex < numPvs; pvIndex++) {
+            final DataColumn.Builder columnBuilder = DataColumn.newBuilder().setName(pvName(pvIndex));
+            for (int row = 0; row < numRows; row++) {
+                columnBuilder.addDataValues(DataValue.newBuilder().setDoubleValue(row * 0.5 + pvIndex).build());
+            }
+            columnTableBuilder.addDataColumns(columnBuilder.build());
+        }
+
+        return QueryTableResponse.TableResult.newBuilder().setColumnTable(columnTableBuilder.build()).build();
+    }
+
+    private static QueryTableResponse.TableResult buildRowMapTable(int numRows, int numPvs) {
+        final QueryTableResponse.RowMapTable.Builder rowMapTableBuilder = QueryTableResponse.RowMapTable.newBuilder()
+                .addColumnNames(QueryResultChunk.TIMESTAMP_COLUMN);
+        for (int pvIndex = 0; pvIndex < numPvs; pvIndex++) {
+            rowMapTableBuilder.addColumnNames(pvName(pvIndex));
+        }
+
+        for (int row = 0; row < numRows; row++) {
+            final QueryTableResponse.RowMapTable.DataRow.Builder rowBuilder =
+                    QueryTableResponse.RowMapTable.DataRow.newBuilder();
+            rowBuilder.putColumnValues(
+                    QueryResultChunk.TIMESTAMP_COLUMN, DataValue.newBuilder().setTimestampValue(timestamp(row)).build());
+            for (int pvIndex = 0; pvIndex < numPvs; pvIndex++) {
+                rowBuilder.putColumnValues(
+                        pvName(pvIndex), DataValue.newBuilder().setDoubleValue(row * 0.5 + pvIndex).build());
+            }
+            rowMapTableBuilder.addRows(rowBuilder.build());
+        }
+
+        return QueryTableResponse.TableResult.newBuilder().setRowMapTable(rowMapTableBuilder.build()).build();
+    }
+
+    private static Timestamp timestamp(int row) {
+        final long nanos = row * 1_000_000L; // 1 kHz sampling
+        return Timestamp.newBuilder()
+                .setEpochSeconds(1_698_767_462L + nanos / 1_000_000_000L)
+                .setNanoseconds(nanos % 1_000_000_000L)
+                .build();
+    }
+
+    private static String pvName(int pvIndex) {
+        return String.format("benchmark-pv-%03d", pvIndex);
+    }
+}
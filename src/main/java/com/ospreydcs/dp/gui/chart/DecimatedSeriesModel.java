@@ -0,0 +1,318 @@
+package com.ospreydcs.dp.gui.chart;
+
+import com.ospreydcs.dp.gui.metrics.StageMetrics;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import javafx.application.Platform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps every point of a set of chart series in SeriesBuffers and publishes decimated copies of them for display.
+ * Decimation runs on a background thread over snapshots of the primitive buffers, and the resulting points are
+ * created there too, so the JavaFX Application Thread only replaces each series' data.  Update requests made while
+ * a decimation is running are coalesced into a single follow-up run, and results computed before the series were
+ * replaced are discarded.
+ *
+ * All methods must be called on the JavaFX Application Thread.
+ */
+public class DecimatedSeriesModel<P> {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final ExecutorService decimationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "chart-decimation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a display point for a selected sample.
+     */
+    public interface PointFactory<P> {
+        P createPoint(double xSeconds, double y, boolean integral);
+    }
+
+    /**
+     * A point found by findNearest(), read from the series buffer.
+     */
+    public static final class NearestPoint {
+
+        public final String seriesName;
+        public final long timestampNanos;
+        public final double value;
+        public final boolean integral;
+
+        private NearestPoint(String seriesName, long timestampNanos, double value, boolean integral) {
+            this.seriesName = seriesName;
+            this.timestampNanos = timestampNanos;
+            this.value = value;
+            this.integral = integral;
+        }
+    }
+
+    /**
+     * Result of one decimation: the views decimated and the selected indices for each.
+     */
+    private static final class Decimation<P> {
+
+        private final List<SeriesBuffer.View> views;
+        private final List<int[]> indices;
+        private final List<List<P>> points;
+
+        private Decimation(List<SeriesBuffer.View> views, List<int[]> indices, List<List<P>> points) {
+            this.views = views;
+            this.indices = indices;
+            this.points = points;
+        }
+    }
+
+    /**
+     * Receives the decimated points for all series, on the JavaFX Application Thread.
+     */
+    public interface Publisher<P> {
+        void publish(List<List<P>> seriesPoints);
+    }
+
+    private final PointFactory<P> pointFactory;
+    private final Publisher<P> publisher;
+    private final List<SeriesBuffer> buffers = new ArrayList<>();
+    private SeriesDecimator.Method method;
+    private long originNanos = 0;
+    private long rangeNanos = 1;
+    private long viewBeginOffset = 0;
+    private long viewEndOffset = 1;
+    private int pixelWidth = 800;
+
+    // update scheduling state
+    private boolean running = false;
+    private boolean dirty = false;
+    private long generation = 0;
+    private long lastDecimationNanos = 0;
+    private int publishedPointCount = 0;
+    private Decimation<P> published = null;
+
+    public DecimatedSeriesModel(SeriesDecimator.Method method, PointFactory<P> pointFactory, Publisher<P> publisher) {
+        this.method = method;
+        this.pointFactory = pointFactory;
+        this.publisher = publisher;
+    }
+
+    /**
+     * Replaces all series with empty series for the specified names, spanning [originNanos, originNanos + rangeNanos).
+     * The view is reset to the full range.
+     */
+    public void setSeries(List<String> seriesNames, long originNanos, long rangeNanos) {
+        buffers.clear();
+        published = null;
+        for (String name : seriesNames) {
+            buffers.add(new SeriesBuffer(name));
+        }
+        this.originNanos = originNanos;
+        this.rangeNanos = Math.max(1, rangeNanos);
+        this.viewBeginOffset = 0;
+        this.viewEndOffset = this.rangeNanos;
+        generation++;
+    }
+
+    /**
+     * Removes all points while keeping the series.
+     */
+    public void clear() {
+        for (SeriesBuffer buffer : buffers) {
+            buffer.clear();
+        }
+        published = null;
+        generation++;
+    }
+
+    /**
+     * Appends all values of rows [fromRow, toRow) of the chunk, whose PV columns map to series by index.
+     * Call requestUpdate() once after appending.
+     */
+    public void appendRows(QueryResultChunk chunk, int fromRow, int toRow) {
+        final int seriesCount = Math.min(buffers.size(), chunk.getPvNames().size());
+        for (int seriesIndex = 0; seriesIndex < seriesCount; seriesIndex++) {
+            buffers.get(seriesIndex).addRows(chunk, seriesIndex, fromRow, toRow, originNanos);
+        }
+    }
+
+    public void setMethod(SeriesDecimator.Method method) {
+        this.method = method;
+    }
+
+    /**
+     * Sets the plot width in pixels that points are decimated to.  Returns true if the width changed.
+     */
+    public boolean setPixelWidth(int pixelWidth) {
+        final int width = Math.max(1, pixelWidth);
+        if (width == this.pixelWidth) {
+            return false;
+        }
+        this.pixelWidth = width;
+        return true;
+    }
+
+    /**
+     * Sets the visible range as offsets in nanoseconds from the origin.
+     */
+    public void setViewRange(long beginOffset, long endOffset) {
+        this.viewBeginOffset = beginOffset;
+        this.viewEndOffset = Math.max(beginOffset + 1, endOffset);
+    }
+
+    /**
+     * Schedules decimation of the current buffers and view, publishing the result when done.
+     */
+    public void requestUpdate() {
+        if (running) {
+            dirty = true;
+            return;
+        }
+        running = true;
+        dirty = false;
+
+        final long requestGeneration = generation;
+        final List<SeriesBuffer.View> views = new ArrayList<>(buffers.size());
+        for (SeriesBuffer buffer : buffers) {
+            views.add(buffer.view());
+        }
+        final SeriesDecimator.Method requestMethod = method;
+        final long beginOffset = viewBeginOffset;
+        final long endOffset = viewEndOffset;
+        final int width = pixelWidth;
+
+        decimationExecutor.execute(() -> {
+            Decimation<P> decimation = null;
+            final long startNanos = System.nanoTime();
+            try {
+                decimation = decimate(views, requestMethod, beginOffset, endOffset, width);
+            } catch (RuntimeException ex) {
+                logger.error("chart decimation failed", ex);
+            }
+            final long elapsedNanos = System.nanoTime() - startNanos;
+            final Decimation<P> result = decimation;
+            Platform.runLater(() -> onDecimated(requestGeneration, result, elapsedNanos));
+        });
+    }
+
+    private Decimation<P> decimate(
+            List<SeriesBuffer.View> views,
+            SeriesDecimator.Method requestMethod,
+            long beginOffset,
+            long endOffset,
+            int width
+    ) {
+        final List<int[]> seriesIndices = new ArrayList<>(views.size());
+        final List<List<P>> seriesPoints = new ArrayList<>(views.size());
+        for (SeriesBuffer.View view : views) {
+            final int[] indices = SeriesDecimator.decimate(requestMethod, view, beginOffset, endOffset, width);
+            final long[] offsets = view.getOffsetNanos();
+            final double[] values = view.getValues();
+            final List<P> points = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                points.add(pointFactory.createPoint(offsets[index] / 1_000_000_000.0, values[index], view.isIntegral()));
+            }
+            seriesIndices.add(indices);
+            seriesPoints.add(points);
+        }
+        return new Decimation<>(views, seriesIndices, seriesPoints);
+    }
+
+    private void onDecimated(long requestGeneration, Decimation<P> decimation, long elapsedNanos) {
+        running = false;
+        lastDecimationNanos = elapsedNanos;
+        if (decimation != null) {
+            StageMetrics.record(StageMetrics.Stage.DECIMATION, elapsedNanos);
+        }
+        if (decimation != null && requestGeneration == generation) {
+            published = decimation;
+            publishedPointCount = 0;
+            for (List<P> points : decimation.points) {
+                publishedPointCount += points.size();
+            }
+            publisher.publish(decimation.points);
+            logger.debug("published {} decimated points in {} ms", publishedPointCount, elapsedNanos / 1_000_000.0);
+        } else if (requestGeneration != generation) {
+            // series were replaced or cleared while decimating, so the result is stale
+            dirty = true;
+        }
+        if (dirty) {
+            requestUpdate();
+        }
+    }
+
+    /**
+     * Returns the displayed point nearest to the specified offset and value, measured in pixels using the specified
+     * scales, or null if none is within maxPixels.  Searches the most recently published points of each series by
+     * binary search, reading the point's details from the series buffer.
+     */
+    public NearestPoint findNearest(
+            long offset, double value, double nanosPerPixel, double valuePerPixel, double maxPixels
+    ) {
+        if (published == null) {
+            return null;
+        }
+        SeriesBuffer.View nearestView = null;
+        int nearestIndex = -1;
+        double nearestDistance = maxPixels;
+        for (int seriesIndex = 0; seriesIndex < published.views.size(); seriesIndex++) {
+            final SeriesBuffer.View view = published.views.get(seriesIndex);
+            final int index = view.nearestIndex(
+                    published.indices.get(seriesIndex), offset, value, nanosPerPixel, valuePerPixel, nearestDistance);
+            if (index >= 0) {
+                nearestDistance = view.pixelDistance(index, offset, value, nanosPerPixel, valuePerPixel);
+                nearestView = view;
+                nearestIndex = index;
+            }
+        }
+        if (nearestView == null) {
+            return null;
+        }
+        return new NearestPoint(
+                nearestView.getName(),
+                originNanos + nearestView.getOffsetNanos()[nearestIndex],
+                nearestView.getValues()[nearestIndex],
+                nearestView.isIntegral());
+    }
+
+    public int getSeriesCount() {
+        return buffers.size();
+    }
+
+    public long getPointCount() {
+        long count = 0;
+        for (SeriesBuffer buffer : buffers) {
+            count += buffer.size();
+        }
+        return count;
+    }
+
+    public int getPublishedPointCount() {
+        return publishedPointCount;
+    }
+
+    public long getLastDecimationNanos() {
+        return lastDecimationNanos;
+    }
+
+    public double getMinValue() {
+        double min = Double.POSITIVE_INFINITY;
+        for (SeriesBuffer buffer : buffers) {
+            min = Math.min(min, buffer.getMinValue());
+        }
+        return min;
+    }
+
+    public double getMaxValue() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (SeriesBuffer buffer : buffers) {
+            max = Math.max(max, buffer.getMaxValue());
+        }
+        return max;
+    }
+}
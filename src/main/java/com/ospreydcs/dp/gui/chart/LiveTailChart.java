@@ -0,0 +1,349 @@
+package com.ospreydcs.dp.gui.chart;
+
+import com.ospreydcs.dp.gui.live.PvRingBuffer;
+import com.ospreydcs.dp.gui.metrics.StageMetrics;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Scrolling chart of the most recent samples in a set of PvRingBuffers, redrawn at a steady frame rate while
+ * started.  Each frame copies every ring buffer into scratch arrays allocated once per series and draws the samples
+ * within the trailing time window, reduced to the first, minimum, maximum and last sample of each pixel column.  No
+ * memory is allocated per sample or per frame in proportion to the data, so memory use stays constant however long
+ * the chart runs.
+ *
+ * The right edge of the window follows the wall clock, offset to the latest sample received so that the chart
+ * scrolls smoothly between deliveries and is not affected by clock differences with the data source.  An optional
+ * status supplier is polled each frame for a line of text shown under the title, such as the subscription state.
+ */
+public class LiveTailChart extends Region {
+
+    private static final double LEFT_MARGIN = 70;
+    private static final double RIGHT_MARGIN = 160;
+    private static final double TOP_MARGIN = 30;
+    private static final double BOTTOM_MARGIN = 45;
+    private static final Font LABEL_FONT = Font.font(11);
+
+    /**
+     * Ring buffer for a single series, with scratch arrays it is copied into each frame.
+     */
+    private static class TailSeries {
+
+        private final PvRingBuffer buffer;
+        private final Color color;
+        private final long[] timestampNanos;
+        private final double[] values;
+        private int size = 0;
+
+        private TailSeries(PvRingBuffer buffer, Color color) {
+            this.buffer = buffer;
+            this.color = color;
+            this.timestampNanos = new long[buffer.getCapacity()];
+            this.values = new double[buffer.getCapacity()];
+        }
+    }
+
+    private final Canvas canvas = new Canvas();
+    private final List<TailSeries> seriesList = new ArrayList<>();
+    private final AnimationTimer timer;
+    private String title = "Live data";
+    private Supplier<String> statusSupplier = null;
+    private long windowNanos = 60_000_000_000L;
+    private long frameIntervalNanos = 1_000_000_000L / 30;
+    private long lastFrameNanos = 0;
+    private long lastDrawNanos = 0;
+
+    // difference between the latest sample timestamp and the wall clock when it was first seen
+    private long latestSampleNanos = Long.MIN_VALUE;
+    private long clockOffsetNanos = 0;
+
+    public LiveTailChart() {
+        getChildren().add(canvas);
+        setMinSize(200, 150);
+        setPrefSize(800, 400);
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (now - lastFrameNanos >= frameIntervalNanos) {
+                    lastFrameNanos = now;
+                    draw();
+                }
+            }
+        };
+    }
+
+    @Override
+    protected void layoutChildren() {
+        final double width = snapSizeX(getWidth());
+        final double height = snapSizeY(getHeight());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            draw();
+        }
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public void setStatusSupplier(Supplier<String> statusSupplier) {
+        this.statusSupplier = statusSupplier;
+    }
+
+    /**
+     * Sets the width of the trailing time window shown.
+     */
+    public void setWindowSeconds(int windowSeconds) {
+        this.windowNanos = Math.max(1, windowSeconds) * 1_000_000_000L;
+    }
+
+    /**
+     * Sets the rate at which frames are drawn while started.
+     */
+    public void setFrameRate(int framesPerSecond) {
+        this.frameIntervalNanos = 1_000_000_000L / Math.max(1, framesPerSecond);
+    }
+
+    /**
+     * Replaces the series drawn with the specified ring buffers.
+     */
+    public void setSeries(List<PvRingBuffer> buffers) {
+        seriesList.clear();
+        for (int i = 0; i < buffers.size(); i++) {
+            seriesList.add(new TailSeries(
+                    buffers.get(i), TimeSeriesCanvasChart.SERIES_COLORS[i % TimeSeriesCanvasChart.SERIES_COLORS.length]));
+        }
+        latestSampleNanos = Long.MIN_VALUE;
+        clockOffsetNanos = 0;
+        draw();
+    }
+
+    public void start() {
+        lastFrameNanos = 0;
+        timer.start();
+    }
+
+    public void stop() {
+        timer.stop();
+        draw();
+    }
+
+    /**
+     * Returns the duration of the most recent frame in nanoseconds.
+     */
+    public long getLastDrawNanos() {
+        return lastDrawNanos;
+    }
+
+    private static long wallClockNanos() {
+        final Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    private void draw() {
+        final long startNanos = System.nanoTime();
+        final double width = canvas.getWidth();
+        final double height = canvas.getHeight();
+        final GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        if (width <= LEFT_MARGIN + RIGHT_MARGIN || height <= TOP_MARGIN + BOTTOM_MARGIN) {
+            return;
+        }
+        final double plotWidth = width - LEFT_MARGIN - RIGHT_MARGIN;
+        final double plotHeight = height - TOP_MARGIN - BOTTOM_MARGIN;
+
+        // snapshot the ring buffers and advance the window to the latest sample
+        long latest = Long.MIN_VALUE;
+        for (TailSeries series : seriesList) {
+            series.size = series.buffer.copyTo(series.timestampNanos, series.values);
+            latest = Math.max(latest, series.buffer.getLatestTimestampNanos());
+        }
+        final long wallClock = wallClockNanos();
+        if (latest > latestSampleNanos) {
+            latestSampleNanos = latest;
+            clockOffsetNanos = latest - wallClock;
+        }
+        final long endNanos = (latestSampleNanos == Long.MIN_VALUE) ? wallClock : wallClock + clockOffsetNanos;
+        final long beginNanos = endNanos - windowNanos;
+
+        // y range over the samples in the window
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (TailSeries series : seriesList) {
+            for (int i = firstInWindow(series, beginNanos); i < series.size; i++) {
+                minY = Math.min(minY, series.values[i]);
+                maxY = Math.max(maxY, series.values[i]);
+            }
+        }
+        if (minY > maxY) {
+            minY = 0;
+            maxY = 1;
+        } else {
+            double range = maxY - minY;
+            if (range == 0) {
+                range = Math.max(1.0, Math.abs(maxY));
+            }
+            minY -= range * 0.1;
+            maxY += range * 0.1;
+        }
+
+        drawAxes(gc, plotWidth, plotHeight, minY, maxY);
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(LEFT_MARGIN, TOP_MARGIN, plotWidth, plotHeight);
+        gc.clip();
+        for (TailSeries series : seriesList) {
+            drawSeries(gc, series, beginNanos, plotWidth, plotHeight, minY, maxY);
+        }
+        gc.restore();
+
+        drawLegend(gc, width);
+        if (statusSupplier != null) {
+            gc.setFill(Color.web("#606060"));
+            gc.setTextAlign(TextAlignment.LEFT);
+            gc.setTextBaseline(VPos.TOP);
+            gc.fillText(statusSupplier.get(), LEFT_MARGIN + 6, TOP_MARGIN + 4);
+        }
+        if (latestSampleNanos == Long.MIN_VALUE) {
+            gc.setFill(Color.web("#808080"));
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+            gc.fillText("Waiting for data...", LEFT_MARGIN + plotWidth / 2, TOP_MARGIN + plotHeight / 2);
+        }
+
+        lastDrawNanos = System.nanoTime() - startNanos;
+        StageMetrics.record(StageMetrics.Stage.LIVE_TAIL, lastDrawNanos);
+    }
+
+    /**
+     * Returns the index of the first copied sample at or after the specified time.
+     */
+    private static int firstInWindow(TailSeries series, long beginNanos) {
+        int low = 0;
+        int high = series.size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (series.timestampNanos[mid] < beginNanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Draws the series' samples in the window as a polyline through the first, minimum, maximum and last sample of
+     * each pixel column, starting from the last sample before the window so the line enters from the left edge.
+     */
+    private void drawSeries(
+            GraphicsContext gc, TailSeries series, long beginNanos, double plotWidth, double plotHeight,
+            double minY, double maxY
+    ) {
+        final int first = Math.max(0, firstInWindow(series, beginNanos) - 1);
+        if (first >= series.size) {
+            return;
+        }
+        final double xScale = plotWidth / windowNanos;
+        final double yScale = plotHeight / (maxY - minY);
+
+        gc.setStroke(series.color);
+        gc.setLineWidth(1.5);
+        gc.beginPath();
+        int column = Integer.MIN_VALUE;
+        double columnMin = 0;
+        double columnMax = 0;
+        double columnLast = 0;
+        for (int i = first; i < series.size; i++) {
+            final double px = LEFT_MARGIN + (series.timestampNanos[i] - beginNanos) * xScale;
+            final double py = TOP_MARGIN + plotHeight - (series.values[i] - minY) * yScale;
+            final int sampleColumn = (int) Math.floor(px);
+            if (sampleColumn != column) {
+                if (column != Integer.MIN_VALUE) {
+                    gc.lineTo(column, columnMin);
+                    gc.lineTo(column, columnMax);
+                    gc.lineTo(column, columnLast);
+                }
+                if (column == Integer.MIN_VALUE) {
+                    gc.moveTo(px, py);
+                } else {
+                    gc.lineTo(px, py);
+                }
+                column = sampleColumn;
+                columnMin = py;
+                columnMax = py;
+            } else {
+                columnMin = Math.min(columnMin, py);
+                columnMax = Math.max(columnMax, py);
+            }
+            columnLast = py;
+        }
+        gc.lineTo(column, columnMin);
+        gc.lineTo(column, columnMax);
+        gc.lineTo(column, columnLast);
+        gc.stroke();
+    }
+
+    private void drawAxes(GraphicsContext gc, double plotWidth, double plotHeight, double minY, double maxY) {
+        gc.setFont(LABEL_FONT);
+        gc.setStroke(Color.web("#d0d0d0"));
+        gc.setLineWidth(1);
+        gc.setFill(Color.web("#333333"));
+
+        // x axis ticks in seconds before the latest sample
+        final double windowSeconds = windowNanos / 1_000_000_000.0;
+        final double xTickUnit = TimeSeriesCanvasChart.niceTickUnit(windowSeconds, 8);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.TOP);
+        for (double tick = 0; tick <= windowSeconds; tick += xTickUnit) {
+            final double x = Math.floor(LEFT_MARGIN + plotWidth - tick / windowSeconds * plotWidth) + 0.5;
+            gc.strokeLine(x, TOP_MARGIN, x, TOP_MARGIN + plotHeight);
+            gc.fillText(TimeSeriesCanvasChart.formatTick(-tick, xTickUnit), x, TOP_MARGIN + plotHeight + 4);
+        }
+
+        // y axis ticks
+        final double yTickUnit = TimeSeriesCanvasChart.niceTickUnit(maxY - minY, 6);
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.setTextBaseline(VPos.CENTER);
+        for (double tick = Math.ceil(minY / yTickUnit) * yTickUnit; tick <= maxY; tick += yTickUnit) {
+            final double y = Math.floor(TOP_MARGIN + plotHeight - (tick - minY) / (maxY - minY) * plotHeight) + 0.5;
+            gc.strokeLine(LEFT_MARGIN, y, LEFT_MARGIN + plotWidth, y);
+            gc.fillText(TimeSeriesCanvasChart.formatTick(tick, yTickUnit), LEFT_MARGIN - 6, y);
+        }
+
+        gc.setStroke(Color.web("#808080"));
+        gc.strokeRect(LEFT_MARGIN + 0.5, TOP_MARGIN + 0.5, plotWidth, plotHeight);
+
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.BOTTOM);
+        gc.fillText("Time (seconds before latest sample)", LEFT_MARGIN + plotWidth / 2, TOP_MARGIN + plotHeight + BOTTOM_MARGIN - 4);
+        gc.fillText(title, LEFT_MARGIN + plotWidth / 2, TOP_MARGIN - 8);
+    }
+
+    private void drawLegend(GraphicsContext gc, double width) {
+        gc.setFont(LABEL_FONT);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.CENTER);
+        double y = TOP_MARGIN + 8;
+        for (TailSeries series : seriesList) {
+            gc.setFill(series.color);
+            gc.fillRect(width - RIGHT_MARGIN + 12, y - 4, 10, 8);
+            gc.setFill(Color.web("#333333"));
+            gc.fillText(series.buffer.getPvName(), width - RIGHT_MARGIN + 28, y);
+            y += 16;
+        }
+    }
+}
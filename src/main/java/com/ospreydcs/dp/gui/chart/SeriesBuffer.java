@@ -0,0 +1,228 @@
+package com.ospreydcs.dp.gui.chart;
+
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive columns holding every plotted point of one chart series, as time offsets in nanoseconds from
+ * the chart origin and values, in time order, together with a SeriesPyramid of aggregates over them.  Points are
+ * only ever appended, and growing or clearing replaces the arrays rather than overwriting them, so a View taken on
+ * the owning thread stays valid and unchanged while another thread reads it.
+ */
+public class SeriesBuffer {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Immutable view of the first size points of a buffer, safe to read from any thread.
+     */
+    public static final class View {
+
+        private final String name;
+        private final long[] offsetNanos;
+        private final double[] values;
+        private final int size;
+        private final boolean integral;
+        private final SeriesPyramid.View pyramid;
+
+        private View(
+                String name, long[] offsetNanos, double[] values, int size, boolean integral, SeriesPyramid.View pyramid
+        ) {
+            this.name = name;
+            this.pyramid = pyramid;
+            this.offsetNanos = offsetNanos;
+            this.values = values;
+            this.size = size;
+            this.integral = integral;
+        }
+
+        public String getName() { return name; }
+        public long[] getOffsetNanos() { return offsetNanos; }
+        public double[] getValues() { return values; }
+        public int size() { return size; }
+        public boolean isIntegral() { return integral; }
+        public SeriesPyramid.View getPyramid() { return pyramid; }
+
+        public int lowerBound(long offset) {
+            return SeriesBuffer.lowerBound(offsetNanos, size, offset);
+        }
+
+        /**
+         * Returns the index of the point nearest to (offset, value) among the specified time-ordered point indices,
+         * measuring distance in pixels, or -1 if none is within maxPixels.  The indices are binary searched by time
+         * and only candidates horizontally within maxPixels are checked, so with decimated indices (at most a few
+         * per pixel) the lookup is O(log n) regardless of the number of points.
+         */
+        public int nearestIndex(
+                int[] indices, long offset, double value, double nanosPerPixel, double valuePerPixel, double maxPixels
+        ) {
+            int low = 0;
+            int high = indices.length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (offsetNanos[indices[mid]] < offset) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            int nearest = -1;
+            double nearestDistance = maxPixels;
+            for (int direction = -1; direction <= 1; direction += 2) {
+                int position = (direction < 0) ? low - 1 : low;
+                while (position >= 0 && position < indices.length) {
+                    final int index = indices[position];
+                    final double dx = (offsetNanos[index] - offset) / nanosPerPixel;
+                    if (Math.abs(dx) > nearestDistance) {
+                        break;
+                    }
+                    final double dy = (values[index] - value) / valuePerPixel;
+                    final double distance = Math.sqrt(dx * dx + dy * dy);
+                    if (distance < nearestDistance) {
+                        nearestDistance = distance;
+                        nearest = index;
+                    }
+                    position += direction;
+                }
+            }
+            return nearest;
+        }
+
+        /**
+         * Returns the distance in pixels from the point at the specified index to (offset, value).
+         */
+        public double pixelDistance(int index, long offset, double value, double nanosPerPixel, double valuePerPixel) {
+            final double dx = (offsetNanos[index] - offset) / nanosPerPixel;
+            final double dy = (values[index] - value) / valuePerPixel;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    private final String name;
+    private long[] offsetNanos = new long[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private final SeriesPyramid pyramid = new SeriesPyramid();
+    private boolean hasIntegralValues = false;
+    private boolean hasFractionalValues = false;
+    private int size = 0;
+    private double minValue = Double.POSITIVE_INFINITY;
+    private double maxValue = Double.NEGATIVE_INFINITY;
+
+    public SeriesBuffer(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void add(long offset, double value) {
+        if (size == offsetNanos.length) {
+            final int capacity = offsetNanos.length * 2;
+            offsetNanos = Arrays.copyOf(offsetNanos, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        offsetNanos[size] = offset;
+        values[size] = value;
+        pyramid.add(size, value, values);
+        size++;
+        if (value < minValue) {
+            minValue = value;
+        }
+        if (value > maxValue) {
+            maxValue = value;
+        }
+    }
+
+    /**
+     * Appends the non-NaN values of the specified chunk PV column for rows [fromRow, toRow), with offsets measured
+     * from originNanos.
+     */
+    public void addRows(QueryResultChunk chunk, int pvIndex, int fromRow, int toRow, long originNanos) {
+        hasIntegralValues |= chunk.isIntegral(pvIndex);
+        hasFractionalValues |= chunk.hasFractionalValues(pvIndex);
+        final long[] timestamps = chunk.getTimestampColumn();
+        final double[] column = chunk.getValueColumn(pvIndex);
+        for (int row = fromRow; row < toRow; row++) {
+            final double value = column[row];
+            if (!Double.isNaN(value)) {
+                add(timestamps[row] - originNanos, value);
+            }
+        }
+    }
+
+    /**
+     * Removes all points.  New arrays are allocated so views taken before clearing are not overwritten by points
+     * added afterwards.
+     */
+    public void clear() {
+        offsetNanos = new long[INITIAL_CAPACITY];
+        values = new double[INITIAL_CAPACITY];
+        size = 0;
+        hasIntegralValues = false;
+        hasFractionalValues = false;
+        pyramid.clear();
+        minValue = Double.POSITIVE_INFINITY;
+        maxValue = Double.NEGATIVE_INFINITY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the points appended are all integer values, so they are displayed as integers.
+     */
+    public boolean isIntegral() {
+        return hasIntegralValues && !hasFractionalValues;
+    }
+
+    /**
+     * Returns the smallest value in the buffer, or positive infinity if it is empty.
+     */
+    public double getMinValue() {
+        return minValue;
+    }
+
+    /**
+     * Returns the largest value in the buffer, or negative infinity if it is empty.
+     */
+    public double getMaxValue() {
+        return maxValue;
+    }
+
+    public long getOffsetNanos(int index) {
+        return offsetNanos[index];
+    }
+
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the index of the first point with offset greater than or equal to the specified offset.
+     */
+    public int lowerBound(long offset) {
+        return lowerBound(offsetNanos, size, offset);
+    }
+
+    public View view() {
+        return new View(name, offsetNanos, values, size, isIntegral(), pyramid.view(size));
+    }
+
+    private static int lowerBound(long[] offsetNanos, int size, long offset) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (offsetNanos[mid] < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
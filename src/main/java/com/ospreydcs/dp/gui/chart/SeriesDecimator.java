@@ -0,0 +1,212 @@
+package com.ospreydcs.dp.gui.chart;
+
+import java.util.Arrays;
+
+/**
+ * Reduces a time-ordered series to the points needed to draw it at a given pixel width, returning the indices of
+ * the selected points in time order.  Both methods keep every point when the visible range already has no more
+ * than maxPointsPerPixel points per pixel, and otherwise draw at most that many points per pixel.
+ *
+ * M4 divides the visible range into one bucket per pixel column and keeps the first, last, minimum and maximum point
+ * of each bucket, so the drawn polyline covers the same pixels as one drawn through every point and no spike is
+ * lost.  When the range holds many points per pixel, M4 walks the coarsest SeriesPyramid level that still has at
+ * least one block per pixel, so its cost depends on the pixel width rather than the number of points.  LTTB (largest triangle three buckets) keeps one point per bucket chosen to preserve the visual shape,
+ * giving smoother lines at the cost of possibly flattening narrow spikes.
+ *
+ * The methods are stateless and thread-safe, and are intended to run off the JavaFX Application Thread.
+ */
+public final class SeriesDecimator {
+
+    public static final int M4_POINTS_PER_PIXEL = 4;
+
+    public enum Method {
+        M4,
+        LTTB;
+
+        /**
+         * Returns the method with the specified name, ignoring case, or M4 if the name is not recognized.
+         */
+        public static Method fromName(String name) {
+            for (Method method : values()) {
+                if (method.name().equalsIgnoreCase(name)) {
+                    return method;
+                }
+            }
+            return M4;
+        }
+    }
+
+    private SeriesDecimator() {
+    }
+
+    /**
+     * Decimates the points of the view falling in [beginOffset, endOffset] to the specified pixel width, including
+     * the nearest point on each side of the range so that lines continue to the plot edges.
+     */
+    public static int[] decimate(Method method, SeriesBuffer.View view, long beginOffset, long endOffset, int pixelWidth) {
+        final int from = Math.max(0, view.lowerBound(beginOffset) - 1);
+        final int to = Math.min(view.size(), view.lowerBound(endOffset + 1) + 1);
+        return switch (method) {
+            case M4 -> m4(view, from, to, beginOffset, endOffset, pixelWidth);
+            case LTTB -> lttb(view.getOffsetNanos(), view.getValues(), from, to, pixelWidth * M4_POINTS_PER_PIXEL);
+        };
+    }
+
+    /**
+     * Selects the first, last, minimum and maximum point of each pixel column for points [from, to) of the view over
+     * the x range [beginOffset, endOffset], using pyramid blocks where possible.
+     */
+    public static int[] m4(SeriesBuffer.View view, int from, int to, long beginOffset, long endOffset, int pixelWidth) {
+        final int count = to - from;
+        if (count <= (long) pixelWidth * M4_POINTS_PER_PIXEL) {
+            return allIndices(from, to);
+        }
+
+        // coarsest level with at least one block per pixel
+        final SeriesPyramid.View pyramid = view.getPyramid();
+        int topLevel = 0;
+        while (topLevel < pyramid.getLevelCount()
+                && (count >>> (SeriesPyramid.FANOUT_BITS * (topLevel + 1))) >= pixelWidth) {
+            topLevel++;
+        }
+
+        final long[] x = view.getOffsetNanos();
+        final double[] y = view.getValues();
+        final double pixelsPerNano = pixelWidth / (double) Math.max(1, endOffset - beginOffset);
+        final int[] selected = new int[(pixelWidth + 3) * M4_POINTS_PER_PIXEL];
+        int selectedCount = 0;
+
+        long bucket = Long.MIN_VALUE;
+        int first = -1;
+        int last = -1;
+        int min = -1;
+        int max = -1;
+        int i = from;
+        while (i < to) {
+            // use the largest complete block starting at i that fits in the range, or the single point i
+            int unitFirst = i;
+            int unitLast = i;
+            int unitMin = i;
+            int unitMax = i;
+            for (int level = topLevel; level >= 1; level--) {
+                final int blockSize = SeriesPyramid.View.getBlockSize(level);
+                final int block = i >>> (SeriesPyramid.FANOUT_BITS * level);
+                if ((i & (blockSize - 1)) == 0 && i + blockSize <= to && block < pyramid.getBlockCount(level)) {
+                    unitLast = i + blockSize - 1;
+                    unitMin = pyramid.getMinIndex(level, block);
+                    unitMax = pyramid.getMaxIndex(level, block);
+                    break;
+                }
+            }
+            i = unitLast + 1;
+
+            final long unitBucket = (long) Math.floor((x[unitFirst] - beginOffset) * pixelsPerNano);
+            if (unitBucket != bucket) {
+                if (first >= 0) {
+                    selectedCount = emitBucket(selected, selectedCount, first, min, max, last);
+                }
+                bucket = unitBucket;
+                first = unitFirst;
+                last = unitLast;
+                min = unitMin;
+                max = unitMax;
+            } else {
+                last = unitLast;
+                if (y[unitMin] < y[min]) {
+                    min = unitMin;
+                }
+                if (y[unitMax] > y[max]) {
+                    max = unitMax;
+                }
+            }
+        }
+        if (first >= 0) {
+            selectedCount = emitBucket(selected, selectedCount, first, min, max, last);
+        }
+        return Arrays.copyOf(selected, selectedCount);
+    }
+
+    /**
+     * Selects threshold points from [from, to) using largest triangle three buckets, always keeping the first and
+     * last point.
+     */
+    public static int[] lttb(long[] x, double[] y, int from, int to, int threshold) {
+        final int count = to - from;
+        if (threshold < 3 || count <= threshold) {
+            return allIndices(from, to);
+        }
+
+        final int[] selected = new int[threshold];
+        int selectedCount = 0;
+        selected[selectedCount++] = from;
+
+        // buckets exclude the first and last point
+        final double bucketSize = (double) (count - 2) / (threshold - 2);
+        int previous = from;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            final int bucketStart = from + 1 + (int) Math.floor(bucket * bucketSize);
+            final int bucketEnd = from + 1 + (int) Math.floor((bucket + 1) * bucketSize);
+
+            // average of the next bucket, or the last point for the final bucket
+            final int nextStart = bucketEnd;
+            final int nextEnd = Math.min(to, from + 1 + (int) Math.floor((bucket + 2) * bucketSize));
+            double averageX = 0;
+            double averageY = 0;
+            if (nextStart < nextEnd && bucket < threshold - 3) {
+                for (int i = nextStart; i < nextEnd; i++) {
+                    averageX += x[i];
+                    averageY += y[i];
+                }
+                averageX /= (nextEnd - nextStart);
+                averageY /= (nextEnd - nextStart);
+            } else {
+                averageX = x[to - 1];
+                averageY = y[to - 1];
+            }
+
+            // keep the point forming the largest triangle with the previous selection and the next bucket average
+            final double previousX = x[previous];
+            final double previousY = y[previous];
+            double maxArea = -1;
+            int maxIndex = bucketStart;
+            for (int i = bucketStart; i < bucketEnd; i++) {
+                final double area = Math.abs((previousX - averageX) * (y[i] - previousY)
+                        - (previousX - x[i]) * (averageY - previousY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            selected[selectedCount++] = maxIndex;
+            previous = maxIndex;
+        }
+
+        selected[selectedCount++] = to - 1;
+        return selected;
+    }
+
+    private static int emitBucket(int[] selected, int selectedCount, int first, int min, int max, int last) {
+        // emit the distinct bucket points in time order
+        final int low = Math.min(min, max);
+        final int high = Math.max(min, max);
+        selected[selectedCount++] = first;
+        if (low != first) {
+            selected[selectedCount++] = low;
+        }
+        if (high != low && high != first) {
+            selected[selectedCount++] = high;
+        }
+        if (last != high && last != first) {
+            selected[selectedCount++] = last;
+        }
+        return selectedCount;
+    }
+
+    private static int[] allIndices(int from, int to) {
+        final int[] indices = new int[Math.max(0, to - from)];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = from + i;
+        }
+        return indices;
+    }
+}
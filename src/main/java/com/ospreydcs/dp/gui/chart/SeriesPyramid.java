@@ -0,0 +1,178 @@
+package com.ospreydcs.dp.gui.chart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Multi-resolution aggregates over the points of a SeriesBuffer, built incrementally as points are appended.
+ * Level L divides the points into consecutive blocks of FANOUT^L points and stores, for each block, the indices of
+ * its minimum and maximum points and the sum of its values; the count is the block size, so the mean follows.
+ * A level is added whenever the level below it spans more than one block, so the number of levels grows with the
+ * logarithm of the point count, and the total size of all levels is about 1/7 of the point count.
+ *
+ * Decimating a range to a pixel width can then walk blocks of the level with about one block per pixel instead of
+ * every point, touching O(pixels) aggregates at any zoom.  A block is complete once all of its points have been
+ * appended, and complete blocks are never modified again, so views can be read from another thread.
+ */
+public class SeriesPyramid {
+
+    public static final int FANOUT_BITS = 3;
+    public static final int FANOUT = 1 << FANOUT_BITS;
+
+    private static final int INITIAL_CAPACITY = 128;
+
+    /**
+     * Aggregates for one level.
+     */
+    private static class Level {
+
+        private int[] minIndex = new int[INITIAL_CAPACITY];
+        private int[] maxIndex = new int[INITIAL_CAPACITY];
+        private double[] sum = new double[INITIAL_CAPACITY];
+        private int size = 0;
+
+        private void append(int min, int max, double blockSum) {
+            if (size == minIndex.length) {
+                final int capacity = minIndex.length * 2;
+                minIndex = Arrays.copyOf(minIndex, capacity);
+                maxIndex = Arrays.copyOf(maxIndex, capacity);
+                sum = Arrays.copyOf(sum, capacity);
+            }
+            minIndex[size] = min;
+            maxIndex[size] = max;
+            sum[size] = blockSum;
+            size++;
+        }
+    }
+
+    /**
+     * Immutable view of the complete blocks of each level for the first pointCount points, safe to read from any
+     * thread.  Level numbers start at 1; level 0 is the points themselves.
+     */
+    public static final class View {
+
+        private final int[][] minIndex;
+        private final int[][] maxIndex;
+        private final double[][] sum;
+        private final int[] completeCount;
+
+        private View(int[][] minIndex, int[][] maxIndex, double[][] sum, int[] completeCount) {
+            this.minIndex = minIndex;
+            this.maxIndex = maxIndex;
+            this.sum = sum;
+            this.completeCount = completeCount;
+        }
+
+        /**
+         * Returns the highest level number, or 0 if there are no aggregate levels.
+         */
+        public int getLevelCount() {
+            return completeCount.length;
+        }
+
+        /**
+         * Returns the number of complete blocks in the specified level.
+         */
+        public int getBlockCount(int level) {
+            return completeCount[level - 1];
+        }
+
+        public static int getBlockSize(int level) {
+            return 1 << (FANOUT_BITS * level);
+        }
+
+        public int getMinIndex(int level, int block) {
+            return minIndex[level - 1][block];
+        }
+
+        public int getMaxIndex(int level, int block) {
+            return maxIndex[level - 1][block];
+        }
+
+        public double getMean(int level, int block) {
+            return sum[level - 1][block] / getBlockSize(level);
+        }
+    }
+
+    private final List<Level> levels = new ArrayList<>();
+
+    /**
+     * Adds the point at the specified index, which must be one more than the previous index, updating every level.
+     * The values array must contain all points up to and including the index.
+     */
+    public void add(int index, double value, double[] values) {
+        for (int levelIndex = 0; levelIndex < levels.size(); levelIndex++) {
+            final Level level = levels.get(levelIndex);
+            final int block = index >>> (FANOUT_BITS * (levelIndex + 1));
+            if (block == level.size) {
+                level.append(index, index, value);
+            } else {
+                if (value < values[level.minIndex[block]]) {
+                    level.minIndex[block] = index;
+                }
+                if (value > values[level.maxIndex[block]]) {
+                    level.maxIndex[block] = index;
+                }
+                level.sum[block] += value;
+            }
+        }
+
+        // add a level once the top level spans more than one block
+        final int topSize = levels.isEmpty() ? index + 1 : levels.get(levels.size() - 1).size;
+        if (topSize > 1) {
+            addLevel(index + 1, values);
+        }
+    }
+
+    public void clear() {
+        levels.clear();
+    }
+
+    /**
+     * Returns a view of the blocks completed by the first pointCount points.
+     */
+    public View view(int pointCount) {
+        final int levelCount = levels.size();
+        final int[][] minIndex = new int[levelCount][];
+        final int[][] maxIndex = new int[levelCount][];
+        final double[][] sum = new double[levelCount][];
+        final int[] completeCount = new int[levelCount];
+        for (int levelIndex = 0; levelIndex < levelCount; levelIndex++) {
+            final Level level = levels.get(levelIndex);
+            minIndex[levelIndex] = level.minIndex;
+            maxIndex[levelIndex] = level.maxIndex;
+            sum[levelIndex] = level.sum;
+            completeCount[levelIndex] = Math.min(level.size, pointCount >>> (FANOUT_BITS * (levelIndex + 1)));
+        }
+        return new View(minIndex, maxIndex, sum, completeCount);
+    }
+
+    /**
+     * Builds a new top level from the current top level, or from the points if there are no levels yet.
+     */
+    private void addLevel(int pointCount, double[] values) {
+        final Level level = new Level();
+        final Level below = levels.isEmpty() ? null : levels.get(levels.size() - 1);
+        final int belowSize = (below == null) ? pointCount : below.size;
+        for (int from = 0; from < belowSize; from += FANOUT) {
+            final int to = Math.min(belowSize, from + FANOUT);
+            int min = (below == null) ? from : below.minIndex[from];
+            int max = (below == null) ? from : below.maxIndex[from];
+            double blockSum = 0;
+            for (int i = from; i < to; i++) {
+                final int itemMin = (below == null) ? i : below.minIndex[i];
+                final int itemMax = (below == null) ? i : below.maxIndex[i];
+                if (values[itemMin] < values[min]) {
+                    min = itemMin;
+                }
+                if (values[itemMax] > values[max]) {
+                    max = itemMax;
+                }
+                blockSum += (below == null) ? values[i] : below.sum[i];
+            }
+            level.append(min, max, blockSum);
+        }
+        levels.add(level);
+    }
+}
@@ -0,0 +1,312 @@
+package com.ospreydcs.dp.gui.chart;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rasterizes chart series into an off-screen ARGB pixel buffer on worker threads, so that drawing many overlaid
+ * series does not occupy the JavaFX Application Thread.  The series of a frame are split into contiguous groups,
+ * one per worker, and each worker decimates its series with M4 and draws them as 1-pixel polylines into its own
+ * layer buffer.  The layers are then composited in series order into a single buffer, which the caller copies into
+ * an image on the FX thread.  Decimation and drawing time is recorded per series for display.
+ *
+ * Layer and composite buffers are reused between frames, so a frame's pixels are valid only until the next call to
+ * rasterize(), and only one frame may be in progress at a time.
+ */
+public class SeriesRasterizer {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * Result of rasterizing one frame.
+     */
+    public static final class Frame {
+
+        private final int width;
+        private final int height;
+        private final int[] pixels;
+        private final List<SeriesBuffer.View> views;
+        private final int[][] indices;
+        private final long[] seriesNanos;
+        private long compositeNanos;
+        private long totalNanos;
+
+        private Frame(int width, int height, int[] pixels, List<SeriesBuffer.View> views) {
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+            this.views = views;
+            this.indices = new int[views.size()][];
+            this.seriesNanos = new long[views.size()];
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Returns the composited pixels in premultiplied ARGB format, row by row, with 0 where no series was drawn.
+         */
+        public int[] getPixels() {
+            return pixels;
+        }
+
+        public int getSeriesCount() {
+            return views.size();
+        }
+
+        public SeriesBuffer.View getView(int seriesIndex) {
+            return views.get(seriesIndex);
+        }
+
+        /**
+         * Returns the indices of the decimated points drawn for the specified series.
+         */
+        public int[] getIndices(int seriesIndex) {
+            return indices[seriesIndex];
+        }
+
+        /**
+         * Returns the time spent decimating and drawing the specified series, in nanoseconds.
+         */
+        public long getSeriesNanos(int seriesIndex) {
+            return seriesNanos[seriesIndex];
+        }
+
+        public long getCompositeNanos() {
+            return compositeNanos;
+        }
+
+        /**
+         * Returns the time from the start of rasterize() until the composite was complete, in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+    }
+
+    private final int parallelism;
+    private final ExecutorService executor;
+    private final int[][] groupLayers;
+    private int[] compositePixels = new int[0];
+
+    /**
+     * Creates a rasterizer using the specified number of worker threads, or the number of available processors if
+     * parallelism is 0 or less.
+     */
+    public SeriesRasterizer(int parallelism) {
+        this.parallelism = (parallelism > 0) ? parallelism : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            final Thread thread = new Thread(runnable, "chart-raster-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.groupLayers = new int[this.parallelism][];
+        logger.debug("chart rasterizer created with {} threads", this.parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Rasterizes the specified series views over the time range [beginOffset, endOffset) and value range
+     * [minValue, maxValue] into a width x height frame.  Colors are ARGB values, one per view, and later series are
+     * drawn over earlier ones.  The returned future completes on a worker thread.
+     */
+    public CompletableFuture<Frame> rasterize(
+            List<SeriesBuffer.View> views,
+            int[] colors,
+            long beginOffset,
+            long endOffset,
+            double minValue,
+            double maxValue,
+            int width,
+            int height
+    ) {
+        final long startNanos = System.nanoTime();
+        final int pixelCount = width * height;
+        if (compositePixels.length != pixelCount) {
+            compositePixels = new int[pixelCount];
+        }
+        final Frame frame = new Frame(width, height, compositePixels, new ArrayList<>(views));
+
+        final int groupCount = Math.max(1, Math.min(parallelism, views.size()));
+        final List<CompletableFuture<int[]>> groups = new ArrayList<>(groupCount);
+        for (int group = 0; group < groupCount; group++) {
+            final int groupIndex = group;
+            final int fromSeries = (int) ((long) views.size() * group / groupCount);
+            final int toSeries = (int) ((long) views.size() * (group + 1) / groupCount);
+            groups.add(CompletableFuture.supplyAsync(() -> {
+                int[] layer = groupLayers[groupIndex];
+                if (layer == null || layer.length != pixelCount) {
+                    layer = new int[pixelCount];
+                    groupLayers[groupIndex] = layer;
+                } else {
+                    Arrays.fill(layer, 0);
+                }
+                for (int seriesIndex = fromSeries; seriesIndex < toSeries; seriesIndex++) {
+                    final long seriesStartNanos = System.nanoTime();
+                    final SeriesBuffer.View view = frame.views.get(seriesIndex);
+                    final int[] indices = SeriesDecimator.decimate(
+                            SeriesDecimator.Method.M4, view, beginOffset, endOffset, width);
+                    drawPolyline(layer, width, height, view, indices, colors[seriesIndex],
+                            beginOffset, endOffset, minValue, maxValue);
+                    frame.indices[seriesIndex] = indices;
+                    frame.seriesNanos[seriesIndex] = System.nanoTime() - seriesStartNanos;
+                }
+                return layer;
+            }, executor));
+        }
+
+        return CompletableFuture.allOf(groups.toArray(new CompletableFuture[0])).thenApplyAsync(ignored -> {
+            final long compositeStartNanos = System.nanoTime();
+            final int[] pixels = frame.pixels;
+            Arrays.fill(pixels, 0);
+            for (CompletableFuture<int[]> group : groups) {
+                final int[] layer = group.join();
+                for (int i = 0; i < pixelCount; i++) {
+                    if (layer[i] != 0) {
+                        pixels[i] = layer[i];
+                    }
+                }
+            }
+            final long endNanos = System.nanoTime();
+            frame.compositeNanos = endNanos - compositeStartNanos;
+            frame.totalNanos = endNanos - startNanos;
+            return frame;
+        }, executor);
+    }
+
+    /**
+     * Draws lines between consecutive selected points, clipped to the layer.
+     */
+    private static void drawPolyline(
+            int[] layer,
+            int width,
+            int height,
+            SeriesBuffer.View view,
+            int[] indices,
+            int argb,
+            long beginOffset,
+            long endOffset,
+            double minValue,
+            double maxValue
+    ) {
+        if (indices.length == 0) {
+            return;
+        }
+        final long[] offsets = view.getOffsetNanos();
+        final double[] values = view.getValues();
+        final double xScale = (double) width / (endOffset - beginOffset);
+        final double yScale = height / (maxValue - minValue);
+        final double[] segment = new double[6];
+
+        double previousX = (offsets[indices[0]] - beginOffset) * xScale;
+        double previousY = height - 1 - (values[indices[0]] - minValue) * yScale;
+        if (indices.length == 1) {
+            drawLine(layer, width, height, segment, previousX, previousY, previousX, previousY, argb);
+        }
+        for (int i = 1; i < indices.length; i++) {
+            final double x = (offsets[indices[i]] - beginOffset) * xScale;
+            final double y = height - 1 - (values[indices[i]] - minValue) * yScale;
+            drawLine(layer, width, height, segment, previousX, previousY, x, y, argb);
+            previousX = x;
+            previousY = y;
+        }
+    }
+
+    /**
+     * Clips the line to the layer bounds with the Liang-Barsky method, then draws it with Bresenham's algorithm.
+     */
+    private static void drawLine(
+            int[] layer, int width, int height, double[] segment, double x0, double y0, double x1, double y1, int argb
+    ) {
+        segment[0] = x0;
+        segment[1] = y0;
+        segment[2] = x1;
+        segment[3] = y1;
+        if (!clip(segment, width - 1, height - 1)) {
+            return;
+        }
+
+        int x = (int) Math.round(segment[0]);
+        int y = (int) Math.round(segment[1]);
+        final int endX = (int) Math.round(segment[2]);
+        final int endY = (int) Math.round(segment[3]);
+        final int dx = Math.abs(endX - x);
+        final int dy = -Math.abs(endY - y);
+        final int stepX = (x < endX) ? 1 : -1;
+        final int stepY = (y < endY) ? 1 : -1;
+        int error = dx + dy;
+        while (true) {
+            layer[y * width + x] = argb;
+            if (x == endX && y == endY) {
+                break;
+            }
+            final int doubledError = 2 * error;
+            if (doubledError >= dy) {
+                error += dy;
+                x += stepX;
+            }
+            if (doubledError <= dx) {
+                error += dx;
+                y += stepY;
+            }
+        }
+    }
+
+    /**
+     * Clips the segment {x0, y0, x1, y1} in place to [0, maxX] x [0, maxY], returning false if it lies outside.
+     * Elements 4 and 5 of the array hold the entering and leaving line parameters while clipping.
+     */
+    private static boolean clip(double[] segment, double maxX, double maxY) {
+        final double x0 = segment[0];
+        final double y0 = segment[1];
+        final double dx = segment[2] - x0;
+        final double dy = segment[3] - y0;
+        segment[4] = 0;
+        segment[5] = 1;
+        if (!clipEdge(segment, -dx, x0) || !clipEdge(segment, dx, maxX - x0)
+                || !clipEdge(segment, -dy, y0) || !clipEdge(segment, dy, maxY - y0)) {
+            return false;
+        }
+        segment[0] = x0 + segment[4] * dx;
+        segment[1] = y0 + segment[4] * dy;
+        segment[2] = x0 + segment[5] * dx;
+        segment[3] = y0 + segment[5] * dy;
+        return true;
+    }
+
+    private static boolean clipEdge(double[] segment, double p, double q) {
+        if (p == 0) {
+            return q >= 0;
+        }
+        final double t = q / p;
+        if (p < 0) {
+            if (t > segment[5]) {
+                return false;
+            }
+            segment[4] = Math.max(segment[4], t);
+        } else {
+            if (t < segment[4]) {
+                return false;
+            }
+            segment[5] = Math.min(segment[5], t);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,700 @@
+package com.ospreydcs.dp.gui.chart;
+
+import com.ospreydcs.dp.gui.metrics.StageMetrics;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * High-density time-series chart that draws directly onto a Canvas from primitive arrays, as an alternative to
+ * LineChart for large query results.  No scene graph node is created per point: each series is stored as growable
+ * arrays of time offsets and values, and each redraw reduces the points to the first, minimum, maximum and last of
+ * each pixel column with SeriesDecimator's M4 method.  This keeps the polyline visually identical to drawing every
+ * point while bounding the number of line segments by the chart width, and because M4 walks the series' aggregate
+ * pyramid, the cost of a redraw depends on the chart width rather than the number of points.
+ *
+ * The x axis shows seconds from the chart origin, matching the LineChart view.  Hovering shows the nearest point's
+ * PV, value and timestamp.  Dragging selects a time window to zoom to, dragging with the secondary button or with
+ * shift held pans, the scroll wheel zooms around the cursor, and double-clicking restores the full range; the
+ * view range listener is notified of each change.  Redraws requested while a redraw is pending are coalesced.
+ *
+ * In rasterized mode, series are drawn in parallel by a SeriesRasterizer into an off-screen buffer and the FX thread
+ * only copies the composited frame into an image, draws it with the axes, legend and hover, and shows an overlay of
+ * the render time per series.  A new frame is rasterized whenever the data, view or size has changed since the last
+ * one, with at most one frame in progress.
+ */
+public class TimeSeriesCanvasChart extends Region {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    static final Color[] SERIES_COLORS = {
+            Color.web("#f3622d"), Color.web("#fba71b"), Color.web("#57b757"), Color.web("#41a9c9"),
+            Color.web("#4258c9"), Color.web("#9a42c8"), Color.web("#c84164"), Color.web("#888888")
+    };
+    private static final double LEFT_MARGIN = 70;
+    private static final double RIGHT_MARGIN = 160;
+    private static final double TOP_MARGIN = 30;
+    private static final double BOTTOM_MARGIN = 45;
+    private static final double HOVER_DISTANCE_PIXELS = 15;
+    private static final Font LABEL_FONT = Font.font(11);
+    private static final double MIN_ZOOM_SELECTION_PIXELS = 5;
+    private static final double SCROLL_ZOOM_FACTOR = 0.8;
+    private static final double FRAME_TIME_LINE_HEIGHT = 14;
+
+    /**
+     * Notified when the visible time range is changed by user interaction.  The finished flag is false for
+     * intermediate updates while a pan is being dragged.
+     */
+    public interface ViewRangeListener {
+        void viewRangeChanged(long beginOffset, long endOffset, boolean finished);
+    }
+
+    /**
+     * Points for a single series, with the color used to draw them.
+     */
+    private static class CanvasSeries {
+
+        private final SeriesBuffer buffer;
+        private final Color color;
+
+        // points drawn by the most recent redraw, used for hover lookup
+        private SeriesBuffer.View drawnView = null;
+        private int[] drawnIndices = new int[0];
+
+        private CanvasSeries(String name, Color color) {
+            this.buffer = new SeriesBuffer(name);
+            this.color = color;
+        }
+    }
+
+    private final Canvas canvas = new Canvas();
+    private final List<CanvasSeries> seriesList = new ArrayList<>();
+    private String title = "";
+    private String xAxisLabel = "Time (seconds from start)";
+    private String yAxisLabel = "Value";
+    private long originNanos = 0;
+    private long rangeNanos = 1;
+    private long viewBeginOffset = 0;
+    private long viewEndOffset = 1;
+    private ViewRangeListener viewRangeListener = null;
+    private boolean redrawPending = false;
+    private long lastDrawNanos = 0;
+
+    // rasterized mode state; contentVersion advances whenever the series need to be drawn again
+    private boolean rasterized = false;
+    private int rasterParallelism = 0;
+    private SeriesRasterizer rasterizer = null;
+    private long contentVersion = 0;
+    private long rasterVersion = -1;
+    private boolean rasterRunning = false;
+    private WritableImage rasterImage = null;
+    private List<String> frameTimeLines = List.of();
+
+    // hover state
+    private double hoverX = -1;
+    private double hoverY = -1;
+
+    // zoom selection and pan drag state
+    private double dragStartX = -1;
+    private double dragCurrentX = -1;
+    private boolean panning = false;
+    private long panStartBeginOffset = 0;
+    private long panStartEndOffset = 0;
+
+    public TimeSeriesCanvasChart() {
+        getChildren().add(canvas);
+        setMinSize(200, 150);
+        setPrefSize(800, 400);
+
+        canvas.setOnMouseMoved(event -> {
+            hoverX = event.getX();
+            hoverY = event.getY();
+            requestOverlayRedraw();
+        });
+        canvas.setOnMouseExited(event -> {
+            hoverX = -1;
+            hoverY = -1;
+            requestOverlayRedraw();
+        });
+        canvas.setOnMousePressed(event -> {
+            dragStartX = event.getX();
+            dragCurrentX = event.getX();
+            panning = event.getButton() == MouseButton.SECONDARY || event.isShiftDown();
+            panStartBeginOffset = viewBeginOffset;
+            panStartEndOffset = viewEndOffset;
+        });
+        canvas.setOnMouseDragged(event -> {
+            if (dragStartX < 0) {
+                return;
+            }
+            dragCurrentX = event.getX();
+            if (panning) {
+                final long deltaOffset = (long) ((dragStartX - dragCurrentX) * nanosPerPixel(panStartBeginOffset, panStartEndOffset));
+                changeViewRange(panStartBeginOffset + deltaOffset, panStartEndOffset + deltaOffset, false);
+            } else {
+                requestOverlayRedraw();
+            }
+        });
+        canvas.setOnMouseReleased(event -> {
+            if (dragStartX < 0) {
+                return;
+            }
+            if (panning) {
+                changeViewRange(viewBeginOffset, viewEndOffset, true);
+            } else if (Math.abs(dragCurrentX - dragStartX) >= MIN_ZOOM_SELECTION_PIXELS) {
+                final long begin = offsetForX(Math.min(dragStartX, dragCurrentX));
+                final long end = offsetForX(Math.max(dragStartX, dragCurrentX));
+                changeViewRange(begin, end, true);
+            }
+            dragStartX = -1;
+            requestOverlayRedraw();
+        });
+        canvas.setOnScroll(event -> {
+            if (event.getDeltaY() == 0) {
+                return;
+            }
+            final double factor = event.getDeltaY() > 0 ? SCROLL_ZOOM_FACTOR : 1 / SCROLL_ZOOM_FACTOR;
+            final long anchor = offsetForX(event.getX());
+            final long begin = anchor - (long) ((anchor - viewBeginOffset) * factor);
+            final long end = anchor + (long) ((viewEndOffset - anchor) * factor);
+            changeViewRange(begin, end, true);
+        });
+        canvas.setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                changeViewRange(0, rangeNanos, true);
+            }
+        });
+    }
+
+    @Override
+    protected void layoutChildren() {
+        final double width = snapSizeX(getWidth());
+        final double height = snapSizeY(getHeight());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            contentVersion++;
+            draw();
+        }
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+        requestRedraw();
+    }
+
+    public void setAxisLabels(String xAxisLabel, String yAxisLabel) {
+        this.xAxisLabel = xAxisLabel;
+        this.yAxisLabel = yAxisLabel;
+        requestRedraw();
+    }
+
+    /**
+     * Replaces all series with empty series for the specified names, spanning the time range
+     * [originNanos, originNanos + rangeNanos).
+     */
+    public void setSeries(List<String> seriesNames, long originNanos, long rangeNanos) {
+        seriesList.clear();
+        for (int i = 0; i < seriesNames.size(); i++) {
+            seriesList.add(new CanvasSeries(seriesNames.get(i), SERIES_COLORS[i % SERIES_COLORS.length]));
+        }
+        this.originNanos = originNanos;
+        this.rangeNanos = Math.max(1, rangeNanos);
+        this.viewBeginOffset = 0;
+        this.viewEndOffset = this.rangeNanos;
+        clearPoints();
+    }
+
+    /**
+     * Sets the visible time range, as offsets in nanoseconds from the origin, without notifying the listener.
+     */
+    public void setViewRange(long beginOffset, long endOffset) {
+        this.viewBeginOffset = beginOffset;
+        this.viewEndOffset = Math.max(beginOffset + 1, endOffset);
+        requestRedraw();
+    }
+
+    public long getViewBeginOffset() {
+        return viewBeginOffset;
+    }
+
+    public long getViewEndOffset() {
+        return viewEndOffset;
+    }
+
+    public void setOnViewRangeChanged(ViewRangeListener listener) {
+        this.viewRangeListener = listener;
+    }
+
+    /**
+     * Sets the number of worker threads used in rasterized mode, or 0 for the number of available processors.
+     * Takes effect the first time rasterized mode is enabled.
+     */
+    public void setRasterParallelism(int parallelism) {
+        this.rasterParallelism = parallelism;
+    }
+
+    /**
+     * Enables or disables rasterizing series in parallel off the FX thread.
+     */
+    public void setRasterized(boolean rasterized) {
+        if (rasterized && rasterizer == null) {
+            rasterizer = new SeriesRasterizer(rasterParallelism);
+        }
+        this.rasterized = rasterized;
+        rasterImage = null;
+        frameTimeLines = List.of();
+        requestRedraw();
+    }
+
+    public boolean isRasterized() {
+        return rasterized;
+    }
+
+    /**
+     * Removes all points while keeping the series and time range.
+     */
+    public void clearPoints() {
+        for (CanvasSeries series : seriesList) {
+            series.buffer.clear();
+        }
+        requestRedraw();
+    }
+
+    public int getSeriesCount() {
+        return seriesList.size();
+    }
+
+    public long getPointCount() {
+        long count = 0;
+        for (CanvasSeries series : seriesList) {
+            count += series.buffer.size();
+        }
+        return count;
+    }
+
+    /**
+     * Appends all values of rows [fromRow, toRow) of the chunk, which must be later in time than any points
+     * already added.  Chunk PV columns map to series by index.  Call requestRedraw() once after appending.
+     */
+    public void appendRows(QueryResultChunk chunk, int fromRow, int toRow) {
+        final int seriesCount = Math.min(seriesList.size(), chunk.getPvNames().size());
+        for (int seriesIndex = 0; seriesIndex < seriesCount; seriesIndex++) {
+            seriesList.get(seriesIndex).buffer.addRows(chunk, seriesIndex, fromRow, toRow, originNanos);
+        }
+    }
+
+    /**
+     * Schedules a redraw on the next pulse, coalescing multiple requests.  May be called from the JavaFX thread only.
+     */
+    public void requestRedraw() {
+        contentVersion++;
+        requestOverlayRedraw();
+    }
+
+    /**
+     * Schedules a redraw for a change that does not affect the series, such as the hover position, so that
+     * rasterized mode redraws the last frame without rasterizing again.
+     */
+    private void requestOverlayRedraw() {
+        if (redrawPending) {
+            return;
+        }
+        redrawPending = true;
+        Platform.runLater(() -> {
+            redrawPending = false;
+            draw();
+        });
+    }
+
+    private void changeViewRange(long beginOffset, long endOffset, boolean finished) {
+        setViewRange(beginOffset, endOffset);
+        if (viewRangeListener != null) {
+            viewRangeListener.viewRangeChanged(viewBeginOffset, viewEndOffset, finished);
+        }
+    }
+
+    private double plotWidth() {
+        return Math.max(1, canvas.getWidth() - LEFT_MARGIN - RIGHT_MARGIN);
+    }
+
+    private double nanosPerPixel(long beginOffset, long endOffset) {
+        return (endOffset - beginOffset) / plotWidth();
+    }
+
+    private long offsetForX(double x) {
+        return viewBeginOffset + (long) ((x - LEFT_MARGIN) * nanosPerPixel(viewBeginOffset, viewEndOffset));
+    }
+
+    /**
+     * Returns the duration of the most recent redraw in nanoseconds.
+     */
+    public long getLastDrawNanos() {
+        return lastDrawNanos;
+    }
+
+    private void draw() {
+        final long startNanos = System.nanoTime();
+        final double width = canvas.getWidth();
+        final double height = canvas.getHeight();
+        final GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        if (width <= LEFT_MARGIN + RIGHT_MARGIN || height <= TOP_MARGIN + BOTTOM_MARGIN) {
+            return;
+        }
+
+        final double plotWidth = width - LEFT_MARGIN - RIGHT_MARGIN;
+        final double plotHeight = height - TOP_MARGIN - BOTTOM_MARGIN;
+        final double[] yBounds = yAxisBounds();
+
+        drawAxes(gc, plotWidth, plotHeight, yBounds);
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(LEFT_MARGIN, TOP_MARGIN, plotWidth, plotHeight);
+        gc.clip();
+        if (rasterized) {
+            if (rasterImage != null) {
+                gc.drawImage(rasterImage, LEFT_MARGIN, TOP_MARGIN);
+            }
+            if (rasterVersion != contentVersion && !rasterRunning) {
+                rasterize(Math.max(1, (int) plotWidth), Math.max(1, (int) plotHeight), yBounds);
+            }
+        } else {
+            for (CanvasSeries series : seriesList) {
+                drawSeries(gc, series, plotWidth, plotHeight, yBounds);
+            }
+        }
+        gc.restore();
+
+        drawZoomSelection(gc, plotHeight);
+        drawLegend(gc, width);
+        if (rasterized) {
+            drawFrameTimes(gc, plotHeight);
+        }
+        drawHover(gc, plotWidth, plotHeight, yBounds);
+
+        lastDrawNanos = System.nanoTime() - startNanos;
+        StageMetrics.record(StageMetrics.Stage.RENDER, lastDrawNanos);
+    }
+
+    /**
+     * Starts rasterizing the current series snapshots on the rasterizer's worker threads.
+     */
+    private void rasterize(int plotWidth, int plotHeight, double[] yBounds) {
+        final long version = contentVersion;
+        final List<CanvasSeries> frameSeries = new ArrayList<>(seriesList);
+        final List<SeriesBuffer.View> views = new ArrayList<>(frameSeries.size());
+        final int[] colors = new int[frameSeries.size()];
+        for (int i = 0; i < frameSeries.size(); i++) {
+            views.add(frameSeries.get(i).buffer.view());
+            colors[i] = toArgb(frameSeries.get(i).color);
+        }
+        rasterRunning = true;
+        rasterizer.rasterize(views, colors, viewBeginOffset, viewEndOffset, yBounds[0], yBounds[1], plotWidth, plotHeight)
+                .whenComplete((frame, ex) -> Platform.runLater(() -> onRasterized(version, frameSeries, frame, ex)));
+    }
+
+    private void onRasterized(long version, List<CanvasSeries> frameSeries, SeriesRasterizer.Frame frame, Throwable ex) {
+        rasterRunning = false;
+        // record the version even on failure so that a failing frame is not retried until something changes
+        rasterVersion = version;
+        if (ex != null) {
+            logger.error("chart rasterization failed", ex);
+        } else if (rasterized) {
+            if (rasterImage == null || rasterImage.getWidth() != frame.getWidth() || rasterImage.getHeight() != frame.getHeight()) {
+                rasterImage = new WritableImage(frame.getWidth(), frame.getHeight());
+            }
+            rasterImage.getPixelWriter().setPixels(0, 0, frame.getWidth(), frame.getHeight(),
+                    PixelFormat.getIntArgbPreInstance(), frame.getPixels(), 0, frame.getWidth());
+            for (int i = 0; i < frameSeries.size(); i++) {
+                frameSeries.get(i).drawnView = frame.getView(i);
+                frameSeries.get(i).drawnIndices = frame.getIndices(i);
+            }
+            frameTimeLines = frameTimeLines(frame);
+        }
+        draw();
+    }
+
+    /**
+     * Formats the frame's render times, with the slowest series first.
+     */
+    private List<String> frameTimeLines(SeriesRasterizer.Frame frame) {
+        final List<String> lines = new ArrayList<>(frame.getSeriesCount() + 1);
+        lines.add(String.format("Raster %.2f ms on %d threads (composite %.2f ms)",
+                frame.getTotalNanos() / 1_000_000.0, rasterizer.getParallelism(), frame.getCompositeNanos() / 1_000_000.0));
+        final Integer[] order = new Integer[frame.getSeriesCount()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(frame.getSeriesNanos(b), frame.getSeriesNanos(a)));
+        for (int seriesIndex : order) {
+            lines.add(String.format("%s: %.2f ms (%d points)", frame.getView(seriesIndex).getName(),
+                    frame.getSeriesNanos(seriesIndex) / 1_000_000.0, frame.getIndices(seriesIndex).length));
+        }
+        return lines;
+    }
+
+    /**
+     * Draws the frame-time overlay in the top left corner of the plot, showing as many series as fit.
+     */
+    private void drawFrameTimes(GraphicsContext gc, double plotHeight) {
+        if (frameTimeLines.isEmpty()) {
+            return;
+        }
+        final int maxLines = Math.max(2, (int) ((plotHeight - 8) / FRAME_TIME_LINE_HEIGHT));
+        final List<String> lines = new ArrayList<>(Math.min(maxLines, frameTimeLines.size() + 1));
+        lines.add(String.format("FX draw %.2f ms", lastDrawNanos / 1_000_000.0));
+        if (frameTimeLines.size() + 1 <= maxLines) {
+            lines.addAll(frameTimeLines);
+        } else {
+            lines.addAll(frameTimeLines.subList(0, maxLines - 2));
+            lines.add("... " + (frameTimeLines.size() + 2 - maxLines) + " more series");
+        }
+
+        gc.setFill(Color.rgb(255, 255, 255, 0.8));
+        gc.fillRect(LEFT_MARGIN + 4, TOP_MARGIN + 4, 260, lines.size() * FRAME_TIME_LINE_HEIGHT + 4);
+        gc.setFill(Color.web("#333333"));
+        gc.setFont(LABEL_FONT);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.TOP);
+        for (int i = 0; i < lines.size(); i++) {
+            gc.fillText(lines.get(i), LEFT_MARGIN + 8, TOP_MARGIN + 6 + i * FRAME_TIME_LINE_HEIGHT);
+        }
+    }
+
+    private static int toArgb(Color color) {
+        return ((int) Math.round(color.getOpacity() * 255) << 24)
+                | ((int) Math.round(color.getRed() * 255) << 16)
+                | ((int) Math.round(color.getGreen() * 255) << 8)
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    /**
+     * Draws the series as a polyline through its M4-decimated points.
+     */
+    private void drawSeries(GraphicsContext gc, CanvasSeries series, double plotWidth, double plotHeight, double[] yBounds) {
+        final SeriesBuffer.View view = series.buffer.view();
+        if (view.size() == 0) {
+            series.drawnView = null;
+            return;
+        }
+        final int[] indices = SeriesDecimator.decimate(
+                SeriesDecimator.Method.M4, view, viewBeginOffset, viewEndOffset, (int) Math.ceil(plotWidth));
+        series.drawnView = view;
+        series.drawnIndices = indices;
+        final long[] offsets = view.getOffsetNanos();
+        final double[] values = view.getValues();
+        final double xScale = plotWidth / (viewEndOffset - viewBeginOffset);
+        final double yScale = plotHeight / (yBounds[1] - yBounds[0]);
+
+        gc.setStroke(series.color);
+        gc.setLineWidth(1.5);
+        gc.beginPath();
+        for (int i = 0; i < indices.length; i++) {
+            final double px = LEFT_MARGIN + (offsets[indices[i]] - viewBeginOffset) * xScale;
+            final double py = TOP_MARGIN + plotHeight - (values[indices[i]] - yBounds[0]) * yScale;
+            if (i == 0) {
+                gc.moveTo(px, py);
+            } else {
+                gc.lineTo(px, py);
+            }
+        }
+        gc.stroke();
+    }
+
+    private double[] yAxisBounds() {
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (CanvasSeries series : seriesList) {
+            minY = Math.min(minY, series.buffer.getMinValue());
+            maxY = Math.max(maxY, series.buffer.getMaxValue());
+        }
+        if (minY > maxY) {
+            return new double[] { 0, 1 };
+        }
+        double range = maxY - minY;
+        if (range == 0) {
+            range = Math.max(1.0, Math.abs(maxY));
+        }
+        final double padding = range * 0.1;
+        return new double[] { minY - padding, maxY + padding };
+    }
+
+    private void drawAxes(GraphicsContext gc, double plotWidth, double plotHeight, double[] yBounds) {
+        gc.setFont(LABEL_FONT);
+        gc.setStroke(Color.web("#d0d0d0"));
+        gc.setLineWidth(1);
+        gc.setFill(Color.web("#333333"));
+
+        // x axis ticks in seconds from origin, over the visible range
+        final double beginSeconds = viewBeginOffset / 1_000_000_000.0;
+        final double endSeconds = viewEndOffset / 1_000_000_000.0;
+        final double xTickUnit = niceTickUnit(endSeconds - beginSeconds, 8);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.TOP);
+        for (double tick = Math.ceil(beginSeconds / xTickUnit) * xTickUnit; tick <= endSeconds; tick += xTickUnit) {
+            final double x = Math.floor(LEFT_MARGIN + (tick - beginSeconds) / (endSeconds - beginSeconds) * plotWidth) + 0.5;
+            gc.strokeLine(x, TOP_MARGIN, x, TOP_MARGIN + plotHeight);
+            gc.fillText(formatTick(tick, xTickUnit), x, TOP_MARGIN + plotHeight + 4);
+        }
+
+        // y axis ticks
+        final double yTickUnit = niceTickUnit(yBounds[1] - yBounds[0], 6);
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.setTextBaseline(VPos.CENTER);
+        for (double tick = Math.ceil(yBounds[0] / yTickUnit) * yTickUnit; tick <= yBounds[1]; tick += yTickUnit) {
+            final double y = Math.floor(TOP_MARGIN + plotHeight - (tick - yBounds[0]) / (yBounds[1] - yBounds[0]) * plotHeight) + 0.5;
+            gc.strokeLine(LEFT_MARGIN, y, LEFT_MARGIN + plotWidth, y);
+            gc.fillText(formatTick(tick, yTickUnit), LEFT_MARGIN - 6, y);
+        }
+
+        gc.setStroke(Color.web("#808080"));
+        gc.strokeRect(LEFT_MARGIN + 0.5, TOP_MARGIN + 0.5, plotWidth, plotHeight);
+
+        // labels and title
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.BOTTOM);
+        gc.fillText(xAxisLabel, LEFT_MARGIN + plotWidth / 2, TOP_MARGIN + plotHeight + BOTTOM_MARGIN - 4);
+        gc.fillText(title, LEFT_MARGIN + plotWidth / 2, TOP_MARGIN - 8);
+        gc.save();
+        gc.translate(14, TOP_MARGIN + plotHeight / 2);
+        gc.rotate(-90);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.fillText(yAxisLabel, 0, 0);
+        gc.restore();
+    }
+
+    private void drawZoomSelection(GraphicsContext gc, double plotHeight) {
+        if (dragStartX < 0 || panning) {
+            return;
+        }
+        final double x = Math.min(dragStartX, dragCurrentX);
+        final double width = Math.abs(dragCurrentX - dragStartX);
+        gc.setFill(Color.rgb(66, 139, 202, 0.2));
+        gc.fillRect(x, TOP_MARGIN, width, plotHeight);
+        gc.setStroke(Color.rgb(66, 139, 202, 0.8));
+        gc.setLineWidth(1);
+        gc.strokeRect(x + 0.5, TOP_MARGIN + 0.5, width, plotHeight);
+    }
+
+    private void drawLegend(GraphicsContext gc, double width) {
+        gc.setFont(LABEL_FONT);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.CENTER);
+        double y = TOP_MARGIN + 8;
+        for (CanvasSeries series : seriesList) {
+            gc.setFill(series.color);
+            gc.fillRect(width - RIGHT_MARGIN + 12, y - 4, 10, 8);
+            gc.setFill(Color.web("#333333"));
+            gc.fillText(series.buffer.getName(), width - RIGHT_MARGIN + 28, y);
+            y += 16;
+        }
+    }
+
+    /**
+     * Draws a tooltip for the point nearest the mouse, found by binary search on each series' time offsets.
+     */
+    private void drawHover(GraphicsContext gc, double plotWidth, double plotHeight, double[] yBounds) {
+        if (hoverX < LEFT_MARGIN || hoverX > LEFT_MARGIN + plotWidth || hoverY < TOP_MARGIN || hoverY > TOP_MARGIN + plotHeight) {
+            return;
+        }
+
+        final double xScale = plotWidth / (viewEndOffset - viewBeginOffset);
+        final double yScale = plotHeight / (yBounds[1] - yBounds[0]);
+        final long hoverOffset = offsetForX(hoverX);
+
+        // search only the drawn points, binary searched by time
+        final double nanosPerPixel = 1 / xScale;
+        final double valuePerPixel = 1 / yScale;
+        final double hoverValue = yBounds[0] + (TOP_MARGIN + plotHeight - hoverY) * valuePerPixel;
+        CanvasSeries nearestSeries = null;
+        int nearestIndex = -1;
+        double nearestDistance = HOVER_DISTANCE_PIXELS;
+        for (CanvasSeries series : seriesList) {
+            if (series.drawnView == null) {
+                continue;
+            }
+            final int index = series.drawnView.nearestIndex(
+                    series.drawnIndices, hoverOffset, hoverValue, nanosPerPixel, valuePerPixel, nearestDistance);
+            if (index >= 0) {
+                nearestDistance = series.drawnView.pixelDistance(index, hoverOffset, hoverValue, nanosPerPixel, valuePerPixel);
+                nearestSeries = series;
+                nearestIndex = index;
+            }
+        }
+        if (nearestSeries == null) {
+            return;
+        }
+
+        // read the point from the drawn view, which the index refers to, not the live buffer
+        final SeriesBuffer.View nearestView = nearestSeries.drawnView;
+        final long pointOffset = nearestView.getOffsetNanos()[nearestIndex];
+        final double value = nearestView.getValues()[nearestIndex];
+        final double pointX = LEFT_MARGIN + (pointOffset - viewBeginOffset) * xScale;
+        final double pointY = TOP_MARGIN + plotHeight - (value - yBounds[0]) * yScale;
+        gc.setFill(nearestSeries.color);
+        gc.fillOval(pointX - 3, pointY - 3, 6, 6);
+
+        final String text = "PV: " + nearestView.getName() + "\n"
+                + "Value: " + (nearestView.isIntegral() ? String.valueOf((long) value) : String.valueOf(value)) + "\n"
+                + "Time: " + QueryResultChunk.formatTimestamp(originNanos + pointOffset);
+        final double boxWidth = 260;
+        final double boxHeight = 50;
+        double boxX = hoverX + 10;
+        double boxY = hoverY - boxHeight - 10;
+        if (boxX + boxWidth > canvas.getWidth()) {
+            boxX = hoverX - boxWidth - 10;
+        }
+        if (boxY < 0) {
+            boxY = hoverY + 10;
+        }
+        gc.setFill(Color.rgb(0, 0, 0, 0.8));
+        gc.fillRoundRect(boxX, boxY, boxWidth, boxHeight, 6, 6);
+        gc.setFill(Color.WHITE);
+        gc.setFont(Font.font(12));
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.TOP);
+        gc.fillText(text, boxX + 6, boxY + 4);
+    }
+
+    static double niceTickUnit(double range, int targetTicks) {
+        if (range <= 0) {
+            return 1.0;
+        }
+        final double roughTickUnit = range / targetTicks;
+        final double magnitude = Math.pow(10, Math.floor(Math.log10(roughTickUnit)));
+        final double normalizedUnit = roughTickUnit / magnitude;
+        if (normalizedUnit <= 1.0) {
+            return magnitude;
+        } else if (normalizedUnit <= 2.0) {
+            return 2.0 * magnitude;
+        } else if (normalizedUnit <= 5.0) {
+            return 5.0 * magnitude;
+        }
+        return 10.0 * magnitude;
+    }
+
+    static String formatTick(double value, double tickUnit) {
+        if (tickUnit >= 1.0 && Math.abs(value) < 1e12) {
+            return String.valueOf(Math.round(value));
+        }
+        final int decimals = (int) Math.max(0, Math.min(6, Math.ceil(-Math.log10(tickUnit))));
+        return String.format("%." + decimals + "f", value);
+    }
+}
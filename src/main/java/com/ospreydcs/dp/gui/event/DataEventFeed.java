@@ -0,0 +1,188 @@
+package com.ospreydcs.dp.gui.event;
+
+import com.ospreydcs.dp.grpc.v1.ingestionstream.PvConditionTrigger;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventResponse;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Events for one logical data event subscription, which is a single trigger.  Several feeds share each
+ * DataEventStream, and DataEventSubscriptionManager routes the events for a feed's trigger to it.  Each event is added
+ * to the feed's DataEventStore and pushed to the registered listeners on the gRPC response thread, so views can append
+ * new events as they arrive instead of re-reading the stored events.
+ *
+ * The feed also tracks the health of its subscription as maintained by the manager: while its stream is being
+ * re-established after a failure the feed is RETRYING, and each outage is recorded as a gap during which events may
+ * have been missed.
+ */
+public class DataEventFeed {
+
+    public enum Health {
+        CONNECTED,
+        RETRYING,
+        FAILED
+    }
+
+    /**
+     * A period during which the feed's subscription was not connected, so events may have been missed.  The end is
+     * null while the outage continues.
+     */
+    public static final class Gap {
+
+        private final Instant begin;
+        private final Instant end;
+
+        private Gap(Instant begin, Instant end) {
+            this.begin = begin;
+            this.end = end;
+        }
+
+        public Instant getBegin() {
+            return begin;
+        }
+
+        public Instant getEnd() {
+            return end;
+        }
+    }
+
+    private final PvConditionTrigger trigger;
+    private final DataEventStore store;
+    private final DataEventLatency latency;
+    private final List<Consumer<SubscribeDataEventResponse.Event>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Gap> gaps = new CopyOnWriteArrayList<>();
+    private volatile long eventCount = 0;
+    private volatile boolean subscribed = false;
+    private volatile Health health = Health.CONNECTED;
+    private volatile int reconnectCount = 0;
+    private volatile Instant outageBegin = null;
+
+    public DataEventFeed(PvConditionTrigger trigger, DataEventStore store, DataEventLatency latency) {
+        this.trigger = trigger;
+        this.store = store;
+        this.latency = latency;
+    }
+
+    public PvConditionTrigger getTrigger() {
+        return trigger;
+    }
+
+    public DataEventStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the latency measured for the events delivered to the feed.
+     */
+    public DataEventLatency getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the number of events received since the feed was created.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns true while the feed's trigger is part of an acknowledged subscription stream.
+     */
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    void setSubscribed(boolean subscribed) {
+        this.subscribed = subscribed;
+    }
+
+    public Health getHealth() {
+        return health;
+    }
+
+    /**
+     * Returns the number of times the feed's subscription has been re-established after a stream failure.
+     */
+    public int getReconnectCount() {
+        return reconnectCount;
+    }
+
+    /**
+     * Returns the outages recorded for the feed, oldest first, including any outage still in progress.
+     */
+    public List<Gap> getGaps() {
+        final Instant begin = outageBegin;
+        if (begin == null) {
+            return List.copyOf(gaps);
+        }
+        final List<Gap> allGaps = new ArrayList<>(gaps);
+        allGaps.add(new Gap(begin, null));
+        return allGaps;
+    }
+
+    /**
+     * Records the start of an outage when the feed's stream fails, unless one is already in progress.
+     */
+    synchronized void streamFailed(Instant failureTime) {
+        subscribed = false;
+        health = Health.RETRYING;
+        if (outageBegin == null) {
+            outageBegin = failureTime;
+        }
+    }
+
+    /**
+     * Records the end of the outage in progress, if any, once the feed's stream has been re-established.
+     */
+    synchronized void streamReconnected(Instant reconnectTime) {
+        health = Health.CONNECTED;
+        if (outageBegin != null) {
+            gaps.add(new Gap(outageBegin, reconnectTime));
+            outageBegin = null;
+            reconnectCount++;
+        }
+    }
+
+    /**
+     * Marks the feed failed once attempts to re-establish its stream have been abandoned.  The outage remains open.
+     */
+    void reconnectAbandoned() {
+        health = Health.FAILED;
+    }
+
+    /**
+     * Registers a listener for events received from now on and returns the events currently held in the store's
+     * ring buffer.  Both happen under the same lock as event delivery, so the listener sees every later event exactly
+     * once, and the page's first index gives the sequence index of the events that follow.  The listener is called
+     * on the gRPC response thread and must not block.
+     */
+    public synchronized DataEventStore.Page addEventListener(Consumer<SubscribeDataEventResponse.Event> listener) {
+        listeners.add(listener);
+        return store.getRecent();
+    }
+
+    public void removeEventListener(Consumer<SubscribeDataEventResponse.Event> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Discards the stored events, deleting any spill file.  The feed should first be removed from its manager.
+     */
+    public void close() {
+        subscribed = false;
+        store.close();
+    }
+
+    synchronized void accept(SubscribeDataEventResponse.Event event, long arrivalNanos) {
+        latency.record(event, arrivalNanos);
+        store.add(event);
+        eventCount++;
+        for (Consumer<SubscribeDataEventResponse.Event> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.ospreydcs.dp.gui.event;
+
+import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventResponse;
+import com.ospreydcs.dp.gui.metrics.RollingHistogram;
+import de.siegmar.fastcsv.writer.CsvWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Latency of the events delivered to one data event feed, measured when each event arrives at the client.  The
+ * trigger latency is the arrival time less the event time, which is the timestamp of the data value that raised the
+ * event, so it is only meaningful for data timestamped as it is ingested.  For data the application ingested itself,
+ * the delivery latency is the arrival time less the send time of the ingestData() request that carried the value, as
+ * found in the IngestSendLog, and measures the service's ingest-to-event path however the data is timestamped.
+ *
+ * Both are kept as RollingHistograms over the last WINDOW_MILLIS, and compare wall clock times, so they assume the
+ * client and service clocks agree, as they do with the in-process services.
+ */
+public class DataEventLatency {
+
+    public static final long WINDOW_MILLIS = 60_000;
+    private static final int WINDOW_SLOTS = 12;
+
+    public enum Measure {
+        TRIGGER("trigger"),
+        DELIVERY("delivery");
+
+        private final String label;
+
+        Measure(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final IngestSendLog sendLog;
+    private final RollingHistogram triggerHistogram = new RollingHistogram(WINDOW_MILLIS, WINDOW_SLOTS);
+    private final RollingHistogram deliveryHistogram = new RollingHistogram(WINDOW_MILLIS, WINDOW_SLOTS);
+
+    /**
+     * Creates latency measurement correlating events with the requests in the specified send log, which may be null
+     * to measure trigger latency only.
+     */
+    public DataEventLatency(IngestSendLog sendLog) {
+        this.sendLog = sendLog;
+    }
+
+    /**
+     * Records the latencies of an event that arrived at arrivalNanos, in epoch nanoseconds.
+     */
+    public void record(SubscribeDataEventResponse.Event event, long arrivalNanos) {
+        final long eventNanos = event.getEventTime().getEpochSeconds() * 1_000_000_000L
+                + event.getEventTime().getNanoseconds();
+        triggerHistogram.record(arrivalNanos - eventNanos);
+        if (sendLog != null) {
+            final long sendNanos = sendLog.findSendNanos(event.getTrigger().getPvName(), eventNanos);
+            if (sendNanos >= 0) {
+                deliveryHistogram.record(arrivalNanos - sendNanos);
+            }
+        }
+    }
+
+    public RollingHistogram.Snapshot snapshot(Measure measure) {
+        return (measure == Measure.TRIGGER) ? triggerHistogram.snapshot() : deliveryHistogram.snapshot();
+    }
+
+    /**
+     * Formats the count, p50, p99 and max of the specified measure, for example "trigger p50 1.2 ms, p99 4.0 ms,
+     * max 5.1 ms (812)", or null if no events were measured in the window.
+     */
+    public String formatSummary(Measure measure) {
+        final RollingHistogram.Snapshot snapshot = snapshot(measure);
+        if (snapshot.getCount() == 0) {
+            return null;
+        }
+        return String.format("%s p50 %s, p99 %s, max %s (%,d)",
+                measure.getLabel(),
+                formatMillis(snapshot.getPercentileNanos(50)),
+                formatMillis(snapshot.getPercentileNanos(99)),
+                formatMillis(snapshot.getMaxNanos()),
+                snapshot.getCount());
+    }
+
+    /**
+     * Returns the current time in epoch nanoseconds, for timestamping event arrival.
+     */
+    public static long nowEpochNanos() {
+        final Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    /**
+     * Writes the latency histograms of the specified feeds to a CSV file, one row per non-empty histogram bucket with
+     * the summary statistics of its histogram repeated, labelling each feed with the name at the same position.
+     */
+    public static void exportCsv(Path file, List<String> feedNames, List<DataEventFeed> feeds) throws IOException {
+        try (CsvWriter csv = CsvWriter.builder().build(file)) {
+            csv.writeRecord("subscription", "measure", "window_seconds", "count", "mean_ms", "p50_ms", "p99_ms",
+                    "max_ms", "bucket_upper_ms", "bucket_count");
+            for (int i = 0; i < feeds.size(); i++) {
+                for (Measure measure : Measure.values()) {
+                    final RollingHistogram.Snapshot snapshot = feeds.get(i).getLatency().snapshot(measure);
+                    final long[] bucketCounts = snapshot.getBucketCounts();
+                    for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+                        if (bucketCounts[bucket] == 0) {
+                            continue;
+                        }
+                        csv.writeRecord(
+                                feedNames.get(i),
+                                measure.getLabel(),
+                                String.valueOf(WINDOW_MILLIS / 1_000),
+                                String.valueOf(snapshot.getCount()),
+                                toMillis(snapshot.getMeanNanos()),
+                                toMillis(snapshot.getPercentileNanos(50)),
+                                toMillis(snapshot.getPercentileNanos(99)),
+                                toMillis(snapshot.getMaxNanos()),
+                                String.valueOf(RollingHistogram.bucketUpperMicros(bucket) / 1_000.0),
+                                String.valueOf(bucketCounts[bucket]));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String toMillis(long nanos) {
+        return String.valueOf(nanos / 1_000_000.0);
+    }
+
+    private static String formatMillis(long nanos) {
+        if (nanos >= 10_000_000_000L) {
+            return String.format("%,.0f s", nanos / 1e9);
+        }
+        return String.format("%.1f ms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,273 @@
+package com.ospreydcs.dp.gui.event;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventResponse;
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bounded store for the events of one data event subscription.  The most recent events are held in a fixed-capacity
+ * in-memory ring buffer.  When the ring is full, the oldest event is spilled to an append-only local file as a
+ * length-delimited protobuf record, so heap use stays constant however long the subscription runs.  Every event has
+ * a sequence index in order of arrival, and readPage() returns any range of indexes from the spill file and the ring.
+ *
+ * A sparse index of spill file offsets, one entry per SPILL_INDEX_INTERVAL events, locates a page without scanning
+ * the file.  If the spill file cannot be written, evicted events are dropped and are omitted from later pages.
+ */
+public class DataEventStore {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    // configuration
+    public static final String CFG_KEY_BUFFER_CAPACITY = "DataEvents.bufferCapacity";
+    public static final int DEFAULT_BUFFER_CAPACITY = 10000;
+    public static final String CFG_KEY_SPILL_DIRECTORY = "DataEvents.spillDirectory";
+    public static final String DEFAULT_SPILL_DIRECTORY = "";
+
+    private static final int SPILL_INDEX_INTERVAL = 64;
+    private static final String SPILL_FILE_PREFIX = "events-";
+    private static final String SPILL_FILE_SUFFIX = ".spill";
+
+    /**
+     * Consecutive events read from the store, starting at the specified sequence index.
+     */
+    public static final class Page {
+
+        private final long firstIndex;
+        private final List<SubscribeDataEventResponse.Event> events;
+
+        private Page(long firstIndex, List<SubscribeDataEventResponse.Event> events) {
+            this.firstIndex = firstIndex;
+            this.events = Collections.unmodifiableList(events);
+        }
+
+        public long getFirstIndex() {
+            return firstIndex;
+        }
+
+        public List<SubscribeDataEventResponse.Event> getEvents() {
+            return events;
+        }
+    }
+
+    private final Path spillDirectory;
+    private final SubscribeDataEventResponse.Event[] ring;
+    private int ringStart = 0;
+    private int ringSize = 0;
+    private long totalCount = 0;
+
+    // spill file state: events [0, spilledCount) have left the ring, and [0, spillWrittenCount) are in the file
+    private Path spillFile = null;
+    private OutputStream spillOutput = null;
+    private long spillBytes = 0;
+    private long spilledCount = 0;
+    private long spillWrittenCount = 0;
+    private long[] spillIndex = new long[16];
+    private boolean spillFailed = false;
+    private boolean closed = false;
+
+    public DataEventStore() {
+        this(
+                configMgr().getConfigInteger(CFG_KEY_BUFFER_CAPACITY, DEFAULT_BUFFER_CAPACITY),
+                defaultDirectory(configMgr().getConfigString(CFG_KEY_SPILL_DIRECTORY, DEFAULT_SPILL_DIRECTORY)));
+    }
+
+    public DataEventStore(int capacity, Path spillDirectory) {
+        this.ring = new SubscribeDataEventResponse.Event[Math.max(1, capacity)];
+        this.spillDirectory = spillDirectory;
+    }
+
+    private static ConfigurationManager configMgr() {
+        return ConfigurationManager.getInstance();
+    }
+
+    private static Path defaultDirectory(String configuredDirectory) {
+        if (configuredDirectory == null || configuredDirectory.isBlank()) {
+            return Paths.get(System.getProperty("user.home"), ".dp-desktop", "event-spill");
+        }
+        return Paths.get(configuredDirectory);
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Returns the number of events added, which is also the sequence index the next event will have.
+     */
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the number of events that have been evicted from the ring buffer.
+     */
+    public synchronized long getSpilledCount() {
+        return spilledCount;
+    }
+
+    public synchronized void add(SubscribeDataEventResponse.Event event) {
+        if (closed) {
+            return;
+        }
+        if (ringSize == ring.length) {
+            spill(ring[ringStart]);
+            ring[ringStart] = event;
+            ringStart = (ringStart + 1 == ring.length) ? 0 : ringStart + 1;
+            spilledCount++;
+        } else {
+            ring[(ringStart + ringSize) % ring.length] = event;
+            ringSize++;
+        }
+        totalCount++;
+    }
+
+    /**
+     * Returns the events held in the ring buffer, which are the most recent events added.
+     */
+    public synchronized Page getRecent() {
+        return new Page(spilledCount, copyRing(spilledCount, totalCount));
+    }
+
+    /**
+     * Returns up to count events starting at sequence index firstIndex, reading from the spill file for indexes no
+     * longer in the ring buffer.  The file is read without holding the store's lock, so events may continue to be
+     * added while a page is read.
+     */
+    public Page readPage(long firstIndex, int count) {
+        final long first;
+        final long end;
+        final long fileEnd;
+        final long fileOffset;
+        final Path file;
+        final List<SubscribeDataEventResponse.Event> ringEvents;
+        synchronized (this) {
+            if (closed) {
+                return new Page(firstIndex, new ArrayList<>());
+            }
+            first = Math.max(0, Math.min(firstIndex, totalCount));
+            end = Math.min(totalCount, first + Math.max(0, count));
+            fileEnd = Math.min(end, spillWrittenCount);
+            fileOffset = (first < fileEnd) ? spillIndex[(int) (first / SPILL_INDEX_INTERVAL)] : 0;
+            file = spillFile;
+            ringEvents = copyRing(Math.max(first, spilledCount), end);
+            if (first < fileEnd) {
+                try {
+                    spillOutput.flush();
+                } catch (IOException e) {
+                    logger.error("unable to flush data event spill file: {}", file, e);
+                }
+            }
+        }
+
+        final List<SubscribeDataEventResponse.Event> events = new ArrayList<>((int) (end - first));
+        if (first < fileEnd) {
+            readSpilled(file, fileOffset, first % SPILL_INDEX_INTERVAL, (int) (fileEnd - first), events);
+        }
+        events.addAll(ringEvents);
+        return new Page(first, events);
+    }
+
+    /**
+     * Clears the ring buffer and deletes the spill file.  Events added afterwards are ignored.
+     */
+    public synchronized void close() {
+        closed = true;
+        Arrays.fill(ring, null);
+        ringSize = 0;
+        if (spillOutput != null) {
+            try {
+                spillOutput.close();
+            } catch (IOException e) {
+                logger.warn("unable to close data event spill file: {}", spillFile, e);
+            }
+            spillOutput = null;
+        }
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                logger.warn("unable to delete data event spill file: {}", spillFile, e);
+            }
+        }
+    }
+
+    private List<SubscribeDataEventResponse.Event> copyRing(long beginIndex, long endIndex) {
+        final List<SubscribeDataEventResponse.Event> events = new ArrayList<>((int) Math.max(0, endIndex - beginIndex));
+        for (long index = beginIndex; index < endIndex; index++) {
+            events.add(ring[(int) ((ringStart + (index - spilledCount)) % ring.length)]);
+        }
+        return events;
+    }
+
+    private void spill(SubscribeDataEventResponse.Event event) {
+        if (spillFailed) {
+            return;
+        }
+        try {
+            if (spillOutput == null) {
+                Files.createDirectories(spillDirectory);
+                spillFile = Files.createTempFile(spillDirectory, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX);
+                spillFile.toFile().deleteOnExit();
+                spillOutput = new BufferedOutputStream(Files.newOutputStream(spillFile, StandardOpenOption.APPEND));
+                logger.debug("data event spill file created: {}", spillFile);
+            }
+            if (spillWrittenCount % SPILL_INDEX_INTERVAL == 0) {
+                final int slot = (int) (spillWrittenCount / SPILL_INDEX_INTERVAL);
+                if (slot == spillIndex.length) {
+                    spillIndex = Arrays.copyOf(spillIndex, spillIndex.length * 2);
+                }
+                spillIndex[slot] = spillBytes;
+            }
+            final int size = event.getSerializedSize();
+            event.writeDelimitedTo(spillOutput);
+            spillBytes += CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+            spillWrittenCount++;
+        } catch (IOException e) {
+            logger.error("unable to write data event spill file, older events will be dropped: {}", spillFile, e);
+            spillFailed = true;
+        }
+    }
+
+    /**
+     * Reads count events from the spill file, starting skip records after the record at offset.
+     */
+    private static void readSpilled(
+            Path file, long offset, long skip, int count, List<SubscribeDataEventResponse.Event> eventsOut
+    ) {
+        try (InputStream input = new BufferedInputStream(
+                Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ).position(offset)))) {
+            for (long i = 0; i < skip; i++) {
+                final int firstByte = input.read();
+                input.skipNBytes(CodedInputStream.readRawVarint32(firstByte, input));
+            }
+            for (int i = 0; i < count; i++) {
+                final SubscribeDataEventResponse.Event event = SubscribeDataEventResponse.Event.parseDelimitedFrom(input);
+                if (event == null) {
+                    break;
+                }
+                eventsOut.add(event);
+            }
+        } catch (IOException e) {
+            logger.error("unable to read data event spill file: {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ospreydcs.dp.gui.event;
+
+import com.ospreydcs.dp.grpc.v1.ingestionstream.DpIngestionStreamServiceGrpc;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.PvConditionTrigger;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventRequest;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventResponse;
+import io.grpc.ManagedChannel;
+import io.grpc.stub.StreamObserver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Data event subscription opened directly on the ingestion stream service's bidirectional subscribeDataEvent stream
+ * for a group of triggers.  Each event received is passed, with the stream it arrived on, to the sink specified at
+ * start on the gRPC response thread.  DataEventSubscriptionManager uses the sink to route events to the DataEventFeed
+ * for each trigger.
+ *
+ * If an acknowledged stream fails or is closed by the service, rather than cancelled, the failure listener specified
+ * at start is called on the gRPC response thread so the subscription can be re-established.
+ */
+public class DataEventStream {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final List<PvConditionTrigger> triggers;
+    private final BiConsumer<DataEventStream, SubscribeDataEventResponse.Event> sink;
+    private final Consumer<DataEventStream> failureListener;
+    private final CountDownLatch acknowledgedLatch = new CountDownLatch(1);
+    private StreamObserver<SubscribeDataEventRequest> requestObserver = null;
+    private volatile boolean active = false;
+    private volatile boolean acknowledged = false;
+    private volatile String errorMessage = null;
+    private volatile long eventCount = 0;
+
+    private DataEventStream(
+            List<PvConditionTrigger> triggers,
+            BiConsumer<DataEventStream, SubscribeDataEventResponse.Event> sink,
+            Consumer<DataEventStream> failureListener
+    ) {
+        this.triggers = List.copyOf(triggers);
+        this.sink = sink;
+        this.failureListener = failureListener;
+    }
+
+    /**
+     * Opens a data event subscription for the specified triggers on the specified ingestion stream service channel,
+     * passing received events to the specified sink.  Use awaitAcknowledgement() to wait for the service to accept
+     * or reject it.  The failure listener is called if the stream ends after being acknowledged without having been
+     * cancelled.
+     */
+    public static DataEventStream start(
+            ManagedChannel ingestionStreamChannel,
+            List<PvConditionTrigger> triggers,
+            BiConsumer<DataEventStream, SubscribeDataEventResponse.Event> sink,
+            Consumer<DataEventStream> failureListener
+    ) {
+        final DataEventStream stream = new DataEventStream(triggers, sink, failureListener);
+        stream.active = true;
+        stream.requestObserver = DpIngestionStreamServiceGrpc.newStub(ingestionStreamChannel)
+                .subscribeDataEvent(stream.new ResponseObserver());
+        stream.requestObserver.onNext(SubscribeDataEventRequest.newBuilder()
+                .setNewSubscription(SubscribeDataEventRequest.NewSubscription.newBuilder()
+                        .addAllTriggers(stream.triggers)
+                        .build())
+                .build());
+        logger.debug("data event stream started for {} triggers", triggers.size());
+        return stream;
+    }
+
+    /**
+     * Waits up to timeoutMillis for the service to acknowledge the subscription, returning false if it was rejected,
+     * the stream failed, or no acknowledgement arrived in time.
+     */
+    public boolean awaitAcknowledgement(long timeoutMillis) {
+        try {
+            if (!acknowledgedLatch.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                errorMessage = "timeout waiting for data event subscription acknowledgement";
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errorMessage = "interrupted waiting for data event subscription acknowledgement";
+            return false;
+        }
+        return acknowledged;
+    }
+
+    /**
+     * Cancels the subscription and closes the request stream.
+     */
+    public synchronized void cancel() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        try {
+            requestObserver.onNext(SubscribeDataEventRequest.newBuilder()
+                    .setCancelSubscription(SubscribeDataEventRequest.CancelSubscription.newBuilder().build())
+                    .build());
+            requestObserver.onCompleted();
+        } catch (RuntimeException ex) {
+            logger.debug("data event stream cancel failed: {}", ex.getMessage());
+        }
+        logger.debug("data event stream cancelled");
+    }
+
+    /**
+     * Returns the number of events received since the stream was started.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public List<PvConditionTrigger> getTriggers() {
+        return triggers;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Returns the error reported by the service or the stream, or null if there was none.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    private void addEvent(SubscribeDataEventResponse.Event event) {
+        eventCount++;
+        sink.accept(this, event);
+    }
+
+    /**
+     * Marks the stream ended, notifying the failure listener if it ended while active after acknowledgement.
+     */
+    private void end(String error) {
+        final boolean failed;
+        synchronized (this) {
+            failed = active && acknowledged;
+            active = false;
+            if (error != null && failed) {
+                errorMessage = error;
+            }
+        }
+        acknowledgedLatch.countDown();
+        if (failed) {
+            logger.warn("data event stream for {} triggers ended unexpectedly: {}", triggers.size(), error);
+            failureListener.accept(this);
+        }
+    }
+
+    private class ResponseObserver implements StreamObserver<SubscribeDataEventResponse> {
+
+        @Override
+        public void onNext(SubscribeDataEventResponse response) {
+            switch (response.getResultCase()) {
+                case EXCEPTIONALRESULT -> {
+                    final String message = response.getExceptionalResult().getMessage();
+                    if (!acknowledged) {
+                        errorMessage = message;
+                        logger.error("data event subscription rejected: {}", message);
+                    }
+                    end(message);
+                }
+                case ACKRESULT -> {
+                    acknowledged = true;
+                    acknowledgedLatch.countDown();
+                    logger.debug("data event subscription acknowledged");
+                }
+                case EVENT -> addEvent(response.getEvent());
+                default -> logger.debug("data event stream ignoring response: {}", response.getResultCase());
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (active) {
+                errorMessage = t.getMessage();
+                logger.error("data event stream error: {}", t.getMessage());
+            }
+            end(t.getMessage());
+        }
+
+        @Override
+        public void onCompleted() {
+            logger.debug("data event stream completed");
+            end("stream closed by service");
+        }
+    }
+}
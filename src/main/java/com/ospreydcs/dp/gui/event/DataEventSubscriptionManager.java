@@ -0,0 +1,422 @@
+package com.ospreydcs.dp.gui.event;
+
+import com.ospreydcs.dp.grpc.v1.ingestionstream.PvConditionTrigger;
+import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventResponse;
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import com.ospreydcs.dp.service.common.model.ResultStatus;
+import io.grpc.ManagedChannel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Packs the triggers of many data event feeds into a few subscribeDataEvent streams, each carrying up to
+ * triggersPerStream triggers, and routes the events each stream returns to the feeds for their trigger.  Feeds with
+ * identical triggers share a single trigger on the stream and all receive its events.
+ *
+ * Adding or removing a feed re-subscribes only the affected group: a stream with the group's new trigger list is
+ * opened, and once the service acknowledges it, routing switches to it and the group's previous stream is cancelled.
+ * Events from a stream are only routed while it is the group's current stream, so the overlap does not produce
+ * duplicates.  If the new stream is rejected, the group keeps its previous stream.  The service's acknowledgement is
+ * awaited holding only the group's update lock, which serializes re-subscription of that group, so other groups,
+ * stream failures, and queries of the manager are not held up by it.
+ *
+ * The manager also supervises the streams.  When a group's stream fails, its feeds are marked as retrying with an
+ * outage gap open, and the group is re-subscribed after a jittered exponential backoff, starting at
+ * reconnectInitialMillis and doubling up to reconnectMaxMillis.  A successful reconnect closes the feeds' gaps, and
+ * after reconnectMaxAttempts failed attempts the feeds are marked failed and retries stop.
+ */
+public class DataEventSubscriptionManager {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    // configuration
+    public static final String CFG_KEY_TRIGGERS_PER_STREAM = "DataEvents.triggersPerStream";
+    public static final int DEFAULT_TRIGGERS_PER_STREAM = 64;
+    public static final String CFG_KEY_RECONNECT_INITIAL_MILLIS = "DataEvents.reconnectInitialMillis";
+    public static final int DEFAULT_RECONNECT_INITIAL_MILLIS = 1000;
+    public static final String CFG_KEY_RECONNECT_MAX_MILLIS = "DataEvents.reconnectMaxMillis";
+    public static final int DEFAULT_RECONNECT_MAX_MILLIS = 60000;
+    public static final String CFG_KEY_RECONNECT_MAX_ATTEMPTS = "DataEvents.reconnectMaxAttempts";
+    public static final int DEFAULT_RECONNECT_MAX_ATTEMPTS = 20;
+
+    private static final long ACK_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Feeds sharing one stream.
+     */
+    private static class TriggerGroup {
+
+        private final ReentrantLock updateLock = new ReentrantLock();
+        private List<DataEventFeed> feeds = new ArrayList<>();
+        private int reservedCount = 0; // feeds assigned by add() calls that have not re-subscribed yet
+        private volatile Map<PvConditionTrigger, List<DataEventFeed>> feedsByTrigger = Map.of();
+        private volatile DataEventStream stream = null;
+        private int reconnectAttempts = 0;
+        private ScheduledFuture<?> pendingReconnect = null;
+
+        private void route(DataEventStream source, SubscribeDataEventResponse.Event event) {
+            if (source != stream) {
+                return;
+            }
+            final long arrivalNanos = DataEventLatency.nowEpochNanos();
+            final List<DataEventFeed> triggerFeeds = feedsByTrigger.get(event.getTrigger());
+            if (triggerFeeds == null) {
+                logger.debug("data event for unknown trigger on PV: {}", event.getTrigger().getPvName());
+                return;
+            }
+            for (DataEventFeed feed : triggerFeeds) {
+                feed.accept(event, arrivalNanos);
+            }
+        }
+    }
+
+    private final ManagedChannel ingestionStreamChannel;
+    private final int triggersPerStream;
+    private final long reconnectInitialMillis;
+    private final long reconnectMaxMillis;
+    private final int reconnectMaxAttempts;
+    private final List<TriggerGroup> groups = new ArrayList<>();
+    private final ScheduledExecutorService reconnectExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "data-event-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DataEventSubscriptionManager(ManagedChannel ingestionStreamChannel) {
+        this(
+                ingestionStreamChannel,
+                configMgr().getConfigInteger(CFG_KEY_TRIGGERS_PER_STREAM, DEFAULT_TRIGGERS_PER_STREAM),
+                configMgr().getConfigInteger(CFG_KEY_RECONNECT_INITIAL_MILLIS, DEFAULT_RECONNECT_INITIAL_MILLIS),
+                configMgr().getConfigInteger(CFG_KEY_RECONNECT_MAX_MILLIS, DEFAULT_RECONNECT_MAX_MILLIS),
+                configMgr().getConfigInteger(CFG_KEY_RECONNECT_MAX_ATTEMPTS, DEFAULT_RECONNECT_MAX_ATTEMPTS));
+    }
+
+    public DataEventSubscriptionManager(
+            ManagedChannel ingestionStreamChannel,
+            int triggersPerStream,
+            long reconnectInitialMillis,
+            long reconnectMaxMillis,
+            int reconnectMaxAttempts
+    ) {
+        this.ingestionStreamChannel = ingestionStreamChannel;
+        this.triggersPerStream = Math.max(1, triggersPerStream);
+        this.reconnectInitialMillis = Math.max(1, reconnectInitialMillis);
+        this.reconnectMaxMillis = Math.max(this.reconnectInitialMillis, reconnectMaxMillis);
+        this.reconnectMaxAttempts = reconnectMaxAttempts;
+    }
+
+    private static ConfigurationManager configMgr() {
+        return ConfigurationManager.getInstance();
+    }
+
+    /**
+     * Subscribes the specified feeds, filling existing groups before opening new streams, and re-subscribing each
+     * affected group once.  Feeds in a group whose stream could not be opened are left unsubscribed, as reported by
+     * DataEventFeed.isSubscribed().
+     */
+    public ResultStatus add(List<DataEventFeed> feeds) {
+
+        // assign feeds to groups with room, creating groups as needed, and reserve their places
+        final Map<TriggerGroup, List<DataEventFeed>> additions = new IdentityHashMap<>();
+        final List<TriggerGroup> affectedGroups = new ArrayList<>();
+        synchronized (this) {
+            for (DataEventFeed feed : feeds) {
+                TriggerGroup target = null;
+                for (TriggerGroup group : groups) {
+                    if (group.feeds.size() + group.reservedCount < triggersPerStream) {
+                        target = group;
+                        break;
+                    }
+                }
+                if (target == null) {
+                    target = new TriggerGroup();
+                    groups.add(target);
+                }
+                if (!additions.containsKey(target)) {
+                    additions.put(target, new ArrayList<>());
+                    affectedGroups.add(target);
+                }
+                additions.get(target).add(feed);
+                target.reservedCount++;
+            }
+        }
+
+        // re-subscribe each affected group with its combined feeds
+        int rejectedCount = 0;
+        String errorMessage = null;
+        for (TriggerGroup group : affectedGroups) {
+            final List<DataEventFeed> groupAdditions = additions.get(group);
+            final ResultStatus status = resubscribe(group, groupAdditions);
+            synchronized (this) {
+                group.reservedCount -= groupAdditions.size();
+                if (status.isError) {
+                    rejectedCount += groupAdditions.size();
+                    errorMessage = status.msg;
+                    if (group.feeds.isEmpty() && group.reservedCount == 0) {
+                        discard(group);
+                    }
+                }
+            }
+        }
+
+        logger.debug("data event subscription manager has {} triggers on {} streams",
+                getTriggerCount(), getStreamCount());
+        if (rejectedCount > 0) {
+            return new ResultStatus(true,
+                    rejectedCount + " of " + feeds.size() + " triggers could not be subscribed: " + errorMessage);
+        }
+        return new ResultStatus(false, "");
+    }
+
+    /**
+     * Unsubscribes the specified feed, re-subscribing the rest of its group, or cancelling the group's stream if the
+     * feed was its last.  Events stop being routed to the feed immediately, and if the group cannot be re-subscribed
+     * it keeps its previous stream.
+     */
+    public void remove(DataEventFeed feed) {
+        TriggerGroup group = null;
+        synchronized (this) {
+            for (TriggerGroup candidate : groups) {
+                if (candidate.feeds.contains(feed)) {
+                    group = candidate;
+                    break;
+                }
+            }
+            if (group == null) {
+                return;
+            }
+            feed.setSubscribed(false);
+            final List<DataEventFeed> remainingFeeds = new ArrayList<>(group.feeds);
+            remainingFeeds.remove(feed);
+            group.feeds = remainingFeeds;
+            group.feedsByTrigger = mapFeedsByTrigger(remainingFeeds);
+            if (remainingFeeds.isEmpty() && group.reservedCount == 0) {
+                discard(group);
+                return;
+            }
+        }
+        final ResultStatus status = resubscribe(group, List.of());
+        if (status.isError) {
+            logger.warn("unable to re-subscribe data event triggers after removal: {}", status.msg);
+        }
+    }
+
+    /**
+     * Cancels all streams and stops reconnecting.  The feeds keep their stored events.
+     */
+    public synchronized void closeAll() {
+        reconnectExecutor.shutdownNow();
+        for (TriggerGroup group : groups) {
+            if (group.stream != null) {
+                group.stream.cancel();
+            }
+            for (DataEventFeed feed : group.feeds) {
+                feed.setSubscribed(false);
+            }
+        }
+        groups.clear();
+    }
+
+    public synchronized int getStreamCount() {
+        int streamCount = 0;
+        for (TriggerGroup group : groups) {
+            if (group.stream != null) {
+                streamCount++;
+            }
+        }
+        return streamCount;
+    }
+
+    public synchronized int getTriggerCount() {
+        int triggerCount = 0;
+        for (TriggerGroup group : groups) {
+            triggerCount += group.feeds.size();
+        }
+        return triggerCount;
+    }
+
+    /**
+     * Called on the gRPC response thread when a stream ends unexpectedly, handing the failure to the reconnect thread
+     * so the response thread does not wait for the manager's lock.
+     */
+    private void onStreamFailed(TriggerGroup group, DataEventStream stream) {
+        try {
+            reconnectExecutor.execute(() -> streamFailed(group, stream));
+        } catch (RejectedExecutionException e) {
+            logger.debug("data event stream failed after manager closed");
+        }
+    }
+
+    /**
+     * Opens an outage gap on the failed group's feeds and schedules the first reconnect attempt.
+     */
+    private synchronized void streamFailed(TriggerGroup group, DataEventStream stream) {
+        if (stream != group.stream || !groups.contains(group) || group.pendingReconnect != null) {
+            return; // replaced, removed, or already reconnecting
+        }
+        final Instant failureTime = Instant.now();
+        for (DataEventFeed feed : group.feeds) {
+            feed.streamFailed(failureTime);
+        }
+        group.reconnectAttempts = 0;
+        scheduleReconnect(group);
+    }
+
+    private void scheduleReconnect(TriggerGroup group) {
+        if (reconnectExecutor.isShutdown()) {
+            return;
+        }
+        final long backoffMillis = Math.min(
+                reconnectMaxMillis, reconnectInitialMillis << Math.min(group.reconnectAttempts, 30));
+        final long delayMillis = backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+        logger.debug("reconnecting data event stream for {} triggers in {} ms", group.feeds.size(), delayMillis);
+        group.pendingReconnect = reconnectExecutor.schedule(() -> reconnect(group), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect(TriggerGroup group) {
+        synchronized (this) {
+            group.pendingReconnect = null;
+            if (!groups.contains(group)) {
+                return;
+            }
+        }
+        if (!group.updateLock.tryLock()) {
+            // another re-subscription of the group is under way and replaces the failed stream if it succeeds, so
+            // check again later rather than holding up the reconnect thread
+            synchronized (this) {
+                if (groups.contains(group) && group.pendingReconnect == null) {
+                    scheduleReconnect(group);
+                }
+            }
+            return;
+        }
+        try {
+            final int attempts;
+            synchronized (this) {
+                attempts = ++group.reconnectAttempts;
+            }
+            final ResultStatus status = resubscribe(group, List.of());
+            synchronized (this) {
+                if (!status.isError) {
+                    logger.info("data event stream for {} triggers reconnected after {} attempts",
+                            group.feeds.size(), attempts);
+                    return;
+                }
+                if (!groups.contains(group)) {
+                    return;
+                }
+                if (reconnectMaxAttempts > 0 && group.reconnectAttempts >= reconnectMaxAttempts) {
+                    logger.error("giving up reconnecting data event stream for {} triggers after {} attempts: {}",
+                            group.feeds.size(), group.reconnectAttempts, status.msg);
+                    for (DataEventFeed feed : group.feeds) {
+                        feed.reconnectAbandoned();
+                    }
+                    return;
+                }
+                logger.warn("data event stream reconnect attempt {} failed: {}", group.reconnectAttempts, status.msg);
+                scheduleReconnect(group);
+            }
+        } finally {
+            group.updateLock.unlock();
+        }
+    }
+
+    private static void cancelReconnect(TriggerGroup group) {
+        if (group.pendingReconnect != null) {
+            group.pendingReconnect.cancel(false);
+            group.pendingReconnect = null;
+        }
+    }
+
+    /**
+     * Removes an empty group, cancelling its stream.  Called holding the manager's lock.
+     */
+    private void discard(TriggerGroup group) {
+        if (group.stream != null) {
+            group.stream.cancel();
+        }
+        cancelReconnect(group);
+        groups.remove(group);
+    }
+
+    /**
+     * Re-subscribes the group with its current feeds plus the specified additions.  The new stream is opened and its
+     * acknowledgement awaited holding only the group's update lock, and the group switches to it under the manager's
+     * lock.  Feeds removed from the group meanwhile are left out of the switch, so their triggers on the new stream
+     * are not routed.
+     */
+    private ResultStatus resubscribe(TriggerGroup group, List<DataEventFeed> additions) {
+        group.updateLock.lock();
+        try {
+            final List<DataEventFeed> requestedFeeds;
+            synchronized (this) {
+                if (!groups.contains(group)) {
+                    return new ResultStatus(true, "data event subscriptions closed");
+                }
+                requestedFeeds = new ArrayList<>(group.feeds);
+                requestedFeeds.addAll(additions);
+            }
+            if (requestedFeeds.isEmpty()) {
+                return new ResultStatus(false, ""); // emptied while waiting, a pending add() re-subscribes it
+            }
+
+            final DataEventStream stream = DataEventStream.start(
+                    ingestionStreamChannel,
+                    new ArrayList<>(mapFeedsByTrigger(requestedFeeds).keySet()),
+                    group::route,
+                    failedStream -> onStreamFailed(group, failedStream));
+            if (!stream.awaitAcknowledgement(ACK_TIMEOUT_MILLIS)) {
+                stream.cancel();
+                return new ResultStatus(true, stream.getErrorMessage());
+            }
+
+            synchronized (this) {
+                if (!groups.contains(group)) {
+                    stream.cancel();
+                    return new ResultStatus(true, "data event subscriptions closed");
+                }
+                final List<DataEventFeed> feeds = new ArrayList<>(group.feeds);
+                feeds.addAll(additions);
+                final DataEventStream previousStream = group.stream;
+                group.feeds = feeds;
+                group.feedsByTrigger = mapFeedsByTrigger(feeds);
+                group.stream = stream;
+                if (previousStream != null) {
+                    previousStream.cancel();
+                }
+                cancelReconnect(group);
+                group.reconnectAttempts = 0;
+                final Instant connectTime = Instant.now();
+                for (DataEventFeed feed : feeds) {
+                    feed.setSubscribed(true);
+                    feed.streamReconnected(connectTime);
+                }
+                return new ResultStatus(false, "");
+            }
+        } finally {
+            group.updateLock.unlock();
+        }
+    }
+
+    private static Map<PvConditionTrigger, List<DataEventFeed>> mapFeedsByTrigger(List<DataEventFeed> feeds) {
+        final Map<PvConditionTrigger, List<DataEventFeed>> feedsByTrigger = new LinkedHashMap<>();
+        for (DataEventFeed feed : feeds) {
+            feedsByTrigger.computeIfAbsent(feed.getTrigger(), trigger -> new ArrayList<>()).add(feed);
+        }
+        return feedsByTrigger;
+    }
+}
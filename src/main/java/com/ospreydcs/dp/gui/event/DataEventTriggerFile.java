@@ -0,0 +1,233 @@
+package com.ospreydcs.dp.gui.event;
+
+import com.ospreydcs.dp.client.IngestionClient;
+import com.ospreydcs.dp.gui.DpApplication;
+import com.ospreydcs.dp.gui.model.SubscribeDataEventDetail;
+import com.ospreydcs.dp.service.common.model.ResultStatus;
+import de.siegmar.fastcsv.reader.CommentStrategy;
+import de.siegmar.fastcsv.reader.CsvReader;
+import de.siegmar.fastcsv.reader.CsvRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads data event trigger definitions from a CSV file for bulk subscription.  Each row defines one trigger as
+ * PV name, condition and value, for example "S01-GCC01,>=,1.5e-6".  The condition may be written as an operator
+ * (=, >, >=, <, <=) or as a TriggerCondition name.  An optional header row starting with "pv" is skipped, as are blank
+ * lines and lines starting with '#'.
+ *
+ * Rows that cannot be parsed are rejected when read.  The remaining rows are accepted or rejected by the caller once
+ * the PV data types are known, see DpApplication.importDataEventTriggers().
+ */
+public class DataEventTriggerFile {
+
+    private static final int MAX_REJECTED_ROWS_LISTED = 200;
+
+    /**
+     * One trigger definition row and its import outcome.
+     */
+    public static final class Row {
+
+        private final long lineNumber;
+        private final String pvName;
+        private final SubscribeDataEventDetail detail;
+        private volatile IngestionClient.IngestionDataType dataType = null;
+        private volatile String rejectReason = null;
+
+        private Row(long lineNumber, String pvName, SubscribeDataEventDetail detail, String rejectReason) {
+            this.lineNumber = lineNumber;
+            this.pvName = pvName;
+            this.detail = detail;
+            this.rejectReason = rejectReason;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getPvName() {
+            return pvName;
+        }
+
+        /**
+         * Returns the subscription detail for the row, or null if the row could not be parsed.
+         */
+        public SubscribeDataEventDetail getDetail() {
+            return detail;
+        }
+
+        public IngestionClient.IngestionDataType getDataType() {
+            return dataType;
+        }
+
+        public String getRejectReason() {
+            return rejectReason;
+        }
+
+        public boolean isRejected() {
+            return rejectReason != null;
+        }
+
+        public boolean isAccepted() {
+            return dataType != null && rejectReason == null;
+        }
+
+        public void accept(IngestionClient.IngestionDataType dataType) {
+            this.dataType = dataType;
+        }
+
+        public void reject(String reason) {
+            this.rejectReason = reason;
+        }
+    }
+
+    /**
+     * Outcome of importing a trigger definition file.
+     */
+    public static final class ImportResult {
+
+        private final List<Row> rows;
+        private final int subscribedCount;
+        private final ResultStatus subscribeStatus;
+
+        public ImportResult(List<Row> rows, int subscribedCount, ResultStatus subscribeStatus) {
+            this.rows = Collections.unmodifiableList(rows);
+            this.subscribedCount = subscribedCount;
+            this.subscribeStatus = subscribeStatus;
+        }
+
+        public List<Row> getRows() {
+            return rows;
+        }
+
+        public int getSubscribedCount() {
+            return subscribedCount;
+        }
+
+        public int getRejectedCount() {
+            int rejectedCount = 0;
+            for (Row row : rows) {
+                if (row.isRejected()) {
+                    rejectedCount++;
+                }
+            }
+            return rejectedCount;
+        }
+
+        /**
+         * Returns the status of subscribing the accepted rows, which is an error if some could not be subscribed.
+         */
+        public ResultStatus getSubscribeStatus() {
+            return subscribeStatus;
+        }
+
+        /**
+         * Returns one line per rejected row giving its line number and reason, listing at most 200 rows.
+         */
+        public String formatRejectedRows() {
+            final StringBuilder sb = new StringBuilder();
+            int listed = 0;
+            for (Row row : rows) {
+                if (!row.isRejected()) {
+                    continue;
+                }
+                if (listed == MAX_REJECTED_ROWS_LISTED) {
+                    sb.append(String.format("... and %,d more%n", getRejectedCount() - listed));
+                    break;
+                }
+                sb.append(String.format("line %d: %s%n", row.getLineNumber(), row.getRejectReason()));
+                listed++;
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Reads the trigger definition rows from the specified CSV file.
+     */
+    public static List<Row> read(Path file) throws IOException {
+        final List<Row> rows = new ArrayList<>();
+        try (CsvReader<CsvRecord> reader = CsvReader.builder()
+                .commentStrategy(CommentStrategy.SKIP)
+                .skipEmptyLines(true)
+                .ofCsvRecord(file)) {
+            boolean firstRecord = true;
+            for (CsvRecord record : reader) {
+                final String firstField = record.getField(0).trim();
+                if (firstRecord && firstField.toLowerCase(Locale.ROOT).startsWith("pv")
+                        && record.getFieldCount() >= 3
+                        && parseCondition(record.getField(1)) == null) {
+                    firstRecord = false;
+                    continue; // header row
+                }
+                firstRecord = false;
+                rows.add(parseRow(record));
+            }
+        }
+        return rows;
+    }
+
+    private static Row parseRow(CsvRecord record) {
+        final long lineNumber = record.getStartingLineNumber();
+        if (record.getFieldCount() < 3) {
+            return new Row(lineNumber, null, null, "expected PV name, condition and value");
+        }
+        final String pvName = record.getField(0).trim();
+        final String conditionText = record.getField(1).trim();
+        final String valueText = record.getField(2).trim();
+        if (pvName.isEmpty()) {
+            return new Row(lineNumber, null, null, "missing PV name");
+        }
+        final DpApplication.TriggerCondition condition = parseCondition(conditionText);
+        if (condition == null) {
+            return new Row(lineNumber, pvName, null, "unknown condition '" + conditionText + "' for PV " + pvName);
+        }
+        if (valueText.isEmpty()) {
+            return new Row(lineNumber, pvName, null, "missing trigger value for PV " + pvName);
+        }
+        return new Row(lineNumber, pvName, new SubscribeDataEventDetail(pvName, condition, valueText), null);
+    }
+
+    /**
+     * Returns the trigger condition for an operator or TriggerCondition name, or null if not recognized.
+     */
+    public static DpApplication.TriggerCondition parseCondition(String text) {
+        final String condition = text.trim().toUpperCase(Locale.ROOT);
+        return switch (condition) {
+            case "=", "==", "EQUAL_TO" -> DpApplication.TriggerCondition.EQUAL_TO;
+            case ">", "GREATER" -> DpApplication.TriggerCondition.GREATER;
+            case ">=", "GREATER_OR_EQUAL" -> DpApplication.TriggerCondition.GREATER_OR_EQUAL;
+            case "<", "LESS" -> DpApplication.TriggerCondition.LESS;
+            case "<=", "LESS_OR_EQUAL" -> DpApplication.TriggerCondition.LESS_OR_EQUAL;
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns the subscription data type for the data type name reported in PV metadata, such as "DOUBLEVALUE", or
+     * null if triggers are not supported for it.
+     */
+    public static IngestionClient.IngestionDataType dataTypeForMetadataType(String metadataType) {
+        if (metadataType == null) {
+            return null;
+        }
+        String typeName = metadataType.trim().toUpperCase(Locale.ROOT);
+        if (typeName.endsWith("VALUE")) {
+            typeName = typeName.substring(0, typeName.length() - "VALUE".length());
+        }
+        return switch (typeName) {
+            case "UINT" -> IngestionClient.IngestionDataType.UINT;
+            case "ULONG" -> IngestionClient.IngestionDataType.ULONG;
+            case "INT" -> IngestionClient.IngestionDataType.INT;
+            case "LONG" -> IngestionClient.IngestionDataType.LONG;
+            case "FLOAT" -> IngestionClient.IngestionDataType.FLOAT;
+            case "DOUBLE" -> IngestionClient.IngestionDataType.DOUBLE;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,466 @@
+package com.ospreydcs.dp.gui.event;
+
+import com.ospreydcs.dp.grpc.v1.common.DataColumn;
+import com.ospreydcs.dp.grpc.v1.common.DataValue;
+import com.ospreydcs.dp.grpc.v1.common.Timestamp;
+import com.ospreydcs.dp.gui.model.DataFrameDetails;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Automated triage of data events, replacing the manual query, statistics and Annotation Builder steps.  For each
+ * event of a subscription with triage enabled, the pipeline takes the data window captured around the event by
+ * EventWindowCapture, computes summary statistics for each PV in parallel, saves a dataset for the window, and saves
+ * an annotation of the dataset with the statistics as its calculations.  Triage waits for the capture to complete
+ * rather than querying the window itself, so each window is queried from the archive once.
+ *
+ * Each stage is bounded so an event storm cannot overload the archive.  Events beyond the configured maximum waiting
+ * for their window are dropped and counted rather than queued, as are events whose capture was dropped.  Archive
+ * requests made by triage (dataset saves and annotation saves) share one rate limit.  Annotations are queued in a
+ * bounded queue and saved in batches by a single writer thread, and workers block when it is full, which in turn
+ * causes new events to be dropped.
+ */
+public class EventTriagePipeline {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    // configuration
+    public static final String CFG_KEY_TRIAGE_MAX_PENDING_EVENTS = "DataEvents.triageMaxPendingEvents";
+    public static final int DEFAULT_TRIAGE_MAX_PENDING_EVENTS = 500;
+    public static final String CFG_KEY_TRIAGE_REQUESTS_PER_SECOND = "DataEvents.triageRequestsPerSecond";
+    public static final int DEFAULT_TRIAGE_REQUESTS_PER_SECOND = 10;
+    public static final String CFG_KEY_TRIAGE_ANNOTATION_BATCH_SIZE = "DataEvents.triageAnnotationBatchSize";
+    public static final int DEFAULT_TRIAGE_ANNOTATION_BATCH_SIZE = 20;
+
+    public static final String CALCULATIONS_FRAME_NAME = "event-window-statistics";
+
+    private static final int TRIAGE_THREADS = 2;
+    private static final String[] STATISTIC_NAMES = {"count", "min", "max", "mean", "stddev"};
+
+    /**
+     * Archive operations used by the pipeline, each returning the id of what was saved.
+     */
+    public interface Archive {
+        String saveDataSet(String name, String description, List<String> pvNames, long beginNanos, long endNanos)
+                throws Exception;
+
+        String saveAnnotation(
+                String name,
+                String dataSetId,
+                String comment,
+                Map<String, String> attributes,
+                String eventName,
+                DataFrameDetails calculations
+        ) throws Exception;
+    }
+
+    /**
+     * Summary statistics of one PV's numeric values over an event window.
+     */
+    public static final class PvStatistics {
+
+        private final String pvName;
+        private final long count;
+        private final double min;
+        private final double max;
+        private final double mean;
+        private final double stddev;
+
+        private PvStatistics(String pvName, long count, double min, double max, double mean, double stddev) {
+            this.pvName = pvName;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.stddev = stddev;
+        }
+
+        public String getPvName() {
+            return pvName;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getStddev() {
+            return stddev;
+        }
+
+        private double[] values() {
+            return new double[] {count, min, max, mean, stddev};
+        }
+    }
+
+    /**
+     * Counts of the events triaged for one subscription.
+     */
+    public static final class Counts {
+
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong annotated = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        public long getSubmitted() {
+            return submitted.get();
+        }
+
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        public long getAnnotated() {
+            return annotated.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public long getInProgress() {
+            return Math.max(0, submitted.get() - dropped.get() - annotated.get() - failed.get());
+        }
+
+        /**
+         * Formats the counts, for example "triage: 12 annotated, 3 in progress, 1 dropped".
+         */
+        public String formatSummary() {
+            final StringBuilder sb = new StringBuilder(String.format("triage: %,d annotated", getAnnotated()));
+            if (getInProgress() > 0) {
+                sb.append(String.format(", %,d in progress", getInProgress()));
+            }
+            if (getDropped() > 0) {
+                sb.append(String.format(", %,d dropped", getDropped()));
+            }
+            if (getFailed() > 0) {
+                sb.append(String.format(", %,d failed", getFailed()));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * The triage of one event.
+     */
+    private static final class Job {
+
+        private final Counts counts;
+        private final String subscriptionName;
+        private final List<String> pvNames;
+        private final long eventNanos;
+        private final long beginNanos;
+        private final long endNanos;
+        private final Map<String, String> attributes;
+        private String dataSetId = null;
+        private List<PvStatistics> statistics = null;
+
+        private Job(
+                Counts counts,
+                String subscriptionName,
+                EventWindowCapture.Window window,
+                Map<String, String> attributes
+        ) {
+            this.counts = counts;
+            this.subscriptionName = subscriptionName;
+            this.pvNames = window.getPvNames();
+            this.eventNanos = window.getEventNanos();
+            this.beginNanos = window.getBeginNanos();
+            this.endNanos = window.getEndNanos();
+            this.attributes = attributes;
+        }
+
+        private String name() {
+            return subscriptionName + " event " + QueryResultChunk.formatTimestamp(eventNanos);
+        }
+    }
+
+    /**
+     * Spaces acquisitions evenly at no more than the configured rate, blocking callers until their turn.
+     */
+    private static final class RateLimiter {
+
+        private final long intervalNanos;
+        private long nextFreeNanos = System.nanoTime();
+
+        private RateLimiter(int permitsPerSecond) {
+            this.intervalNanos = (permitsPerSecond <= 0) ? 0 : 1_000_000_000L / permitsPerSecond;
+        }
+
+        private void acquire() throws InterruptedException {
+            if (intervalNanos == 0) {
+                return;
+            }
+            final long waitNanos;
+            synchronized (this) {
+                final long now = System.nanoTime();
+                final long slot = Math.max(now, nextFreeNanos);
+                nextFreeNanos = slot + intervalNanos;
+                waitNanos = slot - now;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+
+    private final Archive archive;
+    private final int maxPendingEvents;
+    private final int annotationBatchSize;
+    private final RateLimiter rateLimiter;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Map<Object, Counts> countsByOwner = new ConcurrentHashMap<>();
+    private final BlockingQueue<Job> annotationQueue;
+    private final ExecutorService executor;
+    private final Thread annotationWriter;
+
+    public EventTriagePipeline(Archive archive) {
+        this(archive,
+                configMgr().getConfigInteger(CFG_KEY_TRIAGE_MAX_PENDING_EVENTS, DEFAULT_TRIAGE_MAX_PENDING_EVENTS),
+                configMgr().getConfigInteger(CFG_KEY_TRIAGE_REQUESTS_PER_SECOND, DEFAULT_TRIAGE_REQUESTS_PER_SECOND),
+                configMgr().getConfigInteger(CFG_KEY_TRIAGE_ANNOTATION_BATCH_SIZE, DEFAULT_TRIAGE_ANNOTATION_BATCH_SIZE));
+    }
+
+    public EventTriagePipeline(Archive archive, int maxPendingEvents, int requestsPerSecond, int annotationBatchSize) {
+        this.archive = archive;
+        this.maxPendingEvents = Math.max(1, maxPendingEvents);
+        this.annotationBatchSize = Math.max(1, annotationBatchSize);
+        this.rateLimiter = new RateLimiter(requestsPerSecond);
+        this.annotationQueue = new ArrayBlockingQueue<>(this.maxPendingEvents);
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(TRIAGE_THREADS, runnable -> {
+            final Thread thread = new Thread(runnable, "event-triage-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.annotationWriter = new Thread(this::writeAnnotations, "event-triage-annotate");
+        this.annotationWriter.setDaemon(true);
+        this.annotationWriter.start();
+    }
+
+    private static ConfigurationManager configMgr() {
+        return ConfigurationManager.getInstance();
+    }
+
+    /**
+     * Schedules triage of an event's capture window once its capture completes, counted against the owning
+     * subscription.  The attributes are added to the event's annotation.
+     */
+    public void submit(
+            Object owner,
+            String subscriptionName,
+            EventWindowCapture.Window window,
+            Map<String, String> attributes
+    ) {
+        final Counts counts = countsByOwner.computeIfAbsent(owner, key -> new Counts());
+        counts.submitted.incrementAndGet();
+        if (pendingCount.incrementAndGet() > maxPendingEvents) {
+            pendingCount.decrementAndGet();
+            counts.dropped.incrementAndGet();
+            logger.debug("dropping event triage, {} events pending", maxPendingEvents);
+            return;
+        }
+
+        final Job job = new Job(counts, subscriptionName, window, attributes);
+        window.whenDone().thenAcceptAsync(captured -> runTriage(job, captured), executor);
+    }
+
+    /**
+     * Returns the triage counts for the specified owner, or null if none of its events have been submitted.
+     */
+    public Counts getCounts(Object owner) {
+        return countsByOwner.get(owner);
+    }
+
+    /**
+     * Stops counting triage for the specified owner.  Its events already submitted are still triaged.
+     */
+    public void discard(Object owner) {
+        countsByOwner.remove(owner);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        annotationWriter.interrupt();
+    }
+
+    /**
+     * Computes the statistics of the event's captured window and saves its dataset, then queues its annotation.
+     */
+    private void runTriage(Job job, EventWindowCapture.Window window) {
+        try {
+            switch (window.getState()) {
+                case DROPPED -> {
+                    job.counts.dropped.incrementAndGet();
+                    return;
+                }
+                case FAILED -> throw new Exception("window capture failed: " + window.getErrorMessage());
+                default -> {
+                }
+            }
+            job.statistics = computeStatistics(job.pvNames, window.getChunk());
+
+            rateLimiter.acquire();
+            job.dataSetId = archive.saveDataSet(
+                    job.name(),
+                    "Data around " + job.name() + ", saved by event triage",
+                    job.pvNames,
+                    job.beginNanos,
+                    job.endNanos);
+            annotationQueue.put(job);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            job.counts.failed.incrementAndGet();
+            logger.warn("event triage failed for {}: {}", job.name(), e.getMessage());
+        } finally {
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Saves queued annotations, taking up to annotationBatchSize at a time so a burst is written back to back.
+     */
+    private void writeAnnotations() {
+        final List<Job> batch = new ArrayList<>(annotationBatchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(annotationQueue.take());
+                annotationQueue.drainTo(batch, annotationBatchSize - 1);
+                for (Job job : batch) {
+                    rateLimiter.acquire();
+                    saveAnnotation(job);
+                }
+                logger.debug("saved batch of {} event triage annotations", batch.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void saveAnnotation(Job job) {
+        try {
+            final Map<String, String> attributes = new LinkedHashMap<>(job.attributes);
+            attributes.put("eventTime", QueryResultChunk.formatTimestamp(job.eventNanos));
+            archive.saveAnnotation(
+                    job.name(),
+                    job.dataSetId,
+                    formatComment(job.statistics),
+                    attributes,
+                    job.subscriptionName,
+                    toCalculations(job.eventNanos, job.statistics));
+            job.counts.annotated.incrementAndGet();
+        } catch (Exception e) {
+            job.counts.failed.incrementAndGet();
+            logger.warn("event triage annotation failed for {}: {}", job.name(), e.getMessage());
+        }
+    }
+
+    /**
+     * Computes the statistics of each PV's numeric values in the chunk, one PV per task in parallel.  A PV with no
+     * numeric values has a count of zero and NaN statistics.
+     */
+    public static List<PvStatistics> computeStatistics(List<String> pvNames, QueryResultChunk chunk) {
+        final QueryResultChunk ordered = (chunk == null) ? null : chunk.withPvOrder(pvNames);
+        return IntStream.range(0, pvNames.size())
+                .parallel()
+                .mapToObj(pvIndex -> computeStatistics(pvNames.get(pvIndex), ordered, pvIndex))
+                .toList();
+    }
+
+    private static PvStatistics computeStatistics(String pvName, QueryResultChunk chunk, int pvIndex) {
+        long count = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double mean = 0;
+        double sumSquares = 0;
+        if (chunk != null) {
+            final double[] values = chunk.getValueColumn(pvIndex);
+            for (int row = 0; row < chunk.getRowCount(); row++) {
+                final double value = values[row];
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                // Welford's online mean and variance
+                count++;
+                final double delta = value - mean;
+                mean += delta / count;
+                sumSquares += delta * (value - mean);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        if (count == 0) {
+            return new PvStatistics(pvName, 0, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        return new PvStatistics(pvName, count, min, max, mean, Math.sqrt(sumSquares / count));
+    }
+
+    /**
+     * Returns the statistics as a calculations data frame with a single row at the event time and a column per PV
+     * and statistic, named for example "S01-GCC01.mean".
+     */
+    public static DataFrameDetails toCalculations(long eventNanos, List<PvStatistics> statistics) {
+        final Timestamp eventTime = Timestamp.newBuilder()
+                .setEpochSeconds(Math.floorDiv(eventNanos, 1_000_000_000L))
+                .setNanoseconds(Math.floorMod(eventNanos, 1_000_000_000L))
+                .build();
+        final List<DataColumn> columns = new ArrayList<>(statistics.size() * STATISTIC_NAMES.length);
+        for (PvStatistics pvStatistics : statistics) {
+            final double[] values = pvStatistics.values();
+            for (int i = 0; i < STATISTIC_NAMES.length; i++) {
+                columns.add(DataColumn.newBuilder()
+                        .setName(pvStatistics.getPvName() + "." + STATISTIC_NAMES[i])
+                        .addDataValues(DataValue.newBuilder().setDoubleValue(values[i]).build())
+                        .build());
+            }
+        }
+        return new DataFrameDetails(CALCULATIONS_FRAME_NAME, List.of(eventTime), columns);
+    }
+
+    private static String formatComment(List<PvStatistics> statistics) {
+        final StringBuilder sb = new StringBuilder();
+        for (PvStatistics pvStatistics : statistics) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            if (pvStatistics.getCount() == 0) {
+                sb.append(String.format("%s: no values", pvStatistics.getPvName()));
+            } else {
+                sb.append(String.format("%s: min %.6g, max %.6g, mean %.6g, stddev %.6g (%,d values)",
+                        pvStatistics.getPvName(), pvStatistics.getMin(), pvStatistics.getMax(),
+                        pvStatistics.getMean(), pvStatistics.getStddev(), pvStatistics.getCount()));
+            }
+        }
+        return sb.toString();
+    }
+}
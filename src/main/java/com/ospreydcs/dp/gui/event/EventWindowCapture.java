@@ -0,0 +1,273 @@
+package com.ospreydcs.dp.gui.event;
+
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Captures the data around data events with a background query, so a captured event's data can be shown without
+ * querying the archive when it is selected.  Each capture queries the window [event - window, event + window) for
+ * its PVs once the end of the window should have been ingested, and keeps the decoded columnar chunk in memory keyed
+ * by the owning subscription and the event time.  Captured windows are evicted least recently used first when their
+ * total size exceeds the configured budget.
+ *
+ * Captures are scheduled on a small pool of daemon threads.  During an event storm, captures beyond
+ * MAX_PENDING_CAPTURES are dropped rather than queued, and are marked as such.
+ */
+public class EventWindowCapture {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    // configuration
+    public static final String CFG_KEY_CAPTURE_MAX_MEGABYTES = "DataEvents.captureMaxMegabytes";
+    public static final int DEFAULT_CAPTURE_MAX_MEGABYTES = 256;
+
+    private static final int CAPTURE_THREADS = 2;
+    private static final int MAX_PENDING_CAPTURES = 1000;
+    private static final long SETTLE_MILLIS = 2000;
+    private static final long WINDOW_OVERHEAD_BYTES = 256;
+
+    /**
+     * Queries and decodes the data for the specified PVs over [beginNanos, endNanos).
+     */
+    public interface WindowQuery {
+        QueryResultChunk query(List<String> pvNames, long beginNanos, long endNanos) throws Exception;
+    }
+
+    public enum State {
+        PENDING,
+        CAPTURED,
+        FAILED,
+        DROPPED
+    }
+
+    /**
+     * The captured data window for one event.
+     */
+    public static final class Window {
+
+        private final WindowKey key;
+        private final List<String> pvNames;
+        private final long eventNanos;
+        private final long beginNanos;
+        private final long endNanos;
+        private volatile State state = State.PENDING;
+        private volatile QueryResultChunk chunk = null;
+        private volatile String errorMessage = null;
+        private final CompletableFuture<Window> completion = new CompletableFuture<>();
+
+        private Window(WindowKey key, List<String> pvNames, long eventNanos, long beginNanos, long endNanos) {
+            this.key = key;
+            this.pvNames = List.copyOf(pvNames);
+            this.eventNanos = eventNanos;
+            this.beginNanos = beginNanos;
+            this.endNanos = endNanos;
+        }
+
+        public List<String> getPvNames() {
+            return pvNames;
+        }
+
+        public long getEventNanos() {
+            return eventNanos;
+        }
+
+        public long getBeginNanos() {
+            return beginNanos;
+        }
+
+        public long getEndNanos() {
+            return endNanos;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * Returns the captured data with columns in the order of getPvNames(), or null if not captured.
+         */
+        public QueryResultChunk getChunk() {
+            return chunk;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        /**
+         * Returns a future completed with this window once it is no longer pending, whether captured, failed or
+         * dropped, so later processing can use the captured data without querying the window again.
+         */
+        public CompletableFuture<Window> whenDone() {
+            return completion;
+        }
+
+        private long estimatedBytes() {
+            final QueryResultChunk captured = chunk;
+            if (captured == null) {
+                return WINDOW_OVERHEAD_BYTES;
+            }
+            return WINDOW_OVERHEAD_BYTES
+                    + (long) captured.getRowCount() * (Long.BYTES + (long) captured.getPvNames().size() * Double.BYTES);
+        }
+    }
+
+    private static class WindowKey {
+
+        private final Object owner;
+        private final long eventNanos;
+
+        private WindowKey(Object owner, long eventNanos) {
+            this.owner = owner;
+            this.eventNanos = eventNanos;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof WindowKey)) {
+                return false;
+            }
+            final WindowKey key = (WindowKey) other;
+            return owner == key.owner && eventNanos == key.eventNanos;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(owner), eventNanos);
+        }
+    }
+
+    private final WindowQuery windowQuery;
+    private final long maxBytes;
+    private final LinkedHashMap<WindowKey, Window> windows = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ScheduledExecutorService executor;
+    private long totalBytes = 0;
+
+    public EventWindowCapture(WindowQuery windowQuery) {
+        this(windowQuery, (long) ConfigurationManager.getInstance()
+                .getConfigInteger(CFG_KEY_CAPTURE_MAX_MEGABYTES, DEFAULT_CAPTURE_MAX_MEGABYTES) * 1024 * 1024);
+    }
+
+    public EventWindowCapture(WindowQuery windowQuery, long maxBytes) {
+        this.windowQuery = windowQuery;
+        this.maxBytes = maxBytes;
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(CAPTURE_THREADS, runnable -> {
+            final Thread thread = new Thread(runnable, "event-capture-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules capture of the window of windowNanos either side of the event for the specified PVs, keyed by the
+     * owning subscription and the event time, and returns the pending window.  The query runs once the end of the
+     * window has passed, plus a short settling time for ingestion, or after the settling time alone for events in
+     * the past.
+     */
+    public Window capture(Object owner, long eventNanos, List<String> pvNames, long windowNanos) {
+        final Window window = new Window(
+                new WindowKey(owner, eventNanos), pvNames, eventNanos, eventNanos - windowNanos, eventNanos + windowNanos);
+        synchronized (this) {
+            final Window replaced = windows.put(window.key, window);
+            if (replaced != null) {
+                totalBytes -= replaced.estimatedBytes();
+            }
+            totalBytes += window.estimatedBytes();
+        }
+
+        if (pendingCount.incrementAndGet() > MAX_PENDING_CAPTURES) {
+            pendingCount.decrementAndGet();
+            window.state = State.DROPPED;
+            window.completion.complete(window);
+            logger.debug("dropping event window capture, {} captures pending", MAX_PENDING_CAPTURES);
+            return window;
+        }
+
+        final long untilEndMillis = (window.endNanos - System.currentTimeMillis() * 1_000_000L) / 1_000_000L;
+        final long delayMillis = Math.max(0, Math.min(untilEndMillis, windowNanos / 1_000_000L)) + SETTLE_MILLIS;
+        executor.schedule(() -> runCapture(window), delayMillis, TimeUnit.MILLISECONDS);
+        return window;
+    }
+
+    /**
+     * Returns the window captured for the specified owner and event time, or null if none was captured or it has
+     * been evicted.
+     */
+    public synchronized Window getWindow(Object owner, long eventNanos) {
+        return windows.get(new WindowKey(owner, eventNanos));
+    }
+
+    /**
+     * Discards all windows captured for the specified owner.
+     */
+    public synchronized void discard(Object owner) {
+        final Iterator<Map.Entry<WindowKey, Window>> iterator = windows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<WindowKey, Window> entry = iterator.next();
+            if (entry.getKey().owner == owner) {
+                totalBytes -= entry.getValue().estimatedBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runCapture(Window window) {
+        try {
+            final QueryResultChunk chunk = windowQuery.query(window.pvNames, window.beginNanos, window.endNanos);
+            synchronized (this) {
+                final long previousBytes = window.estimatedBytes();
+                window.chunk = (chunk == null) ? null : chunk.withPvOrder(window.pvNames);
+                window.state = State.CAPTURED;
+                if (windows.get(window.key) == window) { // not evicted, discarded or replaced
+                    totalBytes += window.estimatedBytes() - previousBytes;
+                    evict();
+                }
+            }
+        } catch (Exception e) {
+            window.errorMessage = e.getMessage();
+            window.state = State.FAILED;
+            logger.warn("event window capture failed: {}", e.getMessage());
+        } finally {
+            pendingCount.decrementAndGet();
+            window.completion.complete(window);
+        }
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<WindowKey, Window>> iterator = windows.entrySet().iterator();
+        final List<Window> evicted = new ArrayList<>();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            final Window window = iterator.next().getValue();
+            totalBytes -= window.estimatedBytes();
+            evicted.add(window);
+            iterator.remove();
+        }
+        if (!evicted.isEmpty()) {
+            logger.debug("evicted {} captured event windows", evicted.size());
+        }
+    }
+}
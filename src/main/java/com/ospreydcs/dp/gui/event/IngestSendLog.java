@@ -0,0 +1,60 @@
+package com.ospreydcs.dp.gui.event;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records when the application sent each ingestData() request, by PV and the time range of the data it carried, so
+ * a data event raised for that data can be correlated with the request that delivered it.  Only the most recent
+ * MAX_REQUESTS_PER_PV requests are kept for each PV.  Methods are synchronized so requests may be recorded and looked
+ * up from any thread.
+ */
+public class IngestSendLog {
+
+    private static final int MAX_REQUESTS_PER_PV = 4096;
+
+    /**
+     * Send time of the request carrying the data for one PV that begins at the entry's key.
+     */
+    private static final class SentRequest {
+
+        private final long dataEndNanos;
+        private final long sendNanos;
+
+        private SentRequest(long dataEndNanos, long sendNanos) {
+            this.dataEndNanos = dataEndNanos;
+            this.sendNanos = sendNanos;
+        }
+    }
+
+    private final Map<String, TreeMap<Long, SentRequest>> requestsByPv = new HashMap<>();
+
+    /**
+     * Records that a request carrying data for the specified PV over [dataBeginNanos, dataEndNanos] was sent at
+     * sendNanos, all as epoch nanoseconds.
+     */
+    public synchronized void recordSend(String pvName, long dataBeginNanos, long dataEndNanos, long sendNanos) {
+        final TreeMap<Long, SentRequest> requests = requestsByPv.computeIfAbsent(pvName, name -> new TreeMap<>());
+        requests.put(dataBeginNanos, new SentRequest(dataEndNanos, sendNanos));
+        if (requests.size() > MAX_REQUESTS_PER_PV) {
+            requests.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Returns the send time in epoch nanoseconds of the request that carried the specified PV's data at eventNanos,
+     * or -1 if no recorded request covers it.
+     */
+    public synchronized long findSendNanos(String pvName, long eventNanos) {
+        final TreeMap<Long, SentRequest> requests = requestsByPv.get(pvName);
+        if (requests == null) {
+            return -1;
+        }
+        final Map.Entry<Long, SentRequest> entry = requests.floorEntry(eventNanos);
+        if (entry == null || entry.getValue().dataEndNanos < eventNanos) {
+            return -1;
+        }
+        return entry.getValue().sendNanos;
+    }
+}
@@ -0,0 +1,498 @@
+package com.ospreydcs.dp.gui.event;
+
+import com.ospreydcs.dp.grpc.v1.ingestionstream.SubscribeDataEventResponse;
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Events of many data event subscriptions merged into a single timeline ordered by event time, exposed as an
+ * ObservableList for a virtualized TableView.  Each subscription is a source whose events are kept sorted by time.
+ * The timeline shown is a k-way merge of the sources selected by the current filter, held as parallel arrays of event
+ * time, source and event, and each row object is only created when the table asks for it.
+ *
+ * The PV and condition of each source are dictionary-encoded columns with an index of the sources for each value,
+ * so a filter selects its sources from the index and merges only their events, in time proportional to the events
+ * shown rather than rescanning all events.  New events are merged into the tail of the timeline incrementally,
+ * firing a single change for each batch.  The total number of events kept is bounded by the configured capacity,
+ * evicting the oldest events first.
+ *
+ * Ties in event time are ordered by source, so the timeline and eviction agree on which events are oldest.  All
+ * methods must be called on the JavaFX Application Thread.
+ */
+public class MergedEventTimeline extends ObservableListBase<MergedEventTimeline.Row> {
+
+    // configuration
+    public static final String CFG_KEY_TIMELINE_CAPACITY = "DataEvents.timelineCapacity";
+    public static final int DEFAULT_TIMELINE_CAPACITY = 500000;
+
+    private static final int INITIAL_ARRAY_SIZE = 64;
+
+    /**
+     * One event in the timeline, with the PV and condition of its subscription.
+     */
+    public static final class Row {
+
+        private final long eventNanos;
+        private final String pvName;
+        private final String condition;
+        private final SubscribeDataEventResponse.Event event;
+
+        private Row(long eventNanos, String pvName, String condition, SubscribeDataEventResponse.Event event) {
+            this.eventNanos = eventNanos;
+            this.pvName = pvName;
+            this.condition = condition;
+            this.event = event;
+        }
+
+        public long getEventNanos() {
+            return eventNanos;
+        }
+
+        public String getPvName() {
+            return pvName;
+        }
+
+        public String getCondition() {
+            return condition;
+        }
+
+        public SubscribeDataEventResponse.Event getEvent() {
+            return event;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Row && ((Row) other).event == event && ((Row) other).eventNanos == eventNanos;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(event) * 31 + Long.hashCode(eventNanos);
+        }
+    }
+
+    /**
+     * Events of one subscription, sorted by event time.  Events are normally appended, since each subscription's
+     * events arrive in time order, and evicted from the front.
+     */
+    private static final class Source {
+
+        private final int id;
+        private final String pvName;
+        private final String condition;
+        private long[] times = new long[INITIAL_ARRAY_SIZE];
+        private SubscribeDataEventResponse.Event[] events = new SubscribeDataEventResponse.Event[INITIAL_ARRAY_SIZE];
+        private int start = 0;
+        private int end = 0;
+
+        private Source(int id, String pvName, String condition) {
+            this.id = id;
+            this.pvName = pvName;
+            this.condition = condition;
+        }
+
+        private int size() {
+            return end - start;
+        }
+
+        private void insert(long time, SubscribeDataEventResponse.Event event) {
+            if (end == times.length) {
+                final int size = size();
+                final int capacity = (size * 2 > times.length) ? times.length * 2 : times.length;
+                final long[] newTimes = new long[capacity];
+                final SubscribeDataEventResponse.Event[] newEvents = new SubscribeDataEventResponse.Event[capacity];
+                System.arraycopy(times, start, newTimes, 0, size);
+                System.arraycopy(events, start, newEvents, 0, size);
+                times = newTimes;
+                events = newEvents;
+                start = 0;
+                end = size;
+            }
+            int position = end;
+            while (position > start && times[position - 1] > time) {
+                position--;
+            }
+            System.arraycopy(times, position, times, position + 1, end - position);
+            System.arraycopy(events, position, events, position + 1, end - position);
+            times[position] = time;
+            events[position] = event;
+            end++;
+        }
+
+        private void evictFirst() {
+            events[start] = null;
+            start++;
+        }
+    }
+
+    private final int capacity;
+    private final Map<Object, Source> sourcesByKey = new HashMap<>();
+    private final List<Source> sourcesById = new ArrayList<>();
+    private final TreeMap<String, BitSet> sourcesByPv = new TreeMap<>();
+    private final TreeMap<String, BitSet> sourcesByCondition = new TreeMap<>();
+    private int totalEvents = 0;
+
+    // current filter, null for any value, and the sources it selects
+    private String pvFilter = null;
+    private String conditionFilter = null;
+    private BitSet selectedSources = new BitSet();
+
+    // the merged timeline of the selected sources
+    private long[] viewTimes = new long[INITIAL_ARRAY_SIZE];
+    private int[] viewSources = new int[INITIAL_ARRAY_SIZE];
+    private SubscribeDataEventResponse.Event[] viewEvents = new SubscribeDataEventResponse.Event[INITIAL_ARRAY_SIZE];
+    private int viewSize = 0;
+
+    public MergedEventTimeline() {
+        this(ConfigurationManager.getInstance().getConfigInteger(CFG_KEY_TIMELINE_CAPACITY, DEFAULT_TIMELINE_CAPACITY));
+    }
+
+    public MergedEventTimeline(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    @Override
+    public Row get(int index) {
+        if (index < 0 || index >= viewSize) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        final Source source = sourcesById.get(viewSources[index]);
+        return new Row(viewTimes[index], source.pvName, source.condition, viewEvents[index]);
+    }
+
+    @Override
+    public int size() {
+        return viewSize;
+    }
+
+    /**
+     * Returns the total number of events held, whether or not the current filter selects them.
+     */
+    public int getTotalEventCount() {
+        return totalEvents;
+    }
+
+    /**
+     * Returns the PV names of the sources, sorted, for choosing a filter.
+     */
+    public List<String> getPvNames() {
+        return new ArrayList<>(sourcesByPv.keySet());
+    }
+
+    /**
+     * Returns the conditions of the sources, sorted, for choosing a filter.
+     */
+    public List<String> getConditions() {
+        return new ArrayList<>(sourcesByCondition.keySet());
+    }
+
+    /**
+     * Adds a source identified by key, such as a subscription, with its PV, condition and initial events, which need
+     * not be sorted.
+     */
+    public void addSource(
+            Object key, String pvName, String condition, List<SubscribeDataEventResponse.Event> initialEvents
+    ) {
+        if (sourcesByKey.containsKey(key)) {
+            return;
+        }
+        final Source source = new Source(sourcesById.size(), pvName, condition);
+        sourcesById.add(source);
+        sourcesByKey.put(key, source);
+        sourcesByPv.computeIfAbsent(pvName, name -> new BitSet()).set(source.id);
+        sourcesByCondition.computeIfAbsent(condition, name -> new BitSet()).set(source.id);
+        for (SubscribeDataEventResponse.Event event : initialEvents) {
+            source.insert(eventNanos(event), event);
+        }
+        totalEvents += source.size();
+        if (matchesFilter(source)) {
+            selectedSources.set(source.id);
+            rebuildView();
+        }
+        evictOverCapacity();
+    }
+
+    /**
+     * Removes the source identified by key and its events.
+     */
+    public void removeSource(Object key) {
+        final Source source = sourcesByKey.remove(key);
+        if (source == null) {
+            return;
+        }
+        clearIndex(sourcesByPv, source.pvName, source.id);
+        clearIndex(sourcesByCondition, source.condition, source.id);
+        totalEvents -= source.size();
+        Arrays.fill(source.events, null);
+        source.start = source.end = 0;
+        if (selectedSources.get(source.id)) {
+            selectedSources.clear(source.id);
+            rebuildView();
+        }
+    }
+
+    /**
+     * Adds a batch of new events for the source identified by key, merging them into the timeline if the current
+     * filter selects the source.
+     */
+    public void append(Object key, List<SubscribeDataEventResponse.Event> batch) {
+        final Source source = sourcesByKey.get(key);
+        if (source == null || batch.isEmpty()) {
+            return;
+        }
+        final long[] batchTimes = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            batchTimes[i] = eventNanos(batch.get(i));
+            source.insert(batchTimes[i], batch.get(i));
+        }
+        totalEvents += batch.size();
+        if (selectedSources.get(source.id)) {
+            mergeIntoView(source.id, batchTimes, batch);
+        }
+        evictOverCapacity();
+    }
+
+    /**
+     * Shows only the events of sources with the specified PV and condition, either of which may be null to match
+     * any value.
+     */
+    public void setFilter(String pvName, String condition) {
+        pvFilter = pvName;
+        conditionFilter = condition;
+        final BitSet selected = new BitSet();
+        for (Source source : sourcesByKey.values()) {
+            selected.set(source.id);
+        }
+        if (pvName != null) {
+            selected.and(sourcesByPv.getOrDefault(pvName, new BitSet()));
+        }
+        if (condition != null) {
+            selected.and(sourcesByCondition.getOrDefault(condition, new BitSet()));
+        }
+        selectedSources = selected;
+        rebuildView();
+    }
+
+    private boolean matchesFilter(Source source) {
+        return (pvFilter == null || pvFilter.equals(source.pvName))
+                && (conditionFilter == null || conditionFilter.equals(source.condition));
+    }
+
+    private static void clearIndex(TreeMap<String, BitSet> index, String value, int sourceId) {
+        final BitSet sources = index.get(value);
+        sources.clear(sourceId);
+        if (sources.isEmpty()) {
+            index.remove(value);
+        }
+    }
+
+    /**
+     * Rebuilds the timeline with a k-way merge of the selected sources.
+     */
+    private void rebuildView() {
+        int selectedCount = 0;
+        final PriorityQueue<int[]> cursors = new PriorityQueue<>(this::compareCursors);
+        for (int id = selectedSources.nextSetBit(0); id >= 0; id = selectedSources.nextSetBit(id + 1)) {
+            final Source source = sourcesById.get(id);
+            if (source.size() > 0) {
+                cursors.add(new int[] {id, source.start});
+                selectedCount += source.size();
+            }
+        }
+
+        final List<Row> removed = rowsOf(viewTimes, viewSources, viewEvents, 0, viewSize);
+        final long[] times = new long[Math.max(INITIAL_ARRAY_SIZE, selectedCount)];
+        final int[] sources = new int[times.length];
+        final SubscribeDataEventResponse.Event[] events = new SubscribeDataEventResponse.Event[times.length];
+        int size = 0;
+        while (!cursors.isEmpty()) {
+            final int[] cursor = cursors.poll();
+            final Source source = sourcesById.get(cursor[0]);
+            times[size] = source.times[cursor[1]];
+            sources[size] = source.id;
+            events[size] = source.events[cursor[1]];
+            size++;
+            if (++cursor[1] < source.end) {
+                cursors.add(cursor);
+            }
+        }
+
+        viewTimes = times;
+        viewSources = sources;
+        viewEvents = events;
+        viewSize = size;
+        beginChange();
+        if (!removed.isEmpty()) {
+            nextRemove(0, removed);
+        }
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    private int compareCursors(int[] a, int[] b) {
+        final int byTime = Long.compare(sourcesById.get(a[0]).times[a[1]], sourcesById.get(b[0]).times[b[1]]);
+        return (byTime != 0) ? byTime : Integer.compare(a[0], b[0]);
+    }
+
+    /**
+     * Merges a batch of events from one source into the tail of the timeline, from the first row ordered after the
+     * batch's earliest event.  Since batches are normally later than the timeline, this is usually an append.
+     */
+    private void mergeIntoView(int sourceId, long[] batchTimes, List<SubscribeDataEventResponse.Event> batch) {
+        final Integer[] order = new Integer[batch.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(batchTimes[a], batchTimes[b]));
+
+        // find the first row after the earliest batch event, ordering by time then source
+        final long firstTime = batchTimes[order[0]];
+        int low = 0;
+        int high = viewSize;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (viewTimes[mid] < firstTime || (viewTimes[mid] == firstTime && viewSources[mid] <= sourceId)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        final int mergeFrom = low;
+
+        // merge the tail from that row with the batch
+        final int tailSize = viewSize - mergeFrom;
+        final List<Row> removed = rowsOf(viewTimes, viewSources, viewEvents, mergeFrom, viewSize);
+        final long[] tailTimes = Arrays.copyOfRange(viewTimes, mergeFrom, viewSize);
+        final int[] tailSources = Arrays.copyOfRange(viewSources, mergeFrom, viewSize);
+        final SubscribeDataEventResponse.Event[] tailEvents = Arrays.copyOfRange(viewEvents, mergeFrom, viewSize);
+        ensureViewCapacity(viewSize + batch.size());
+        int tail = 0;
+        int next = 0;
+        int position = mergeFrom;
+        while (tail < tailSize || next < order.length) {
+            final boolean takeTail = next == order.length || (tail < tailSize
+                    && (tailTimes[tail] < batchTimes[order[next]]
+                    || (tailTimes[tail] == batchTimes[order[next]] && tailSources[tail] <= sourceId)));
+            if (takeTail) {
+                viewTimes[position] = tailTimes[tail];
+                viewSources[position] = tailSources[tail];
+                viewEvents[position] = tailEvents[tail];
+                tail++;
+            } else {
+                viewTimes[position] = batchTimes[order[next]];
+                viewSources[position] = sourceId;
+                viewEvents[position] = batch.get(order[next]);
+                next++;
+            }
+            position++;
+        }
+        viewSize = position;
+
+        beginChange();
+        if (tailSize == 0) {
+            nextAdd(mergeFrom, viewSize);
+        } else {
+            nextReplace(mergeFrom, viewSize, removed);
+        }
+        endChange();
+    }
+
+    private void ensureViewCapacity(int size) {
+        if (size <= viewTimes.length) {
+            return;
+        }
+        final int newLength = Math.max(size, viewTimes.length * 2);
+        viewTimes = Arrays.copyOf(viewTimes, newLength);
+        viewSources = Arrays.copyOf(viewSources, newLength);
+        viewEvents = Arrays.copyOf(viewEvents, newLength);
+    }
+
+    /**
+     * Evicts the oldest events across all sources until the total is within capacity, removing a sixteenth of the
+     * capacity at a time so eviction is amortized over many appends.
+     */
+    private void evictOverCapacity() {
+        if (totalEvents <= capacity) {
+            return;
+        }
+        final int evictCount = totalEvents - capacity + capacity / 16;
+        final PriorityQueue<int[]> cursors = new PriorityQueue<>(this::compareCursors);
+        for (Source source : sourcesByKey.values()) {
+            if (source.size() > 0) {
+                cursors.add(new int[] {source.id, source.start});
+            }
+        }
+        int evictedFromView = 0;
+        for (int i = 0; i < evictCount && !cursors.isEmpty(); i++) {
+            final int[] cursor = cursors.poll();
+            final Source source = sourcesById.get(cursor[0]);
+            source.evictFirst();
+            totalEvents--;
+            if (selectedSources.get(source.id)) {
+                evictedFromView++;
+            }
+            cursor[1] = source.start;
+            if (source.size() > 0) {
+                cursors.add(cursor);
+            }
+        }
+
+        // the events evicted from selected sources are the oldest rows of the timeline
+        if (evictedFromView > 0) {
+            final List<Row> removed = rowsOf(viewTimes, viewSources, viewEvents, 0, evictedFromView);
+            final int remaining = viewSize - evictedFromView;
+            System.arraycopy(viewTimes, evictedFromView, viewTimes, 0, remaining);
+            System.arraycopy(viewSources, evictedFromView, viewSources, 0, remaining);
+            System.arraycopy(viewEvents, evictedFromView, viewEvents, 0, remaining);
+            Arrays.fill(viewEvents, remaining, viewSize, null);
+            viewSize = remaining;
+            beginChange();
+            nextRemove(0, removed);
+            endChange();
+        }
+    }
+
+    /**
+     * Returns a list of rows created on demand from copies of the specified range of timeline columns, for reporting
+     * removed rows without creating them all.
+     */
+    private List<Row> rowsOf(
+            long[] times, int[] sources, SubscribeDataEventResponse.Event[] events, int from, int to
+    ) {
+        if (from >= to) {
+            return List.of();
+        }
+        final long[] rangeTimes = Arrays.copyOfRange(times, from, to);
+        final int[] rangeSources = Arrays.copyOfRange(sources, from, to);
+        final SubscribeDataEventResponse.Event[] rangeEvents = Arrays.copyOfRange(events, from, to);
+        final List<Source> sourceList = new ArrayList<>(sourcesById);
+        return new AbstractList<>() {
+            @Override
+            public Row get(int index) {
+                final Source source = sourceList.get(rangeSources[index]);
+                return new Row(rangeTimes[index], source.pvName, source.condition, rangeEvents[index]);
+            }
+
+            @Override
+            public int size() {
+                return rangeTimes.length;
+            }
+        };
+    }
+
+    private static long eventNanos(SubscribeDataEventResponse.Event event) {
+        return event.getEventTime().getEpochSeconds() * 1_000_000_000L + event.getEventTime().getNanoseconds();
+    }
+}
@@ -0,0 +1,214 @@
+package com.ospreydcs.dp.gui.live;
+
+import com.ospreydcs.dp.grpc.v1.common.DataBucket;
+import com.ospreydcs.dp.grpc.v1.common.DataColumn;
+import com.ospreydcs.dp.grpc.v1.common.DataTimestamps;
+import com.ospreydcs.dp.grpc.v1.common.DataValue;
+import com.ospreydcs.dp.grpc.v1.common.Timestamp;
+import com.ospreydcs.dp.grpc.v1.ingestion.DpIngestionServiceGrpc;
+import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataRequest;
+import com.ospreydcs.dp.grpc.v1.ingestion.SubscribeDataResponse;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import io.grpc.ManagedChannel;
+import io.grpc.stub.StreamObserver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live subscription to data ingested for a list of PVs, using the ingestion service's bidirectional subscribeData
+ * stream on the same channel the ingestion stream service subscribes through.  Each numeric sample received is
+ * added to a fixed-capacity PvRingBuffer for its PV, so memory use does not grow while the subscription runs.
+ * Non-numeric values and serialized data columns are skipped.
+ *
+ * Responses arrive on a gRPC thread; the ring buffers may be read from any thread.
+ */
+public class LiveDataSubscription {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private final List<String> pvNames;
+    private final List<PvRingBuffer> buffers;
+    private final Map<String, PvRingBuffer> buffersByPvName = new HashMap<>();
+    private StreamObserver<SubscribeDataRequest> requestObserver = null;
+    private volatile boolean active = false;
+    private volatile boolean acknowledged = false;
+    private volatile String errorMessage = null;
+
+    private LiveDataSubscription(List<String> pvNames, int capacityPerPv) {
+        this.pvNames = Collections.unmodifiableList(new ArrayList<>(pvNames));
+        final List<PvRingBuffer> buffers = new ArrayList<>(pvNames.size());
+        for (String pvName : this.pvNames) {
+            final PvRingBuffer buffer = new PvRingBuffer(pvName, capacityPerPv);
+            buffers.add(buffer);
+            buffersByPvName.put(pvName, buffer);
+        }
+        this.buffers = Collections.unmodifiableList(buffers);
+    }
+
+    /**
+     * Opens a subscription for the specified PVs on the specified ingestion service channel, buffering up to
+     * capacityPerPv of the most recent samples for each PV.
+     */
+    public static LiveDataSubscription start(ManagedChannel ingestionChannel, List<String> pvNames, int capacityPerPv) {
+        final LiveDataSubscription subscription = new LiveDataSubscription(pvNames, capacityPerPv);
+        subscription.active = true;
+        subscription.requestObserver = DpIngestionServiceGrpc.newStub(ingestionChannel)
+                .subscribeData(subscription.new ResponseObserver());
+        subscription.requestObserver.onNext(SubscribeDataRequest.newBuilder()
+                .setNewSubscription(SubscribeDataRequest.NewSubscription.newBuilder()
+                        .addAllPvNames(subscription.pvNames)
+                        .build())
+                .build());
+        logger.debug("live data subscription started for {} PVs", pvNames.size());
+        return subscription;
+    }
+
+    /**
+     * Cancels the subscription and closes the request stream.  The ring buffers keep their contents.
+     */
+    public synchronized void cancel() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        try {
+            requestObserver.onNext(SubscribeDataRequest.newBuilder()
+                    .setCancelSubscription(SubscribeDataRequest.CancelSubscription.newBuilder().build())
+                    .build());
+            requestObserver.onCompleted();
+        } catch (RuntimeException ex) {
+            logger.debug("live data subscription cancel failed: {}", ex.getMessage());
+        }
+        logger.debug("live data subscription cancelled");
+    }
+
+    public List<String> getPvNames() {
+        return pvNames;
+    }
+
+    /**
+     * Returns the ring buffers in the order of getPvNames().
+     */
+    public List<PvRingBuffer> getBuffers() {
+        return buffers;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Returns true once the service has acknowledged the subscription.
+     */
+    public boolean isAcknowledged() {
+        return acknowledged;
+    }
+
+    /**
+     * Returns the error reported by the service or the stream, or null if there was none.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public long getSamplesReceived() {
+        long samples = 0;
+        for (PvRingBuffer buffer : buffers) {
+            samples += buffer.getTotalAdded();
+        }
+        return samples;
+    }
+
+    private void addBucket(DataBucket bucket) {
+        if (!bucket.hasDataColumn()) {
+            logger.debug("live data subscription skipping bucket without a data column");
+            return;
+        }
+        final DataColumn dataColumn = bucket.getDataColumn();
+        final PvRingBuffer buffer = buffersByPvName.get(dataColumn.getName());
+        if (buffer == null) {
+            return;
+        }
+
+        final DataTimestamps dataTimestamps = bucket.getDataTimestamps();
+        final int valueCount = dataColumn.getDataValuesCount();
+        if (dataTimestamps.hasTimestampList()) {
+            final var timestampList = dataTimestamps.getTimestampList();
+            final int count = Math.min(valueCount, timestampList.getTimestampsCount());
+            for (int i = 0; i < count; i++) {
+                final Timestamp timestamp = timestampList.getTimestamps(i);
+                addValue(buffer, QueryResultChunk.toEpochNanos(timestamp.getEpochSeconds(), timestamp.getNanoseconds()),
+                        dataColumn.getDataValues(i));
+            }
+        } else if (dataTimestamps.hasSamplingClock()) {
+            final var samplingClock = dataTimestamps.getSamplingClock();
+            final long startNanos = QueryResultChunk.toEpochNanos(
+                    samplingClock.getStartTime().getEpochSeconds(), samplingClock.getStartTime().getNanoseconds());
+            final long periodNanos = samplingClock.getPeriodNanos();
+            final int count = Math.min(valueCount, samplingClock.getCount());
+            for (int i = 0; i < count; i++) {
+                addValue(buffer, startNanos + i * periodNanos, dataColumn.getDataValues(i));
+            }
+        }
+    }
+
+    private static void addValue(PvRingBuffer buffer, long epochNanos, DataValue value) {
+        switch (value.getValueCase()) {
+            case DOUBLEVALUE -> buffer.add(epochNanos, value.getDoubleValue());
+            case FLOATVALUE -> buffer.add(epochNanos, value.getFloatValue());
+            case INTVALUE -> buffer.add(epochNanos, value.getIntValue());
+            case UINTVALUE -> buffer.add(epochNanos, Integer.toUnsignedLong(value.getUintValue()));
+            case LONGVALUE -> buffer.add(epochNanos, value.getLongValue());
+            case ULONGVALUE -> buffer.add(epochNanos, value.getUlongValue());
+            case BOOLEANVALUE -> buffer.add(epochNanos, value.getBooleanValue() ? 1 : 0);
+            default -> {
+                // non-numeric values are not charted
+            }
+        }
+    }
+
+    private class ResponseObserver implements StreamObserver<SubscribeDataResponse> {
+
+        @Override
+        public void onNext(SubscribeDataResponse response) {
+            switch (response.getResultCase()) {
+                case EXCEPTIONALRESULT -> {
+                    errorMessage = response.getExceptionalResult().getMessage();
+                    active = false;
+                    logger.error("live data subscription rejected: {}", errorMessage);
+                }
+                case ACKRESULT -> {
+                    acknowledged = true;
+                    logger.debug("live data subscription acknowledged");
+                }
+                case SUBSCRIBEDATARESULT -> {
+                    for (DataBucket bucket : response.getSubscribeDataResult().getDataBucketsList()) {
+                        addBucket(bucket);
+                    }
+                }
+                default -> logger.warn("live data subscription received unexpected response: {}", response.getResultCase());
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (active) {
+                errorMessage = t.getMessage();
+                logger.error("live data subscription stream error: {}", t.getMessage());
+            }
+            active = false;
+        }
+
+        @Override
+        public void onCompleted() {
+            active = false;
+            logger.debug("live data subscription stream completed");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ospreydcs.dp.gui.live;
+
+/**
+ * Fixed-capacity ring buffer of timestamped samples for a single PV, held in primitive arrays allocated once.  When
+ * full, each new sample overwrites the oldest, so memory use is constant however long samples keep arriving.
+ * Samples are added by the subscription's response thread and copied out by the chart on the JavaFX thread, so
+ * access is synchronized.
+ */
+public class PvRingBuffer {
+
+    private final String pvName;
+    private final long[] timestampNanos;
+    private final double[] values;
+    private int next = 0;
+    private int size = 0;
+    private long totalAdded = 0;
+    private long latestTimestampNanos = Long.MIN_VALUE;
+
+    public PvRingBuffer(String pvName, int capacity) {
+        this.pvName = pvName;
+        this.timestampNanos = new long[Math.max(1, capacity)];
+        this.values = new double[Math.max(1, capacity)];
+    }
+
+    public String getPvName() {
+        return pvName;
+    }
+
+    public int getCapacity() {
+        return values.length;
+    }
+
+    public synchronized void add(long epochNanos, double value) {
+        timestampNanos[next] = epochNanos;
+        values[next] = value;
+        next = (next + 1 == values.length) ? 0 : next + 1;
+        if (size < values.length) {
+            size++;
+        }
+        totalAdded++;
+        if (epochNanos > latestTimestampNanos) {
+            latestTimestampNanos = epochNanos;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of samples added since the buffer was created, including those since overwritten.
+     */
+    public synchronized long getTotalAdded() {
+        return totalAdded;
+    }
+
+    /**
+     * Returns the latest sample timestamp in epoch nanoseconds, or Long.MIN_VALUE if no sample has been added.
+     */
+    public synchronized long getLatestTimestampNanos() {
+        return latestTimestampNanos;
+    }
+
+    /**
+     * Copies the buffered samples, oldest first, into the specified arrays, which must have at least getCapacity()
+     * elements, and returns the number copied.
+     */
+    public synchronized int copyTo(long[] timestampsOut, double[] valuesOut) {
+        final int first = (size < values.length) ? 0 : next;
+        final int firstLength = Math.min(size, values.length - first);
+        System.arraycopy(timestampNanos, first, timestampsOut, 0, firstLength);
+        System.arraycopy(values, first, valuesOut, 0, firstLength);
+        System.arraycopy(timestampNanos, 0, timestampsOut, firstLength, size - firstLength);
+        System.arraycopy(values, 0, valuesOut, firstLength, size - firstLength);
+        return size;
+    }
+}
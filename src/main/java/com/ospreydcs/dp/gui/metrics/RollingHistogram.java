@@ -0,0 +1,163 @@
+package com.ospreydcs.dp.gui.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of durations over a rolling time window, divided into slots that are cleared as the window moves past
+ * them.  Durations are counted in log-scale buckets with four sub-buckets per power of two microseconds, so
+ * percentiles are accurate to within 25% while recording is O(1) and allocation free.  Methods are synchronized so
+ * durations may be recorded from any thread.
+ */
+public class RollingHistogram {
+
+    static final int BUCKET_COUNT = 160;
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Statistics of the durations recorded within the window when the snapshot was taken.
+     */
+    public static final class Snapshot {
+
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] bucketCounts;
+
+        private Snapshot(long count, long totalNanos, long maxNanos, long[] bucketCounts) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.bucketCounts = bucketCounts;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return (count == 0) ? 0 : totalNanos / count;
+        }
+
+        /**
+         * Returns the upper bound of the bucket containing the specified percentile (0 to 100), capped at the
+         * maximum recorded duration, or 0 if nothing was recorded.
+         */
+        public long getPercentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+            long cumulative = 0;
+            for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+                cumulative += bucketCounts[bucket];
+                if (cumulative >= rank) {
+                    return Math.min(maxNanos, bucketUpperMicros(bucket) * 1_000L);
+                }
+            }
+            return maxNanos;
+        }
+
+        /**
+         * Returns the count in each bucket, indexed as by bucketIndex().
+         */
+        public long[] getBucketCounts() {
+            return bucketCounts.clone();
+        }
+    }
+
+    private final long slotNanos;
+    private final long[][] slotBuckets;
+    private final long[] slotEpochs;
+    private final long[] slotCounts;
+    private final long[] slotTotals;
+    private final long[] slotMax;
+
+    /**
+     * Creates a histogram covering the most recent windowMillis, divided into the specified number of slots.
+     */
+    public RollingHistogram(long windowMillis, int slotCount) {
+        this.slotNanos = Math.max(1, windowMillis * 1_000_000L / slotCount);
+        this.slotBuckets = new long[slotCount][BUCKET_COUNT];
+        this.slotEpochs = new long[slotCount];
+        this.slotCounts = new long[slotCount];
+        this.slotTotals = new long[slotCount];
+        this.slotMax = new long[slotCount];
+        Arrays.fill(slotEpochs, -1);
+    }
+
+    public void record(long durationNanos) {
+        record(durationNanos, System.nanoTime());
+    }
+
+    synchronized void record(long durationNanos, long nowNanos) {
+        final long epoch = nowNanos / slotNanos;
+        final int slot = (int) Math.floorMod(epoch, (long) slotEpochs.length);
+        if (slotEpochs[slot] != epoch) {
+            Arrays.fill(slotBuckets[slot], 0);
+            slotEpochs[slot] = epoch;
+            slotCounts[slot] = 0;
+            slotTotals[slot] = 0;
+            slotMax[slot] = 0;
+        }
+        final long nanos = Math.max(0, durationNanos);
+        slotBuckets[slot][bucketIndex(nanos)]++;
+        slotCounts[slot]++;
+        slotTotals[slot] += nanos;
+        slotMax[slot] = Math.max(slotMax[slot], nanos);
+    }
+
+    public Snapshot snapshot() {
+        return snapshot(System.nanoTime());
+    }
+
+    synchronized Snapshot snapshot(long nowNanos) {
+        final long currentEpoch = nowNanos / slotNanos;
+        final long[] buckets = new long[BUCKET_COUNT];
+        long count = 0;
+        long total = 0;
+        long max = 0;
+        for (int slot = 0; slot < slotEpochs.length; slot++) {
+            if (slotEpochs[slot] < 0 || currentEpoch - slotEpochs[slot] >= slotEpochs.length) {
+                continue;
+            }
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                buckets[bucket] += slotBuckets[slot][bucket];
+            }
+            count += slotCounts[slot];
+            total += slotTotals[slot];
+            max = Math.max(max, slotMax[slot]);
+        }
+        return new Snapshot(count, total, max, buckets);
+    }
+
+    /**
+     * Returns the bucket for the specified duration: one bucket per microsecond below 4 microseconds, then four
+     * buckets per power of two.
+     */
+    static int bucketIndex(long nanos) {
+        final long micros = nanos / 1_000L;
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        final int octave = 63 - Long.numberOfLeadingZeros(micros);
+        final int subBucket = (int) ((micros >>> (octave - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return Math.min(BUCKET_COUNT - 1, (octave - 1) * SUB_BUCKETS + subBucket);
+    }
+
+    /**
+     * Returns the exclusive upper bound, in microseconds, of the specified bucket.
+     */
+    public static long bucketUpperMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+        final int octave = bucket / SUB_BUCKETS + 1;
+        final int subBucket = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket + 1) << (octave - SUB_BUCKET_BITS);
+    }
+}
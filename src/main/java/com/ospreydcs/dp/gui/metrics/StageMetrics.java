@@ -0,0 +1,148 @@
+package com.ospreydcs.dp.gui.metrics;
+
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Timing instrumentation for the stages between a Data Explorer query and the pixels on screen.  Each stage records
+ * its durations into a RollingHistogram covering the last WINDOW_MILLIS, for display in the chart timing HUD, and
+ * commits a StageTimingEvent when Flight Recorder is recording it, either from a recording started here or one
+ * started externally with -XX:StartFlightRecording.  record() may be called from any thread.
+ */
+public final class StageMetrics {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    public static final long WINDOW_MILLIS = 10_000;
+    private static final int WINDOW_SLOTS = 10;
+
+    /**
+     * Frame budget of a 60 Hz display, against which work on the JavaFX Application Thread is compared.
+     */
+    public static final long FRAME_BUDGET_NANOS = 1_000_000_000L / 60;
+
+    public enum Stage {
+        RPC("RPC", false),
+        DECODE("Decode", false),
+        FX_DISPATCH("FX dispatch", false),
+        DECIMATION("Decimation", false),
+        RENDER("Render", true),
+        LAYOUT("Layout", true),
+        LIVE_TAIL("Live tail", true); // live tail chart frames, kept apart from the results chart's RENDER
+
+        private final String label;
+        private final boolean fxThread;
+
+        Stage(String label, boolean fxThread) {
+            this.label = label;
+            this.fxThread = fxThread;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Returns true if the stage runs on the JavaFX Application Thread, and so counts against the frame budget.
+         */
+        public boolean isFxThread() {
+            return fxThread;
+        }
+    }
+
+    private static final Map<Stage, RollingHistogram> histograms = new EnumMap<>(Stage.class);
+    private static final EventType eventType = EventType.getEventType(StageTimingEvent.class);
+    private static Recording recording = null;
+
+    static {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new RollingHistogram(WINDOW_MILLIS, WINDOW_SLOTS));
+        }
+    }
+
+    private StageMetrics() {
+    }
+
+    public static void record(Stage stage, long durationNanos) {
+        histograms.get(stage).record(durationNanos);
+        if (eventType.isEnabled()) {
+            final StageTimingEvent event = new StageTimingEvent();
+            event.stage = stage.getLabel();
+            event.elapsed = durationNanos;
+            event.commit();
+        }
+    }
+
+    public static RollingHistogram.Snapshot snapshot(Stage stage) {
+        return histograms.get(stage).snapshot();
+    }
+
+    /**
+     * Formats one line per stage with its count and percentiles over the rolling window, marking JavaFX thread
+     * stages whose 95th percentile exceeds the frame budget.
+     */
+    public static String formatSummary() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Stage timings, last %d s (frame budget %.1f ms)%n",
+                WINDOW_MILLIS / 1_000, FRAME_BUDGET_NANOS / 1_000_000.0));
+        sb.append(String.format("%-12s %6s %9s %9s %9s%n", "stage", "count", "p50 ms", "p95 ms", "max ms"));
+        for (Stage stage : Stage.values()) {
+            final RollingHistogram.Snapshot snapshot = snapshot(stage);
+            final long p95 = snapshot.getPercentileNanos(95);
+            sb.append(String.format("%-12s %6d %9.2f %9.2f %9.2f%s%n",
+                    stage.getLabel(),
+                    snapshot.getCount(),
+                    snapshot.getPercentileNanos(50) / 1_000_000.0,
+                    p95 / 1_000_000.0,
+                    snapshot.getMaxNanos() / 1_000_000.0,
+                    (stage.isFxThread() && p95 > FRAME_BUDGET_NANOS) ? "  over budget" : ""));
+        }
+        return sb.toString().stripTrailing();
+    }
+
+    /**
+     * Starts a Flight Recorder recording of stage timing events, if one is not already running.
+     */
+    public static synchronized void startRecording() {
+        if (recording != null) {
+            return;
+        }
+        recording = new Recording();
+        recording.setName("Data Explorer stage timings");
+        recording.enable(StageTimingEvent.class);
+        recording.start();
+        logger.debug("stage timing recording started");
+    }
+
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Writes the events recorded so far to the specified file, which can be opened in JDK Mission Control or read
+     * with the jfr tool.  The recording continues.
+     */
+    public static synchronized void dumpRecording(Path path) throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("stage timing recording is not running");
+        }
+        recording.dump(path);
+        logger.info("stage timing recording written to {}", path);
+    }
+
+    public static synchronized void stopRecording() {
+        if (recording == null) {
+            return;
+        }
+        recording.close();
+        recording = null;
+        logger.debug("stage timing recording stopped");
+    }
+}
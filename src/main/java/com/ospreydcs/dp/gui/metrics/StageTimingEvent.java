@@ -0,0 +1,28 @@
+package com.ospreydcs.dp.gui.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event for one timed Data Explorer stage, committed by StageMetrics when the event is enabled
+ * in a running recording.
+ */
+@Name("com.ospreydcs.dp.gui.StageTiming")
+@Label("Data Explorer Stage Timing")
+@Category({ "DP Desktop", "Data Explorer" })
+@Description("Duration of one query, decode, dispatch, decimation, render or layout stage")
+@StackTrace(false)
+class StageTimingEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
@@ -1,18 +1,18 @@
 package com.ospreydcs.dp.gui.model;
 
-import com.ospreydcs.dp.client.IngestionStreamClient;
+import com.ospreydcs.dp.gui.event.DataEventFeed;
 
 public class DataEventSubscription {
 
     public final SubscribeDataEventDetail subscriptionDetail;
-    public final IngestionStreamClient.SubscribeDataEventCall subscribeDataEventCall;
+    public final DataEventFeed eventFeed;
 
     public DataEventSubscription(
             SubscribeDataEventDetail subscriptionDetail,
-            IngestionStreamClient.SubscribeDataEventCall subscribeDataEventCall
+            DataEventFeed eventFeed
     ) {
         this.subscriptionDetail = subscriptionDetail;
-        this.subscribeDataEventCall = subscribeDataEventCall;
+        this.eventFeed = eventFeed;
     }
 
     /**
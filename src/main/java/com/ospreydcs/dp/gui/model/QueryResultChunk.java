@@ -0,0 +1,230 @@
+package com.ospreydcs.dp.gui.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Block of decoded query table data held in preallocated primitive columns.
+ * Timestamps are stored as epoch nanoseconds, numeric PV values as doubles (NaN where a row has no value
+ * for the PV), and string PV values in a lazily allocated text column.  A PV column is integral, and its values
+ * displayed as integers, only if every numeric value written to it was integral; a column mixing integer and
+ * floating point values is displayed as floating point.
+ * Disjoint row ranges of a chunk may be written by different threads while it is being decoded.
+ */
+public class QueryResultChunk {
+
+    public static final String TIMESTAMP_COLUMN = "timestamp";
+    public static final String NOT_AVAILABLE = "N/A";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final List<String> pvNames;
+    private final long[] timestampNanos;
+    private final double[][] values;
+    private final String[][] textValues;
+    private final boolean[] integral;
+    private final boolean[] fractional;
+    private final int rowCount;
+
+    public QueryResultChunk(List<String> pvNames, int rowCount) {
+        this.pvNames = Collections.unmodifiableList(new ArrayList<>(pvNames));
+        this.rowCount = rowCount;
+        this.timestampNanos = new long[rowCount];
+        this.values = new double[pvNames.size()][rowCount];
+        this.textValues = new String[pvNames.size()][];
+        this.integral = new boolean[pvNames.size()];
+        this.fractional = new boolean[pvNames.size()];
+    }
+
+    private QueryResultChunk(
+            List<String> pvNames,
+            int rowCount,
+            long[] timestampNanos,
+            double[][] values,
+            String[][] textValues,
+            boolean[] integral,
+            boolean[] fractional
+    ) {
+        this.pvNames = Collections.unmodifiableList(new ArrayList<>(pvNames));
+        this.rowCount = rowCount;
+        this.timestampNanos = timestampNanos;
+        this.values = values;
+        this.textValues = textValues;
+        this.integral = integral;
+        this.fractional = fractional;
+    }
+
+    /**
+     * Returns a chunk with its PV columns in the specified order, sharing this chunk's column arrays.  PVs not
+     * present in this chunk get empty columns.  Returns this chunk if it already has the specified order.
+     * Used so that every chunk of a query has the same column layout, whether it was decoded from a response or
+     * assembled from the cache.
+     */
+    public QueryResultChunk withPvOrder(List<String> orderedPvNames) {
+        if (orderedPvNames.equals(pvNames)) {
+            return this;
+        }
+        final int pvCount = orderedPvNames.size();
+        final double[][] orderedValues = new double[pvCount][];
+        final String[][] orderedText = new String[pvCount][];
+        final boolean[] orderedIntegral = new boolean[pvCount];
+        final boolean[] orderedFractional = new boolean[pvCount];
+        for (int pvIndex = 0; pvIndex < pvCount; pvIndex++) {
+            final int sourceIndex = pvNames.indexOf(orderedPvNames.get(pvIndex));
+            if (sourceIndex >= 0) {
+                orderedValues[pvIndex] = values[sourceIndex];
+                orderedText[pvIndex] = textValues[sourceIndex];
+                orderedIntegral[pvIndex] = integral[sourceIndex];
+                orderedFractional[pvIndex] = fractional[sourceIndex];
+            } else {
+                orderedValues[pvIndex] = new double[rowCount];
+                Arrays.fill(orderedValues[pvIndex], Double.NaN);
+            }
+        }
+        return new QueryResultChunk(
+                orderedPvNames, rowCount, timestampNanos, orderedValues, orderedText, orderedIntegral, orderedFractional);
+    }
+
+    public static long toEpochNanos(long epochSeconds, long nanoseconds) {
+        return epochSeconds * 1_000_000_000L + nanoseconds;
+    }
+
+    public static Instant toInstant(long epochNanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L), Math.floorMod(epochNanos, 1_000_000_000L));
+    }
+
+    public static String formatTimestamp(long epochNanos) {
+        return LocalDateTime.ofInstant(toInstant(epochNanos), ZoneId.systemDefault()).format(TIMESTAMP_FORMATTER);
+    }
+
+    // Decoder write methods, called once per cell while the chunk is being filled
+
+    public void setTimestamp(int row, long epochNanos) {
+        timestampNanos[row] = epochNanos;
+    }
+
+    public void setDouble(int pvIndex, int row, double value) {
+        values[pvIndex][row] = value;
+        fractional[pvIndex] = true;
+    }
+
+    public void setLong(int pvIndex, int row, long value) {
+        values[pvIndex][row] = value;
+        integral[pvIndex] = true;
+    }
+
+    public void setText(int pvIndex, int row, String value) {
+        values[pvIndex][row] = Double.NaN;
+        String[] text = textValues[pvIndex];
+        if (text == null) {
+            // row ranges of a chunk may be decoded concurrently, so allocate the text column under a lock
+            synchronized (textValues) {
+                if (textValues[pvIndex] == null) {
+                    textValues[pvIndex] = new String[rowCount];
+                }
+                text = textValues[pvIndex];
+            }
+        }
+        text[row] = value;
+    }
+
+    public void setMissing(int pvIndex, int row) {
+        values[pvIndex][row] = Double.NaN;
+    }
+
+    // Read accessors
+
+    public List<String> getPvNames() {
+        return pvNames;
+    }
+
+    /**
+     * Returns the table column names, with the timestamp column first followed by one column per PV.
+     */
+    public List<String> getColumnNames() {
+        List<String> columnNames = new ArrayList<>(pvNames.size() + 1);
+        columnNames.add(TIMESTAMP_COLUMN);
+        columnNames.addAll(pvNames);
+        return columnNames;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getTimestampNanos(int row) {
+        return timestampNanos[row];
+    }
+
+    /**
+     * Returns the timestamp column array directly, for bulk read access by chart code.  Callers must not modify it.
+     */
+    public long[] getTimestampColumn() {
+        return timestampNanos;
+    }
+
+    /**
+     * Returns the numeric value column for the specified PV directly, for bulk read access.  Callers must not modify it.
+     */
+    public double[] getValueColumn(int pvIndex) {
+        return values[pvIndex];
+    }
+
+    public double getValue(int pvIndex, int row) {
+        return values[pvIndex][row];
+    }
+
+    /**
+     * Returns the string value for the specified cell, or null if the cell does not contain a string value.
+     */
+    public String getText(int pvIndex, int row) {
+        return (textValues[pvIndex] == null) ? null : textValues[pvIndex][row];
+    }
+
+    public boolean hasValue(int pvIndex, int row) {
+        return !Double.isNaN(values[pvIndex][row])
+                || (textValues[pvIndex] != null && textValues[pvIndex][row] != null);
+    }
+
+    /**
+     * Returns true if the PV column holds integer values and no floating point values.
+     */
+    public boolean isIntegral(int pvIndex) {
+        return integral[pvIndex] && !fractional[pvIndex];
+    }
+
+    /**
+     * Returns true if any floating point value was written to the PV column.
+     */
+    public boolean hasFractionalValues(int pvIndex) {
+        return fractional[pvIndex];
+    }
+
+    /**
+     * Returns the value for display in the results table, boxing only the requested cell.
+     */
+    public Object getDisplayValue(int pvIndex, int row) {
+        if (textValues[pvIndex] != null && textValues[pvIndex][row] != null) {
+            return textValues[pvIndex][row];
+        }
+        double value = values[pvIndex][row];
+        if (Double.isNaN(value)) {
+            return NOT_AVAILABLE;
+        }
+        if (isIntegral(pvIndex)) {
+            return (long) value;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryResultChunk{pvs=" + pvNames.size() + ", rows=" + rowCount + "}";
+    }
+}
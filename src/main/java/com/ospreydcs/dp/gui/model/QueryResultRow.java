@@ -0,0 +1,43 @@
+package com.ospreydcs.dp.gui.model;
+
+/**
+ * Table row model for the Data Explorer results table.
+ * A lightweight view onto one row of a QueryResultChunk, so cell values are only boxed and formatted when the
+ * TableView actually renders them.
+ */
+public class QueryResultRow {
+
+    private final QueryResultChunk chunk;
+    private final int rowIndex;
+
+    public QueryResultRow(QueryResultChunk chunk, int rowIndex) {
+        this.chunk = chunk;
+        this.rowIndex = rowIndex;
+    }
+
+    public QueryResultChunk getChunk() {
+        return chunk;
+    }
+
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    public long getTimestampNanos() {
+        return chunk.getTimestampNanos(rowIndex);
+    }
+
+    /**
+     * Returns the value for the specified table column, where column 0 is the timestamp column.
+     */
+    public Object getColumnValue(int columnIndex) {
+        if (columnIndex == 0) {
+            return QueryResultChunk.formatTimestamp(chunk.getTimestampNanos(rowIndex));
+        }
+        int pvIndex = columnIndex - 1;
+        if (pvIndex >= chunk.getPvNames().size()) {
+            return QueryResultChunk.NOT_AVAILABLE;
+        }
+        return chunk.getDisplayValue(pvIndex, rowIndex);
+    }
+}
@@ -2,26 +2,78 @@ package com.ospreydcs.dp.gui.model;
 
 import com.ospreydcs.dp.gui.DpApplication;
 
+import java.util.List;
+
 public class SubscribeDataEventDetail {
 
     public final String pvName;
     public final DpApplication.TriggerCondition triggerCondition;
     public final String triggerValue;
 
+    // event window capture, disabled when captureWindowSeconds is zero
+    public final int captureWindowSeconds;
+    public final List<String> capturePvNames;
+
+    // automated triage of each event's capture window, see EventTriagePipeline
+    public final boolean triageEnabled;
+
     public SubscribeDataEventDetail(
             String pvName,
             DpApplication.TriggerCondition triggerCondition,
             String triggerValue
+    ) {
+        this(pvName, triggerCondition, triggerValue, 0, List.of());
+    }
+
+    /**
+     * Creates a subscription detail that captures the data for capturePvNames from captureWindowSeconds before to
+     * captureWindowSeconds after each event.  An empty capturePvNames captures the trigger PV.
+     */
+    public SubscribeDataEventDetail(
+            String pvName,
+            DpApplication.TriggerCondition triggerCondition,
+            String triggerValue,
+            int captureWindowSeconds,
+            List<String> capturePvNames
+    ) {
+        this(pvName, triggerCondition, triggerValue, captureWindowSeconds, capturePvNames, false);
+    }
+
+    /**
+     * Creates a subscription detail that captures event windows as above and, if triageEnabled, also saves a dataset
+     * and an annotation with summary statistics for each event's window.  Triage requires a capture window.
+     */
+    public SubscribeDataEventDetail(
+            String pvName,
+            DpApplication.TriggerCondition triggerCondition,
+            String triggerValue,
+            int captureWindowSeconds,
+            List<String> capturePvNames,
+            boolean triageEnabled
     ) {
         this.pvName = pvName;
         this.triggerCondition = triggerCondition;
         this.triggerValue = triggerValue;
+        this.captureWindowSeconds = Math.max(0, captureWindowSeconds);
+        this.capturePvNames = List.copyOf(capturePvNames);
+        this.triageEnabled = triageEnabled && this.captureWindowSeconds > 0;
+    }
+
+    public boolean isCaptureEnabled() {
+        return captureWindowSeconds > 0;
+    }
+
+    /**
+     * Returns the PVs to capture around each event, which is the trigger PV unless others were specified.
+     */
+    public List<String> getCapturePvNames() {
+        return capturePvNames.isEmpty() ? List.of(pvName) : capturePvNames;
     }
     
     /**
-     * Returns a display string for ListView showing PV name, operator, and value.
+     * Returns the trigger condition as operator and value, for example ">= 1.5e-6".
      */
-    public String getDisplayString() {
+    public String getConditionText() {
         String operatorText = switch (triggerCondition) {
             case EQUAL_TO -> "=";
             case GREATER -> ">";
@@ -29,7 +81,18 @@ public class SubscribeDataEventDetail {
             case LESS -> "<";
             case LESS_OR_EQUAL -> "<=";
         };
-        return String.format("%s %s %s", pvName, operatorText, triggerValue);
+        return operatorText + " " + triggerValue;
+    }
+
+    /**
+     * Returns a display string for ListView showing PV name, operator, and value.
+     */
+    public String getDisplayString() {
+        if (isCaptureEnabled()) {
+            return String.format("%s %s (capture +/-%ds%s)",
+                    pvName, getConditionText(), captureWindowSeconds, triageEnabled ? ", triage" : "");
+        }
+        return String.format("%s %s", pvName, getConditionText());
     }
     
     @Override
@@ -0,0 +1,196 @@
+package com.ospreydcs.dp.gui.query;
+
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Time-sorted values for a single PV covering the half-open time range [beginNanos, endNanos).
+ * The range records what was queried from the archive, so a segment may cover time where the PV has no samples.
+ * Segments are immutable once created; slicing and splitting produce new segments.
+ */
+public class CachedPvSegment {
+
+    private static final long OBJECT_OVERHEAD_BYTES = 64;
+    private static final long TEXT_CELL_BYTES = 48;
+
+    private final String pvName;
+    private final long beginNanos;
+    private final long endNanos;
+    private final long[] timestampNanos;
+    private final double[] values;
+    private final String[] textValues;
+    private final boolean integral;
+
+    public CachedPvSegment(
+            String pvName,
+            long beginNanos,
+            long endNanos,
+            long[] timestampNanos,
+            double[] values,
+            String[] textValues,
+            boolean integral
+    ) {
+        this.pvName = pvName;
+        this.beginNanos = beginNanos;
+        this.endNanos = endNanos;
+        this.timestampNanos = timestampNanos;
+        this.values = values;
+        this.textValues = textValues;
+        this.integral = integral;
+    }
+
+    /**
+     * Extracts the samples for the specified PV from a decoded chunk covering [beginNanos, endNanos).
+     * Returns an empty segment for the range if the chunk contains no column for the PV.
+     */
+    public static CachedPvSegment fromChunk(QueryResultChunk chunk, String pvName, long beginNanos, long endNanos) {
+        final int pvIndex = (chunk == null) ? -1 : chunk.getPvNames().indexOf(pvName);
+        if (pvIndex < 0) {
+            return new CachedPvSegment(pvName, beginNanos, endNanos, new long[0], new double[0], null, false);
+        }
+
+        int count = 0;
+        boolean hasText = false;
+        for (int row = 0; row < chunk.getRowCount(); row++) {
+            if (chunk.hasValue(pvIndex, row) && inRange(chunk.getTimestampNanos(row), beginNanos, endNanos)) {
+                count++;
+                hasText |= chunk.getText(pvIndex, row) != null;
+            }
+        }
+
+        final long[] timestamps = new long[count];
+        final double[] segmentValues = new double[count];
+        final String[] text = hasText ? new String[count] : null;
+        int index = 0;
+        for (int row = 0; row < chunk.getRowCount(); row++) {
+            final long timestamp = chunk.getTimestampNanos(row);
+            if (chunk.hasValue(pvIndex, row) && inRange(timestamp, beginNanos, endNanos)) {
+                timestamps[index] = timestamp;
+                segmentValues[index] = chunk.getValue(pvIndex, row);
+                if (text != null) {
+                    text[index] = chunk.getText(pvIndex, row);
+                }
+                index++;
+            }
+        }
+
+        return new CachedPvSegment(
+                pvName, beginNanos, endNanos, timestamps, segmentValues, text, chunk.isIntegral(pvIndex));
+    }
+
+    /**
+     * Returns the part of this segment covering [sliceBegin, sliceEnd), which must lie within the segment's range.
+     */
+    public CachedPvSegment slice(long sliceBegin, long sliceEnd) {
+        final int from = lowerBound(sliceBegin);
+        final int to = lowerBound(sliceEnd);
+        return new CachedPvSegment(
+                pvName,
+                sliceBegin,
+                sliceEnd,
+                Arrays.copyOfRange(timestampNanos, from, to),
+                Arrays.copyOfRange(values, from, to),
+                (textValues == null) ? null : Arrays.copyOfRange(textValues, from, to),
+                integral);
+    }
+
+    /**
+     * Splits this segment into consecutive segments of at most maxSamples samples each, covering the same range.
+     * Returns a list containing only this segment if it is small enough.
+     */
+    public List<CachedPvSegment> split(int maxSamples) {
+        if (size() <= maxSamples) {
+            return List.of(this);
+        }
+        final List<CachedPvSegment> pieces = new ArrayList<>();
+        long pieceBegin = beginNanos;
+        for (int from = 0; from < size(); from += maxSamples) {
+            final int to = Math.min(from + maxSamples, size());
+            final long pieceEnd = (to == size()) ? endNanos : timestampNanos[to];
+            pieces.add(new CachedPvSegment(
+                    pvName,
+                    pieceBegin,
+                    pieceEnd,
+                    Arrays.copyOfRange(timestampNanos, from, to),
+                    Arrays.copyOfRange(values, from, to),
+                    (textValues == null) ? null : Arrays.copyOfRange(textValues, from, to),
+                    integral));
+            pieceBegin = pieceEnd;
+        }
+        return pieces;
+    }
+
+    private static boolean inRange(long timestamp, long beginNanos, long endNanos) {
+        return timestamp >= beginNanos && timestamp < endNanos;
+    }
+
+    /**
+     * Returns the index of the first sample with timestamp greater than or equal to the specified time.
+     */
+    public int lowerBound(long nanos) {
+        int low = 0;
+        int high = timestampNanos.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (timestampNanos[mid] < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public boolean covers(long begin, long end) {
+        return beginNanos <= begin && endNanos >= end;
+    }
+
+    public long estimatedBytes() {
+        long bytes = OBJECT_OVERHEAD_BYTES + (long) timestampNanos.length * (Long.BYTES + Double.BYTES);
+        if (textValues != null) {
+            bytes += textValues.length * TEXT_CELL_BYTES;
+        }
+        return bytes;
+    }
+
+    public String getPvName() {
+        return pvName;
+    }
+
+    public long getBeginNanos() {
+        return beginNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public int size() {
+        return timestampNanos.length;
+    }
+
+    public long getTimestampNanos(int index) {
+        return timestampNanos[index];
+    }
+
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    public String getText(int index) {
+        return (textValues == null) ? null : textValues[index];
+    }
+
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    @Override
+    public String toString() {
+        return "CachedPvSegment{pv=" + pvName + ", begin=" + beginNanos + ", end=" + endNanos
+                + ", samples=" + timestampNanos.length + "}";
+    }
+}
@@ -0,0 +1,632 @@
+package com.ospreydcs.dp.gui.query;
+
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent on-disk tier of the query result cache, so that data viewed in a previous session does not need to be
+ * re-queried from the archive.  Segments are stored in segment files of at most MAX_SEGMENT_FILE_SAMPLES samples in a
+ * compact binary columnar layout (header, timestamp column, value column, optional text column) that is read and
+ * written in full through heap buffers, so no file stays mapped once it has been read and files can always be
+ * deleted or replaced.  An in-memory index by PV and time range is rebuilt from the segment file
+ * headers at startup.  Newly written data is appended as new files that do not overlap existing ones, and adjacent
+ * files are only coalesced in the index, so a write only rereads the files its range partially overlaps.  Files are
+ * read and written outside the cache's lock.
+ *
+ * Each segment file records the PV's archive metadata (bucket count and last data timestamp) at the time it was
+ * written.  Segments are only served after validate() has been called with current metadata for the PV.  If data has
+ * only been appended since a segment was written, it is kept unless it ends after the last data time recorded with
+ * it, otherwise it is discarded.  With whole PV invalidation configured (see QueryResultCache), any change discards
+ * it.  Files are evicted in least recently used order when the total size exceeds the configured budget.
+ */
+public class DiskQueryCache {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    // configuration
+    public static final String CFG_KEY_DISK_CACHE_DIRECTORY = "DataExplorer.diskCacheDirectory";
+    public static final String DEFAULT_DISK_CACHE_DIRECTORY = "";
+    public static final String CFG_KEY_DISK_CACHE_MAX_MEGABYTES = "DataExplorer.diskCacheMaxMegabytes";
+    public static final int DEFAULT_DISK_CACHE_MAX_MEGABYTES = 1024;
+
+    // segment file format
+    private static final String SEGMENT_FILE_SUFFIX = ".seg";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x44505143; // "DPQC"
+    private static final int FORMAT_VERSION = 1;
+    private static final byte FLAG_INTEGRAL = 0x1;
+    private static final byte FLAG_TEXT = 0x2;
+    private static final int MAX_SEGMENT_FILE_SAMPLES = 65536;
+
+    /**
+     * Archive metadata for a PV, used to detect when cached data may no longer match the archive.
+     */
+    public static class ArchiveFingerprint {
+
+        public final int numBuckets;
+        public final long lastDataNanos;
+
+        public ArchiveFingerprint(int numBuckets, long lastDataNanos) {
+            this.numBuckets = numBuckets;
+            this.lastDataNanos = lastDataNanos;
+        }
+
+        public boolean matches(ArchiveFingerprint other) {
+            return numBuckets == other.numBuckets && lastDataNanos == other.lastDataNanos;
+        }
+
+        /**
+         * Returns true if this fingerprint shows the archive has grown past the previous fingerprint's last data time
+         * without losing buckets, as it does when data is appended.  Backfill before the previous last data time at
+         * the same time cannot be told apart from this.
+         */
+        public boolean isAppendedSince(ArchiveFingerprint previous) {
+            return lastDataNanos > previous.lastDataNanos && numBuckets >= previous.numBuckets;
+        }
+    }
+
+    private static class IndexEntry {
+
+        private final Path file;
+        private final String pvName;
+        private final long beginNanos;
+        private final long endNanos;
+        private final long fileBytes;
+        private final ArchiveFingerprint fingerprint;
+
+        private IndexEntry(
+                Path file, String pvName, long beginNanos, long endNanos, long fileBytes, ArchiveFingerprint fingerprint
+        ) {
+            this.file = file;
+            this.pvName = pvName;
+            this.beginNanos = beginNanos;
+            this.endNanos = endNanos;
+            this.fileBytes = fileBytes;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final boolean invalidateWholePv;
+    private final Map<String, TreeMap<Long, IndexEntry>> entriesByPv = new HashMap<>();
+    private final LinkedHashMap<IndexEntry, Boolean> lruEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, ArchiveFingerprint> currentFingerprints = new HashMap<>();
+    private long totalBytes = 0;
+    private ExecutorService writeExecutor = null;
+
+    public DiskQueryCache() {
+        this(
+                defaultDirectory(configMgr().getConfigString(CFG_KEY_DISK_CACHE_DIRECTORY, DEFAULT_DISK_CACHE_DIRECTORY)),
+                (long) configMgr().getConfigInteger(CFG_KEY_DISK_CACHE_MAX_MEGABYTES, DEFAULT_DISK_CACHE_MAX_MEGABYTES)
+                        * 1024 * 1024,
+                QueryResultCache.isWholePvInvalidationConfigured());
+    }
+
+    public DiskQueryCache(Path directory, long maxBytes) {
+        this(directory, maxBytes, false);
+    }
+
+    public DiskQueryCache(Path directory, long maxBytes, boolean invalidateWholePv) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.invalidateWholePv = invalidateWholePv;
+    }
+
+    private static ConfigurationManager configMgr() {
+        return ConfigurationManager.getInstance();
+    }
+
+    private static Path defaultDirectory(String configuredDirectory) {
+        if (configuredDirectory == null || configuredDirectory.isBlank()) {
+            return Paths.get(System.getProperty("user.home"), ".dp-desktop", "query-cache");
+        }
+        return Paths.get(configuredDirectory);
+    }
+
+    /**
+     * Creates the cache directory if needed and rebuilds the index from existing segment files.
+     * Returns false if the disk cache is disabled or the directory cannot be used.
+     */
+    public boolean init() {
+        if (maxBytes <= 0) {
+            logger.info("disk query cache disabled");
+            return false;
+        }
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            logger.error("unable to create disk query cache directory: {}", directory, e);
+            return false;
+        }
+
+        // rebuild index, oldest files first so that LRU order reflects last access in previous sessions
+        final List<Path> segmentFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(TEMP_FILE_SUFFIX)) {
+                    Files.deleteIfExists(file); // left behind by an interrupted write
+                } else if (file.getFileName().toString().endsWith(SEGMENT_FILE_SUFFIX)) {
+                    segmentFiles.add(file);
+                }
+            }
+            segmentFiles.sort(Comparator.comparing(DiskQueryCache::lastModified));
+        } catch (IOException e) {
+            logger.error("unable to read disk query cache directory: {}", directory, e);
+            return false;
+        }
+
+        final List<IndexEntry> entries = new ArrayList<>();
+        final List<Path> deletedFiles = new ArrayList<>();
+        for (Path file : segmentFiles) {
+            final IndexEntry entry = readHeader(file);
+            if (entry == null) {
+                deletedFiles.add(file);
+            } else {
+                entries.add(entry);
+            }
+        }
+        synchronized (this) {
+            for (IndexEntry entry : entries) {
+                // files overlapping a later one, e.g. left by an interrupted write, are superseded by it
+                for (IndexEntry superseded : overlappingEntries(entry.pvName, entry.beginNanos, entry.endNanos, false)) {
+                    removeEntry(superseded);
+                    deletedFiles.add(superseded.file);
+                }
+                addEntry(entry, deletedFiles);
+            }
+            evict(deletedFiles);
+        }
+        deleteFiles(deletedFiles);
+
+        writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "disk-query-cache-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        logger.info("disk query cache opened at {} with {} segment(s), {} bytes",
+                directory, lruEntries.size(), totalBytes);
+        return true;
+    }
+
+    public void fini() {
+        if (writeExecutor != null) {
+            writeExecutor.shutdown();
+            try {
+                if (!writeExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    logger.warn("timed out waiting for disk query cache writes to complete");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Records the current archive metadata for the specified PV and discards any segments it invalidates.
+     */
+    public void validate(String pvName, ArchiveFingerprint current) {
+        final List<Path> staleFiles = new ArrayList<>();
+        synchronized (this) {
+            // entries still indexed were valid for the metadata recorded earlier in this session, if any
+            final ArchiveFingerprint previous = currentFingerprints.put(pvName, current);
+            final TreeMap<Long, IndexEntry> pvEntries = entriesByPv.get(pvName);
+            if (pvEntries != null) {
+                for (IndexEntry entry : new ArrayList<>(pvEntries.values())) {
+                    if (!isValid(entry, (previous == null) ? entry.fingerprint : previous, current)) {
+                        logger.debug("discarding stale disk cache segment for pv: {} file: {}", pvName, entry.file);
+                        removeEntry(entry);
+                        staleFiles.add(entry.file);
+                    }
+                }
+            }
+        }
+        deleteFiles(staleFiles);
+    }
+
+    /**
+     * Returns true if the entry's data, known to be valid for the baseline archive metadata, is still valid for the
+     * current metadata: the metadata is unchanged, or data has only been appended after the entry ends and whole PV
+     * invalidation is not configured.
+     */
+    private boolean isValid(IndexEntry entry, ArchiveFingerprint baseline, ArchiveFingerprint current) {
+        if (baseline.matches(current)) {
+            return true;
+        }
+        return !invalidateWholePv
+                && current.isAppendedSince(baseline)
+                && entry.endNanos <= baseline.lastDataNanos;
+    }
+
+    /**
+     * Reads the segments overlapping [beginNanos, endNanos) for the specified PV.  Returns an empty list if the PV
+     * has not been validated against the archive in this session.
+     */
+    public List<CachedPvSegment> read(String pvName, long beginNanos, long endNanos) {
+        final List<IndexEntry> entries;
+        synchronized (this) {
+            if (!currentFingerprints.containsKey(pvName)) {
+                return new ArrayList<>();
+            }
+            entries = overlappingEntries(pvName, beginNanos, endNanos, false);
+            for (IndexEntry entry : entries) {
+                lruEntries.get(entry);
+            }
+        }
+
+        final List<CachedPvSegment> segments = new ArrayList<>();
+        final List<Path> unreadableFiles = new ArrayList<>();
+        for (IndexEntry entry : entries) {
+            final CachedPvSegment segment = readSegment(entry.file);
+            if (segment == null) {
+                synchronized (this) {
+                    removeEntry(entry);
+                }
+                unreadableFiles.add(entry.file);
+                continue;
+            }
+            touch(entry.file);
+            segments.add(segment);
+        }
+        deleteFiles(unreadableFiles);
+        return segments;
+    }
+
+    /**
+     * Queues the specified segment to be written to the disk cache on the writer thread.  The segment is not
+     * persisted if the PV has not been validated against the archive in this session.
+     */
+    public void writeAsync(CachedPvSegment segment) {
+        final ArchiveFingerprint fingerprint;
+        synchronized (this) {
+            fingerprint = currentFingerprints.get(segment.getPvName());
+        }
+        if (fingerprint == null || writeExecutor == null || writeExecutor.isShutdown()) {
+            return;
+        }
+        writeExecutor.execute(() -> write(segment, fingerprint));
+    }
+
+    /**
+     * Writes the segment as new files replacing the files it overlaps, keeping the parts of partially overlapped files
+     * outside its range in files of their own.  Runs on the single writer thread, so no other write changes the index
+     * while the files are written outside the lock.
+     */
+    private void write(CachedPvSegment segment, ArchiveFingerprint fingerprint) {
+        if (segment.getEndNanos() <= segment.getBeginNanos()) {
+            return;
+        }
+        final List<IndexEntry> overlapping;
+        synchronized (this) {
+            overlapping = overlappingEntries(
+                    segment.getPvName(), segment.getBeginNanos(), segment.getEndNanos(), false);
+        }
+
+        final List<IndexEntry> written = new ArrayList<>();
+        for (CachedPvSegment piece : segment.split(MAX_SEGMENT_FILE_SAMPLES)) {
+            writeEntry(piece, fingerprint, written);
+        }
+        for (IndexEntry entry : overlapping) {
+            if (entry.beginNanos >= segment.getBeginNanos() && entry.endNanos <= segment.getEndNanos()) {
+                continue;
+            }
+            final CachedPvSegment existing = readSegment(entry.file);
+            if (existing == null) {
+                continue;
+            }
+            if (entry.beginNanos < segment.getBeginNanos()) {
+                writeEntry(existing.slice(entry.beginNanos, segment.getBeginNanos()), entry.fingerprint, written);
+            }
+            if (entry.endNanos > segment.getEndNanos()) {
+                writeEntry(existing.slice(segment.getEndNanos(), entry.endNanos), entry.fingerprint, written);
+            }
+        }
+
+        final List<Path> deletedFiles = new ArrayList<>();
+        synchronized (this) {
+            for (IndexEntry entry : overlapping) {
+                removeEntry(entry);
+                deletedFiles.add(entry.file);
+            }
+            for (IndexEntry entry : written) {
+                final ArchiveFingerprint current = currentFingerprints.get(entry.pvName);
+                if (current != null && isValid(entry, entry.fingerprint, current)) {
+                    addEntry(entry, deletedFiles);
+                } else {
+                    deletedFiles.add(entry.file); // archive changed while the file was written
+                }
+            }
+            evict(deletedFiles);
+        }
+        deleteFiles(deletedFiles);
+    }
+
+    private void writeEntry(CachedPvSegment segment, ArchiveFingerprint fingerprint, List<IndexEntry> written) {
+        final Path file = directory.resolve(UUID.randomUUID() + SEGMENT_FILE_SUFFIX);
+        try {
+            final long fileBytes = writeSegment(file, segment, fingerprint);
+            written.add(new IndexEntry(
+                    file, segment.getPvName(), segment.getBeginNanos(), segment.getEndNanos(), fileBytes, fingerprint));
+        } catch (IOException e) {
+            logger.error("error writing disk cache segment: {}", file, e);
+        }
+    }
+
+    private static long headerBytes(String pvName) {
+        return Integer.BYTES * 5 + Long.BYTES * 3 + 1 + Short.BYTES + pvName.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Writes the segment to a temporary file and then moves it into place, so that a partially written file is never
+     * indexed.  Returns the file size.
+     */
+    private static long writeSegment(Path file, CachedPvSegment segment, ArchiveFingerprint fingerprint)
+            throws IOException {
+
+        final byte[] pvNameBytes = segment.getPvName().getBytes(StandardCharsets.UTF_8);
+        final int count = segment.size();
+        boolean hasText = false;
+        long textBytes = 0;
+        final byte[][] text = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            final String value = segment.getText(i);
+            if (value != null) {
+                hasText = true;
+                text[i] = value.getBytes(StandardCharsets.UTF_8);
+                textBytes += text[i].length;
+            }
+        }
+
+        long fileBytes = headerBytes(segment.getPvName()) + (long) count * (Long.BYTES + Double.BYTES);
+        if (hasText) {
+            fileBytes += (long) count * Integer.BYTES + textBytes;
+        }
+
+        final Path tempFile = file.resolveSibling(file.getFileName() + TEMP_FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(fileBytes));
+            buffer.putInt(MAGIC);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putInt(fingerprint.numBuckets);
+            buffer.putLong(fingerprint.lastDataNanos);
+            buffer.putLong(segment.getBeginNanos());
+            buffer.putLong(segment.getEndNanos());
+            buffer.putInt(count);
+            buffer.put((byte) ((segment.isIntegral() ? FLAG_INTEGRAL : 0) | (hasText ? FLAG_TEXT : 0)));
+            buffer.putShort((short) pvNameBytes.length);
+            buffer.put(pvNameBytes);
+            buffer.putInt(0); // reserved
+            for (int i = 0; i < count; i++) {
+                buffer.putLong(segment.getTimestampNanos(i));
+            }
+            for (int i = 0; i < count; i++) {
+                buffer.putDouble(segment.getValue(i));
+            }
+            if (hasText) {
+                for (int i = 0; i < count; i++) {
+                    if (text[i] == null) {
+                        buffer.putInt(-1);
+                    } else {
+                        buffer.putInt(text[i].length);
+                        buffer.put(text[i]);
+                    }
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+        return fileBytes;
+    }
+
+    /**
+     * Reads length bytes starting at the specified position into a new heap buffer ready for reading.
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static IndexEntry readHeader(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // fixed part of the header, up to and including the PV name length
+            final int fixedBytes = (int) headerBytes("") - Integer.BYTES;
+            if (channel.size() < headerBytes("")) {
+                logger.warn("ignoring invalid disk cache segment: {}", file);
+                return null;
+            }
+            final ByteBuffer buffer = readFully(channel, 0, fixedBytes);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                logger.warn("ignoring invalid disk cache segment: {}", file);
+                return null;
+            }
+            final ArchiveFingerprint fingerprint = new ArchiveFingerprint(buffer.getInt(), buffer.getLong());
+            final long beginNanos = buffer.getLong();
+            final long endNanos = buffer.getLong();
+            buffer.getInt(); // count
+            buffer.get(); // flags
+            final byte[] pvNameBytes = new byte[buffer.getShort()];
+            readFully(channel, fixedBytes, pvNameBytes.length).get(pvNameBytes);
+            return new IndexEntry(file, new String(pvNameBytes, StandardCharsets.UTF_8),
+                    beginNanos, endNanos, channel.size(), fingerprint);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("error reading disk cache segment header: {}", file, e);
+            return null;
+        }
+    }
+
+    private static CachedPvSegment readSegment(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = readFully(channel, 0, Math.toIntExact(channel.size()));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            buffer.getInt(); // fingerprint numBuckets
+            buffer.getLong(); // fingerprint lastDataNanos
+            final long beginNanos = buffer.getLong();
+            final long endNanos = buffer.getLong();
+            final int count = buffer.getInt();
+            final byte flags = buffer.get();
+            final byte[] pvNameBytes = new byte[buffer.getShort()];
+            buffer.get(pvNameBytes);
+            buffer.getInt(); // reserved
+
+            // bulk copy the fixed width columns
+            final long[] timestamps = new long[count];
+            buffer.asLongBuffer().get(timestamps);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            final double[] values = new double[count];
+            buffer.asDoubleBuffer().get(values);
+            buffer.position(buffer.position() + count * Double.BYTES);
+
+            String[] text = null;
+            if ((flags & FLAG_TEXT) != 0) {
+                text = new String[count];
+                for (int i = 0; i < count; i++) {
+                    final int length = buffer.getInt();
+                    if (length >= 0) {
+                        final byte[] bytes = new byte[length];
+                        buffer.get(bytes);
+                        text[i] = new String(bytes, StandardCharsets.UTF_8);
+                    }
+                }
+            }
+
+            return new CachedPvSegment(new String(pvNameBytes, StandardCharsets.UTF_8),
+                    beginNanos, endNanos, timestamps, values, text, (flags & FLAG_INTEGRAL) != 0);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("error reading disk cache segment: {}", file, e);
+            return null;
+        }
+    }
+
+    private List<IndexEntry> overlappingEntries(String pvName, long beginNanos, long endNanos, boolean includeAdjacent) {
+        final List<IndexEntry> overlapping = new ArrayList<>();
+        final TreeMap<Long, IndexEntry> pvEntries = entriesByPv.get(pvName);
+        if (pvEntries == null) {
+            return overlapping;
+        }
+        final Long floorKey = pvEntries.floorKey(beginNanos);
+        final NavigableMap<Long, IndexEntry> candidates =
+                pvEntries.subMap((floorKey == null) ? beginNanos : floorKey, true, endNanos, includeAdjacent);
+        for (IndexEntry entry : candidates.values()) {
+            if (includeAdjacent ? entry.endNanos >= beginNanos : entry.endNanos > beginNanos) {
+                overlapping.add(entry);
+            }
+        }
+        return overlapping;
+    }
+
+    /**
+     * Adds an entry to the index, adding the file of any entry it replaces to deletedFiles.
+     */
+    private void addEntry(IndexEntry entry, List<Path> deletedFiles) {
+        final TreeMap<Long, IndexEntry> pvEntries = entriesByPv.computeIfAbsent(entry.pvName, k -> new TreeMap<>());
+        final IndexEntry replaced = pvEntries.put(entry.beginNanos, entry);
+        if (replaced != null) {
+            // two files starting at the same time, e.g. from an interrupted write, keep the newer one
+            lruEntries.remove(replaced);
+            totalBytes -= replaced.fileBytes;
+            deletedFiles.add(replaced.file);
+        }
+        lruEntries.put(entry, Boolean.TRUE);
+        totalBytes += entry.fileBytes;
+    }
+
+    private void removeEntry(IndexEntry entry) {
+        final TreeMap<Long, IndexEntry> pvEntries = entriesByPv.get(entry.pvName);
+        if (pvEntries != null && pvEntries.get(entry.beginNanos) == entry) {
+            pvEntries.remove(entry.beginNanos);
+            if (pvEntries.isEmpty()) {
+                entriesByPv.remove(entry.pvName);
+            }
+        }
+        if (lruEntries.remove(entry) != null) {
+            totalBytes -= entry.fileBytes;
+        }
+    }
+
+    /**
+     * Removes least recently used entries until the total size is within budget, adding their files to
+     * deletedFiles so they can be deleted after the lock is released.
+     */
+    private void evict(List<Path> deletedFiles) {
+        final Iterator<IndexEntry> iterator = new ArrayList<>(lruEntries.keySet()).iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            final IndexEntry eldest = iterator.next();
+            removeEntry(eldest);
+            deletedFiles.add(eldest.file);
+            logger.trace("evicted disk cache segment: {}", eldest.file);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("unable to update access time for disk cache segment: {}", file);
+        }
+    }
+
+    private static void deleteFiles(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("unable to delete disk cache segment: {}", file, e);
+            }
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+}
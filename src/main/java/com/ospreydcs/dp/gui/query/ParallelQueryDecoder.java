@@ -0,0 +1,127 @@
+package com.ospreydcs.dp.gui.query;
+
+import com.ospreydcs.dp.grpc.v1.query.QueryTableResponse;
+import com.ospreydcs.dp.gui.metrics.StageMetrics;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decodes query table results on a dedicated fork-join pool.  Each table is allocated as a single chunk and then
+ * split into row ranges that are decoded concurrently, with each range writing a disjoint slice of the chunk's
+ * arrays.  Small tables are decoded inline since splitting them costs more than it saves.
+ */
+public class ParallelQueryDecoder {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    // configuration
+    public static final String CFG_KEY_DECODE_PARALLELISM = "DataExplorer.decodeParallelism";
+    public static final int DEFAULT_DECODE_PARALLELISM = 0; // 0 means use number of available processors
+    public static final String CFG_KEY_DECODE_MIN_ROWS_PER_TASK = "DataExplorer.decodeMinRowsPerTask";
+    public static final int DEFAULT_DECODE_MIN_ROWS_PER_TASK = 4096;
+
+    private final ForkJoinPool pool;
+    private final int minRowsPerTask;
+
+    public ParallelQueryDecoder() {
+        this(
+                configMgr().getConfigInteger(CFG_KEY_DECODE_PARALLELISM, DEFAULT_DECODE_PARALLELISM),
+                configMgr().getConfigInteger(CFG_KEY_DECODE_MIN_ROWS_PER_TASK, DEFAULT_DECODE_MIN_ROWS_PER_TASK));
+    }
+
+    public ParallelQueryDecoder(int parallelism, int minRowsPerTask) {
+        final int poolParallelism = (parallelism > 0) ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(poolParallelism);
+        this.minRowsPerTask = Math.max(1, minRowsPerTask);
+        logger.debug("created query decoder with parallelism: {} minRowsPerTask: {}", poolParallelism, this.minRowsPerTask);
+    }
+
+    private static ConfigurationManager configMgr() {
+        return ConfigurationManager.getInstance();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Decodes the specified table result, blocking until all row ranges are complete.
+     * Returns null if the result contains no table.
+     */
+    public QueryResultChunk decode(QueryTableResponse.TableResult tableResult) {
+        final long startNanos = System.nanoTime();
+        final QueryResultChunk chunk = decodeTable(tableResult);
+        StageMetrics.record(StageMetrics.Stage.DECODE, System.nanoTime() - startNanos);
+        return chunk;
+    }
+
+    private QueryResultChunk decodeTable(QueryTableResponse.TableResult tableResult) {
+        final QueryResultChunk chunk = QueryTableDecoder.allocate(tableResult);
+        if (chunk == null) {
+            logger.warn("QueryTableResponse table result contains neither column nor row map table");
+            return null;
+        }
+
+        final int rowCount = chunk.getRowCount();
+        if (rowCount < 2 * minRowsPerTask || pool.getParallelism() == 1) {
+            QueryTableDecoder.decodeRange(tableResult, chunk, 0, rowCount);
+            return chunk;
+        }
+
+        final DecodeRangeTask task = new DecodeRangeTask(tableResult, chunk, 0, rowCount);
+        if (ForkJoinTask.inForkJoinPool()) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+        return chunk;
+    }
+
+    /**
+     * Submits the specified table result for decoding on the pool, so that the caller can continue fetching the
+     * next response while this one is decoded.
+     */
+    public CompletableFuture<QueryResultChunk> decodeAsync(QueryTableResponse.TableResult tableResult) {
+        return CompletableFuture.supplyAsync(() -> decode(tableResult), pool);
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private class DecodeRangeTask extends RecursiveAction {
+
+        private final QueryTableResponse.TableResult tableResult;
+        private final QueryResultChunk chunk;
+        private final int fromRow;
+        private final int toRow;
+
+        private DecodeRangeTask(
+                QueryTableResponse.TableResult tableResult, QueryResultChunk chunk, int fromRow, int toRow
+        ) {
+            this.tableResult = tableResult;
+            this.chunk = chunk;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= minRowsPerTask) {
+                QueryTableDecoder.decodeRange(tableResult, chunk, fromRow, toRow);
+                return;
+            }
+            final int midRow = (fromRow + toRow) >>> 1;
+            invokeAll(
+                    new DecodeRangeTask(tableResult, chunk, fromRow, midRow),
+                    new DecodeRangeTask(tableResult, chunk, midRow, toRow));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.ospreydcs.dp.gui.query;
+
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancellable gRPC context for executing a multi-request query.  RPCs issued by code passed to call() inherit the
+ * context, so cancel() aborts any outstanding call immediately, and the optional deadline aborts the whole query
+ * once it has run for the configured time.  Query loops should call checkActive() before issuing each request so
+ * that no new requests are started once the context is cancelled.
+ */
+public class QueryExecutionContext {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    // configuration
+    public static final String CFG_KEY_QUERY_DEADLINE_SECONDS = "DataExplorer.queryDeadlineSeconds";
+    public static final int DEFAULT_QUERY_DEADLINE_SECONDS = 300;
+
+    private static final ScheduledExecutorService deadlineScheduler =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "query-deadline-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Context.CancellableContext context;
+    private final int deadlineSeconds;
+    private volatile boolean cancelledByUser = false;
+
+    public QueryExecutionContext() {
+        this(configMgr().getConfigInteger(CFG_KEY_QUERY_DEADLINE_SECONDS, DEFAULT_QUERY_DEADLINE_SECONDS));
+    }
+
+    /**
+     * Creates a context with the specified deadline in seconds, or no deadline if zero.
+     */
+    public QueryExecutionContext(int deadlineSeconds) {
+        this.deadlineSeconds = deadlineSeconds;
+        if (deadlineSeconds > 0) {
+            this.context = Context.current().withDeadline(
+                    Deadline.after(deadlineSeconds, TimeUnit.SECONDS), deadlineScheduler);
+        } else {
+            this.context = Context.current().withCancellation();
+        }
+    }
+
+    private static ConfigurationManager configMgr() {
+        return ConfigurationManager.getInstance();
+    }
+
+    /**
+     * Runs the specified query code with this context attached to the calling thread.
+     */
+    public <T> T call(Callable<T> callable) throws Exception {
+        try {
+            return context.call(callable);
+        } finally {
+            // release the deadline timer and listeners once the query is finished
+            if (!context.isCancelled()) {
+                context.cancel(null);
+            }
+        }
+    }
+
+    /**
+     * Cancels the query at the user's request, aborting any outstanding RPCs.
+     */
+    public void cancel() {
+        cancelledByUser = true;
+        context.cancel(new CancellationException("Query cancelled by user"));
+        logger.debug("query execution context cancelled by user");
+    }
+
+    /**
+     * Throws CancellationException if the query has been cancelled or its deadline has expired.
+     */
+    public void checkActive() {
+        if (isDeadlineExceeded()) {
+            throw new CancellationException("Query exceeded deadline of " + deadlineSeconds + " seconds");
+        }
+        if (cancelledByUser) {
+            throw new CancellationException("Query cancelled by user");
+        }
+    }
+
+    public boolean isCancelledByUser() {
+        return cancelledByUser;
+    }
+
+    public boolean isDeadlineExceeded() {
+        return context.getDeadline() != null && context.getDeadline().isExpired();
+    }
+
+    public int getDeadlineSeconds() {
+        return deadlineSeconds;
+    }
+}
@@ -0,0 +1,525 @@
+package com.ospreydcs.dp.gui.query;
+
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import com.ospreydcs.dp.service.common.config.ConfigurationManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Client-side cache of query results, keyed by PV and time range.
+ * Each PV has an index of non-overlapping CachedPvSegments ordered by begin time.  Newly fetched ranges are added as
+ * segments of at most MAX_SEGMENT_SAMPLES samples, trimming any existing segments they overlap, and adjacent segments
+ * are only coalesced when the index is walked, so callers only need to fetch the sub-ranges reported missing by
+ * findMissingRanges().  Segments are evicted in least-recently-used order when the estimated memory used by the
+ * cache exceeds the configured budget.
+ *
+ * An optional DiskQueryCache acts as a persistent second tier: gaps in memory are filled from disk before being
+ * reported missing, and newly fetched segments are written through to disk.
+ */
+public class QueryResultCache {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    // configuration
+    public static final String CFG_KEY_CACHE_MAX_MEGABYTES = "DataExplorer.cacheMaxMegabytes";
+    public static final int DEFAULT_CACHE_MAX_MEGABYTES = 256;
+    public static final String CFG_KEY_CACHE_INVALIDATION = "DataExplorer.cacheInvalidation";
+    public static final String CACHE_INVALIDATION_APPEND = "append";
+    public static final String CACHE_INVALIDATION_ALL = "all";
+    public static final String DEFAULT_CACHE_INVALIDATION = CACHE_INVALIDATION_APPEND;
+
+    // segments are kept small so eviction frees memory in bounded steps
+    private static final int MAX_SEGMENT_SAMPLES = 65536;
+
+    /**
+     * Half-open time range [beginNanos, endNanos) in epoch nanoseconds.
+     */
+    public static class TimeRange {
+
+        public final long beginNanos;
+        public final long endNanos;
+
+        public TimeRange(long beginNanos, long endNanos) {
+            this.beginNanos = beginNanos;
+            this.endNanos = endNanos;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof TimeRange range)) {
+                return false;
+            }
+            return beginNanos == range.beginNanos && endNanos == range.endNanos;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(beginNanos) * 31 + Long.hashCode(endNanos);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + beginNanos + ", " + endNanos + ")";
+        }
+    }
+
+    private final Map<String, TreeMap<Long, CachedPvSegment>> segmentsByPv = new HashMap<>();
+    private final LinkedHashMap<CachedPvSegment, Boolean> lruSegments = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private final boolean invalidateWholePv;
+    private long totalBytes = 0;
+    private final Map<String, DiskQueryCache.ArchiveFingerprint> pvFingerprints = new HashMap<>();
+    private DiskQueryCache diskCache = null;
+    private long hitCount = 0;
+    private long diskHitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    public QueryResultCache() {
+        this(
+                (long) configMgr().getConfigInteger(CFG_KEY_CACHE_MAX_MEGABYTES, DEFAULT_CACHE_MAX_MEGABYTES)
+                        * 1024 * 1024,
+                isWholePvInvalidationConfigured());
+    }
+
+    public QueryResultCache(long maxBytes) {
+        this(maxBytes, false);
+    }
+
+    /**
+     * Creates a cache with the specified budget.  If invalidateWholePv is true, any change to a PV's archive metadata
+     * discards everything cached for the PV, otherwise a change that only appends data discards just the segments
+     * that may be missing the appended data.
+     */
+    public QueryResultCache(long maxBytes, boolean invalidateWholePv) {
+        this.maxBytes = maxBytes;
+        this.invalidateWholePv = invalidateWholePv;
+        logger.debug("created query result cache with budget: {} bytes, whole pv invalidation: {}",
+                maxBytes, invalidateWholePv);
+    }
+
+    /**
+     * Returns true if the configured cache invalidation mode discards everything cached for a PV on any change.
+     */
+    public static boolean isWholePvInvalidationConfigured() {
+        final String mode = configMgr().getConfigString(CFG_KEY_CACHE_INVALIDATION, DEFAULT_CACHE_INVALIDATION);
+        return CACHE_INVALIDATION_ALL.equalsIgnoreCase((mode == null) ? "" : mode.trim());
+    }
+
+    private static ConfigurationManager configMgr() {
+        return ConfigurationManager.getInstance();
+    }
+
+    public synchronized void setDiskCache(DiskQueryCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    /**
+     * Records the current archive metadata for the specified PV, discarding the PV's in-memory segments that it shows
+     * may be stale.  If data has only been appended since the metadata recorded by an earlier query in this session,
+     * just the segments ending after the previous last data time are discarded.  Any other change, or any change at
+     * all when whole PV invalidation is configured, discards all of the PV's segments.  Data backfilled before the
+     * previous last data time together with an append is not detected, which is what whole PV invalidation is for.
+     * The disk cache applies the same rules to persisted segments.
+     */
+    public void validate(String pvName, DiskQueryCache.ArchiveFingerprint fingerprint) {
+        final DiskQueryCache disk;
+        synchronized (this) {
+            final DiskQueryCache.ArchiveFingerprint previous = pvFingerprints.put(pvName, fingerprint);
+            final TreeMap<Long, CachedPvSegment> pvSegments = segmentsByPv.get(pvName);
+            if ((previous == null || !previous.matches(fingerprint)) && pvSegments != null) {
+                // segments put without a recorded fingerprint cannot be checked, so they are all discarded
+                final boolean appended =
+                        previous != null && !invalidateWholePv && fingerprint.isAppendedSince(previous);
+                logger.debug("archive changed for pv: {}, discarding {} cached segments",
+                        pvName, appended ? "appended" : "all");
+                for (CachedPvSegment segment : new ArrayList<>(pvSegments.values())) {
+                    if (!appended || segment.getEndNanos() > previous.lastDataNanos) {
+                        removeSegment(pvSegments, segment);
+                    }
+                }
+                if (pvSegments.isEmpty()) {
+                    segmentsByPv.remove(pvName);
+                }
+            }
+            disk = diskCache;
+        }
+        if (disk != null) {
+            disk.validate(pvName, fingerprint);
+        }
+    }
+
+    /**
+     * Returns the sub-ranges of [beginNanos, endNanos) that are not cached for the specified PV, in time order.
+     * An empty list counts as a cache hit, anything else as a miss.
+     */
+    public List<TimeRange> findMissingRanges(String pvName, long beginNanos, long endNanos) {
+        return findMissingRanges(pvName, beginNanos, endNanos, null);
+    }
+
+    /**
+     * Returns the sub-ranges of [beginNanos, endNanos) that are not cached for the specified PV, adding the cached
+     * segments overlapping the range to cachedSegments if it is not null.  Holding the segments lets the caller
+     * assemble the range after fetching the missing sub-ranges even if the cache evicts them meanwhile.
+     *
+     * Gaps are filled from the disk cache without holding the cache's lock, so segment file reads do not hold up
+     * put() on the decoder and event capture threads.  Only the parts of the segments read from disk that are still
+     * missing from memory afterwards are added, so data put meanwhile is not replaced by older data from disk.
+     */
+    public List<TimeRange> findMissingRanges(
+            String pvName, long beginNanos, long endNanos, List<CachedPvSegment> cachedSegments
+    ) {
+        List<CachedPvSegment> cached = new ArrayList<>();
+        List<TimeRange> missingRanges;
+        final DiskQueryCache disk;
+        synchronized (this) {
+            missingRanges = findMissingInMemory(pvName, beginNanos, endNanos, cached);
+            disk = diskCache;
+        }
+
+        // fill gaps from the disk cache, if any
+        boolean loadedFromDisk = false;
+        if (!missingRanges.isEmpty() && disk != null) {
+            final List<CachedPvSegment> diskSegments = new ArrayList<>();
+            for (TimeRange range : missingRanges) {
+                diskSegments.addAll(disk.read(pvName, range.beginNanos, range.endNanos));
+            }
+            loadedFromDisk = !diskSegments.isEmpty();
+            if (loadedFromDisk) {
+                synchronized (this) {
+                    for (CachedPvSegment segment : diskSegments) {
+                        final List<TimeRange> stillMissing = findMissingInMemory(
+                                pvName, segment.getBeginNanos(), segment.getEndNanos(), new ArrayList<>());
+                        for (TimeRange range : stillMissing) {
+                            putInMemory(segment.slice(range.beginNanos, range.endNanos));
+                        }
+                    }
+                    cached = new ArrayList<>();
+                    missingRanges = findMissingInMemory(pvName, beginNanos, endNanos, cached);
+                }
+            }
+        }
+
+        synchronized (this) {
+            if (missingRanges.isEmpty()) {
+                hitCount++;
+                if (loadedFromDisk) {
+                    diskHitCount++;
+                }
+            } else {
+                missCount++;
+            }
+        }
+        if (cachedSegments != null) {
+            cachedSegments.addAll(cached);
+        }
+        return missingRanges;
+    }
+
+    private List<TimeRange> findMissingInMemory(
+            String pvName, long beginNanos, long endNanos, List<CachedPvSegment> cachedSegments
+    ) {
+        final List<TimeRange> missingRanges = new ArrayList<>();
+        long cursor = beginNanos;
+        for (CachedPvSegment segment : overlappingSegments(pvName, beginNanos, endNanos, false)) {
+            lruSegments.get(segment); // touch for LRU ordering
+            cachedSegments.add(segment);
+            if (segment.getBeginNanos() > cursor) {
+                missingRanges.add(new TimeRange(cursor, segment.getBeginNanos()));
+            }
+            cursor = Math.max(cursor, segment.getEndNanos());
+        }
+        if (cursor < endNanos) {
+            missingRanges.add(new TimeRange(cursor, endNanos));
+        }
+        return missingRanges;
+    }
+
+    /**
+     * Adds the data for each of the specified PVs contained in a chunk fetched for [beginNanos, endNanos).
+     * PVs with no column in the chunk are recorded as having no samples in the range.
+     */
+    public void put(List<String> pvNames, long beginNanos, long endNanos, QueryResultChunk chunk) {
+        for (String pvName : pvNames) {
+            put(CachedPvSegment.fromChunk(chunk, pvName, beginNanos, endNanos));
+        }
+    }
+
+    /**
+     * Adds a segment fetched from the archive, writing it through to the disk cache if there is one.  The segment is
+     * not cached if its PV has not been validated against the archive in this session, since there would be no
+     * fingerprint to check it against when the archive changes.
+     */
+    public synchronized void put(CachedPvSegment segment) {
+        if (!pvFingerprints.containsKey(segment.getPvName())) {
+            logger.trace("not caching segment for unvalidated pv: {}", segment.getPvName());
+            return;
+        }
+        putInMemory(segment);
+        if (diskCache != null) {
+            diskCache.writeAsync(segment);
+        }
+    }
+
+    private void putInMemory(CachedPvSegment segment) {
+        if (segment.getEndNanos() <= segment.getBeginNanos()) {
+            return;
+        }
+        final TreeMap<Long, CachedPvSegment> pvSegments =
+                segmentsByPv.computeIfAbsent(segment.getPvName(), k -> new TreeMap<>());
+
+        // trim the segments the new one overlaps, keeping their samples outside its range
+        for (CachedPvSegment existing :
+                overlappingSegments(segment.getPvName(), segment.getBeginNanos(), segment.getEndNanos(), false)) {
+            removeSegment(pvSegments, existing);
+            if (existing.getBeginNanos() < segment.getBeginNanos()) {
+                addSegment(pvSegments, existing.slice(existing.getBeginNanos(), segment.getBeginNanos()));
+            }
+            if (existing.getEndNanos() > segment.getEndNanos()) {
+                addSegment(pvSegments, existing.slice(segment.getEndNanos(), existing.getEndNanos()));
+            }
+        }
+
+        for (CachedPvSegment piece : segment.split(MAX_SEGMENT_SAMPLES)) {
+            addSegment(pvSegments, piece);
+        }
+        evict();
+    }
+
+    /**
+     * Builds a table chunk for the specified PVs over [beginNanos, endNanos) from segments obtained from
+     * findMissingRanges() and fetched for the missing sub-ranges, joining the PV samples by timestamp.  The segments
+     * for each PV must not overlap and must together cover the range.
+     */
+    public static QueryResultChunk assemble(
+            List<String> pvNames, long beginNanos, long endNanos, Map<String, List<CachedPvSegment>> segmentsByPv
+    ) {
+        final int pvCount = pvNames.size();
+        final List<List<CachedPvSegment>> pvSegments = new ArrayList<>(pvCount);
+        for (String pvName : pvNames) {
+            final List<CachedPvSegment> segments = new ArrayList<>();
+            for (CachedPvSegment segment : segmentsByPv.getOrDefault(pvName, List.of())) {
+                if (segment.getEndNanos() > beginNanos && segment.getBeginNanos() < endNanos) {
+                    segments.add(segment);
+                }
+            }
+            segments.sort(Comparator.comparingLong(CachedPvSegment::getBeginNanos));
+            long cursor = beginNanos;
+            for (CachedPvSegment segment : segments) {
+                if (segment.getBeginNanos() > cursor) {
+                    break;
+                }
+                cursor = Math.max(cursor, segment.getEndNanos());
+            }
+            if (cursor < endNanos) {
+                throw new IllegalArgumentException("segments for pv: " + pvName + " do not cover "
+                        + new TimeRange(beginNanos, endNanos));
+            }
+            pvSegments.add(segments);
+        }
+
+        // first pass counts distinct timestamps across the PVs, second pass fills the chunk
+        final int rowCount = joinRows(createCursors(pvSegments, beginNanos, endNanos), null);
+        final QueryResultChunk chunk = new QueryResultChunk(pvNames, rowCount);
+        joinRows(createCursors(pvSegments, beginNanos, endNanos), chunk);
+        return chunk;
+    }
+
+    /**
+     * Iterates over the samples of a PV's consecutive segments that lie within [beginNanos, endNanos).
+     */
+    private static class SegmentCursor {
+
+        private final List<CachedPvSegment> segments;
+        private final long endNanos;
+        private int segmentIndex = 0;
+        private int position;
+
+        private SegmentCursor(List<CachedPvSegment> segments, long beginNanos, long endNanos) {
+            this.segments = segments;
+            this.endNanos = endNanos;
+            this.position = segments.isEmpty() ? 0 : segments.get(0).lowerBound(beginNanos);
+            skipExhausted();
+        }
+
+        private boolean hasSample() {
+            return segmentIndex < segments.size();
+        }
+
+        private CachedPvSegment segment() {
+            return segments.get(segmentIndex);
+        }
+
+        private long timestamp() {
+            return segment().getTimestampNanos(position);
+        }
+
+        private void advance() {
+            position++;
+            skipExhausted();
+        }
+
+        private void skipExhausted() {
+            while (segmentIndex < segments.size()) {
+                final CachedPvSegment segment = segments.get(segmentIndex);
+                if (position < segment.size() && segment.getTimestampNanos(position) < endNanos) {
+                    return;
+                }
+                segmentIndex++;
+                position = 0;
+            }
+        }
+    }
+
+    private static SegmentCursor[] createCursors(
+            List<List<CachedPvSegment>> pvSegments, long beginNanos, long endNanos
+    ) {
+        final SegmentCursor[] cursors = new SegmentCursor[pvSegments.size()];
+        for (int pvIndex = 0; pvIndex < cursors.length; pvIndex++) {
+            cursors[pvIndex] = new SegmentCursor(pvSegments.get(pvIndex), beginNanos, endNanos);
+        }
+        return cursors;
+    }
+
+    /**
+     * Merges the sample timestamps of the specified PV cursors into table rows, writing them to the chunk if it is
+     * not null.  Returns the number of rows.
+     */
+    private static int joinRows(SegmentCursor[] cursors, QueryResultChunk chunk) {
+        int row = 0;
+        while (true) {
+            long rowTimestamp = Long.MAX_VALUE;
+            for (SegmentCursor cursor : cursors) {
+                if (cursor.hasSample()) {
+                    rowTimestamp = Math.min(rowTimestamp, cursor.timestamp());
+                }
+            }
+            if (rowTimestamp == Long.MAX_VALUE) {
+                return row;
+            }
+
+            if (chunk != null) {
+                chunk.setTimestamp(row, rowTimestamp);
+            }
+            for (int pvIndex = 0; pvIndex < cursors.length; pvIndex++) {
+                final SegmentCursor cursor = cursors[pvIndex];
+                if (cursor.hasSample() && cursor.timestamp() == rowTimestamp) {
+                    if (chunk != null) {
+                        writeCell(cursor.segment(), cursor.position, pvIndex, row, chunk);
+                    }
+                    cursor.advance();
+                } else if (chunk != null) {
+                    chunk.setMissing(pvIndex, row);
+                }
+            }
+            row++;
+        }
+    }
+
+    private static void writeCell(CachedPvSegment segment, int position, int pvIndex, int row, QueryResultChunk chunk) {
+        final String text = segment.getText(position);
+        if (text != null) {
+            chunk.setText(pvIndex, row, text);
+        } else if (segment.isIntegral()) {
+            chunk.setLong(pvIndex, row, (long) segment.getValue(position));
+        } else {
+            chunk.setDouble(pvIndex, row, segment.getValue(position));
+        }
+    }
+
+    private List<CachedPvSegment> overlappingSegments(
+            String pvName, long beginNanos, long endNanos, boolean includeAdjacent
+    ) {
+        final List<CachedPvSegment> overlapping = new ArrayList<>();
+        final TreeMap<Long, CachedPvSegment> pvSegments = segmentsByPv.get(pvName);
+        if (pvSegments == null) {
+            return overlapping;
+        }
+
+        final Long floorKey = pvSegments.floorKey(beginNanos);
+        final NavigableMap<Long, CachedPvSegment> candidates =
+                pvSegments.subMap((floorKey == null) ? beginNanos : floorKey, true, endNanos, includeAdjacent);
+        for (CachedPvSegment segment : candidates.values()) {
+            final boolean overlaps = includeAdjacent
+                    ? segment.getEndNanos() >= beginNanos
+                    : segment.getEndNanos() > beginNanos;
+            if (overlaps) {
+                overlapping.add(segment);
+            }
+        }
+        return overlapping;
+    }
+
+    private void addSegment(TreeMap<Long, CachedPvSegment> pvSegments, CachedPvSegment segment) {
+        pvSegments.put(segment.getBeginNanos(), segment);
+        lruSegments.put(segment, Boolean.TRUE);
+        totalBytes += segment.estimatedBytes();
+    }
+
+    private void removeSegment(TreeMap<Long, CachedPvSegment> pvSegments, CachedPvSegment segment) {
+        pvSegments.remove(segment.getBeginNanos());
+        lruSegments.remove(segment);
+        totalBytes -= segment.estimatedBytes();
+    }
+
+    private void evict() {
+        final Iterator<CachedPvSegment> iterator = lruSegments.keySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            final CachedPvSegment eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.estimatedBytes();
+            evictionCount++;
+
+            final TreeMap<Long, CachedPvSegment> pvSegments = segmentsByPv.get(eldest.getPvName());
+            pvSegments.remove(eldest.getBeginNanos());
+            if (pvSegments.isEmpty()) {
+                segmentsByPv.remove(eldest.getPvName());
+            }
+            logger.trace("evicted cache segment: {}", eldest);
+        }
+    }
+
+    public synchronized void clear() {
+        segmentsByPv.clear();
+        lruSegments.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getDiskHitCount() {
+        return diskHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Returns a short summary of cache usage for display in the status bar.
+     */
+    public synchronized String getStatusSummary() {
+        return String.format("Cache: %d hit(s) (%d from disk), %d miss(es), %.1f MB",
+                hitCount, diskHitCount, missCount, totalBytes / (1024.0 * 1024.0));
+    }
+}
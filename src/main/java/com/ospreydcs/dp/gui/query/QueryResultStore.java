@@ -0,0 +1,49 @@
+package com.ospreydcs.dp.gui.query;
+
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the decoded chunks for a single Data Explorer query in time order.
+ * Chunks are appended by the query thread in interval order, regardless of the order in which their decoding
+ * completes, and may be read from the JavaFX thread while the query is still running.
+ */
+public class QueryResultStore {
+
+    private final List<QueryResultChunk> chunks = new ArrayList<>();
+    private List<String> columnNames = null;
+    private int rowCount = 0;
+
+    public synchronized void append(QueryResultChunk chunk) {
+        if (columnNames == null) {
+            columnNames = chunk.getColumnNames();
+        }
+        chunks.add(chunk);
+        rowCount += chunk.getRowCount();
+    }
+
+    public synchronized void clear() {
+        chunks.clear();
+        columnNames = null;
+        rowCount = 0;
+    }
+
+    public synchronized List<QueryResultChunk> getChunks() {
+        return Collections.unmodifiableList(new ArrayList<>(chunks));
+    }
+
+    public synchronized List<String> getColumnNames() {
+        return (columnNames == null) ? Collections.emptyList() : columnNames;
+    }
+
+    public synchronized int getRowCount() {
+        return rowCount;
+    }
+
+    public synchronized boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+}
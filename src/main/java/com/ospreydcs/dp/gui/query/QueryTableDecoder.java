@@ -0,0 +1,200 @@
+package com.ospreydcs.dp.gui.query;
+
+import com.ospreydcs.dp.grpc.v1.common.DataColumn;
+import com.ospreydcs.dp.grpc.v1.common.DataTimestamps;
+import com.ospreydcs.dp.grpc.v1.common.DataValue;
+import com.ospreydcs.dp.grpc.v1.common.Timestamp;
+import com.ospreydcs.dp.grpc.v1.query.QueryTableResponse;
+import com.ospreydcs.dp.gui.model.QueryResultChunk;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes QueryTableResponse table results into QueryResultChunk primitive columns.
+ * Column positions are resolved once per response, and cell values are written directly into the chunk's
+ * preallocated arrays without creating per-row collections or boxed values.  Both the column-oriented table
+ * format (decoded column by column in bulk) and the row map table format are supported.
+ */
+public class QueryTableDecoder {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    private QueryTableDecoder() {
+    }
+
+    /**
+     * Decodes the table contained in the specified response, returning null if the response contains no table.
+     */
+    public static QueryResultChunk decode(QueryTableResponse.TableResult tableResult) {
+        if (tableResult.hasColumnTable()) {
+            return decodeColumnTable(tableResult.getColumnTable());
+        } else if (tableResult.hasRowMapTable()) {
+            return decodeRowMapTable(tableResult.getRowMapTable());
+        }
+        logger.warn("QueryTableResponse table result contains neither column nor row map table");
+        return null;
+    }
+
+    /**
+     * Allocates an empty chunk sized for the table contained in the specified result, without decoding any values.
+     * Returns null if the result contains no table.  Used with decodeRange() to decode row ranges independently.
+     */
+    public static QueryResultChunk allocate(QueryTableResponse.TableResult tableResult) {
+        if (tableResult.hasColumnTable()) {
+            final QueryTableResponse.ColumnTable columnTable = tableResult.getColumnTable();
+            final List<String> pvNames = new ArrayList<>(columnTable.getDataColumnsCount());
+            for (DataColumn dataColumn : columnTable.getDataColumnsList()) {
+                pvNames.add(dataColumn.getName());
+            }
+            return new QueryResultChunk(pvNames, timestampCount(columnTable.getDataTimestamps()));
+        } else if (tableResult.hasRowMapTable()) {
+            final QueryTableResponse.RowMapTable rowMapTable = tableResult.getRowMapTable();
+            return new QueryResultChunk(rowMapPvNames(rowMapTable), rowMapTable.getRowsCount());
+        }
+        return null;
+    }
+
+    /**
+     * Decodes rows in the range [fromRow, toRow) of the specified table into a chunk created by allocate().
+     */
+    public static void decodeRange(
+            QueryTableResponse.TableResult tableResult, QueryResultChunk chunk, int fromRow, int toRow
+    ) {
+        if (tableResult.hasColumnTable()) {
+            final QueryTableResponse.ColumnTable columnTable = tableResult.getColumnTable();
+            decodeTimestamps(columnTable.getDataTimestamps(), chunk, fromRow, toRow);
+            for (int pvIndex = 0; pvIndex < columnTable.getDataColumnsCount(); pvIndex++) {
+                decodeColumn(columnTable.getDataColumns(pvIndex), pvIndex, chunk, fromRow, toRow);
+            }
+        } else if (tableResult.hasRowMapTable()) {
+            decodeRows(tableResult.getRowMapTable(), chunk, fromRow, toRow);
+        }
+    }
+
+    public static QueryResultChunk decodeColumnTable(QueryTableResponse.ColumnTable columnTable) {
+        final List<DataColumn> dataColumns = columnTable.getDataColumnsList();
+        final List<String> pvNames = new ArrayList<>(dataColumns.size());
+        for (DataColumn dataColumn : dataColumns) {
+            pvNames.add(dataColumn.getName());
+        }
+
+        final DataTimestamps dataTimestamps = columnTable.getDataTimestamps();
+        final int rowCount = timestampCount(dataTimestamps);
+        final QueryResultChunk chunk = new QueryResultChunk(pvNames, rowCount);
+        decodeTimestamps(dataTimestamps, chunk, 0, rowCount);
+
+        for (int pvIndex = 0; pvIndex < dataColumns.size(); pvIndex++) {
+            decodeColumn(dataColumns.get(pvIndex), pvIndex, chunk, 0, rowCount);
+        }
+
+        return chunk;
+    }
+
+    public static QueryResultChunk decodeRowMapTable(QueryTableResponse.RowMapTable rowMapTable) {
+        final int rowCount = rowMapTable.getRowsCount();
+        final QueryResultChunk chunk = new QueryResultChunk(rowMapPvNames(rowMapTable), rowCount);
+        decodeRows(rowMapTable, chunk, 0, rowCount);
+        return chunk;
+    }
+
+    private static List<String> rowMapPvNames(QueryTableResponse.RowMapTable rowMapTable) {
+        final List<String> pvNames = new ArrayList<>();
+        for (String columnName : rowMapTable.getColumnNamesList()) {
+            if (!columnName.equals(QueryResultChunk.TIMESTAMP_COLUMN)) {
+                pvNames.add(columnName);
+            }
+        }
+        return pvNames;
+    }
+
+    /**
+     * Returns the number of timestamps (and therefore table rows) described by the specified DataTimestamps.
+     */
+    static int timestampCount(DataTimestamps dataTimestamps) {
+        if (dataTimestamps.hasTimestampList()) {
+            return dataTimestamps.getTimestampList().getTimestampsCount();
+        } else if (dataTimestamps.hasSamplingClock()) {
+            return dataTimestamps.getSamplingClock().getCount();
+        }
+        return 0;
+    }
+
+    /**
+     * Decodes timestamps for rows in the range [fromRow, toRow) into the chunk.
+     */
+    static void decodeTimestamps(DataTimestamps dataTimestamps, QueryResultChunk chunk, int fromRow, int toRow) {
+        if (dataTimestamps.hasTimestampList()) {
+            final var timestampList = dataTimestamps.getTimestampList();
+            for (int row = fromRow; row < toRow; row++) {
+                final Timestamp timestamp = timestampList.getTimestamps(row);
+                chunk.setTimestamp(row, QueryResultChunk.toEpochNanos(timestamp.getEpochSeconds(), timestamp.getNanoseconds()));
+            }
+        } else if (dataTimestamps.hasSamplingClock()) {
+            final var samplingClock = dataTimestamps.getSamplingClock();
+            final long startNanos = QueryResultChunk.toEpochNanos(
+                    samplingClock.getStartTime().getEpochSeconds(), samplingClock.getStartTime().getNanoseconds());
+            final long periodNanos = samplingClock.getPeriodNanos();
+            for (int row = fromRow; row < toRow; row++) {
+                chunk.setTimestamp(row, startNanos + row * periodNanos);
+            }
+        }
+    }
+
+    /**
+     * Decodes values for rows in the range [fromRow, toRow) of a single column-table column into the chunk.
+     */
+    static void decodeColumn(DataColumn dataColumn, int pvIndex, QueryResultChunk chunk, int fromRow, int toRow) {
+        final int valueCount = dataColumn.getDataValuesCount();
+        for (int row = fromRow; row < toRow; row++) {
+            if (row < valueCount) {
+                decodeValue(dataColumn.getDataValues(row), pvIndex, row, chunk);
+            } else {
+                chunk.setMissing(pvIndex, row);
+            }
+        }
+    }
+
+    /**
+     * Decodes rows in the range [fromRow, toRow) of a row map table into the chunk.
+     */
+    static void decodeRows(QueryTableResponse.RowMapTable rowMapTable, QueryResultChunk chunk, int fromRow, int toRow) {
+        final List<String> pvNames = chunk.getPvNames();
+        final int pvCount = pvNames.size();
+        for (int row = fromRow; row < toRow; row++) {
+            final Map<String, DataValue> columnValues = rowMapTable.getRows(row).getColumnValuesMap();
+
+            final DataValue timestampValue = columnValues.get(QueryResultChunk.TIMESTAMP_COLUMN);
+            if (timestampValue != null && timestampValue.hasTimestampValue()) {
+                final Timestamp timestamp = timestampValue.getTimestampValue();
+                chunk.setTimestamp(row, QueryResultChunk.toEpochNanos(timestamp.getEpochSeconds(), timestamp.getNanoseconds()));
+            }
+
+            for (int pvIndex = 0; pvIndex < pvCount; pvIndex++) {
+                final DataValue value = columnValues.get(pvNames.get(pvIndex));
+                if (value == null) {
+                    chunk.setMissing(pvIndex, row);
+                } else {
+                    decodeValue(value, pvIndex, row, chunk);
+                }
+            }
+        }
+    }
+
+    private static void decodeValue(DataValue value, int pvIndex, int row, QueryResultChunk chunk) {
+        switch (value.getValueCase()) {
+            case DOUBLEVALUE -> chunk.setDouble(pvIndex, row, value.getDoubleValue());
+            case FLOATVALUE -> chunk.setDouble(pvIndex, row, value.getFloatValue());
+            case INTVALUE -> chunk.setLong(pvIndex, row, value.getIntValue());
+            case UINTVALUE -> chunk.setLong(pvIndex, row, Integer.toUnsignedLong(value.getUintValue()));
+            case LONGVALUE -> chunk.setLong(pvIndex, row, value.getLongValue());
+            case ULONGVALUE -> chunk.setLong(pvIndex, row, value.getUlongValue());
+            case BOOLEANVALUE -> chunk.setLong(pvIndex, row, value.getBooleanValue() ? 1 : 0);
+            case STRINGVALUE -> chunk.setText(pvIndex, row, value.getStringValue());
+            default -> chunk.setMissing(pvIndex, row);
+        }
+    }
+}
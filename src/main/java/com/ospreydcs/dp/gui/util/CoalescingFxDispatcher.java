@@ -0,0 +1,125 @@
+package com.ospreydcs.dp.gui.util;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Collects batches of items submitted from background threads and publishes them to a consumer on the JavaFX
+ * Application Thread at most once per pulse, or at most once per configured interval.  All batches pending at
+ * publish time are concatenated into a single list, so a consumer such as ObservableList.addAll() fires one change
+ * event per publish regardless of how many batches were submitted.
+ *
+ * start(), stop() and flush() must be called on the JavaFX Application Thread; submit() may be called from any thread.
+ * An optional latency listener receives, for each publish, the time from the oldest batch being submitted until the
+ * consumer returned.
+ */
+public class CoalescingFxDispatcher<T> {
+
+    private final ConcurrentLinkedQueue<List<T>> pendingBatches = new ConcurrentLinkedQueue<>();
+    private final Consumer<List<T>> consumer;
+    private final LongConsumer latencyListener;
+    private final AtomicLong oldestPendingNanos = new AtomicLong(0);
+    private final long minPublishIntervalNanos;
+    private final AnimationTimer timer;
+    private long lastPublishNanos = 0;
+    private int publishCount = 0;
+
+    /**
+     * Creates a dispatcher publishing to the specified consumer, at most once every minPublishIntervalMillis, or once
+     * per pulse if zero.
+     */
+    public CoalescingFxDispatcher(Consumer<List<T>> consumer, long minPublishIntervalMillis) {
+        this(consumer, minPublishIntervalMillis, null);
+    }
+
+    /**
+     * Creates a dispatcher as above, reporting the latency of each publish in nanoseconds to latencyListener.
+     */
+    public CoalescingFxDispatcher(Consumer<List<T>> consumer, long minPublishIntervalMillis, LongConsumer latencyListener) {
+        this.consumer = consumer;
+        this.latencyListener = latencyListener;
+        this.minPublishIntervalNanos = Math.max(0, minPublishIntervalMillis) * 1_000_000L;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (!pendingBatches.isEmpty() && now - lastPublishNanos >= minPublishIntervalNanos) {
+                    lastPublishNanos = now;
+                    publishPending();
+                }
+            }
+        };
+    }
+
+    public void start() {
+        publishCount = 0;
+        timer.start();
+    }
+
+    /**
+     * Publishes anything still pending and stops the pulse timer.
+     */
+    public void stop() {
+        flush();
+        timer.stop();
+    }
+
+    /**
+     * Discards pending batches without publishing them and stops the pulse timer.
+     */
+    public void discard() {
+        pendingBatches.clear();
+        oldestPendingNanos.set(0);
+        timer.stop();
+    }
+
+    public void submit(List<T> batch) {
+        if (!batch.isEmpty()) {
+            oldestPendingNanos.compareAndSet(0, System.nanoTime());
+            pendingBatches.add(batch);
+        }
+    }
+
+    /**
+     * Publishes all pending batches immediately.
+     */
+    public void flush() {
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("flush() must be called on the JavaFX Application Thread");
+        }
+        publishPending();
+    }
+
+    private void publishPending() {
+        final long submittedNanos = oldestPendingNanos.getAndSet(0);
+        List<T> batch = pendingBatches.poll();
+        if (batch == null) {
+            return;
+        }
+        if (!pendingBatches.isEmpty()) {
+            final List<T> combined = new ArrayList<>(batch);
+            while ((batch = pendingBatches.poll()) != null) {
+                combined.addAll(batch);
+            }
+            batch = combined;
+        }
+        publishCount++;
+        consumer.accept(batch);
+        if (latencyListener != null && submittedNanos != 0) {
+            latencyListener.accept(System.nanoTime() - submittedNanos);
+        }
+    }
+
+    /**
+     * Returns the number of publishes since the dispatcher was last started.
+     */
+    public int getPublishCount() {
+        return publishCount;
+    }
+}